@@ -5,10 +5,12 @@ import microtrafficsim.core.map.features.Polygon;
 import microtrafficsim.core.parser.features.MapFeatureDefinition;
 import microtrafficsim.core.parser.features.MapFeatureGenerator;
 import microtrafficsim.core.parser.features.polygons.PolygonFeatureGenerator;
+import microtrafficsim.core.vis.map.tiles.mesh.PolygonMeshGenerator;
 import microtrafficsim.core.vis.mesh.style.Style;
 import microtrafficsim.core.vis.opengl.shader.resources.ShaderProgramSource;
 import microtrafficsim.core.vis.opengl.utils.Color;
 import microtrafficsim.osm.parser.features.FeatureDependency;
+import microtrafficsim.osm.parser.features.TagPredicate;
 import microtrafficsim.osm.primitives.Way;
 import microtrafficsim.utils.resources.PackagedResource;
 import microtrafficsim.utils.resources.Resource;
@@ -37,9 +39,9 @@ class DarkMonochromeStyleSheet extends microtrafficsim.core.map.style.impl.DarkM
 
         ShaderProgramSource shader = getPolygonShader();
 
-        layers.add(genLayer("ply:water",     layers.size(),  0, 19, "water",     genPolygonStyle(shader, Color.fromRGBA(0x2D4747A0))));
-        layers.add(genLayer("ply:landuse",   layers.size(), 12, 19, "landuse",   genPolygonStyle(shader, Color.fromRGB(0x1D1D1D))));
-        layers.add(genLayer("ply:buildings", layers.size(), 12, 19, "buildings", genPolygonStyle(shader, Color.fromRGB(0x382629))));
+        layers.add(genLayer("ply:water",     layers.size(),  0, 19, "water",     genPolygonStyle(shader, Color.fromRGBA(0x2D4747A0), PolygonMeshGenerator.TriangulationMethod.SWEEP_LINE)));
+        layers.add(genLayer("ply:landuse",   layers.size(), 12, 19, "landuse",   genPolygonStyle(shader, Color.fromRGB(0x1D1D1D), PolygonMeshGenerator.TriangulationMethod.EAR_CLIPPING)));
+        layers.add(genLayer("ply:buildings", layers.size(), 12, 19, "buildings", genPolygonStyle(shader, Color.fromRGB(0x382629), PolygonMeshGenerator.TriangulationMethod.EAR_CLIPPING)));
 
         super.initialize();
     }
@@ -52,7 +54,7 @@ class DarkMonochromeStyleSheet extends microtrafficsim.core.map.style.impl.DarkM
         dependency.addBefore(DEPENDS_ON_UNIFICATION);
         dependency.addBefore(DEPENDS_ON_STREETGRAPH);
 
-        return new MapFeatureDefinition<>(name, dependency, generator, n -> false, predicate);
+        return new MapFeatureDefinition<>(name, dependency, generator, TagPredicate.none(), predicate);
     }
 
     /**
@@ -76,11 +78,14 @@ class DarkMonochromeStyleSheet extends microtrafficsim.core.map.style.impl.DarkM
      *
      * @param shader    the shader to be used in the generated style.
      * @param color     the color to be used in generated style.
+     * @param method    the method used to triangulate the polygons.
      * @return the generated style.
      */
-    private Style genPolygonStyle(ShaderProgramSource shader, Color color) {
+    private Style genPolygonStyle(ShaderProgramSource shader, Color color,
+                                  PolygonMeshGenerator.TriangulationMethod method) {
         Style style = new Style(shader);
         style.setUniformSupplier("u_color", color::toVec4f);
+        style.setProperty("triangulator", method);
         return style;
     }
 }
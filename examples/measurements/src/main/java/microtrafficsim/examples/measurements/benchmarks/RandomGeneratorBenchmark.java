@@ -0,0 +1,126 @@
+package microtrafficsim.examples.measurements.benchmarks;
+
+import microtrafficsim.core.convenience.parser.DefaultParserConfig;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.map.MapProperties;
+import microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.impl.AreaScenario;
+import microtrafficsim.core.simulation.scenarios.impl.RandomRouteScenario;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>
+ * JMH benchmarks comparing the types of {@link StatefulRandomGenerator}: {@link #nextFloat(GeneratorState)} measures
+ * a single draw, {@link #steps(SimulationState)} measures {@value STEPS_PER_ITERATION} steps of a simulation whose
+ * drivers and nodes use the generator type. Every iteration of the step benchmark starts with a new simulation, so
+ * the vehicles have not despawned yet. The seed is fixed, so every run simulates the same scenario per generator
+ * type.
+ *
+ * <p>
+ * Run it via {@code gradle benchmarkRandom}; JMH's arguments are passed via {@code -Dexec.args="..."}, e.g.
+ * {@code -Dexec.args="-p osmFile=map.osm -p vehicles=20000 -p threads=8"}. The default map is the small test map of
+ * the core project.
+ *
+ * <p>
+ * {@code nextFloat} has taken about 1.75 ns for {@link StatefulRandomGenerator.Type#JAVA JAVA} and about 2.2 ns for
+ * {@link StatefulRandomGenerator.Type#SPLIT_MIX SPLIT_MIX}, so {@code SPLIT_MIX} is not chosen for speed.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class RandomGeneratorBenchmark {
+
+    private static final long SEED                = 42;
+    private static final int  STEPS_PER_ITERATION = 50;
+
+
+    @State(Scope.Thread)
+    public static class GeneratorState {
+        @Param({"JAVA", "SPLIT_MIX"})
+        public StatefulRandomGenerator.Type type;
+
+        private StatefulRandomGenerator random;
+
+        @Setup
+        public void setup() {
+            random = type.create(SEED);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SimulationState {
+        @Param({"JAVA", "SPLIT_MIX"})
+        public StatefulRandomGenerator.Type type;
+
+        @Param({"../../microtrafficsim-core/src/test/resources/logic/3_edges_but_4-node.osm"})
+        public String osmFile;
+
+        @Param({"10000"})
+        public int vehicles;
+
+        @Param({"1"})
+        public int threads;
+
+        private VehicleSimulation simulation;
+
+        @Setup(Level.Iteration)
+        public void setup() throws Exception {
+            LoggingLevel.setEnabledGlobally(false, false, false, true, true);
+
+            SimulationConfig config = new SimulationConfig();
+            config.speedup                 = Integer.MAX_VALUE;
+            config.seed                    = SEED;
+            config.maxVehicleCount         = vehicles;
+            config.multiThreading.nThreads = threads;
+            config.randomGeneratorType     = type;
+
+            Graph graph = DefaultParserConfig.get(config).build()
+                    .parse(new File(osmFile), new MapProperties(config.crossingLogic.drivingOnTheRight)).streetgraph;
+
+            AreaScenario scenario = new RandomRouteScenario(config.seed, config, graph);
+            scenario.redefineMetaRoutes();
+            new VehicleScenarioBuilder(config.seed).prepare(scenario);
+
+            simulation = new VehicleSimulation();
+            simulation.setAndInitPreparedScenario(scenario);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            simulation.cancel();
+        }
+    }
+
+
+    /*
+    |============|
+    | benchmarks |
+    |============|
+    */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 10, time = 1)
+    @Fork(1)
+    public float nextFloat(GeneratorState state) {
+        return state.random.nextFloat();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = STEPS_PER_ITERATION)
+    @Measurement(iterations = 10, batchSize = STEPS_PER_ITERATION)
+    @Fork(value = 1, jvmArgs = {"-Xmx3g"})
+    public void steps(SimulationState state) {
+        state.simulation.runOneStep();
+    }
+}
@@ -0,0 +1,173 @@
+package microtrafficsim.examples.measurements.benchmarks;
+
+import microtrafficsim.core.map.Bounds;
+import microtrafficsim.core.vis.map.projections.MercatorProjection;
+import microtrafficsim.core.vis.map.projections.Projection;
+import microtrafficsim.math.Vec2d;
+import microtrafficsim.math.geometry.polygons.EarClippingTriangulator;
+import microtrafficsim.math.geometry.polygons.Polygon;
+import microtrafficsim.math.geometry.polygons.SweepLineTriangulator;
+import microtrafficsim.math.geometry.polygons.Triangulator;
+import microtrafficsim.osm.parser.base.ParserBase;
+import microtrafficsim.osm.parser.base.ParserBaseEventHandler;
+import microtrafficsim.osm.primitives.Node;
+import microtrafficsim.osm.primitives.Relation;
+import microtrafficsim.osm.primitives.Way;
+import microtrafficsim.utils.logging.LoggingLevel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+
+/**
+ * <p>
+ * Compares the {@link Triangulator}s used for polygon meshes, measured like a JMH benchmark in average-time mode: all
+ * closed ways of the given map (e.g. buildings and landuse) are projected and triangulated once per iteration, the
+ * mean time per iteration and its standard deviation over the measured iterations are printed. Polygons for which a
+ * triangulator fails are counted.
+ *
+ * <p>
+ * Arguments: {@code <osm-file>}, e.g. via
+ * {@code gradle benchmarkTriangulation -Dexec.args="../../microtrafficsim-core/src/test/resources/logic/3_edges_but_4-node.osm"}.
+ *
+ * @author Maximilian Luz
+ */
+public class TriangulatorBenchmark {
+
+    private static final int WARMUP_ITERATIONS   = 10;
+    private static final int MEASURED_ITERATIONS = 20;
+
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: TriangulatorBenchmark <osm-file>");
+            System.exit(1);
+        }
+        LoggingLevel.setEnabledGlobally(false, false, false, true, true);
+
+        ArrayList<Vec2d[]> polygons = loadPolygons(new File(args[0]), new MercatorProjection());
+
+        int vertices = 0;
+        for (Vec2d[] polygon : polygons)
+            vertices += polygon.length;
+        System.out.println("Polygons: " + polygons.size() + ", vertices: " + vertices);
+
+        System.out.println("Benchmark                     Threads  Mode  Cnt       Score      Error  Units");
+        benchmark("triangulate.SWEEP_LINE", new SweepLineTriangulator(), polygons);
+        benchmark("triangulate.EAR_CLIPPING", new EarClippingTriangulator(), polygons);
+    }
+
+
+    /*
+    |============|
+    | benchmarks |
+    |============|
+    */
+    private static void benchmark(String name, Triangulator triangulator, ArrayList<Vec2d[]> polygons) {
+        double[] scores = new double[MEASURED_ITERATIONS];
+        int failed    = 0;
+        int triangles = 0;
+
+        for (int iteration = -WARMUP_ITERATIONS; iteration < MEASURED_ITERATIONS; iteration++) {
+            failed    = 0;
+            triangles = 0;
+
+            long stamp = System.nanoTime();
+            for (Vec2d[] outline : polygons) {
+                Triangulator.Result result = triangulator.triangulate(new Polygon(outline.clone()).normalize());
+                if (result == null)
+                    failed++;
+                else
+                    triangles += result.indices.size() / 3;
+            }
+            long nanos = System.nanoTime() - stamp;
+
+            if (iteration >= 0)
+                scores[iteration] = nanos / 1e6;
+        }
+
+        print(name, 1, scores, "ms/op");
+        System.out.println("    triangles: " + triangles + ", failed: " + failed);
+    }
+
+
+    /*
+    |=======|
+    | setup |
+    |=======|
+    */
+    private static ArrayList<Vec2d[]> loadPolygons(File file, Projection projection) throws Exception {
+        HashMap<Long, Node> nodes = new HashMap<>();
+        ArrayList<Way>      ways  = new ArrayList<>();
+
+        try (InputStream in = new FileInputStream(file)) {
+            new ParserBase(new ParserBaseEventHandler() {
+                @Override
+                public void onStart() {}
+
+                @Override
+                public void onEnd() {}
+
+                @Override
+                public void onPrimitiveParsed(Bounds b) {}
+
+                @Override
+                public void onPrimitiveParsed(Node n) {
+                    nodes.put(n.id, n);
+                }
+
+                @Override
+                public void onPrimitiveParsed(Way w) {
+                    if (w.nodes.size() >= 4 && w.nodes.get(0).equals(w.nodes.get(w.nodes.size() - 1)))
+                        ways.add(w);
+                }
+
+                @Override
+                public void onPrimitiveParsed(Relation r) {}
+            }).parse(in);
+        }
+
+        ArrayList<Vec2d[]> polygons = new ArrayList<>();
+        for (Way way : ways) {
+            Vec2d[] outline = new Vec2d[way.nodes.size() - 1];
+            for (int i = 0; i < outline.length; i++) {
+                Node node = nodes.get(way.nodes.get(i));
+                if (node == null) {
+                    outline = null;
+                    break;
+                }
+                outline[i] = projection.project(node.lat, node.lon);
+            }
+
+            if (outline != null)
+                polygons.add(outline);
+        }
+
+        return polygons;
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    private static void print(String name, int threads, double[] scores, String unit) {
+        double mean = 0;
+        for (double score : scores)
+            mean += score;
+        mean /= scores.length;
+
+        double variance = 0;
+        for (double score : scores)
+            variance += (score - mean) * (score - mean);
+        double error = Math.sqrt(variance / (scores.length - 1));
+
+        System.out.println(String.format(Locale.US, "%-30s %7d  avgt  %3d  %10.3f +- %8.3f  %s",
+                name, threads, scores.length, mean, error, unit));
+    }
+}
@@ -12,6 +12,7 @@ import microtrafficsim.core.parser.features.streets.StreetFeatureGenerator;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
 import microtrafficsim.osm.parser.features.FeatureDependency;
 import microtrafficsim.osm.parser.features.FeatureGenerator;
+import microtrafficsim.osm.parser.features.TagPredicate;
 import microtrafficsim.osm.parser.features.streets.StreetComponent;
 import microtrafficsim.osm.parser.features.streets.StreetComponentFactory;
 import microtrafficsim.core.parser.processing.sanitizer.SanitizerWayComponent;
@@ -84,7 +85,7 @@ public class ParserExample {
     private static OSMParser createParser() {
 
         // predicates to match/select features
-        Predicate<Node> streetgraphNodeMatcher = (Node n) -> false;
+        Predicate<Node> streetgraphNodeMatcher = TagPredicate.none();
 
         Predicate<Way> streetgraphWayMatcher = (Way w) -> {
             if (!w.visible) return false;
@@ -8,20 +8,27 @@ import microtrafficsim.core.exfmt.ExchangeFormat;
 import microtrafficsim.core.exfmt.exceptions.NotAvailableException;
 import microtrafficsim.core.exfmt.extractor.map.QuadTreeTiledMapSegmentExtractor;
 import microtrafficsim.core.exfmt.extractor.simulation.RouteContainerExtractor;
+import microtrafficsim.core.exfmt.extractor.simulation.SimulationCheckpointExtractor;
 import microtrafficsim.core.exfmt.extractor.simulation.SimulationConfigExtractor;
 import microtrafficsim.core.exfmt.extractor.streetgraph.StreetGraphExtractor;
 import microtrafficsim.core.exfmt.injector.simulation.ProjectedAreasInjector;
 import microtrafficsim.core.exfmt.injector.simulation.RouteContainerInjector;
+import microtrafficsim.core.exfmt.injector.simulation.SimulationCheckpointInjector;
 import microtrafficsim.core.exfmt.injector.simulation.SimulationConfigInjector;
+import microtrafficsim.core.exfmt.region.RegionClipper;
 import microtrafficsim.core.logic.streetgraph.Graph;
 import microtrafficsim.core.logic.streetgraph.GraphGUID;
 import microtrafficsim.core.logic.streetgraph.StreetGraph;
 import microtrafficsim.core.map.*;
+import microtrafficsim.core.map.area.polygons.PolygonArea;
+import microtrafficsim.core.map.area.polygons.RectangleArea;
 import microtrafficsim.core.map.tiles.QuadTreeTiledMapSegment;
 import microtrafficsim.core.map.tiles.TilingScheme;
 import microtrafficsim.core.parser.OSMParser;
 import microtrafficsim.core.serialization.ExchangeFormatSerializer;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.Scenario;
 import microtrafficsim.core.simulation.utils.RouteContainer;
 import microtrafficsim.core.vis.map.projections.Projection;
 import microtrafficsim.utils.collections.Triple;
@@ -47,6 +54,11 @@ public class ExfmtStorage {
 
     private boolean mapLoadingHasBeenSet;
 
+    /* preprocessed osm files */
+    private MapCache         mapCache;
+    private SimulationConfig mapConfig;
+    private String           mapPreprocessing;
+
 
     public ExfmtStorage() {
         serializer = ExchangeFormatSerializer.create();
@@ -81,9 +93,32 @@ public class ExfmtStorage {
         exfmt.getConfig().set(QuadTreeTiledMapSegmentExtractor.Config.getDefault(tilingScheme, tileGridLevel));
         exfmt.getConfig().set(new StreetGraphExtractor.Config(config));
 
+        // everything influencing the parsed graph and tiled segment, which is not set when extracting them
+        mapConfig        = config;
+        mapPreprocessing = "exfmt=" + ExchangeFormatSerializer.VERSION
+                + ";style=" + config.visualization.style.getClass().getName()
+                + ";projection=" + tilingScheme.getProjection().getClass().getName()
+                + ";tileSize=" + tilingScheme.getTileSize()
+                + ";tileGridLevel=" + tileGridLevel;
+
         mapLoadingHasBeenSet = true;
     }
 
+    /**
+     * If a cache is set, parsed OSM files are stored in it and loaded from it instead of parsing them again. The
+     * entries are identified by the file's content and the values set in {@link #setupMapLoading(SimulationConfig,
+     * TilingScheme, int) setupMapLoading(...)}.
+     *
+     * @param mapCache null disables caching (default)
+     */
+    public void setMapCache(MapCache mapCache) {
+        this.mapCache = mapCache;
+    }
+
+    public MapCache getMapCache() {
+        return mapCache;
+    }
+
 
     /*
     |=====|
@@ -95,7 +130,8 @@ public class ExfmtStorage {
     }
 
     /**
-     * Loads the given file depending on its map type (OSM or MTSM)
+     * Loads the given file depending on its map type (OSM or MTSM). OSM files are loaded from the
+     * {@link #setMapCache(MapCache) map cache} if they have been parsed before with the same settings.
      *
      * @param priorityToTheRight Needed for visualization purpose; doesn't matter if no osm file
      */
@@ -105,19 +141,13 @@ public class ExfmtStorage {
 
         try {
             if (MTSFileChooser.Filters.MAP_OSM_XML.accept(file)) {
+                if (mapCache != null)
+                    return loadCachedOsmMap(file, priorityToTheRight);
+
                 OSMParser.Result result = parser.parse(file, new MapProperties(priorityToTheRight));
                 return new Tuple<>(result.streetgraph, result.segment);
             } else if (MTSFileChooser.Filters.MAP_EXFMT.accept(file)) {
-                ExchangeFormat.Manipulator manipulator = exfmt.manipulator(serializer.read(file));
-
-                MapProvider provider;
-                try {
-                    provider = manipulator.extract(QuadTreeTiledMapSegment.class);
-                } catch (NotAvailableException e) { // thrown when no TileGrid available
-                    provider = manipulator.extract(MapSegment.class);
-                }
-
-                return new Tuple<>(manipulator.extract(StreetGraph.class), provider);
+                return loadExfmtMap(file);
             }
         } catch (InterruptedException e) {
             throw e;
@@ -128,6 +158,76 @@ public class ExfmtStorage {
         return null;
     }
 
+    private Tuple<Graph, MapProvider> loadExfmtMap(File file) throws Exception {
+        ExchangeFormat.Manipulator manipulator = exfmt.manipulator(serializer.read(file));
+
+        MapProvider provider;
+        try {
+            provider = manipulator.extract(QuadTreeTiledMapSegment.class);
+        } catch (NotAvailableException e) { // thrown when no TileGrid available
+            provider = manipulator.extract(MapSegment.class);
+        }
+
+        return new Tuple<>(manipulator.extract(StreetGraph.class), provider);
+    }
+
+    private Tuple<Graph, MapProvider> loadCachedOsmMap(File file, boolean priorityToTheRight) throws Exception {
+        // the parser uses the current values of the config
+        String key = mapCache.createKey(file, mapPreprocessing
+                + ";metersPerCell=" + mapConfig.metersPerCell
+                + ";drivingOnTheRight=" + mapConfig.crossingLogic.drivingOnTheRight
+                + ";priorityToTheRight=" + priorityToTheRight);
+
+        File cached = mapCache.get(key);
+        if (cached != null) {
+            try {
+                Tuple<Graph, MapProvider> map = loadExfmtMap(cached);
+                logger.info("loaded '" + file.getName() + "' from cache");
+                return map;
+            } catch (Exception e) { // e.g. written by an incompatible version
+                logger.warn("removing unreadable cache entry for '" + file.getName() + "'", e);
+                mapCache.remove(key);
+            }
+        }
+
+        OSMParser.Result result = parser.parse(file, new MapProperties(priorityToTheRight));
+        try {
+            mapCache.put(key, entry -> saveMap(entry, result.streetgraph, result.segment));
+        } catch (IOException e) { // parsing has been successful anyway
+            logger.warn("could not cache '" + file.getName() + "'", e);
+        }
+        return new Tuple<>(result.streetgraph, result.segment);
+    }
+
+    /**
+     * Cuts the given region out of the given map in the exchange format (MTSM) and writes it as new, self-contained
+     * map. The map is not parsed again, its tile grid is used to select the features of the region. Graph edges are
+     * only kept if both of their nodes are inside the region.
+     *
+     * @param src    the map to cut the region out of
+     * @param dst    the file the map of the region is written to
+     * @param region e.g. a {@code TypedPolygonArea}
+     * @return true if the region has been written successfully
+     */
+    public boolean extractRegion(File src, File dst, PolygonArea region) throws IOException {
+        try {
+            Container container = new RegionClipper().clip(serializer.read(src), region);
+            serializer.write(dst, container);
+            return true;
+        } catch (NotAvailableException e) {
+            logger.error("'" + src.getName() + "' does not contain a map", e);
+            return false;
+        }
+    }
+
+    /**
+     * @see #extractRegion(File, File, PolygonArea)
+     */
+    public boolean extractRegion(File src, File dst, Bounds region) throws IOException {
+        return extractRegion(src, dst,
+                new RectangleArea(region.minlat, region.minlon, region.maxlat, region.maxlon));
+    }
+
     public boolean saveMap(File file, Tuple<Graph, MapProvider> tuple) throws IOException {
         return saveMap(file, tuple.obj0, tuple.obj1);
     }
@@ -264,6 +364,67 @@ public class ExfmtStorage {
     }
 
 
+    /*
+    |=============|
+    | checkpoints |
+    |=============|
+    */
+    /**
+     * Restores the checkpoint stored in the given file into the given scenario and sets it to the given simulation.
+     * The next step of the simulation continues the run the checkpoint has been taken from.
+     *
+     * @param simulation has to be paused
+     * @param scenario   its graph and config have to be equal to the ones the checkpoint has been taken from
+     * @return the given simulation; null if loading has failed
+     * @see SimulationCheckpointExtractor
+     */
+    public VehicleSimulation loadCheckpoint(File file, VehicleSimulation simulation, Scenario scenario) {
+        SimulationCheckpointExtractor.Config cfg = new SimulationCheckpointExtractor.Config();
+        cfg.set(simulation, scenario);
+        exfmt.getConfig().set(cfg);
+
+
+        /* prepare extractor */
+        ExchangeFormat.Manipulator manipulator = null;
+        try {
+            manipulator = exfmt.manipulator(serializer.read(file));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+
+        /* load checkpoint */
+        VehicleSimulation restored = null;
+        if (manipulator != null) {
+            try {
+                restored = manipulator.extract(VehicleSimulation.class);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        return restored;
+    }
+
+    /**
+     * Stores the current state of the given simulation's scenario, e.g. after a warm-up phase.
+     *
+     * @param simulation has to be paused
+     * @see SimulationCheckpointInjector
+     */
+    public boolean saveCheckpoint(File file, VehicleSimulation simulation) {
+        try {
+            serializer.write(file, exfmt.manipulator()
+                    .inject(VehicleSimulation.class, simulation)
+                    .getContainer());
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+
     /*
     |=======|
     | areas |
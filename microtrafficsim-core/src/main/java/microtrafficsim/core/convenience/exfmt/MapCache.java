@@ -0,0 +1,205 @@
+package microtrafficsim.core.convenience.exfmt;
+
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * <p>
+ * A directory of preprocessed maps in the exchange format, e.g. used by {@link ExfmtStorage} to load an OSM file
+ * without parsing it again. An entry is identified by a key, which is the SHA-256 digest of the original file and all
+ * values influencing its preprocessing (see {@link #createKey(File, String)}).
+ *
+ * <p>
+ * The cache is bounded by the total size of its files. After adding an entry, the least recently used entries are
+ * removed until the size is not exceeded anymore. Entries are written to a temporary file first and moved afterwards,
+ * so multiple processes can share one directory.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class MapCache {
+    private static final Logger logger = new EasyMarkableLogger(MapCache.class);
+
+    public static final String FILE_EXTENSION = ".mtsm";
+    /** 1 GiB */
+    public static final long DEFAULT_MAX_SIZE = 1L << 30;
+
+    private final File directory;
+    private final long maxSize;
+
+
+    /**
+     * @param directory is created if it does not exist
+     * @param maxSize   in bytes; has to be {@code > 0}
+     */
+    public MapCache(File directory, long maxSize) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("It must hold: maxSize > 0\n" +
+                    "Current: " + maxSize);
+
+        this.directory = directory;
+        this.maxSize   = maxSize;
+    }
+
+    /**
+     * @return {@code ~/.microtrafficsim/cache/maps}
+     */
+    public static File getDefaultDirectory() {
+        return new File(System.getProperty("user.home"),
+                ".microtrafficsim" + File.separator + "cache" + File.separator + "maps");
+    }
+
+
+    /*
+    |======|
+    | keys |
+    |======|
+    */
+    /**
+     * @param file           its content is hashed
+     * @param preprocessing  all values influencing the preprocessing of the given file, e.g. parser settings
+     * @return the hex-string of the SHA-256 digest of the given file's content and the given preprocessing values
+     */
+    public String createKey(File file, String preprocessing) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e); // every java platform has to support SHA-256
+        }
+
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = new FileInputStream(file)) {
+            int count;
+            while ((count = in.read(buffer)) != -1)
+                digest.update(buffer, 0, count);
+        }
+        digest.update(preprocessing.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest())
+            key.append(String.format("%02x", b));
+        return key.toString();
+    }
+
+
+    /*
+    |=========|
+    | entries |
+    |=========|
+    */
+    /**
+     * Marks the entry as recently used.
+     *
+     * @return the file of the entry with the given key; null if there is none
+     */
+    public synchronized File get(String key) {
+        File file = getFile(key);
+        if (!file.isFile())
+            return null;
+
+        if (!file.setLastModified(System.currentTimeMillis()))
+            logger.debug("could not mark cache entry " + key + " as used");
+        return file;
+    }
+
+    /**
+     * Adds an entry by writing it with the given writer and removes the least recently used entries afterwards if the
+     * cache is too large.
+     *
+     * @param writer has to write the entry into the given (temporary) file
+     * @return true if the entry has been added
+     */
+    public synchronized boolean put(String key, EntryWriter writer) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create the cache directory " + directory);
+
+        File tmp = File.createTempFile("entry", ".tmp", directory);
+        try {
+            if (!writer.write(tmp))
+                return false;
+            Files.move(tmp.toPath(), getFile(key).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+
+        evict();
+        return true;
+    }
+
+    /**
+     * Removes the entry with the given key, e.g. because it cannot be read.
+     */
+    public synchronized void remove(String key) {
+        File file = getFile(key);
+        if (file.exists() && !file.delete())
+            logger.warn("could not remove cache entry " + key);
+    }
+
+    /**
+     * Removes the least recently used entries until the total size does not exceed the max size.
+     */
+    private void evict() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+        if (entries == null)
+            return;
+
+        long size = 0;
+        for (File entry : entries)
+            size += entry.length();
+        if (size <= maxSize)
+            return;
+
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (File entry : entries) {
+            if (size <= maxSize)
+                break;
+
+            long length = entry.length();
+            if (entry.delete()) {
+                size -= length;
+                logger.debug("evicted cache entry " + entry.getName());
+            }
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + FILE_EXTENSION);
+    }
+
+
+    /*
+    |=========|
+    | getters |
+    |=========|
+    */
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+
+    /**
+     * Writes a new cache entry.
+     */
+    @FunctionalInterface
+    public interface EntryWriter {
+        /**
+         * @return true if the entry has been written successfully
+         */
+        boolean write(File file) throws IOException;
+    }
+}
@@ -9,6 +9,7 @@ import microtrafficsim.core.parser.processing.sanitizer.SanitizerWayComponentFac
 import microtrafficsim.core.simulation.configs.SimulationConfig;
 import microtrafficsim.osm.parser.features.FeatureDependency;
 import microtrafficsim.osm.parser.features.FeatureGenerator;
+import microtrafficsim.osm.parser.features.TagPredicate;
 import microtrafficsim.osm.parser.features.streets.StreetComponent;
 import microtrafficsim.osm.parser.features.streets.StreetComponentFactory;
 import microtrafficsim.osm.parser.relations.restriction.RestrictionRelationFactory;
@@ -73,8 +74,8 @@ public class DefaultParserConfig {
                     "streetgraph",
                     new FeatureDependency(OSMParser.PLACEHOLDER_UNIFICATION, null),
                     new StreetGraphGenerator(config),
-                    n -> false,
-                    streetgraphMatcher
+                    TagPredicate.none(),
+                    TagPredicate.withTag(streetgraphMatcher, "highway")
             );
 
             parser.setStreetGraphFeatureDefinition(streetgraph);
@@ -11,6 +11,7 @@ import microtrafficsim.core.exfmt.ecs.processors.TileGridProcessor;
 import microtrafficsim.core.exfmt.extractor.map.MapSegmentExtractor;
 import microtrafficsim.core.exfmt.extractor.map.QuadTreeTiledMapSegmentExtractor;
 import microtrafficsim.core.exfmt.extractor.simulation.RouteContainerExtractor;
+import microtrafficsim.core.exfmt.extractor.simulation.SimulationCheckpointExtractor;
 import microtrafficsim.core.exfmt.extractor.simulation.SimulationConfigExtractor;
 import microtrafficsim.core.exfmt.extractor.simulation.UnprojectedAreasExtractor;
 import microtrafficsim.core.exfmt.extractor.streetgraph.StreetGraphExtractor;
@@ -24,6 +25,7 @@ import microtrafficsim.core.exfmt.injector.map.features.primitives.PolygonInject
 import microtrafficsim.core.exfmt.injector.map.features.primitives.StreetInjector;
 import microtrafficsim.core.exfmt.injector.simulation.ProjectedAreasInjector;
 import microtrafficsim.core.exfmt.injector.simulation.RouteContainerInjector;
+import microtrafficsim.core.exfmt.injector.simulation.SimulationCheckpointInjector;
 import microtrafficsim.core.exfmt.injector.simulation.SimulationConfigInjector;
 import microtrafficsim.core.exfmt.injector.simulation.UnprojectedAreasInjector;
 import microtrafficsim.core.exfmt.injector.streetgraph.DirectedEdgeInjector;
@@ -41,6 +43,8 @@ import microtrafficsim.core.map.features.Street;
 import microtrafficsim.core.map.tiles.QuadTreeTiledMapSegment;
 import microtrafficsim.core.map.tiles.TileFeatureGrid;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.MonitoringVehicleSimulation;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
 import microtrafficsim.core.simulation.utils.RouteContainer;
 import microtrafficsim.core.simulation.utils.SortedRouteContainer;
 import microtrafficsim.utils.collections.Composite;
@@ -110,6 +114,10 @@ public class ExchangeFormat {
             format.injector(SortedRouteContainer.class, new RouteContainerInjector());
             format.extractor(RouteContainer.class, new RouteContainerExtractor());
 
+            format.injector(VehicleSimulation.class, new SimulationCheckpointInjector());
+            format.injector(MonitoringVehicleSimulation.class, new SimulationCheckpointInjector());
+            format.extractor(VehicleSimulation.class, new SimulationCheckpointExtractor());
+
             format.injector(ProjectedAreas.class, new ProjectedAreasInjector());
 //            format.extractor(ProjectedAreas.class, new ProjectedAreasExtractor());
             format.injector(UnprojectedAreas.class, new UnprojectedAreasInjector());
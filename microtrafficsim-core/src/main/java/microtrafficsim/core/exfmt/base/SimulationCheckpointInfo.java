@@ -0,0 +1,293 @@
+package microtrafficsim.core.exfmt.base;
+
+import microtrafficsim.core.entities.vehicle.VehicleEntity;
+import microtrafficsim.core.entities.vehicle.VisualizationVehicleEntity;
+import microtrafficsim.core.exfmt.Container;
+import microtrafficsim.core.exfmt.exceptions.ExchangeFormatException;
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.GraphGUID;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.driver.BasicDriver;
+import microtrafficsim.core.logic.vehicles.machines.BasicVehicle;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.builder.LogicVehicleFactory;
+import microtrafficsim.core.simulation.builder.impl.VisVehicleFactory;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * <p>
+ * Checkpoint of a running simulation: all vehicles (including their remaining routes, lanes and drivers' state) and
+ * the crossing state of all nodes. Restoring it into a scenario using the same graph continues bit-identically to
+ * the simulation the checkpoint has been taken from.
+ *
+ * <p>
+ * Only {@link BasicVehicle}s driven by {@link BasicDriver}s along {@link StackRoute}s are supported, which is the
+ * default after preparing a scenario.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class SimulationCheckpointInfo extends Container.Entry {
+    private GraphGUID graphGUID;
+    private int age;
+    private ArrayList<SparseVehicle> sparseVehicles = new ArrayList<>();
+    private ArrayList<SparseNode>    sparseNodes    = new ArrayList<>();
+
+
+    public SimulationCheckpointInfo() {}
+
+    public SimulationCheckpointInfo(GraphGUID graphGUID, int age) {
+        this.graphGUID = graphGUID;
+        this.age       = age;
+    }
+
+
+    public GraphGUID getGraphGUID() {
+        return graphGUID;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public int getVehicleCount() {
+        return sparseVehicles.size();
+    }
+
+
+    /*
+    |=========|
+    | storing |
+    |=========|
+    */
+    public void add(Vehicle vehicle) throws ExchangeFormatException {
+        if (!(vehicle instanceof BasicVehicle))
+            throw new ExchangeFormatException("Only instances of " + BasicVehicle.class.getSimpleName()
+                    + " can be stored in a checkpoint.");
+        if (!(vehicle.getDriver() instanceof BasicDriver))
+            throw new ExchangeFormatException("Only instances of " + BasicDriver.class.getSimpleName()
+                    + " can be stored in a checkpoint.");
+        if (!(vehicle.getDriver().getRoute() instanceof StackRoute))
+            throw new ExchangeFormatException("Only instances of " + StackRoute.class.getSimpleName()
+                    + " can be stored in a checkpoint.");
+
+        BasicDriver driver = (BasicDriver) vehicle.getDriver();
+        StackRoute  route  = (StackRoute) driver.getRoute();
+        BasicVehicle.Snapshot vehicleSnapshot = ((BasicVehicle) vehicle).snapshot();
+
+        SparseVehicle sparseVehicle = new SparseVehicle();
+        sparseVehicle.id    = vehicle.getId();
+        sparseVehicle.seed  = driver.getSeed();
+
+        /* route */
+        sparseVehicle.spawnDelay  = route.getSpawnDelay();
+        sparseVehicle.isMonitored = route.isMonitored();
+        for (DirectedEdge edge : route)
+            sparseVehicle.routeEdgeKeys.add(edge.key());
+
+        /* vehicle */
+        sparseVehicle.state = vehicleSnapshot.state;
+        if (vehicleSnapshot.lane != null) {
+            sparseVehicle.edgeKey   = vehicleSnapshot.lane.getEdge().key();
+            sparseVehicle.laneIndex = vehicleSnapshot.lane.getIndex();
+        }
+        sparseVehicle.cellPosition              = vehicleSnapshot.cellPosition;
+        sparseVehicle.velocity                  = vehicleSnapshot.velocity;
+        sparseVehicle.lastVelocityIsZero        = vehicleSnapshot.lastVelocityIsZero;
+        sparseVehicle.laneIsCorrect             = vehicleSnapshot.laneIsCorrect;
+        sparseVehicle.outermostTurningLaneIndex = vehicleSnapshot.outermostTurningLaneIndex;
+        sparseVehicle.laneChangeDirection       = vehicleSnapshot.laneChangeDirection;
+
+        /* driver */
+        sparseVehicle.driver = driver.snapshot();
+
+        sparseVehicles.add(sparseVehicle);
+    }
+
+    public void add(Node node) {
+        Node.Snapshot snapshot = node.snapshot();
+
+        SparseNode sparseNode = new SparseNode();
+        sparseNode.key                   = node.key();
+        sparseNode.randomState           = snapshot.randomState;
+        sparseNode.anyChangeSinceUpdate  = snapshot.anyChangeSinceUpdate;
+        sparseNode.registeredVehicles    = toIds(snapshot.registeredVehicles);
+        sparseNode.newRegisteredVehicles = toIds(snapshot.newRegisteredVehicles);
+        sparseNode.maxPrioVehicles       = toIds(snapshot.maxPrioVehicles);
+        sparseNode.assessedVehicles      = new long[snapshot.assessedVehicles.size()];
+        sparseNode.defeatedVehicles      = new long[snapshot.assessedVehicles.size()][];
+        int i = 0;
+        for (Map.Entry<Vehicle, ArrayList<Vehicle>> entry : snapshot.assessedVehicles.entrySet()) {
+            sparseNode.assessedVehicles[i] = entry.getKey().getId();
+            sparseNode.defeatedVehicles[i] = toIds(entry.getValue());
+            i++;
+        }
+
+        sparseNodes.add(sparseNode);
+    }
+
+    private static long[] toIds(ArrayList<Vehicle> vehicles) {
+        long[] ids = new long[vehicles.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = vehicles.get(i).getId();
+        return ids;
+    }
+
+
+    /*
+    |===========|
+    | restoring |
+    |===========|
+    */
+    /**
+     * Resets the given scenario and fills its vehicle container and graph with the stored state. Afterwards, the
+     * scenario is prepared.
+     *
+     * @param scenario            its graph has to be equal to the graph the checkpoint has been taken from
+     * @param logicVehicleFactory creates the vehicles; has to create {@link BasicVehicle}s with {@link BasicDriver}s
+     *                            like {@link LogicVehicleFactory#defaultCreation LogicVehicleFactory.defaultCreation}
+     * @param visVehicleFactory   creates the vehicles' visualization; may be null
+     */
+    public void restore(Scenario scenario,
+                        LogicVehicleFactory logicVehicleFactory,
+                        VisVehicleFactory visVehicleFactory) throws ExchangeFormatException {
+        Graph graph = scenario.getGraph();
+        Map<Node.Key, Node> nodeMap = graph.getNodeMap();
+        Map<DirectedEdge.Key, DirectedEdge> edgeMap = graph.getEdgeMap();
+
+        scenario.reset();
+
+
+        /* create vehicles */
+        HashMap<Long, Vehicle> vehicles = new HashMap<>();
+        for (SparseVehicle sparseVehicle : sparseVehicles) {
+            StackRoute route = new StackRoute(sparseVehicle.spawnDelay);
+            route.setMonitored(sparseVehicle.isMonitored);
+            for (DirectedEdge.Key key : sparseVehicle.routeEdgeKeys)
+                route.add(getEdge(edgeMap, key));
+
+            Vehicle vehicle = logicVehicleFactory.create(sparseVehicle.id, sparseVehicle.seed, scenario, route);
+            if (!(vehicle instanceof BasicVehicle && vehicle.getDriver() instanceof BasicDriver))
+                throw new ExchangeFormatException("The vehicle factory has to create instances of "
+                        + BasicVehicle.class.getSimpleName() + " driven by "
+                        + BasicDriver.class.getSimpleName() + ".");
+
+            VisualizationVehicleEntity visVehicle = null;
+            if (visVehicleFactory != null)
+                visVehicle = visVehicleFactory.create();
+            VehicleEntity entity = new VehicleEntity(vehicle, visVehicle);
+            vehicle.setEntity(entity);
+            if (visVehicle != null)
+                visVehicle.setEntity(entity);
+
+            scenario.getVehicleContainer().addVehicle(vehicle);
+            vehicles.put(vehicle.getId(), vehicle);
+        }
+
+
+        /* restore vehicles and drivers */
+        for (SparseVehicle sparseVehicle : sparseVehicles) {
+            BasicVehicle vehicle = (BasicVehicle) vehicles.get(sparseVehicle.id);
+            ((BasicDriver) vehicle.getDriver()).restore(sparseVehicle.driver);
+
+            BasicVehicle.Snapshot snapshot = new BasicVehicle.Snapshot();
+            snapshot.state = sparseVehicle.state;
+            if (sparseVehicle.edgeKey != null)
+                snapshot.lane = getEdge(edgeMap, sparseVehicle.edgeKey).getLane(sparseVehicle.laneIndex);
+            snapshot.cellPosition              = sparseVehicle.cellPosition;
+            snapshot.velocity                  = sparseVehicle.velocity;
+            snapshot.lastVelocityIsZero        = sparseVehicle.lastVelocityIsZero;
+            snapshot.laneIsCorrect             = sparseVehicle.laneIsCorrect;
+            snapshot.outermostTurningLaneIndex = sparseVehicle.outermostTurningLaneIndex;
+            snapshot.laneChangeDirection       = sparseVehicle.laneChangeDirection;
+            vehicle.restore(snapshot);
+        }
+
+
+        /* restore nodes */
+        for (SparseNode sparseNode : sparseNodes) {
+            Node node = nodeMap.get(sparseNode.key);
+            if (node == null)
+                throw new ExchangeFormatException("The checkpoint does not match the scenario's graph.");
+
+            Node.Snapshot snapshot = new Node.Snapshot();
+            snapshot.randomState          = sparseNode.randomState;
+            snapshot.anyChangeSinceUpdate = sparseNode.anyChangeSinceUpdate;
+            toVehicles(sparseNode.registeredVehicles, vehicles, snapshot.registeredVehicles);
+            toVehicles(sparseNode.newRegisteredVehicles, vehicles, snapshot.newRegisteredVehicles);
+            toVehicles(sparseNode.maxPrioVehicles, vehicles, snapshot.maxPrioVehicles);
+            for (int i = 0; i < sparseNode.assessedVehicles.length; i++) {
+                ArrayList<Vehicle> defeated = new ArrayList<>(sparseNode.defeatedVehicles[i].length);
+                toVehicles(sparseNode.defeatedVehicles[i], vehicles, defeated);
+                snapshot.assessedVehicles.put(getVehicle(vehicles, sparseNode.assessedVehicles[i]), defeated);
+            }
+            node.restore(snapshot);
+        }
+
+        scenario.setPrepared(true);
+    }
+
+    private static DirectedEdge getEdge(Map<DirectedEdge.Key, DirectedEdge> edgeMap, DirectedEdge.Key key)
+            throws ExchangeFormatException {
+        DirectedEdge edge = edgeMap.get(key);
+        if (edge == null)
+            throw new ExchangeFormatException("The checkpoint does not match the scenario's graph.");
+        return edge;
+    }
+
+    private static Vehicle getVehicle(HashMap<Long, Vehicle> vehicles, long id) throws ExchangeFormatException {
+        Vehicle vehicle = vehicles.get(id);
+        if (vehicle == null)
+            throw new ExchangeFormatException("The checkpoint refers to vehicle " + id + ", which is not stored.");
+        return vehicle;
+    }
+
+    private static void toVehicles(long[] ids, HashMap<Long, Vehicle> vehicles, ArrayList<Vehicle> dst)
+            throws ExchangeFormatException {
+        for (long id : ids)
+            dst.add(getVehicle(vehicles, id));
+    }
+
+
+    public static class SparseVehicle {
+        private long id;
+        private long seed;
+
+        /* route */
+        private int spawnDelay;
+        private boolean isMonitored;
+        private ArrayList<DirectedEdge.Key> routeEdgeKeys = new ArrayList<>();
+
+        /* vehicle */
+        private VehicleState state;
+        private DirectedEdge.Key edgeKey;
+        private int laneIndex;
+        private int cellPosition;
+        private int velocity;
+        private boolean lastVelocityIsZero;
+        private boolean laneIsCorrect;
+        private int outermostTurningLaneIndex;
+        private Vehicle.LaneChangeDirection laneChangeDirection;
+
+        /* driver */
+        private BasicDriver.Snapshot driver;
+    }
+
+    public static class SparseNode {
+        private Node.Key key;
+        private long randomState;
+        private boolean anyChangeSinceUpdate;
+        private long[] registeredVehicles;
+        private long[] newRegisteredVehicles;
+        private long[] maxPrioVehicles;
+        private long[] assessedVehicles;
+        private long[][] defeatedVehicles;
+    }
+}
@@ -1,23 +1,23 @@
 package microtrafficsim.core.exfmt.ecs.entities;
 
 import microtrafficsim.core.exfmt.ecs.Entity;
-import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 
 
 public class LineEntity extends Entity {
-    private Coordinate[] coordinates;
+    private PackedCoordinates coordinates;
 
 
-    public LineEntity(long id, Coordinate[] coordinates) {
+    public LineEntity(long id, PackedCoordinates coordinates) {
         super(id);
         this.coordinates = coordinates;
     }
 
-    public Coordinate[] getCoordinates() {
+    public PackedCoordinates getCoordinates() {
         return this.coordinates;
     }
 
-    public void setCoordinates(Coordinate[] coordinates) {
+    public void setCoordinates(PackedCoordinates coordinates) {
         this.coordinates = coordinates;
     }
 }
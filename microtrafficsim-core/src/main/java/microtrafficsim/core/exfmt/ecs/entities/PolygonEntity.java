@@ -1,23 +1,23 @@
 package microtrafficsim.core.exfmt.ecs.entities;
 
 import microtrafficsim.core.exfmt.ecs.Entity;
-import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 
 
 public class PolygonEntity extends Entity {
-    private Coordinate[] outline;
+    private PackedCoordinates outline;
 
 
-    public PolygonEntity(long id, Coordinate[] outline) {
+    public PolygonEntity(long id, PackedCoordinates outline) {
         super(id);
         this.outline = outline;
     }
 
-    public Coordinate[] getOutline() {
+    public PackedCoordinates getOutline() {
         return this.outline;
     }
 
-    public void setOutline(Coordinate[] outline) {
+    public void setOutline(PackedCoordinates outline) {
         this.outline = outline;
     }
 }
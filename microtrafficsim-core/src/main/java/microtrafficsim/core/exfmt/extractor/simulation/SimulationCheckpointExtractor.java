@@ -0,0 +1,77 @@
+package microtrafficsim.core.exfmt.extractor.simulation;
+
+import microtrafficsim.core.exfmt.Container;
+import microtrafficsim.core.exfmt.ExchangeFormat;
+import microtrafficsim.core.exfmt.base.SimulationCheckpointInfo;
+import microtrafficsim.core.exfmt.exceptions.ExchangeFormatException;
+import microtrafficsim.core.exfmt.exceptions.NotAvailableException;
+import microtrafficsim.core.logic.streetgraph.GraphGUID;
+import microtrafficsim.core.simulation.builder.LogicVehicleFactory;
+import microtrafficsim.core.simulation.builder.impl.VisVehicleFactory;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+
+/**
+ * @author Dominic Parga Cacheiro
+ */
+public class SimulationCheckpointExtractor implements ExchangeFormat.Extractor<VehicleSimulation> {
+
+    /**
+     * Restores the stored checkpoint into the scenario given by {@link Config} and sets this scenario to the
+     * configured simulation using {@link VehicleSimulation#setAndInitRestoredScenario(Scenario, int)}.
+     *
+     * @param fmt
+     * @param ctx unused
+     * @param src
+     * @return the configured simulation continuing the stored one
+     * @throws ExchangeFormatException if the config is missing or the checkpoint does not match the scenario's graph
+     */
+    @Override
+    public VehicleSimulation extract(ExchangeFormat fmt, ExchangeFormat.Context ctx, Container src)
+            throws ExchangeFormatException {
+        Config cfg = fmt.getConfig().get(Config.class);
+        if (cfg == null) throw new ExchangeFormatException(
+                "Config for " + getClass().getSimpleName() + " missing");
+        if (cfg.simulation == null || cfg.scenario == null) throw new ExchangeFormatException(
+                "Config for " + getClass().getSimpleName() + " needs a simulation and a scenario");
+
+        /* extract data */
+        SimulationCheckpointInfo info = src.get(SimulationCheckpointInfo.class);
+        if (info == null) throw new NotAvailableException(SimulationCheckpointInfo.class.getSimpleName() + " missing");
+
+        if (!GraphGUID.from(cfg.scenario.getGraph()).equals(info.getGraphGUID()))
+            throw new ExchangeFormatException("The checkpoint has been taken using another graph.");
+
+        info.restore(cfg.scenario, cfg.logicVehicleFactory, cfg.visVehicleFactory);
+        cfg.simulation.setAndInitRestoredScenario(cfg.scenario, info.getAge());
+        return cfg.simulation;
+    }
+
+
+    public static class Config extends microtrafficsim.core.exfmt.Config.Entry {
+        private VehicleSimulation   simulation;
+        private Scenario            scenario;
+        private LogicVehicleFactory logicVehicleFactory = LogicVehicleFactory::defaultCreation;
+        private VisVehicleFactory   visVehicleFactory   = () -> null;
+
+        /**
+         * @param simulation has to be paused; its current scenario is replaced
+         * @param scenario   is reset and filled with the stored state; its graph and config have to be equal to
+         *                   the ones the checkpoint has been taken from
+         */
+        public void set(VehicleSimulation simulation, Scenario scenario) {
+            this.simulation = simulation;
+            this.scenario   = scenario;
+        }
+
+        /**
+         * Defaults are {@link LogicVehicleFactory#defaultCreation} and no visualization, like in
+         * {@link microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder VehicleScenarioBuilder}.
+         */
+        public void setVehicleFactories(LogicVehicleFactory logicVehicleFactory,
+                                        VisVehicleFactory visVehicleFactory) {
+            this.logicVehicleFactory = logicVehicleFactory;
+            this.visVehicleFactory   = visVehicleFactory;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import microtrafficsim.core.map.features.Street;
 import microtrafficsim.core.simulation.configs.CrossingLogicConfig;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
 import microtrafficsim.math.Vec2d;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 
 import java.util.HashMap;
 
@@ -48,7 +49,7 @@ public class StreetGraphExtractor implements ExchangeFormat.Extractor<StreetGrap
         setUpConnectors(ecs, nodes, edges);
 
         // finish graph
-        graph.setSeed(cfg.seed);
+        graph.setSeed(cfg.seed, cfg.randomGeneratorType);
         for (Node node : graph.getNodes()) {
             node.updateCrossingIndices();
         }
@@ -219,6 +220,7 @@ public class StreetGraphExtractor implements ExchangeFormat.Extractor<StreetGrap
         public SimulationConfig.StreetPriorityFunction priorityFn;
         public CrossingLogicConfig crossingLogic;
         public long seed;
+        public StatefulRandomGenerator.Type randomGeneratorType;
 
         public Config(float metersPerCell,
                       SimulationConfig.StreetPriorityFunction priorityFn,
@@ -228,6 +230,7 @@ public class StreetGraphExtractor implements ExchangeFormat.Extractor<StreetGrap
             this.priorityFn = priorityFn;
             this.crossingLogic = crossingLogic;
             this.seed = seed;
+            this.randomGeneratorType = StatefulRandomGenerator.Type.JAVA;
         }
 
         public Config(SimulationConfig cfg) {
@@ -235,6 +238,7 @@ public class StreetGraphExtractor implements ExchangeFormat.Extractor<StreetGrap
             this.priorityFn = cfg.streetPriorityLevel;
             this.crossingLogic = cfg.crossingLogic;
             this.seed = cfg.seed;
+            this.randomGeneratorType = cfg.randomGeneratorType;
         }
     }
 }
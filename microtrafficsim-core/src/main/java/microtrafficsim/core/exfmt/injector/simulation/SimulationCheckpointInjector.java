@@ -0,0 +1,45 @@
+package microtrafficsim.core.exfmt.injector.simulation;
+
+import microtrafficsim.core.exfmt.Container;
+import microtrafficsim.core.exfmt.ExchangeFormat;
+import microtrafficsim.core.exfmt.base.SimulationCheckpointInfo;
+import microtrafficsim.core.exfmt.exceptions.ExchangeFormatException;
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.GraphGUID;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.core.Simulation;
+
+/**
+ * @author Dominic Parga Cacheiro
+ */
+public class SimulationCheckpointInjector implements ExchangeFormat.Injector<Simulation> {
+
+    /**
+     * Stores the current state of the given simulation's scenario (vehicles, lanes, drivers and nodes) into a
+     * {@link SimulationCheckpointInfo} and puts this into the given {@link Container dst}.
+     *
+     * @param fmt unused
+     * @param ctx unused
+     * @param dst The checkpoint is stored here.
+     * @param src Has to be paused, so the checkpoint is taken between two steps.
+     * @throws ExchangeFormatException if the simulation is running or has no scenario
+     */
+    @Override
+    public void inject(ExchangeFormat fmt, ExchangeFormat.Context ctx, Container dst, Simulation src)
+            throws ExchangeFormatException {
+        if (!src.isPaused())
+            throw new ExchangeFormatException("The simulation has to be paused for taking a checkpoint.");
+        if (src.getScenario() == null)
+            throw new ExchangeFormatException("The simulation has no scenario.");
+
+        Graph graph = src.getScenario().getGraph();
+        SimulationCheckpointInfo info = new SimulationCheckpointInfo(GraphGUID.from(graph), src.getAge());
+        for (Vehicle vehicle : src.getScenario().getVehicleContainer())
+            info.add(vehicle);
+        for (Node node : graph.getNodes())
+            info.add(node);
+
+        dst.set(info);
+    }
+}
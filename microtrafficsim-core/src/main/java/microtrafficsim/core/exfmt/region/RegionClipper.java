@@ -0,0 +1,256 @@
+package microtrafficsim.core.exfmt.region;
+
+import microtrafficsim.core.exfmt.Container;
+import microtrafficsim.core.exfmt.base.FeatureInfo;
+import microtrafficsim.core.exfmt.base.GeometryEntitySet;
+import microtrafficsim.core.exfmt.base.MapInfo;
+import microtrafficsim.core.exfmt.base.TileGridInfo;
+import microtrafficsim.core.exfmt.ecs.Entity;
+import microtrafficsim.core.exfmt.ecs.components.GraphEdgeComponent;
+import microtrafficsim.core.exfmt.ecs.components.GraphNodeComponent;
+import microtrafficsim.core.exfmt.ecs.components.TileGridComponent;
+import microtrafficsim.core.exfmt.ecs.entities.LineEntity;
+import microtrafficsim.core.exfmt.ecs.entities.PointEntity;
+import microtrafficsim.core.exfmt.ecs.entities.PolygonEntity;
+import microtrafficsim.core.exfmt.exceptions.NotAvailableException;
+import microtrafficsim.core.map.Bounds;
+import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
+import microtrafficsim.core.map.area.polygons.PolygonArea;
+import microtrafficsim.core.map.area.polygons.RectangleArea;
+import microtrafficsim.core.map.tiles.TileRect;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.util.*;
+
+
+/**
+ * Cuts a region out of a map stored in the exchange-format, i.e. out of a container holding a
+ * {@code GeometryEntitySet} and optionally its {@code FeatureInfo}, {@code TileGridInfo} and {@code MapInfo}. The
+ * result is a new, self-contained map, which can be extracted and serialized like a parsed one.
+ * <p>
+ * Entities are selected by their tiles if the map has been stored with a tile-grid, and by their geometry otherwise.
+ * Graph edges are only kept if both of their nodes lie inside the region, connectors of the kept nodes referring to
+ * dropped edges are removed.
+ * <p>
+ * The entities of the source container are moved into the result (and modified), thus the source container must not be
+ * used after clipping it.
+ *
+ * @author Maximilian Luz
+ */
+public class RegionClipper {
+    private static final Logger logger = new EasyMarkableLogger(RegionClipper.class);
+
+
+    /**
+     * Cuts the given bounds out of the given map.
+     *
+     * @param src    the container storing the map, consumed by this call.
+     * @param region the bounds of the region to cut out.
+     * @return a new container storing the map of the given region.
+     * @throws NotAvailableException if the given container does not contain a map.
+     */
+    public Container clip(Container src, Bounds region) throws NotAvailableException {
+        return clip(src, new RectangleArea(region.minlat, region.minlon, region.maxlat, region.maxlon));
+    }
+
+    /**
+     * Cuts the given area out of the given map.
+     *
+     * @param src    the container storing the map, consumed by this call.
+     * @param region the area to cut out, e.g. a {@code TypedPolygonArea}.
+     * @return a new container storing the map of the given region.
+     * @throws NotAvailableException if the given container does not contain a map.
+     */
+    public Container clip(Container src, PolygonArea region) throws NotAvailableException {
+        GeometryEntitySet ecs = src.get(GeometryEntitySet.class);
+        if (ecs == null) throw new NotAvailableException("A GeometryEntitySet is required to clip a map");
+
+        Bounds bounds = getBounds(region, ecs.getBounds());
+        if (bounds == null)
+            throw new IllegalArgumentException("It must hold: region intersects map\n" +
+                    "Current: region does not intersect " + ecs.getBounds());
+
+        // clip the tile-grids, map the stored grids to the clipped ones
+        TileGridInfo tiles = src.get(TileGridInfo.class);
+        HashMap<TileGridInfo.Grid, TileGridInfo.Grid> grids = new HashMap<>();
+        TileGridInfo clippedTiles = new TileGridInfo();
+        if (tiles != null) {
+            for (TileGridInfo.Grid grid : tiles.getAll()) {
+                TileRect level = TileRect.intersect(grid.level,
+                        grid.scheme.getTiles(grid.scheme.getProjection().project(bounds), grid.level.zoom));
+
+                if (level.xmin > level.xmax || level.ymin > level.ymax) continue;
+
+                TileGridInfo.Grid clipped = new TileGridInfo.Grid(grid.scheme, level);
+                grids.put(grid, clipped);
+                clippedTiles.add(clipped);
+            }
+        }
+
+        GeometryEntitySet result = new GeometryEntitySet(bounds);
+
+        // graph-edges and their nodes
+        HashSet<Long> nodes = new HashSet<>();
+        for (LineEntity entity : ecs.getLines().values()) {
+            GraphEdgeComponent gec = entity.get(GraphEdgeComponent.class);
+            if (gec == null) continue;
+
+            PointEntity origin      = ecs.getPoints().get(gec.getOrigin());
+            PointEntity destination = ecs.getPoints().get(gec.getDestination());
+            if (origin == null || destination == null) continue;
+
+            if (region.contains(origin.getCoordinate()) && region.contains(destination.getCoordinate())) {
+                clipTiles(entity, grids);
+                result.getLines().put(entity.getId(), entity);
+                nodes.add(origin.getId());
+                nodes.add(destination.getId());
+            }
+        }
+
+        for (PointEntity entity : ecs.getPoints().values()) {
+            GraphNodeComponent gnc = entity.get(GraphNodeComponent.class);
+            if (gnc == null) continue;
+
+            if (nodes.contains(entity.getId())) {
+                clipConnectors(gnc, result.getLines().keySet());
+            } else {
+                entity.remove(GraphNodeComponent.class);
+            }
+        }
+
+        // all other entities
+        for (PointEntity entity : ecs.getPoints().values()) {
+            boolean node = entity.contains(GraphNodeComponent.class);
+            Coordinate c = entity.getCoordinate();
+            if (node || isInside(entity, region, grids, new PackedCoordinates(new double[]{ c.lat, c.lon }))) {
+                clipTiles(entity, grids);
+                result.getPoints().put(entity.getId(), entity);
+            }
+        }
+
+        for (LineEntity entity : ecs.getLines().values()) {
+            if (entity.contains(GraphEdgeComponent.class)) continue;
+
+            if (isInside(entity, region, grids, entity.getCoordinates())) {
+                clipTiles(entity, grids);
+                result.getLines().put(entity.getId(), entity);
+            }
+        }
+
+        for (PolygonEntity entity : ecs.getPolygons().values()) {
+            if (isInside(entity, region, grids, entity.getOutline())) {
+                clipTiles(entity, grids);
+                result.getPolygons().put(entity.getId(), entity);
+            }
+        }
+
+        logger.debug("clipped map: kept " + result.getPoints().size() + "/" + ecs.getPoints().size() + " points, "
+                + result.getLines().size() + "/" + ecs.getLines().size() + " lines, "
+                + result.getPolygons().size() + "/" + ecs.getPolygons().size() + " polygons");
+
+        // assemble container
+        Container dst = new Container();
+        dst.set(result);
+        if (tiles != null)
+            dst.set(clippedTiles);
+
+        FeatureInfo features = src.get(FeatureInfo.class);
+        if (features != null)
+            dst.set(features);
+
+        MapInfo info = src.get(MapInfo.class);
+        if (info != null)
+            dst.set(info);
+
+        return dst;
+    }
+
+
+    /**
+     * Returns the bounds of the given region, clipped to the given map-bounds.
+     *
+     * @return the clipped bounds or {@code null} if the region does not intersect the map-bounds.
+     */
+    private Bounds getBounds(PolygonArea region, Bounds map) {
+        Bounds bounds = null;
+        for (Coordinate c : region.getCoordinates()) {
+            if (bounds == null)
+                bounds = new Bounds(c, c);
+            else
+                bounds.join(new Bounds(c, c));
+        }
+
+        if (bounds == null) return null;
+        if (map == null) return bounds;
+
+        bounds.set(Math.max(bounds.minlat, map.minlat), Math.max(bounds.minlon, map.minlon),
+                Math.min(bounds.maxlat, map.maxlat), Math.min(bounds.maxlon, map.maxlon));
+
+        if (bounds.minlat > bounds.maxlat || bounds.minlon > bounds.maxlon)
+            return null;
+
+        return bounds;
+    }
+
+    /**
+     * Checks if the given entity lies (partially) inside the region. If the entity is stored in a tile-grid, the
+     * clipped tile-grids are used instead of its geometry.
+     */
+    private boolean isInside(Entity entity, PolygonArea region, Map<TileGridInfo.Grid, TileGridInfo.Grid> grids,
+                             PackedCoordinates geometry) {
+        TileGridComponent tc = entity.get(TileGridComponent.class);
+        if (tc != null && !grids.isEmpty()) {
+            for (TileGridComponent.Entry entry : tc.getAll()) {
+                TileGridInfo.Grid clipped = grids.get(new TileGridInfo.Grid(entry.getScheme(), entry.getLevel()));
+                if (clipped == null) continue;
+
+                int x = entry.getX() + entry.getLevel().xmin;
+                int y = entry.getY() + entry.getLevel().ymin;
+                if (clipped.level.xmin <= x && x <= clipped.level.xmax
+                        && clipped.level.ymin <= y && y <= clipped.level.ymax)
+                    return true;
+            }
+            return false;
+        }
+
+        Coordinate c = new Coordinate(0, 0);
+        for (int i = 0; i < geometry.size(); i++)
+            if (region.contains(geometry.get(i, c)))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Moves the tiles of the given entity to the clipped tile-grids, tiles outside of them are removed.
+     */
+    private void clipTiles(Entity entity, Map<TileGridInfo.Grid, TileGridInfo.Grid> grids) {
+        TileGridComponent tc = entity.get(TileGridComponent.class);
+        if (tc == null) return;
+
+        ArrayList<TileGridComponent.Entry> entries = new ArrayList<>(tc.getAll());
+        tc.getAll().clear();
+
+        for (TileGridComponent.Entry entry : entries) {
+            TileGridInfo.Grid clipped = grids.get(new TileGridInfo.Grid(entry.getScheme(), entry.getLevel()));
+            if (clipped == null) continue;
+
+            int x = entry.getX() + entry.getLevel().xmin;
+            int y = entry.getY() + entry.getLevel().ymin;
+            if (clipped.level.xmin <= x && x <= clipped.level.xmax
+                    && clipped.level.ymin <= y && y <= clipped.level.ymax)
+                tc.add(new TileGridComponent.Entry(clipped.scheme, clipped.level,
+                        x - clipped.level.xmin, y - clipped.level.ymin));
+        }
+    }
+
+    /**
+     * Removes all edges and connectors of the given node referring to edges not contained in the given set.
+     */
+    private void clipConnectors(GraphNodeComponent gnc, Set<Long> edges) {
+        gnc.getEdges().retainAll(edges);
+        gnc.getConnectors().removeIf(c -> !edges.contains(c.fromEdge) || !edges.contains(c.toEdge));
+    }
+}
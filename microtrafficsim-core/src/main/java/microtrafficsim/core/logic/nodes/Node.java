@@ -1,5 +1,6 @@
 package microtrafficsim.core.logic.nodes;
 
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartition;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.logic.vehicles.VehicleState;
 import microtrafficsim.core.logic.vehicles.driver.Driver;
@@ -12,6 +13,7 @@ import microtrafficsim.math.Geometry;
 import microtrafficsim.math.MathUtils;
 import microtrafficsim.math.Vec2d;
 import microtrafficsim.math.random.Seeded;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 import microtrafficsim.math.random.distributions.impl.Random;
 import microtrafficsim.utils.Resettable;
 import microtrafficsim.utils.collections.Tuple;
@@ -33,7 +35,7 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
     private final long          id;
     private Coordinate          coordinate;
     private CrossingLogicConfig config;
-    private final Random        random;
+    private StatefulRandomGenerator random;
 
     // crossing logic
     private HashSet<Vehicle>               registerLog;
@@ -42,6 +44,7 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
     private TreeSet<Vehicle>               maxPrioVehicles;
     private boolean                        anyChangeSinceUpdate;
     private TreeMap<DirectedEdge.Lane, TreeMap<DirectedEdge, DirectedEdge.Lane>> connectors;
+    private volatile TurnTable turnTable; // null if edges or connectors have changed since compiling
 
     // edges
     private final TreeSet<DirectedEdge> leaving;
@@ -49,6 +52,10 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
     private final TreeMap<DirectedEdge.Lane, Byte> leavingLanes;     // lane, index(for crossing logic)
     private final TreeMap<DirectedEdge.Lane, Byte> incomingLanes;     // lane, index(for crossing logic)
 
+    // partitioning
+    private GraphPartition partition;
+    private int            region;
+
 
     /**
      * Default constructor
@@ -68,6 +75,7 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
 
         // edges
         connectors = new TreeMap<>();
+        turnTable = null;
         leaving = new TreeSet<>();
         incoming = new TreeSet<>();
         leavingLanes = new TreeMap<>();
@@ -138,10 +146,34 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
         return id;
     }
 
+    /**
+     * Stores the region of this node for a fast lookup. Only one partition is stored, assigning this node in another
+     * partition replaces it.
+     *
+     * @param partition the partition the region belongs to
+     * @param region    index of the region in the given partition
+     */
+    public void setRegion(GraphPartition partition, int region) {
+        this.partition = partition;
+        this.region    = region;
+    }
+
+    /**
+     * @return the region stored by {@link #setRegion(GraphPartition, int)} if it belongs to the given partition; -1
+     * otherwise
+     */
+    public int getRegion(GraphPartition partition) {
+        return this.partition == partition ? region : -1;
+    }
+
     public CrossingLogicConfig getCrossingLogicConfig() {
         return config;
     }
 
+    /**
+     * @return the connectors of this node; they must not be changed except by
+     * {@link #addConnector(DirectedEdge.Lane, DirectedEdge.Lane)}
+     */
     public TreeMap<DirectedEdge.Lane, TreeMap<DirectedEdge, DirectedEdge.Lane>> getConnectors() {
         return connectors;
     }
@@ -422,35 +454,47 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
      * This method adds one (one-directional) lane connector. Not every lane is connected to any
      * other lane and vehicles are only allowed to travel from one lane {@code incoming} to another lane
      * {@code leaving}, if a respective connector exists. Does not check for duplicates.
+     * <p>
+     * The connectors are compiled into a turn table by {@link #updateCrossingIndices()}.
      *
      * @param incoming the edge from which this connector connects to the leaving edge.
      * @param leaving the edge to which this connector connects.
      */
-    public void addConnector(DirectedEdge.Lane incoming, DirectedEdge.Lane leaving) {
+    public synchronized void addConnector(DirectedEdge.Lane incoming, DirectedEdge.Lane leaving) {
+        turnTable = null;
         TreeMap<DirectedEdge, DirectedEdge.Lane> connectedLanes
                 = connectors.computeIfAbsent(incoming, k -> new TreeMap<>());
         connectedLanes.put(leaving.getEdge(), leaving);
     }
 
-    public void addLeavingEdge(DirectedEdge edge) {
+    public synchronized void addLeavingEdge(DirectedEdge edge) {
         if (edge.getOrigin() != this)
             throw new IllegalArgumentException("edge.getOrigin() != this");
 
+        turnTable = null;
+
         leaving.add(edge);
         edge.forEach(lane -> leavingLanes.put(lane, (byte) -1));
     }
 
-    public void addIncomingEdge(DirectedEdge edge) {
+    public synchronized void addIncomingEdge(DirectedEdge edge) {
         if (edge.getDestination() != this)
             throw new IllegalArgumentException("edge.getDestination() != this");
 
+        turnTable = null;
+
         incoming.add(edge);
         edge.forEach(lane -> incomingLanes.put(lane, (byte) -1));
     }
 
     /**
-     * This method should be called after all edges are added to this node. It calculates the order of the edges'
-     * lanes that is needed for crossing logic calculation.
+     * This method should be called after all edges and connectors are added to this node. It calculates the order of
+     * the edges' lanes that is needed for crossing logic calculation.
+     * <p>
+     * Furthermore, it compiles the connectors into a turn table, so {@link #getLeavingLane(DirectedEdge.Lane,
+     * DirectedEdge)}, {@link #isLaneCorrect(DirectedEdge.Lane, DirectedEdge)} and
+     * {@link #findOutermostTurningLaneIndex(DirectedEdge, DirectedEdge)} are array lookups. Adding edges or connectors
+     * afterwards discards the table until this method is called again.
      */
     public synchronized void updateCrossingIndices() {
         Tuple<TreeMap<DirectedEdge.Lane, Byte>, TreeMap<DirectedEdge.Lane, Byte>> tuple = calcCrossingIndices();
@@ -458,6 +502,8 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
         leavingLanes.putAll(tuple.obj0);
         incomingLanes.clear();
         incomingLanes.putAll(tuple.obj1);
+
+        turnTable = TurnTable.compile(incoming, leaving, connectors);
     }
 
     /**
@@ -553,23 +599,35 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
     }
 
 
-    public synchronized int findOutermostTurningLaneIndex(DirectedEdge incoming, DirectedEdge leaving) {
-        for (DirectedEdge.Lane lane : incoming)
-            if (isLaneCorrect(lane, leaving))
-                return lane.getIndex();
+    public int findOutermostTurningLaneIndex(DirectedEdge incoming, DirectedEdge leaving) {
+        TurnTable table = turnTable;
+        if (table != null)
+            return table.findOutermostTurningLaneIndex(incoming, leaving);
+
+        synchronized (this) {
+            for (DirectedEdge.Lane lane : incoming)
+                if (isLaneCorrect(lane, leaving))
+                    return lane.getIndex();
 
-        return -1;
+            return -1;
+        }
     }
 
-    public synchronized boolean isLaneCorrect(DirectedEdge.Lane incomingLane, DirectedEdge leavingEdge) {
+    public boolean isLaneCorrect(DirectedEdge.Lane incomingLane, DirectedEdge leavingEdge) {
         return getLeavingLane(incomingLane, leavingEdge) != null;
     }
 
-    public synchronized DirectedEdge.Lane getLeavingLane(DirectedEdge.Lane incomingLane, DirectedEdge leavingEdge) {
-        TreeMap<DirectedEdge, DirectedEdge.Lane> leaving = connectors.get(incomingLane);
-        if (leaving == null)
-            return null;
-        return leaving.get(leavingEdge);
+    public DirectedEdge.Lane getLeavingLane(DirectedEdge.Lane incomingLane, DirectedEdge leavingEdge) {
+        TurnTable table = turnTable;
+        if (table != null)
+            return table.getLeavingLane(incomingLane, leavingEdge);
+
+        synchronized (this) {
+            TreeMap<DirectedEdge, DirectedEdge.Lane> leaving = connectors.get(incomingLane);
+            if (leaving == null)
+                return null;
+            return leaving.get(leavingEdge);
+        }
     }
 
     /**
@@ -636,13 +694,67 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
     }
 
 
+    /*
+    |==========|
+    | snapshot |
+    |==========|
+    */
+    /**
+     * Crossing state of a {@code Node} that changes while simulating, e.g. for checkpoints. The priority counters are
+     * stored in the vehicles' drivers.
+     */
+    public static class Snapshot {
+        public long                                 randomState;
+        public boolean                              anyChangeSinceUpdate;
+        public ArrayList<Vehicle>                   registeredVehicles    = new ArrayList<>();
+        public ArrayList<Vehicle>                   newRegisteredVehicles = new ArrayList<>();
+        public TreeMap<Vehicle, ArrayList<Vehicle>> assessedVehicles
+                = new TreeMap<>(Comparator.comparingLong(Vehicle::getId));
+        public ArrayList<Vehicle>                   maxPrioVehicles       = new ArrayList<>();
+    }
+
+    public synchronized Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.randomState          = random.getState();
+        snapshot.anyChangeSinceUpdate = anyChangeSinceUpdate;
+        snapshot.registeredVehicles.addAll(registerLog);
+        snapshot.newRegisteredVehicles.addAll(newRegisteredVehicles);
+        assessedVehicles.forEach((vehicle, defeated) ->
+                snapshot.assessedVehicles.put(vehicle, new ArrayList<>(defeated)));
+        snapshot.maxPrioVehicles.addAll(maxPrioVehicles);
+        return snapshot;
+    }
+
+    /**
+     * Replaces the crossing state of this node. Its seed should equal the seed of the node the snapshot has been taken
+     * from.
+     */
+    public synchronized void restore(Snapshot snapshot) {
+        random.setState(snapshot.randomState);
+        anyChangeSinceUpdate = snapshot.anyChangeSinceUpdate;
+
+        registerLog.clear();
+        registerLog.addAll(snapshot.registeredVehicles);
+        newRegisteredVehicles.clear();
+        newRegisteredVehicles.addAll(snapshot.newRegisteredVehicles);
+        assessedVehicles.clear();
+        snapshot.assessedVehicles.forEach((vehicle, defeated) -> {
+            Set<Vehicle> defeatedVehicles = new TreeSet<>(Comparator.comparingLong(Vehicle::getId));
+            defeatedVehicles.addAll(defeated);
+            assessedVehicles.put(vehicle, defeatedVehicles);
+        });
+        maxPrioVehicles.clear();
+        maxPrioVehicles.addAll(snapshot.maxPrioVehicles);
+    }
+
+
     /*
     |================|
     | (i) Resettable |
     |================|
     */
     /**
-     * The node empties its crossing sets etc. and resets its {@link Random}
+     * The node empties its crossing sets etc. and resets its {@link StatefulRandomGenerator}
      */
     @Override
     public synchronized void reset() {
@@ -669,6 +781,14 @@ public class Node implements ShortestPathNode<DirectedEdge>, Resettable, Seeded,
         return random.getSeed();
     }
 
+    /**
+     * Replaces this node's random generator by a generator of the given type with the same seed.
+     */
+    public synchronized void setRandomGeneratorType(StatefulRandomGenerator.Type type) {
+        if (random.getType() != type)
+            random = type.create(random.getSeed());
+    }
+
 
     @Override
     public int compareTo(Node o) {
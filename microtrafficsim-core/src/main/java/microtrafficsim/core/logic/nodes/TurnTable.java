@@ -0,0 +1,148 @@
+package microtrafficsim.core.logic.nodes;
+
+import microtrafficsim.core.logic.streets.DirectedEdge;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * <p>
+ * The connectors of one {@link Node} compiled into dense arrays, so looking up the leaving lane of a turn does not
+ * walk through {@link TreeMap}s. The incoming and leaving edges get an index in this table (see
+ * {@link DirectedEdge#getIncomingIndex()} and {@link DirectedEdge#getLeavingIndex()}); every lane of an incoming edge
+ * gets a row, every leaving edge a column.
+ *
+ * <p>
+ * A table is immutable after compiling. If the node's edges or connectors change, it has to be compiled again.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+class TurnTable {
+
+    private final DirectedEdge[] incomingEdges;
+    private final DirectedEdge[] leavingEdges;
+    private final int[]          rowOffsets;        // [incoming edge] -> row of its lane 0
+    private final DirectedEdge.Lane[] leavingLanes; // [row * #leaving + leaving edge]
+    private final int[]          outermostLanes;    // [incoming edge * #leaving + leaving edge]
+
+
+    private TurnTable(DirectedEdge[] incomingEdges, DirectedEdge[] leavingEdges, int nRows) {
+        this.incomingEdges = incomingEdges;
+        this.leavingEdges  = leavingEdges;
+        rowOffsets         = new int[incomingEdges.length];
+        leavingLanes       = new DirectedEdge.Lane[nRows * leavingEdges.length];
+        outermostLanes     = new int[incomingEdges.length * leavingEdges.length];
+    }
+
+    /**
+     * Assigns the table indices to the given edges and compiles the given connectors.
+     *
+     * @return the compiled table; null if a connector uses an edge that is not one of the given edges
+     */
+    static TurnTable compile(Collection<DirectedEdge> incoming,
+                             Collection<DirectedEdge> leaving,
+                             TreeMap<DirectedEdge.Lane, TreeMap<DirectedEdge, DirectedEdge.Lane>> connectors)
+    {
+        DirectedEdge[] incomingEdges = incoming.toArray(new DirectedEdge[incoming.size()]);
+        DirectedEdge[] leavingEdges  = leaving.toArray(new DirectedEdge[leaving.size()]);
+
+        int nRows = 0;
+        for (DirectedEdge edge : incomingEdges)
+            nRows += edge.getNumberOfLanes();
+
+        TurnTable table = new TurnTable(incomingEdges, leavingEdges, nRows);
+        int row = 0;
+        for (int i = 0; i < incomingEdges.length; i++) {
+            incomingEdges[i].setIncomingIndex(i);
+            table.rowOffsets[i] = row;
+            row += incomingEdges[i].getNumberOfLanes();
+        }
+        for (int j = 0; j < leavingEdges.length; j++)
+            leavingEdges[j].setLeavingIndex(j);
+
+
+        /* connectors */
+        for (Map.Entry<DirectedEdge.Lane, TreeMap<DirectedEdge, DirectedEdge.Lane>> entry : connectors.entrySet()) {
+            DirectedEdge.Lane incomingLane = entry.getKey();
+            int rowIdx = table.rowOf(incomingLane);
+            if (rowIdx < 0)
+                return null;
+
+            for (Map.Entry<DirectedEdge, DirectedEdge.Lane> connector : entry.getValue().entrySet()) {
+                int col = table.columnOf(connector.getKey());
+                if (col < 0)
+                    return null;
+                table.leavingLanes[rowIdx * leavingEdges.length + col] = connector.getValue();
+            }
+        }
+
+
+        /* outermost turning lanes */
+        for (int i = 0; i < incomingEdges.length; i++) {
+            for (int j = 0; j < leavingEdges.length; j++) {
+                int outermost = -1;
+                for (int lane = 0; lane < incomingEdges[i].getNumberOfLanes(); lane++) {
+                    if (table.leavingLanes[(table.rowOffsets[i] + lane) * leavingEdges.length + j] != null) {
+                        outermost = lane;
+                        break;
+                    }
+                }
+                table.outermostLanes[i * leavingEdges.length + j] = outermost;
+            }
+        }
+
+        return table;
+    }
+
+
+    /*
+    |=========|
+    | lookups |
+    |=========|
+    */
+    /**
+     * @return the connected lane of the given leaving edge; null if there is no connector
+     */
+    DirectedEdge.Lane getLeavingLane(DirectedEdge.Lane incomingLane, DirectedEdge leavingEdge) {
+        int row = rowOf(incomingLane);
+        int col = columnOf(leavingEdge);
+        if (row < 0 || col < 0)
+            return null;
+        return leavingLanes[row * leavingEdges.length + col];
+    }
+
+    /**
+     * @return index of the first lane of the incoming edge that is connected to the leaving edge; -1 if there is none
+     */
+    int findOutermostTurningLaneIndex(DirectedEdge incomingEdge, DirectedEdge leavingEdge) {
+        int i = incomingEdge.getIncomingIndex();
+        int j = columnOf(leavingEdge);
+        if (!isIncoming(incomingEdge, i) || j < 0)
+            return -1;
+        return outermostLanes[i * leavingEdges.length + j];
+    }
+
+    private int rowOf(DirectedEdge.Lane incomingLane) {
+        DirectedEdge edge = incomingLane.getEdge();
+        int i = edge.getIncomingIndex();
+        if (!isIncoming(edge, i))
+            return -1;
+        int lane = incomingLane.getIndex();
+        if (lane < 0 || lane >= edge.getNumberOfLanes())
+            return -1;
+        return rowOffsets[i] + lane;
+    }
+
+    private int columnOf(DirectedEdge leavingEdge) {
+        int j = leavingEdge.getLeavingIndex();
+        if (j < 0 || j >= leavingEdges.length || leavingEdges[j] != leavingEdge)
+            return -1;
+        return j;
+    }
+
+    private boolean isIncoming(DirectedEdge edge, int i) {
+        return i >= 0 && i < incomingEdges.length && incomingEdges[i] == edge;
+    }
+}
@@ -3,6 +3,7 @@ package microtrafficsim.core.logic.streetgraph;
 import microtrafficsim.core.logic.nodes.Node;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.map.Bounds;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 import microtrafficsim.math.random.distributions.impl.Random;
 import microtrafficsim.utils.id.BasicSeedGenerator;
 import microtrafficsim.utils.strings.builder.LevelStringBuilder;
@@ -114,6 +115,16 @@ public class StreetGraph implements Graph {
         this.seed = seed;
     }
 
+    /**
+     * Replaces the random generators of all nodes by generators of the given type and sets their seeds like
+     * {@link #setSeed(long)}.
+     */
+    public void setSeed(long seed, StatefulRandomGenerator.Type randomGeneratorType) {
+        for (Node node : nodes.values())
+            node.setRandomGeneratorType(randomGeneratorType);
+        setSeed(seed);
+    }
+
     @Override
     public long getSeed() {
         return seed;
@@ -20,6 +20,22 @@ public class UnmodifiableGraph implements Graph {
     }
 
 
+    /**
+     * Views of the same graph are equal, because every call of e.g.
+     * {@link microtrafficsim.core.simulation.scenarios.Scenario#getGraph() Scenario.getGraph()} creates a new view.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof UnmodifiableGraph)
+            return graph.equals(((UnmodifiableGraph) obj).graph);
+        return graph.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return graph.hashCode();
+    }
+
 
     @Override
     public long getSeed() {
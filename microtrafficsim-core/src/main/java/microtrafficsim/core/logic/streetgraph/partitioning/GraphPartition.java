@@ -0,0 +1,110 @@
+package microtrafficsim.core.logic.streetgraph.partitioning;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+
+/**
+ * <p>
+ * The result of a {@link GraphPartitioner}: every node of a graph belongs to exactly one region. An edge belongs to
+ * the region of its destination, because the vehicles on an edge interact with its destination (e.g. registering
+ * for crossing it). An edge, whose origin belongs to another region than its destination, is called cut edge;
+ * vehicles entering a cut edge change their region.
+ *
+ * <p>
+ * The region is asked per vehicle and step, so it is stored on the assigned node (see
+ * {@link Node#setRegion(GraphPartition, int)}) in addition to a map. The map is only asked for nodes that have been
+ * assigned in another partition since.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class GraphPartition {
+
+    private final Graph                  graph;
+    private final HashMap<Node, Integer> regionOfNode;
+    private final ArrayList<List<Node>>  regions;
+
+
+    /**
+     * @param graph    the partitioned graph
+     * @param nRegions number of regions
+     */
+    public GraphPartition(Graph graph, int nRegions) {
+        if (nRegions < 1)
+            throw new IllegalArgumentException("It must hold: nRegions >= 1\n" +
+                    "Current: " + nRegions);
+
+        this.graph   = graph;
+        regionOfNode = new HashMap<>();
+        regions      = new ArrayList<>(nRegions);
+        for (int i = 0; i < nRegions; i++)
+            regions.add(new ArrayList<>());
+    }
+
+    /**
+     * Adds the given node to the given region. A node must not be assigned twice.
+     */
+    public void assign(Node node, int region) {
+        if (regionOfNode.putIfAbsent(node, region) != null)
+            throw new IllegalArgumentException("The node " + node.getId() + " has been assigned already.");
+        regions.get(region).add(node);
+        node.setRegion(this, region);
+    }
+
+
+    /*
+    |=========|
+    | getters |
+    |=========|
+    */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    /**
+     * @return nodes of the given region in order of their assignment
+     */
+    public List<Node> getNodes(int region) {
+        return Collections.unmodifiableList(regions.get(region));
+    }
+
+    /**
+     * @return region of the given node; -1 if it has not been assigned
+     */
+    public int getRegion(Node node) {
+        int stored = node.getRegion(this);
+        if (stored >= 0)
+            return stored;
+
+        Integer region = regionOfNode.get(node);
+        return region == null ? -1 : region;
+    }
+
+    /**
+     * @return region of the given edge's destination; -1 if it has not been assigned
+     */
+    public int getRegion(DirectedEdge edge) {
+        return getRegion(edge.getDestination());
+    }
+
+    /**
+     * @return number of edges whose origin and destination belong to different regions
+     */
+    public int getCutEdgeCount() {
+        int count = 0;
+        for (DirectedEdge edge : graph.getEdges())
+            if (getRegion(edge.getOrigin()) != getRegion(edge))
+                count++;
+        return count;
+    }
+}
@@ -0,0 +1,20 @@
+package microtrafficsim.core.logic.streetgraph.partitioning;
+
+import microtrafficsim.core.logic.streetgraph.Graph;
+
+
+/**
+ * Splits a {@link Graph} into disjoint regions of nodes, e.g. for simulating every region by its own thread.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public interface GraphPartitioner {
+
+    /**
+     * @param graph    graph to be partitioned; is not changed
+     * @param nRegions number of regions; has to be positive. Some regions may be empty if the graph has less nodes.
+     * @return a partition assigning every node of the given graph to exactly one region. The result has to be
+     * deterministic for the same graph.
+     */
+    GraphPartition partition(Graph graph, int nRegions);
+}
@@ -0,0 +1,96 @@
+package microtrafficsim.core.logic.streetgraph.partitioning.impl;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartition;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartitioner;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+
+/**
+ * <p>
+ * Partitions a graph by growing one region after another with a breadth-first search, ignoring the edges' directions.
+ * A region stops growing as soon as its weight reaches the total weight divided by the number of regions; the last
+ * region takes all remaining nodes. The weight of a node is 1 plus the number of cells of its incoming edges' lanes,
+ * because the edges belong to the region of their destination (see {@link GraphPartition}) and the number of
+ * vehicles on an edge is limited by its cells.
+ *
+ * <p>
+ * A new region continues at the frontier of the previous one, so regions tend to be compact and to have few cut
+ * edges. If the frontier is empty (e.g. for disconnected graphs), the unassigned node with the smallest id is used.
+ * Nodes and edges are visited in order of their keys, so the result is deterministic.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class BfsGraphPartitioner implements GraphPartitioner {
+
+    @Override
+    public GraphPartition partition(Graph graph, int nRegions) {
+        GraphPartition partition = new GraphPartition(graph, nRegions);
+
+        TreeSet<Node> unassigned = new TreeSet<>(graph.getNodes());
+        HashMap<Node, Long> weights = new HashMap<>();
+        long totalWeight = 0;
+        for (Node node : unassigned) {
+            long weight = getWeight(node);
+            weights.put(node, weight);
+            totalWeight += weight;
+        }
+        long targetWeight = (totalWeight + nRegions - 1) / nRegions;
+
+
+        ArrayDeque<Node> frontier = new ArrayDeque<>();
+        for (int region = 0; region < nRegions && !unassigned.isEmpty(); region++) {
+            boolean isLast = region == nRegions - 1;
+
+            // continue at the previous region's frontier
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            for (Node node : frontier)
+                if (unassigned.contains(node)) {
+                    queue.add(node);
+                    break;
+                }
+            frontier.clear();
+
+            long weight = 0;
+            while (!unassigned.isEmpty() && (isLast || weight < targetWeight)) {
+                if (queue.isEmpty())
+                    queue.add(unassigned.first());
+
+                Node node = queue.poll();
+                if (!unassigned.remove(node))
+                    continue;
+                partition.assign(node, region);
+                weight += weights.get(node);
+
+                for (Node neighbour : getNeighbours(node))
+                    if (unassigned.contains(neighbour))
+                        queue.add(neighbour);
+            }
+            frontier.addAll(queue);
+        }
+
+        return partition;
+    }
+
+    private static long getWeight(Node node) {
+        long weight = 1;
+        for (DirectedEdge edge : node.getIncomingEdges())
+            weight += (long) edge.getLength() * edge.getNumberOfLanes();
+        return weight;
+    }
+
+    private static TreeSet<Node> getNeighbours(Node node) {
+        TreeSet<Node> neighbours = new TreeSet<>();
+        for (DirectedEdge edge : node.getLeavingEdges())
+            neighbours.add(edge.getDestination());
+        for (DirectedEdge edge : node.getIncomingEdges())
+            neighbours.add(edge.getOrigin());
+        neighbours.remove(node);
+        return neighbours;
+    }
+}
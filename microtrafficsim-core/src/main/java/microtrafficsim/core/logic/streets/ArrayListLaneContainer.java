@@ -5,6 +5,7 @@ import microtrafficsim.core.logic.vehicles.machines.Vehicle;
 import java.util.ArrayList;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class ArrayListLaneContainer implements LaneContainer {
     private ArrayList<ArrayList<Cell>> lanes;
@@ -92,6 +93,12 @@ public class ArrayListLaneContainer implements LaneContainer {
         return next;
     }
 
+    @Override
+    public void forEachVehicle(int laneNo, Consumer<? super Vehicle> action) {
+        for (Cell cell : lanes.get(laneNo))
+            action.accept(cell.vehicle);
+    }
+
     @Override
     public Vehicle set(Vehicle vehicle, int laneNo, int cellNo) {
         Vehicle removed = null;
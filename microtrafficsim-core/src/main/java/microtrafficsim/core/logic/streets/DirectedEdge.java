@@ -1,6 +1,7 @@
 package microtrafficsim.core.logic.streets;
 
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 import microtrafficsim.core.entities.street.LogicStreetEntity;
 import microtrafficsim.core.entities.street.StreetEntity;
@@ -36,6 +37,13 @@ public class DirectedEdge
     private StreetEntity entity;
     private final LaneContainer lanes;
 
+    /* indices in the turn tables of origin and destination */
+    private int leavingIndex;
+    private int incomingIndex;
+
+    /* lanes simulated by another process, see setRemoteMaxInsertionIndices(...) */
+    private volatile int[] remoteMaxInsertionIndices;
+
 
     /**
      * In addition to standard initialization, this constructor also calculates
@@ -68,6 +76,9 @@ public class DirectedEdge
                 metersPerCell, priorityFn
         ));
         lanes = new NavigableSkipListLaneContainer(streetInfo.raw.nLanes);
+
+        leavingIndex  = -1;
+        incomingIndex = -1;
     }
 
 
@@ -120,6 +131,22 @@ public class DirectedEdge
     public void reset() {
         streetInfo.reset();
         lanes.clear();
+        remoteMaxInsertionIndices = null;
+    }
+
+    /**
+     * Is used if the vehicles of this edge are simulated by another process (e.g. another shard of a distributed
+     * simulation), but vehicles of this process enter this edge. Then {@link Lane#getMaxInsertionIndex()} returns
+     * the minimum of the given index and the index calculated by the vehicles on this process's lane.
+     *
+     * @param maxInsertionIndices one index per lane given by the process simulating this edge; null if this edge is
+     *                            simulated locally
+     */
+    public void setRemoteMaxInsertionIndices(int[] maxInsertionIndices) {
+        if (maxInsertionIndices != null && maxInsertionIndices.length != getNumberOfLanes())
+            throw new IllegalArgumentException("It must hold: maxInsertionIndices.length == getNumberOfLanes()\n" +
+                    "Current: " + maxInsertionIndices.length + " != " + getNumberOfLanes());
+        remoteMaxInsertionIndices = maxInsertionIndices;
     }
 
 
@@ -158,6 +185,34 @@ public class DirectedEdge
         return true;
     }
 
+    /**
+     * @return index of this edge in its origin's turn table; -1 if it has not been compiled yet
+     */
+    public int getLeavingIndex() {
+        return leavingIndex;
+    }
+
+    /**
+     * Is set by the origin node when compiling its turn table.
+     */
+    public void setLeavingIndex(int leavingIndex) {
+        this.leavingIndex = leavingIndex;
+    }
+
+    /**
+     * @return index of this edge in its destination's turn table; -1 if it has not been compiled yet
+     */
+    public int getIncomingIndex() {
+        return incomingIndex;
+    }
+
+    /**
+     * Is set by the destination node when compiling its turn table.
+     */
+    public void setIncomingIndex(int incomingIndex) {
+        this.incomingIndex = incomingIndex;
+    }
+
     public int getNumberOfLanes() {
         return streetInfo.raw.nLanes;
     }
@@ -287,9 +342,23 @@ public class DirectedEdge
             }
 
             edge.lanes.unlockLane(index);
+
+            int[] remote = edge.remoteMaxInsertionIndices;
+            if (remote != null)
+                maxInsertionIndex = Math.min(maxInsertionIndex, remote[index]);
             return maxInsertionIndex;
         }
 
+        /**
+         * Calls the given action for each vehicle on this lane, starting with the last vehicle. In contrast to
+         * collecting the vehicles of all lanes, this does not copy the lane.
+         */
+        public void forEachVehicle(Consumer<? super Vehicle> action) {
+            edge.lanes.lockLane(index);
+            edge.lanes.forEachVehicle(index, action);
+            edge.lanes.unlockLane(index);
+        }
+
         public boolean hasVehicleInFront(Vehicle vehicle) {
             return getVehicleInFront(vehicle) != null;
         }
@@ -2,6 +2,8 @@ package microtrafficsim.core.logic.streets;
 
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
 
+import java.util.function.Consumer;
+
 public interface LaneContainer {
     void lockLane(int laneNo);
 
@@ -29,6 +31,11 @@ public interface LaneContainer {
 
     Vehicle getNextOf(int laneNo, int cellNo);
 
+    /**
+     * Calls the given action for each vehicle in the lane, starting with the last vehicle, without copying the lane.
+     */
+    void forEachVehicle(int laneNo, Consumer<? super Vehicle> action);
+
     /**
      * @return true if an element was removed
      */
@@ -8,6 +8,7 @@ import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class NavigableMapLaneContainer implements LaneContainer {
     private ArrayList<NavigableMap<Integer, Vehicle>> lanes;
@@ -72,6 +73,11 @@ public class NavigableMapLaneContainer implements LaneContainer {
         return entry != null ? entry.getValue() : null;
     }
 
+    @Override
+    public void forEachVehicle(int laneNo, Consumer<? super Vehicle> action) {
+        lanes.get(laneNo).values().forEach(action);
+    }
+
     @Override
     public Vehicle set(Vehicle vehicle, int laneNo, int cellNo) {
         return lanes.get(laneNo).put(cellNo, vehicle);
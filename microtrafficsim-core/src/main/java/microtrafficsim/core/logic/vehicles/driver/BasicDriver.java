@@ -3,12 +3,13 @@ package microtrafficsim.core.logic.vehicles.driver;
 import microtrafficsim.core.logic.routes.Route;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
-import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 import microtrafficsim.utils.strings.builder.LevelStringBuilder;
 import org.slf4j.Logger;
 
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
 
 /**
  * Basic implementation of {@code Driver}.
@@ -21,7 +22,7 @@ public class BasicDriver implements Driver {
 
     /* general */
     private final ReentrantLock lock_priorityCounter;
-    private final Random        random;
+    private final StatefulRandomGenerator random;
 
     /* variable information */
     private Route route;
@@ -29,6 +30,8 @@ public class BasicDriver implements Driver {
     /* dynamic information */
     private int travellingTime;
     private int priorityCounter;    // for crossing logic
+    private volatile IntSupplier spawnClock; // null if not waiting lazily
+    private int                  spawnClockTime;
     /* Hulk */
     private final int maxAnger;
     private       int anger;
@@ -40,12 +43,14 @@ public class BasicDriver implements Driver {
     private float laneChangeFactor;
 
     /**
-     * seed         seed for {@link Random}, e.g. used for dawdling
+     * seed                seed for the driver's {@link StatefulRandomGenerator}, e.g. used for dawdling
+     * randomGeneratorType type of the driver's random generator
      * dawdleFactor probability to dawdle (after Nagel-Schreckenberg-model)
      * spawnDelay   after this number of simulation steps, this driver starts travelling
      */
     public static class InitSetup {
         public final long seed;
+        public StatefulRandomGenerator.Type randomGeneratorType = StatefulRandomGenerator.Type.JAVA;
         public int spawnDelay = 0;
         public float dawdleFactor = 0.2f;
         public float laneChangeFactor = 0.8f;
@@ -58,7 +63,7 @@ public class BasicDriver implements Driver {
     public BasicDriver(InitSetup setup) {
         /* general */
         lock_priorityCounter = new ReentrantLock(true);
-        random               = new Random(setup.seed);
+        random               = setup.randomGeneratorType.create(setup.seed);
 
         /* variable information */
         route = null;
@@ -191,6 +196,7 @@ public class BasicDriver implements Driver {
 
     @Override
     public int getTravellingTime() {
+        updateWaiting();
         return travellingTime;
     }
 
@@ -199,6 +205,41 @@ public class BasicDriver implements Driver {
         travellingTime++;
     }
 
+    @Override
+    public void incTravellingTime(int steps) {
+        travellingTime += steps;
+    }
+
+    @Override
+    public synchronized void setSpawnClock(IntSupplier clock) {
+        updateWaiting();
+        spawnClock     = clock;
+        spawnClockTime = clock != null ? clock.getAsInt() : 0;
+    }
+
+    @Override
+    public void updateWaiting() {
+        if (spawnClock == null)
+            return;
+
+        synchronized (this) {
+            if (spawnClock == null)
+                return;
+
+            int now   = spawnClock.getAsInt();
+            int steps = now - spawnClockTime;
+            spawnClockTime = now;
+            if (steps > 0) {
+                if (vehicle != null) {
+                    vehicle.waitForSpawn(steps);
+                } else {
+                    becomeMoreAngry(steps);
+                    incTravellingTime(steps);
+                }
+            }
+        }
+    }
+
     @Override
     public int getPriorityCounter() {
         lock_priorityCounter.lock();
@@ -248,6 +289,71 @@ public class BasicDriver implements Driver {
     }
 
 
+    /*
+    |==========|
+    | snapshot |
+    |==========|
+    */
+    /**
+     * Dynamic information of a {@code BasicDriver} that changes while simulating, e.g. for checkpoints. The route is
+     * not part of it.
+     */
+    public static class Snapshot {
+        public long  randomState;
+        public int   travellingTime;
+        public int   priorityCounter;
+        public int   anger;
+        public int   totalAnger;
+        public float dawdleFactor;
+        public float laneChangeFactor;
+    }
+
+    /**
+     * @return the seed this driver's {@link StatefulRandomGenerator} has been initialized with
+     */
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+    /**
+     * @return the type of this driver's {@link StatefulRandomGenerator}
+     */
+    public StatefulRandomGenerator.Type getRandomGeneratorType() {
+        return random.getType();
+    }
+
+    public Snapshot snapshot() {
+        updateWaiting();
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.randomState      = random.getState();
+        snapshot.travellingTime   = travellingTime;
+        snapshot.priorityCounter  = getPriorityCounter();
+        snapshot.anger            = anger;
+        snapshot.totalAnger       = totalAnger;
+        snapshot.dawdleFactor     = dawdleFactor;
+        snapshot.laneChangeFactor = laneChangeFactor;
+        return snapshot;
+    }
+
+    /**
+     * Sets the dynamic information of this driver. Its seed should equal the seed of the driver the snapshot has
+     * been taken from.
+     */
+    public void restore(Snapshot snapshot) {
+        setSpawnClock(null);
+        random.setState(snapshot.randomState);
+        travellingTime = snapshot.travellingTime;
+        lock_priorityCounter.lock();
+        priorityCounter = snapshot.priorityCounter;
+        lock_priorityCounter.unlock();
+        anger      = snapshot.anger;
+        totalAnger = snapshot.totalAnger;
+        setDawdleFactor(snapshot.dawdleFactor);
+        setLaneChangeFactor(snapshot.laneChangeFactor);
+    }
+
+
     /*
     |==========|
     | (i) Hulk |
@@ -263,6 +369,18 @@ public class BasicDriver implements Driver {
         totalAnger += 1;
     }
 
+    /**
+     * Like {@link #becomeMoreAngry()}, but in constant time.
+     */
+    @Override
+    public void becomeMoreAngry(int times) {
+        if (times <= 0)
+            return;
+        if (anger < maxAnger)
+            anger = (int) Math.min(maxAnger, (long) anger + times);
+        totalAnger += times;
+    }
+
     /**
      * Decreases the anger by 1 down to a minimum of 0.
      */
@@ -274,11 +392,13 @@ public class BasicDriver implements Driver {
 
     @Override
     public int getAnger() {
+        updateWaiting();
         return anger;
     }
 
     @Override
     public int getTotalAnger() {
+        updateWaiting();
         return totalAnger;
     }
 
@@ -302,6 +422,7 @@ public class BasicDriver implements Driver {
         route = null;
 
         /* dynamic information */
+        spawnClock          = null;
         this.travellingTime = 0;
         resetPriorityCounter();
         anger      = 0;
@@ -6,6 +6,8 @@ import microtrafficsim.core.logic.vehicles.machines.Vehicle;
 import microtrafficsim.utils.Resettable;
 import microtrafficsim.utils.emotions.Hulk;
 
+import java.util.function.IntSupplier;
+
 /**
  * <p>
  * The idea of this interface is separating a real vehicle's behaviour into mechanical ({@link Vehicle}) and
@@ -46,6 +48,16 @@ public interface Driver extends Hulk, Resettable {
 
     }
 
+    /**
+     * Has the same effect as calling {@link #becomeMoreAngry()} the given number of times.
+     *
+     * @param times number of calls of {@code becomeMoreAngry()}
+     */
+    default void becomeMoreAngry(int times) {
+        for (int i = 0; i < times; i++)
+            becomeMoreAngry();
+    }
+
     /**
      * @return 0 per default
      */
@@ -137,6 +149,35 @@ public interface Driver extends Hulk, Resettable {
 
     void incTravellingTime();
 
+    /**
+     * Has the same effect as calling {@link #incTravellingTime()} the given number of times.
+     *
+     * @param steps number of steps the travelling time is increased by
+     */
+    default void incTravellingTime(int steps) {
+        for (int i = 0; i < steps; i++)
+            incTravellingTime();
+    }
+
+    /**
+     * Lets this driver wait for its spawn delay without being updated every step. Every step counted by the given
+     * clock after this call is applied by {@link Vehicle#waitForSpawn(int)} as soon as the travelling time or the
+     * anger is read, so they are always up to date. Empty per default.
+     *
+     * @param clock returns the number of finished steps; {@code null} applies the pending steps and stops waiting
+     */
+    default void setSpawnClock(IntSupplier clock) {
+
+    }
+
+    /**
+     * Applies the steps counted by the spawn clock since the last update, see {@link #setSpawnClock(IntSupplier)}.
+     * Empty per default.
+     */
+    default void updateWaiting() {
+
+    }
+
     int getPriorityCounter();
 
     void resetPriorityCounter();
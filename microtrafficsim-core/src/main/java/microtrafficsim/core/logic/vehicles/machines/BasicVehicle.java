@@ -1,7 +1,7 @@
 package microtrafficsim.core.logic.vehicles.machines;
 
-import java.util.LinkedList;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.function.IntUnaryOperator;
 
 import org.slf4j.Logger;
 
@@ -23,7 +23,7 @@ public abstract class BasicVehicle implements Vehicle {
 
 
     /* general */
-    private final LinkedList<VehicleStateListener> stateListeners;
+    private final ArrayList<VehicleStateListener> stateListeners;
 
     /* variable information */
     private Driver driver;
@@ -39,8 +39,8 @@ public abstract class BasicVehicle implements Vehicle {
     private boolean      lastVelocityIsZero;
 
     /* fix information */
-    public final long                       id;
-    private      Function<Integer, Integer> accelerate;
+    public final long             id;
+    private      IntUnaryOperator accelerate;
 
     /* visualization */
     private final VehicleStyleSheet style;
@@ -51,7 +51,7 @@ public abstract class BasicVehicle implements Vehicle {
     public BasicVehicle(long id, VehicleStyleSheet style) {
 
         /* general */
-        stateListeners = new LinkedList<>();
+        stateListeners = new ArrayList<>(1);
 
         /* variable information */
         lane = null;
@@ -110,6 +110,11 @@ public abstract class BasicVehicle implements Vehicle {
         this.driver = driver;
     }
 
+    @Override
+    public VehicleStyleSheet getStyle() {
+        return style;
+    }
+
     @Override
     public boolean isLastVelocityZero() {
         return lastVelocityIsZero;
@@ -132,7 +137,7 @@ public abstract class BasicVehicle implements Vehicle {
     | children |
     |==========|
     */
-    protected abstract Function<Integer, Integer> createAccelerationFunction();
+    protected abstract IntUnaryOperator createAccelerationFunction();
 
     /*
     |============|
@@ -151,10 +156,6 @@ public abstract class BasicVehicle implements Vehicle {
 
         // age
         driver.incTravellingTime();
-
-        // color
-        if (entity.getVisualization() != null)
-            entity.getVisualization().setBaseColor(style.getColor(this));
     }
 
 
@@ -329,6 +330,63 @@ public abstract class BasicVehicle implements Vehicle {
     }
 
 
+    /*
+    |==========|
+    | snapshot |
+    |==========|
+    */
+    /**
+     * Dynamic information of a {@code BasicVehicle} that changes while simulating, e.g. for checkpoints. The driver
+     * is not part of it.
+     */
+    public static class Snapshot {
+        public VehicleState        state;
+        public DirectedEdge.Lane   lane;
+        public int                 cellPosition;
+        public int                 velocity;
+        public boolean             lastVelocityIsZero;
+        public boolean             laneIsCorrect;
+        public int                 outermostTurningLaneIndex;
+        public LaneChangeDirection laneChangeDirection;
+    }
+
+    public Snapshot snapshot() {
+        driver.updateWaiting();
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.state                     = state;
+        snapshot.lane                      = lane;
+        snapshot.cellPosition              = cellPosition;
+        snapshot.velocity                  = velocity;
+        snapshot.lastVelocityIsZero        = lastVelocityIsZero;
+        snapshot.laneIsCorrect             = laneIsCorrect;
+        snapshot.outermostTurningLaneIndex = outermostTurningLaneIndex;
+        snapshot.laneChangeDirection       = laneChangeDirection;
+        return snapshot;
+    }
+
+    /**
+     * Sets the dynamic information of this vehicle and inserts it into the snapshot's lane (if not null). This vehicle
+     * is expected to be neither spawned nor on any lane yet.
+     */
+    public void restore(Snapshot snapshot) {
+        lane                      = snapshot.lane;
+        cellPosition              = snapshot.cellPosition;
+        velocity                  = snapshot.velocity;
+        lastVelocityIsZero        = snapshot.lastVelocityIsZero;
+        laneIsCorrect             = snapshot.laneIsCorrect;
+        outermostTurningLaneIndex = snapshot.outermostTurningLaneIndex;
+        laneChangeDirection       = snapshot.laneChangeDirection;
+
+        if (lane != null) {
+            lane.insertVehicle(this, cellPosition);
+            if (entity != null && entity.getVisualization() != null)
+                entity.getVisualization().updatePosition();
+        }
+        setState(snapshot.state);
+    }
+
+
     /*
     |=============|
     | (i) Vehicle |
@@ -371,6 +429,24 @@ public abstract class BasicVehicle implements Vehicle {
         didOneSimulationStep();
     }
 
+    /**
+     * Like {@link #spawn()} for a waiting vehicle, but in constant time for all given steps.
+     */
+    @Override
+    public void waitForSpawn(int steps) {
+        if (steps <= 0)
+            return;
+
+        // anger: only the first step depends on the last velocity
+        velocity = 0;
+        if (isLastVelocityZero()) driver.becomeMoreAngry();
+        setLastVelocityZero(true);
+        driver.becomeMoreAngry(steps - 1);
+
+        // age
+        driver.incTravellingTime(steps);
+    }
+
     @Override
     public void despawn() {
         lane = null;
@@ -397,7 +473,7 @@ public abstract class BasicVehicle implements Vehicle {
 
     @Override
     public void accelerate() {
-        int vVehicle = accelerate.apply(velocity);
+        int vVehicle = accelerate.applyAsInt(velocity);
         int vDriver = driver.accelerate(velocity);
         velocity = Math.min(vVehicle, vDriver);
         velocity = MathUtils.clamp(velocity, 0, getMaxVelocity());
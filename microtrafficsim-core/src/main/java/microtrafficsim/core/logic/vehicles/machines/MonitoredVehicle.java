@@ -1,9 +1,10 @@
 package microtrafficsim.core.logic.vehicles.machines;
 
 import microtrafficsim.core.simulation.core.MonitoringVehicleSimulation;
+import microtrafficsim.core.simulation.core.StreamingVehicleMonitor;
 
 /**
- * Empty interface for classification purpose in e.g. {@link MonitoringVehicleSimulation}
+ * Empty interface for classification purpose in e.g. {@link MonitoringVehicleSimulation} or {@link StreamingVehicleMonitor}
  *
  * @author Dominic Parga Cacheiro
  */
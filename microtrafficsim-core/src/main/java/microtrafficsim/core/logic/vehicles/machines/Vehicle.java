@@ -4,6 +4,7 @@ import microtrafficsim.core.entities.vehicle.LogicVehicleEntity;
 import microtrafficsim.core.logic.vehicles.VehicleState;
 import microtrafficsim.core.logic.vehicles.VehicleStateListener;
 import microtrafficsim.core.logic.vehicles.driver.Driver;
+import microtrafficsim.core.map.style.VehicleStyleSheet;
 
 /**
  * @see Driver
@@ -26,6 +27,12 @@ public interface Vehicle extends LogicVehicleEntity {
 
     public boolean isLastVelocityZero();
 
+    /**
+     * @return the style determining this vehicle's color; it is only evaluated by the visualization when this vehicle
+     * is drawn. Can be null.
+     */
+    VehicleStyleSheet getStyle();
+
 
     /*
     |===========|
@@ -36,6 +43,14 @@ public interface Vehicle extends LogicVehicleEntity {
 
     void spawn();
 
+    /**
+     * Has the same effect as calling {@link #spawn()} the given number of times while the driver's travelling time is
+     * negative, i.e. while this vehicle is waiting for its spawn delay.
+     *
+     * @param steps number of spawn calls this call replaces
+     */
+    void waitForSpawn(int steps);
+
     void despawn();
 
     VehicleState getState();
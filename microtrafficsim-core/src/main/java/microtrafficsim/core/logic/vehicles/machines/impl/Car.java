@@ -4,7 +4,7 @@ import microtrafficsim.core.logic.vehicles.machines.BasicVehicle;
 import microtrafficsim.core.map.style.VehicleStyleSheet;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 
-import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 
 /**
  * <p>
@@ -51,7 +51,7 @@ public class Car extends BasicVehicle {
     |==================|
     */
     @Override
-    protected Function<Integer, Integer> createAccelerationFunction() {
+    protected IntUnaryOperator createAccelerationFunction() {
         // 1 - e^(-1s/15s) = 1 - 0,9355 = 0.0645
         //    return v -> (int)(0.0645f * maxVelocity + 0.9355f * v);
         return v -> v + 1;
@@ -0,0 +1,169 @@
+package microtrafficsim.core.map;
+
+import java.util.Arrays;
+
+
+/**
+ * Immutable sequence of coordinates, packed into a single {@code double}-array of alternating latitudes and longitudes.
+ * This avoids one {@code Coordinate} object per point for large geometries, e.g. the feature-primitives of a map.
+ *
+ * @author Maximilian Luz
+ */
+public final class PackedCoordinates {
+    private static final PackedCoordinates EMPTY = new PackedCoordinates(new double[0]);
+
+    private final double[] latlon;
+
+
+    /**
+     * Constructs new {@code PackedCoordinates} backed by the given array. The array is not copied and must not be
+     * modified afterwards.
+     *
+     * @param latlon the alternating latitudes and longitudes, i.e. {@code [lat0, lon0, lat1, lon1, ...]}.
+     */
+    public PackedCoordinates(double[] latlon) {
+        if (latlon.length % 2 != 0)
+            throw new IllegalArgumentException("It must hold: latlon.length % 2 == 0\n" +
+                    "Current: latlon.length = " + latlon.length);
+
+        this.latlon = latlon;
+    }
+
+    /**
+     * Packs the given coordinates.
+     *
+     * @param coordinates the coordinates to pack, may be {@code null}.
+     * @return the packed coordinates or {@code null} if {@code coordinates} is {@code null}.
+     */
+    public static PackedCoordinates of(Coordinate[] coordinates) {
+        if (coordinates == null) return null;
+        if (coordinates.length == 0) return EMPTY;
+
+        double[] latlon = new double[coordinates.length * 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            latlon[2 * i]     = coordinates[i].lat;
+            latlon[2 * i + 1] = coordinates[i].lon;
+        }
+
+        return new PackedCoordinates(latlon);
+    }
+
+
+    /**
+     * Returns the number of coordinates.
+     *
+     * @return the number of coordinates.
+     */
+    public int size() {
+        return latlon.length / 2;
+    }
+
+    /**
+     * Returns the latitude of the coordinate at the given index.
+     *
+     * @param i the index of the coordinate.
+     * @return the latitude of the {@code i}-th coordinate.
+     */
+    public double getLat(int i) {
+        return latlon[2 * i];
+    }
+
+    /**
+     * Returns the longitude of the coordinate at the given index.
+     *
+     * @param i the index of the coordinate.
+     * @return the longitude of the {@code i}-th coordinate.
+     */
+    public double getLon(int i) {
+        return latlon[2 * i + 1];
+    }
+
+    /**
+     * Returns the coordinate at the given index as new object.
+     *
+     * @param i the index of the coordinate.
+     * @return the {@code i}-th coordinate.
+     */
+    public Coordinate get(int i) {
+        return new Coordinate(latlon[2 * i], latlon[2 * i + 1]);
+    }
+
+    /**
+     * Stores the coordinate at the given index in the given object.
+     *
+     * @param i   the index of the coordinate.
+     * @param dst the coordinate to store the result in.
+     * @return {@code dst}.
+     */
+    public Coordinate get(int i, Coordinate dst) {
+        return dst.set(latlon[2 * i], latlon[2 * i + 1]);
+    }
+
+    /**
+     * Checks if the coordinate at the given index equals the given coordinate.
+     *
+     * @param i the index of the coordinate.
+     * @param c the coordinate to compare against.
+     * @return {@code true} if both coordinates are equal, in the sense of {@link Coordinate#equals(Object)}.
+     */
+    public boolean matches(int i, Coordinate c) {
+        return latlon[2 * i] == c.lat && latlon[2 * i + 1] == c.lon;
+    }
+
+    /**
+     * Checks if the coordinate at the given index equals the coordinate of the given sequence at the given index.
+     *
+     * @param i     the index of the coordinate in this sequence.
+     * @param other the other sequence.
+     * @param j     the index of the coordinate in the other sequence.
+     * @return {@code true} if both coordinates are equal, in the sense of {@link Coordinate#equals(Object)}.
+     */
+    public boolean matches(int i, PackedCoordinates other, int j) {
+        return latlon[2 * i] == other.latlon[2 * j] && latlon[2 * i + 1] == other.latlon[2 * j + 1];
+    }
+
+    /**
+     * Returns the coordinates as new objects.
+     *
+     * @return an array containing all coordinates.
+     */
+    public Coordinate[] toArray() {
+        Coordinate[] coordinates = new Coordinate[size()];
+        for (int i = 0; i < coordinates.length; i++)
+            coordinates[i] = get(i);
+        return coordinates;
+    }
+
+    /**
+     * Returns the backing array of alternating latitudes and longitudes. The array must not be modified.
+     *
+     * @return the backing array of these coordinates.
+     */
+    public double[] getData() {
+        return latlon;
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PackedCoordinates)) return false;
+
+        PackedCoordinates other = (PackedCoordinates) obj;
+        return Arrays.equals(this.latlon, other.latlon);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(latlon);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(getClass().getName()).append(" { ");
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) builder.append(", ");
+            builder.append("(").append(getLat(i)).append(", ").append(getLon(i)).append(")");
+        }
+        return builder.append(" }").toString();
+    }
+}
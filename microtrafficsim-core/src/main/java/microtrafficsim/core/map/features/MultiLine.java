@@ -2,6 +2,7 @@ package microtrafficsim.core.map.features;
 
 import microtrafficsim.core.map.Coordinate;
 import microtrafficsim.core.map.FeaturePrimitive;
+import microtrafficsim.core.map.PackedCoordinates;
 
 
 /**
@@ -11,7 +12,7 @@ import microtrafficsim.core.map.FeaturePrimitive;
  */
 public class MultiLine extends FeaturePrimitive {
 
-    public Coordinate[] coordinates;
+    public PackedCoordinates coordinates;
 
     /**
      * Constructs a new {@code MultiLine}.
@@ -20,6 +21,16 @@ public class MultiLine extends FeaturePrimitive {
      * @param coordinates the (ordered) array of coordinates describing this multi-line.
      */
     public MultiLine(long id, Coordinate[] coordinates) {
+        this(id, PackedCoordinates.of(coordinates));
+    }
+
+    /**
+     * Constructs a new {@code MultiLine}.
+     *
+     * @param id          the (unique) id of the multi-line.
+     * @param coordinates the (ordered) coordinates describing this multi-line.
+     */
+    public MultiLine(long id, PackedCoordinates coordinates) {
         super(id);
         this.coordinates = coordinates;
     }
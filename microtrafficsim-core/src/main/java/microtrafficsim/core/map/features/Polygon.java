@@ -2,11 +2,12 @@ package microtrafficsim.core.map.features;
 
 import microtrafficsim.core.map.Coordinate;
 import microtrafficsim.core.map.FeaturePrimitive;
+import microtrafficsim.core.map.PackedCoordinates;
 
 
 public class Polygon extends FeaturePrimitive {
 
-    public Coordinate[] outline;
+    public PackedCoordinates outline;
 
     /**
      * Constructs a new {@code Polygon}.
@@ -15,6 +16,16 @@ public class Polygon extends FeaturePrimitive {
      * @param outline the (ordered) array of coordinates describing the outline of the polygon.
      */
     public Polygon(long id, Coordinate[] outline) {
+        this(id, PackedCoordinates.of(outline));
+    }
+
+    /**
+     * Constructs a new {@code Polygon}.
+     *
+     * @param id      the (unique) id of the multi-line.
+     * @param outline the (ordered) coordinates describing the outline of the polygon.
+     */
+    public Polygon(long id, PackedCoordinates outline) {
         super(id);
         this.outline = outline;
     }
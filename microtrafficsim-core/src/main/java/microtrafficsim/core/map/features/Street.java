@@ -2,6 +2,7 @@ package microtrafficsim.core.map.features;
 
 import microtrafficsim.core.entities.street.StreetEntity;
 import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 
 
 /**
@@ -31,6 +32,23 @@ public class Street extends MultiLine {
      */
     public Street(long id, Coordinate[] nodes, double layer, double length, double[] distances, int numLanesFwd,
                   int numLanesBwd)
+    {
+        this(id, PackedCoordinates.of(nodes), layer, length, distances, numLanesFwd, numLanesBwd);
+    }
+
+    /**
+     * Constructs a new {@code Street}.
+     *
+     * @param id          the (unique) id of the street.
+     * @param nodes       the ordered coordinates describing the geometry of the street.
+     * @param layer       the layer on which the street is.
+     * @param length      the length of the street.
+     * @param distances   the distances of the single line segments.
+     * @param numLanesFwd number of lanes forward in direction of the coordinates
+     * @param numLanesBwd number of lanes backward in direction of the coordinates
+     */
+    public Street(long id, PackedCoordinates nodes, double layer, double length, double[] distances, int numLanesFwd,
+                  int numLanesBwd)
     {
         super(id, nodes);
 
@@ -17,6 +17,7 @@ import microtrafficsim.core.vis.mesh.style.Style;
 import microtrafficsim.core.vis.opengl.shader.resources.ShaderProgramSource;
 import microtrafficsim.core.vis.opengl.utils.Color;
 import microtrafficsim.osm.parser.features.FeatureDependency;
+import microtrafficsim.osm.parser.features.TagPredicate;
 import microtrafficsim.osm.primitives.Way;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 import microtrafficsim.utils.resources.PackagedResource;
@@ -348,7 +349,7 @@ public abstract class BasicStyleSheet implements StyleSheet {
         dependency.addRequires(DEPENDS_ON_UNIFICATION);
         dependency.addRequires(DEPENDS_ON_STREETGRAPH);
 
-        return new MapFeatureDefinition<>(name, dependency, generator, n -> false, predicate);
+        return new MapFeatureDefinition<>(name, dependency, generator, TagPredicate.none(), predicate);
     }
 
     /**
@@ -4,10 +4,21 @@ import microtrafficsim.core.logic.vehicles.machines.Vehicle;
 import microtrafficsim.core.vis.opengl.utils.Color;
 import microtrafficsim.utils.emotions.Hulk;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * @author Dominic Parga Cacheiro
  */
 public interface VehicleStyleSheet {
+
+    /**
+     * Unmodifiable set containing only {@link ColorDependency#UNKNOWN}.
+     */
+    Set<ColorDependency> UNKNOWN_COLOR_DEPENDENCIES
+            = Collections.unmodifiableSet(EnumSet.of(ColorDependency.UNKNOWN));
+
     /**
      * @return a default color for all vehicles. Default implementation returns {@code Color.fromRGBA(0xCC4C1AF0)}.
      *
@@ -19,8 +30,9 @@ public interface VehicleStyleSheet {
 
     /**
      * <p>
-     * This method returns a vehicle color depending on the vehicle itself. This method is called in
-     * {@link Vehicle}, so the color is getting updated after every simulation step.
+     * This method returns a vehicle color depending on the vehicle itself. This method is called lazily by the vehicle
+     * overlays: at most once per rendered frame and only for vehicles being drawn. If none of the attributes returned
+     * by {@link #getColorDependencies()} has changed since the last call for a vehicle, it is not called again.
      *
      * <p>
      * The color could be dependant of the vehicle's anger based defined by {@link Hulk}
@@ -31,4 +43,28 @@ public interface VehicleStyleSheet {
      * @return The new vehicle color after the current vehicle step.
      */
     Color getColor(Vehicle vehicle);
+
+    /**
+     * This method is called per drawn vehicle and frame, so it should return a constant instead of creating a new set.
+     *
+     * @return the unmodifiable set of attributes {@link #getColor(Vehicle)} depends on. An empty set means a constant
+     * color per vehicle. Default implementation returns {@link #UNKNOWN_COLOR_DEPENDENCIES}, so the color is
+     * evaluated in every frame the vehicle is drawn.
+     */
+    default Set<ColorDependency> getColorDependencies() {
+        return UNKNOWN_COLOR_DEPENDENCIES;
+    }
+
+
+    /**
+     * Vehicle attributes a color can depend on.
+     */
+    enum ColorDependency {
+        /** {@link Vehicle#getVelocity()} */
+        VELOCITY,
+        /** {@link Hulk#getAnger()} of the vehicle's driver */
+        ANGER,
+        /** anything else, so the color has to be evaluated every time */
+        UNKNOWN
+    }
 }
@@ -7,6 +7,10 @@ import microtrafficsim.core.vis.opengl.utils.Color;
 import microtrafficsim.math.MathUtils;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 
 /**
  * A monochrome style-sheet for the MapViewer.
@@ -16,6 +20,9 @@ import microtrafficsim.utils.logging.EasyMarkableLogger;
 public class DarkMonochromeStyleSheet extends BasicStyleSheet {
     private static final EasyMarkableLogger logger = new EasyMarkableLogger(DarkMonochromeStyleSheet.class);
 
+    private static final Set<ColorDependency> COLOR_DEPENDENCIES
+            = Collections.unmodifiableSet(EnumSet.of(ColorDependency.VELOCITY));
+
 
     @Override
     public Color getBackgroundColor() {
@@ -70,4 +77,9 @@ public class DarkMonochromeStyleSheet extends BasicStyleSheet {
         int v = MathUtils.clamp(vehicle.getVelocity(), 0, colors.length - 1);
         return colors[v];
     }
+
+    @Override
+    public Set<ColorDependency> getColorDependencies() {
+        return COLOR_DEPENDENCIES;
+    }
 }
@@ -7,6 +7,10 @@ import microtrafficsim.core.vis.opengl.utils.Color;
 import microtrafficsim.math.MathUtils;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 
 /**
  * A dark style-sheet for the MapViewer. It uses the colors defined in {@link LightStyleSheet} inverted.
@@ -16,6 +20,9 @@ import microtrafficsim.utils.logging.EasyMarkableLogger;
 public class DarkStyleSheet extends BasicStyleSheet {
     private static final EasyMarkableLogger logger = new EasyMarkableLogger(DarkStyleSheet.class);
 
+    private static final Set<ColorDependency> COLOR_DEPENDENCIES
+            = Collections.unmodifiableSet(EnumSet.of(ColorDependency.VELOCITY));
+
 
     @Override
     public Color getBackgroundColor() {
@@ -91,4 +98,9 @@ public class DarkStyleSheet extends BasicStyleSheet {
         int v = MathUtils.clamp(vehicle.getVelocity(), 0, colors.length - 1);
         return colors[v];
     }
+
+    @Override
+    public Set<ColorDependency> getColorDependencies() {
+        return COLOR_DEPENDENCIES;
+    }
 }
\ No newline at end of file
@@ -2,6 +2,10 @@ package microtrafficsim.core.map.style.predicates;
 
 import microtrafficsim.osm.primitives.Way;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
 
 /**
  * A predicate usable to select streets.
@@ -24,6 +28,11 @@ public class BasicStreetBasePredicate implements StreetBasePredicate {
         return type;
     }
 
+    @Override
+    public Map<String, Set<String>> getCandidateTags() {
+        return Collections.singletonMap("highway", Collections.singleton(type));
+    }
+
     @Override
     public boolean test(Way w) {
         return w.visible && type.equals(w.tags.get("highway"))
@@ -2,6 +2,8 @@ package microtrafficsim.core.map.style.predicates;
 
 import microtrafficsim.osm.primitives.Way;
 
+import java.util.*;
+
 /**
  * A predicate usable to select major streets (i.e. streets and their associated link-type).
  *
@@ -24,6 +26,11 @@ public class MajorStreetBasePredicate extends BasicStreetBasePredicate {
         return link;
     }
 
+    @Override
+    public Map<String, Set<String>> getCandidateTags() {
+        return Collections.singletonMap("highway", new HashSet<>(Arrays.asList(type, link)));
+    }
+
     @Override
     public boolean test(Way w) {
         return w.visible && (type.equals(w.tags.get("highway")) || link.equals(w.tags.get("highway")))
@@ -1,10 +1,9 @@
 package microtrafficsim.core.map.style.predicates;
 
+import microtrafficsim.osm.parser.features.TagPredicate;
 import microtrafficsim.osm.primitives.Way;
 
-import java.util.function.Predicate;
 
-
-public interface StreetBasePredicate extends Predicate<Way> {
+public interface StreetBasePredicate extends TagPredicate<Way> {
     String getType();
 }
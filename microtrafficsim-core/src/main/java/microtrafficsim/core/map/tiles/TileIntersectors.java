@@ -44,9 +44,9 @@ public class TileIntersectors {
     public static boolean intersect(MultiLine line, Rect2d tile, Projection projection) {
         // TODO: verify and fix problem with horizontal and vertical lines
 
-        Vec2d a = projection.project(line.coordinates[0]);
-        for (int i = 1; i < line.coordinates.length; i++) {
-            Vec2d b = projection.project(line.coordinates[i]);
+        Vec2d a = projection.project(line.coordinates, 0);
+        for (int i = 1; i < line.coordinates.size(); i++) {
+            Vec2d b = projection.project(line.coordinates, i);
 
             // if completely out of bounds, continue
             if ((a.x < tile.xmin && b.x < tile.xmin) || (a.x > tile.xmax && b.x > tile.xmax)) continue;
@@ -89,12 +89,12 @@ public class TileIntersectors {
      * @return {@code true} if the projected polygon intersects with the given tile.
      */
     public static boolean intersect(Polygon polygon, Rect2d tile, Projection projection) {
-        Vec2d[] outline = new Vec2d[polygon.outline.length];
+        Vec2d[] outline = new Vec2d[polygon.outline.size()];
         Rect2d aabb = new Rect2d(Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE);
 
         // calculate bounding box and project vertices
         for (int i = 0; i < outline.length; i++) {
-            outline[i] = projection.project(polygon.outline[i]);
+            outline[i] = projection.project(polygon.outline, i);
 
             if (aabb.xmin > outline[i].x) aabb.xmin = outline[i].x;
             if (aabb.xmax < outline[i].x) aabb.xmax = outline[i].x;
@@ -16,6 +16,7 @@ import microtrafficsim.osm.parser.features.FeatureDefinition;
 import microtrafficsim.osm.parser.features.FeatureDependency;
 import microtrafficsim.osm.parser.features.FeatureGenerator;
 import microtrafficsim.osm.parser.features.FeatureSystem;
+import microtrafficsim.osm.parser.features.TagPredicate;
 import microtrafficsim.osm.parser.relations.RelationFactory;
 import microtrafficsim.osm.primitives.Node;
 import microtrafficsim.osm.primitives.Way;
@@ -104,8 +105,8 @@ public class OSMParser {
                 "microtrafficsim.core.parser.OSMParser.BoundsExtractor",
                 new FeatureDependency(null, extractorRequires),
                 extractor,
-                (Node n) -> false,
-                (Way w) -> false
+                TagPredicate.none(),
+                TagPredicate.none()
         );
 
         featuresys.putFeature(extractordef);
@@ -99,7 +99,7 @@ public class StreetGraphGenerator implements FeatureGenerator {
             bounds = dataset.bounds;
         }
 
-        Graph graph = new StreetGraph(bounds);
+        StreetGraph graph = new StreetGraph(bounds);
 
         // create required nodes and edges
         for (WayEntity way : dataset.ways.values()) {
@@ -117,7 +117,7 @@ public class StreetGraphGenerator implements FeatureGenerator {
             node.remove(StreetGraphNodeComponent.class);
 
         // finish
-        graph.setSeed(config.seed);
+        graph.setSeed(config.seed, config.randomGeneratorType);
         for (Node node : graph.getNodes()) {
             node.updateCrossingIndices();
         }
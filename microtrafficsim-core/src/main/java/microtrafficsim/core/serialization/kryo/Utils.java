@@ -4,6 +4,7 @@ package microtrafficsim.core.serialization.kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 
 public class Utils {
     private Utils() {}
@@ -36,4 +37,29 @@ public class Utils {
             return null;
         }
     }
+
+    /**
+     * Writes the given coordinates in the same format as {@link #writeCoordinates(Output, Coordinate[])}.
+     */
+    public static void writeCoordinates(Output output, PackedCoordinates coordinates) {
+        if (coordinates != null) {
+            output.writeInt(coordinates.size());
+            output.writeDoubles(coordinates.getData());
+        } else {
+            output.writeInt(-1);
+        }
+    }
+
+    /**
+     * Reads coordinates written by {@link #writeCoordinates(Output, Coordinate[])} without creating one object per
+     * coordinate.
+     */
+    public static PackedCoordinates readPackedCoordinates(Input input) {
+        int len = input.readInt();
+        if (len >= 0) {
+            return new PackedCoordinates(input.readDoubles(len * 2));
+        } else {
+            return null;
+        }
+    }
 }
@@ -6,7 +6,7 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import microtrafficsim.core.exfmt.ecs.Component;
 import microtrafficsim.core.exfmt.ecs.entities.LineEntity;
-import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.core.serialization.kryo.Utils;
 
 import java.util.Map;
@@ -25,7 +25,7 @@ public class LineEntitySerializer extends Serializer<LineEntity> {
     @SuppressWarnings("unchecked")
     public LineEntity read(Kryo kryo, Input input, Class<LineEntity> type) {
         long id = kryo.readObject(input, Long.class);
-        Coordinate[] coordinates = Utils.readCoordinates(input);
+        PackedCoordinates coordinates = Utils.readPackedCoordinates(input);
 
         LineEntity entity = new LineEntity(id, coordinates);
         kryo.reference(entity);
@@ -6,7 +6,7 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import microtrafficsim.core.exfmt.ecs.Component;
 import microtrafficsim.core.exfmt.ecs.entities.PolygonEntity;
-import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.core.serialization.kryo.Utils;
 
 import java.util.Map;
@@ -25,7 +25,7 @@ public class PolygonEntitySerializer extends Serializer<PolygonEntity> {
     @SuppressWarnings("unchecked")
     public PolygonEntity read(Kryo kryo, Input input, Class<PolygonEntity> type) {
         long id = kryo.readObject(input, Long.class);
-        Coordinate[] outline = Utils.readCoordinates(input);
+        PackedCoordinates outline = Utils.readPackedCoordinates(input);
 
         PolygonEntity entity = new PolygonEntity(id, outline);
         kryo.reference(entity);
@@ -59,18 +59,42 @@ public class AStar<N extends ShortestPathNode<E>, E extends ShortestPathEdge<N>>
     */
     @Override
     public void findShortestPath(N start, N end, Stack<? super E> shortestPath) {
+        findShortestPath(start, null, end, shortestPath);
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    /**
+     * Like {@link #findShortestPath(ShortestPathNode, ShortestPathNode, Stack)}, but the path starts at the
+     * destination of the given edge and its first edge has to be a leaving edge of this destination for the given
+     * incoming edge, e.g. for continuing the route of a vehicle driving on the given edge. The given edge is not part
+     * of the path.
+     *
+     * @param incoming the path starts at this edge's destination
+     * @param end Last node of the shortest path
+     * @param shortestPath This data structure gets NOT cleared, but filled with the edges of the shortest path
+     */
+    public void findShortestPath(E incoming, N end, Stack<? super E> shortestPath) {
+        findShortestPath(incoming.getDestination(), incoming, end, shortestPath);
+    }
+
+    private void findShortestPath(N start, E incoming, N end, Stack<? super E> shortestPath) {
         if (start == end) return;
 
         HashMap<N, WeightedNode<N, E>> visitedNodes = new HashMap<>();
         PriorityQueue<WeightedNode<N, E>> queue = new PriorityQueue<>();
-        queue.add(new WeightedNode<>(start, null, null, 0f, estimationFunction.applyAsDouble(start, end)));
+        queue.add(new WeightedNode<>(start, incoming, null, 0f, estimationFunction.applyAsDouble(start, end)));
 
         while (!queue.isEmpty()) {
             WeightedNode<N, E> current = queue.poll();
 
             if (current.node == end) { // shortest path found
                 // create shortest path
-                while (current.predecessor != null) {
+                while (current.node != start) {
                     shortestPath.push(current.predecessor);
                     current = visitedNodes.get(current.predecessor.getOrigin());
                 }
@@ -4,6 +4,7 @@ import microtrafficsim.core.shortestpath.ShortestPathEdge;
 import microtrafficsim.core.shortestpath.ShortestPathNode;
 import microtrafficsim.math.HaversineDistanceCalculator;
 
+import java.util.function.ToDoubleFunction;
 
 /**
  * Functions to create various A* algorithms.
@@ -69,4 +70,27 @@ public class AStars {
                     return 1000 * distanceInCells / maxCellsPerSecond;
                 });
     }
+
+    /**
+     * Create a time-based A* algorithm with the given travel times, e.g. estimated from the current traffic.
+     *
+     * @param timeCostMillis travel time of an edge in ms; has to be {@code >=}
+     *                       {@link ShortestPathEdge#getTimeCostMillis()} for the heuristic being optimistic
+     * @return Implementation of the A* algorithm for calculating the fastest path using the given travel times and the
+     * linear distance driven with {@code maxCellsPerSecond} as heuristic.
+     */
+    public static <N extends ShortestPathNode<E>, E extends ShortestPathEdge<N>> AStar<N, E>
+        fastestPathAStar(ToDoubleFunction<? super E> timeCostMillis, double metersPerCell, double maxCellsPerSecond)
+    {
+        return new AStar<N, E>(
+                timeCostMillis,
+                (destination, routeDestination) -> {
+
+                    int distanceInCells = (int) (HaversineDistanceCalculator.getDistance(
+                            destination.getCoordinate(),
+                            routeDestination.getCoordinate()) / metersPerCell);
+
+                    return 1000 * distanceInCells / maxCellsPerSecond;
+                });
+    }
 }
@@ -26,6 +26,7 @@ public interface LogicVehicleFactory {
         }
         BasicDriver.InitSetup setup = new BasicDriver.InitSetup(seed);
         setup.spawnDelay = metaRoute.getSpawnDelay();
+        setup.randomGeneratorType = config.randomGeneratorType;
         Driver driver = new BasicDriver(setup);
         driver.setRoute(metaRoute);
         driver.setVehicle(vehicle);
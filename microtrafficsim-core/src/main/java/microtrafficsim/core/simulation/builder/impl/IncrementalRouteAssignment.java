@@ -0,0 +1,172 @@
+package microtrafficsim.core.simulation.builder.impl;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.shortestpath.ShortestPathAlgorithm;
+import microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler;
+import microtrafficsim.utils.concurrency.interruptsafe.InterruptSafeExecutors;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * <p>
+ * Computes the routes of vehicles, which have been created with their meta routes, on background threads in order of
+ * their spawn delays. As {@link SpawnScheduler.Lookahead}, it sets a vehicle's route and registers the vehicle in the
+ * graph before the vehicle becomes due. If the route has not been computed yet, the calling simulation thread waits
+ * for it, so the results do not depend on the time routing takes.
+ *
+ * <p>
+ * The routes are computed in packs; the vehicle of index i has the id {@code firstId + i}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+class IncrementalRouteAssignment implements SpawnScheduler.Lookahead {
+    private static final Logger logger = new EasyMarkableLogger(IncrementalRouteAssignment.class);
+
+    private final long                                        firstId;
+    private final Route[]                                     metaRoutes;
+    private final ShortestPathAlgorithm<Node, DirectedEdge>[] scouts;
+    private final Vehicle[]                                   vehicles;
+
+    /* written by the workers, read after waiting for the route's pack */
+    private final StackRoute[] routes;
+    private final int[]        packOf;
+    private Future<?>[]        packs;
+
+    /* only used by the thread calling prepare(...) */
+    private final boolean[] isAssigned;
+
+    private ExecutorService pool;
+
+
+    /**
+     * @param firstId    id of the vehicle of index 0
+     * @param metaRoutes the meta route of every vehicle; routes of other types are ignored
+     * @param scouts     the scout of every meta route; null for routes without vehicle
+     * @param vehicles   the vehicles in order of their ids; null for routes skipped by the builder
+     */
+    IncrementalRouteAssignment(long firstId,
+                               Route[] metaRoutes,
+                               ShortestPathAlgorithm<Node, DirectedEdge>[] scouts,
+                               Vehicle[] vehicles)
+    {
+        this.firstId    = firstId;
+        this.metaRoutes = metaRoutes;
+        this.scouts     = scouts;
+        this.vehicles   = vehicles;
+
+        routes     = new StackRoute[vehicles.length];
+        packOf     = new int[vehicles.length];
+        isAssigned = new boolean[vehicles.length];
+        for (int i = 0; i < vehicles.length; i++)
+            isAssigned[i] = scouts[i] == null;
+    }
+
+    /**
+     * Starts computing all routes in order of their spawn delays (and their ids for equal spawn delays).
+     *
+     * @param nThreads number of background threads
+     * @param packSize number of routes computed in one go
+     */
+    void start(int nThreads, int packSize) {
+        Integer[] order = new Integer[vehicles.length];
+        int count = 0;
+        for (int i = 0; i < vehicles.length; i++)
+            if (!isAssigned[i])
+                order[count++] = i;
+        order = Arrays.copyOf(order, count);
+        Arrays.sort(order, Comparator.comparingInt(i -> metaRoutes[i].getSpawnDelay())); // stable
+
+        pool  = InterruptSafeExecutors.newFixedThreadPool(Math.max(1, nThreads));
+        packs = new Future<?>[(count + packSize - 1) / packSize];
+        for (int pack = 0; pack < packs.length; pack++) {
+            Integer[] indices = Arrays.copyOfRange(order, pack * packSize, Math.min((pack + 1) * packSize, count));
+            for (int i : indices)
+                packOf[i] = pack;
+
+            packs[pack] = pool.submit(() -> {
+                for (int i : indices) {
+                    Route metaRoute = metaRoutes[i];
+                    StackRoute route = new StackRoute(metaRoute.getSpawnDelay());
+                    route.setMonitored(metaRoute.isMonitored());
+                    scouts[i].findShortestPath(metaRoute.getOrigin(), metaRoute.getDestination(), route);
+                    // interrupted by cancel(), so the route may be incomplete; the interrupt-safe future is only
+                    // cancelled if the task throws
+                    if (Thread.currentThread().isInterrupted())
+                        throw new CancellationException();
+                    routes[i] = route;
+                }
+            });
+        }
+        // computes the submitted packs and terminates afterwards
+        pool.shutdown();
+
+        logger.debug("computing " + count + " routes in the background");
+    }
+
+    /**
+     * Stops computing routes, e.g. because the scenario is prepared again. Every pack is cancelled, so preparing a
+     * vehicle whose route has not been computed throws a {@link CancellationException} instead of waiting for a pack
+     * that never runs.
+     */
+    void cancel() {
+        if (packs != null)
+            for (Future<?> pack : packs)
+                pack.cancel(true);
+        if (pool != null)
+            pool.shutdownNow();
+    }
+
+
+    /*
+    |==============================|
+    | (i) SpawnScheduler.Lookahead |
+    |==============================|
+    */
+    @Override
+    public void prepare(List<Vehicle> vehicles) {
+        for (Vehicle vehicle : vehicles) {
+            long index = vehicle.getId() - firstId;
+            if (index < 0 || index >= this.vehicles.length)
+                continue;
+            int i = (int) index;
+            if (isAssigned[i] || this.vehicles[i] != vehicle)
+                continue;
+
+            await(packs[packOf[i]]);
+            vehicle.getDriver().setRoute(routes[i]);
+            vehicle.registerInGraph();
+            isAssigned[i] = true;
+        }
+    }
+
+    /**
+     * @throws CancellationException if the pack has been cancelled or the calling thread has been interrupted while
+     *                               waiting; in the latter case, the thread's interrupt flag is set again
+     */
+    private static void await(Future<?> pack) {
+        try {
+            pack.get();
+        } catch (InterruptedException e) {
+            // the vehicle cannot spawn without its route
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("Interrupted while waiting for routes.");
+            cancellation.initCause(e);
+            throw cancellation;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
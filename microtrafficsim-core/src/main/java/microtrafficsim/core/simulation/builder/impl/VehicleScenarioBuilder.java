@@ -14,6 +14,7 @@ import microtrafficsim.core.simulation.builder.ScenarioBuilder;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
 import microtrafficsim.core.simulation.scenarios.Scenario;
 import microtrafficsim.math.random.Seeded;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 import microtrafficsim.utils.Resettable;
 import microtrafficsim.utils.concurrency.delegation.StaticThreadDelegator;
 import microtrafficsim.utils.concurrency.delegation.ThreadDelegator;
@@ -24,8 +25,13 @@ import microtrafficsim.utils.progressable.ProgressListener;
 import microtrafficsim.utils.strings.StringUtils;
 import org.slf4j.Logger;
 
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * @author Dominic Parga Cacheiro
@@ -34,12 +40,16 @@ public class VehicleScenarioBuilder implements ScenarioBuilder, Seeded, Resettab
     private Logger logger = new EasyMarkableLogger(VehicleScenarioBuilder.class);
 
     /** Used for printing vehicle creation process */
-    private int lastPercentage = 0;
+    private final AtomicInteger lastPercentage = new AtomicInteger(0);
 
     protected final ConcurrentLongIDGenerator idGenerator;
     protected final ConcurrentSeedGenerator   seedGenerator;
     private final LogicVehicleFactory logicVehicleFactory;
     private final VisVehicleFactory visVehicleFactory;
+    /** Computes the routes of the last prepared scenario if its preparation is streaming */
+    private IncrementalRouteAssignment incrementalAssignment;
+    /** Only routes accepted by this filter get a vehicle; null accepts all routes */
+    private Predicate<Route> routeFilter;
 
 
     public VehicleScenarioBuilder(long seed,
@@ -65,14 +75,25 @@ public class VehicleScenarioBuilder implements ScenarioBuilder, Seeded, Resettab
     }
 
 
-    private Vehicle createVehicle(Scenario scenario, Route metaRoute) {
+    /**
+     * Only the routes of the scenario accepted by the given filter get a vehicle, e.g. the routes starting in the
+     * region of one shard of a distributed simulation. The other routes are skipped after drawing their ids, seeds
+     * and scouts, so the created vehicles are exactly the same as when preparing all routes.
+     *
+     * @param routeFilter gets the scenario's routes (e.g. meta routes) in order; null accepts all routes
+     */
+    public void setRouteFilter(Predicate<Route> routeFilter) {
+        this.routeFilter = routeFilter;
+    }
+
+    public Predicate<Route> getRouteFilter() {
+        return routeFilter;
+    }
+
+
+    private Vehicle createVehicle(long id, long seed, Scenario scenario, Route route) {
         // create vehicle components
-        Vehicle logicVehicle = logicVehicleFactory.create(
-                idGenerator.next(),
-                seedGenerator.next(),
-                scenario,
-                metaRoute
-        );
+        Vehicle logicVehicle = logicVehicleFactory.create(id, seed, scenario, route);
         VisualizationVehicleEntity visVehicle = null;
         if (visVehicleFactory != null)
             visVehicle = visVehicleFactory.create();
@@ -140,10 +161,7 @@ public class VehicleScenarioBuilder implements ScenarioBuilder, Seeded, Resettab
         logger.info("CREATING VEHICLES started");
         long time_routes = System.nanoTime();
 
-        if (scenario.getConfig().multiThreading.nThreads > 1)
-            multiThreadedVehicleRouteAssignment(scenario, listener);
-        else
-            singleThreadedVehicleRouteAssignment(scenario, listener);
+        vehicleRouteAssignment(scenario, listener);
 
         time_routes = System.nanoTime() - time_routes;
         logger.info(StringUtils.buildTimeString(
@@ -153,82 +171,166 @@ public class VehicleScenarioBuilder implements ScenarioBuilder, Seeded, Resettab
         ).toString());
     }
 
-    private void multiThreadedVehicleRouteAssignment(Scenario scenario, ProgressListener listener)
+    /**
+     * <p>
+     * Creates one vehicle per route of the scenario in three stages:
+     * <ol>
+     * <li> Sequentially, everything depending on the order of the routes is drawn: the scout of every meta route
+     * (the scenario may choose it randomly), a range of ids and, unless split seeds are used, the seeds.
+     * <li> Routing, vehicle creation and registering in the graph are executed concurrently in packs of
+     * {@link microtrafficsim.core.simulation.configs.MultiThreadingConfig#vehiclesPerRunnable vehiclesPerRunnable}
+     * routes. The i-th route gets the i-th id and the i-th seed, so no worker waits for another one.
+     * <li> All vehicles are added to the vehicle container at once in order of their ids.
+     * </ol>
+     * Hence the vehicles are the same for every number of threads. Routes rejected by the
+     * {@link #setRouteFilter(Predicate) route filter} are dropped after stage 1, so they do not change the other
+     * vehicles either.
+     *
+     * <p>
+     * If {@link microtrafficsim.core.simulation.configs.ScenarioConfig#streamingPreparationEnabled} is true, the
+     * vehicles are created with their meta routes in stage 2. Afterwards, an {@link IncrementalRouteAssignment}
+     * computes their routes in the background; only the vehicles spawning in the first step get their routes before
+     * this method returns.
+     */
+    private void vehicleRouteAssignment(Scenario scenario, ProgressListener listener)
             throws InterruptedException {
-        lastPercentage = 0;
-        TreeMap<Long, ShortestPathAlgorithm<Node, DirectedEdge>> vehicleScouts = new TreeMap<>();
-
-        // create vehicles with empty routes and add them to the scenario (sequentially for determinism)
-        for (Route metaRoute : scenario.getRoutes()) {  // "synchronized"
-            if (Thread.interrupted())
-                throw new InterruptedException();
+        lastPercentage.set(0);
+        final SimulationConfig config = scenario.getConfig();
 
-            Vehicle vehicle = createVehicle(scenario, metaRoute.clone());
-            scenario.getVehicleContainer().addVehicle(vehicle);
+        /* sequential: everything depending on the order of the routes */
+        final Route[] metaRoutes = scenario.getRoutes().toArray(new Route[0]);
+        final int vehicleCount = metaRoutes.length;
+
+        final boolean[] isSkipped = new boolean[vehicleCount];
+        int skippedCount = 0;
+        if (routeFilter != null)
+            for (int i = 0; i < vehicleCount; i++)
+                if (!routeFilter.test(metaRoutes[i])) {
+                    isSkipped[i] = true;
+                    skippedCount++;
+                }
+        final int createdCount = vehicleCount - skippedCount;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ShortestPathAlgorithm<Node, DirectedEdge>[] scouts = new ShortestPathAlgorithm[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++) {
+            if (metaRoutes[i] instanceof MetaRoute) {
+                // drawn for skipped routes as well, because the scenario may choose the scouts randomly
+                scouts[i] = scenario.getScoutFactory().get();
+                if (isSkipped[i])
+                    scouts[i] = null;
+            }
+        }
 
-            vehicleScouts.put(vehicle.getId(), scenario.getScoutFactory().get());
+        final long firstId = idGenerator.reserve(vehicleCount);
+        final long[] seeds;
+        if (config.randomGeneratorType == StatefulRandomGenerator.Type.SPLIT_MIX) {
+            // split streams do not depend on the order of creation, but they would change the results of existing
+            // seeds
+            seeds = null;
+        } else {
+            seeds = new long[vehicleCount];
+            for (int i = 0; i < vehicleCount; i++)
+                seeds[i] = seedGenerator.next();
         }
 
-        // calculate routes multithreaded
-        final SimulationConfig config = scenario.getConfig();
+        if (Thread.interrupted())
+            throw new InterruptedException();
+
+
+        /* concurrent: routing and creating vehicles */
+        final boolean isStreaming = config.scenario.streamingPreparationEnabled;
+        final Vehicle[] vehicles = new Vehicle[vehicleCount];
         final AtomicInteger finishedVehiclesCount = new AtomicInteger(0);
-        ThreadDelegator delegator = new StaticThreadDelegator(config.multiThreading.nThreads);
-        delegator.doTask(
-                vehicle -> {
-                    Route metaRoute = vehicle.getDriver().getRoute();
-                    if (metaRoute instanceof MetaRoute) {
-                        StackRoute route = new StackRoute(metaRoute.getSpawnDelay());
-                        route.setMonitored(metaRoute.isMonitored());
-
-                        ShortestPathAlgorithm<Node, DirectedEdge> scout = vehicleScouts.get(vehicle.getId());
-                        scout.findShortestPath(metaRoute.getOrigin(), metaRoute.getDestination(), route);
-
-                        vehicle.getDriver().setRoute(route);
-                    }
-
-                    vehicle.registerInGraph();
-                    int bla = finishedVehiclesCount.incrementAndGet();
-                    logProgress(bla, config.maxVehicleCount, listener);
-                },
-                scenario.getVehicleContainer().getVehicles().iterator(),
-                config.multiThreading.vehiclesPerRunnable);
-    }
+        IntConsumer prepareVehicle = i -> {
+            if (isSkipped[i])
+                return;
+
+            Route route = metaRoutes[i];
+            if (route instanceof MetaRoute && !isStreaming) {
+                StackRoute stackRoute = new StackRoute(route.getSpawnDelay());
+                stackRoute.setMonitored(route.isMonitored());
+                scouts[i].findShortestPath(route.getOrigin(), route.getDestination(), stackRoute);
+                route = stackRoute;
+            } else {
+                route = route.clone();
+            }
 
-    private void singleThreadedVehicleRouteAssignment(Scenario scenario, ProgressListener listener)
-            throws InterruptedException {
-        lastPercentage = 0;
+            long id   = firstId + i;
+            long seed = seeds == null ? seedGenerator.split(id) : seeds[i];
+            Vehicle vehicle = createVehicle(id, seed, scenario, route);
+            vehicle.registerInGraph(); // does nothing for meta routes
+            vehicles[i] = vehicle;
+
+            logProgress(finishedVehiclesCount.incrementAndGet(), createdCount, listener);
+        };
+
+        int packSize = Math.max(1, config.multiThreading.vehiclesPerRunnable);
+        if (config.multiThreading.nThreads > 1) {
+            ThreadDelegator delegator = new StaticThreadDelegator(config.multiThreading.nThreads);
+            delegator.doTask(
+                    first -> {
+                        int last = Math.min(first + packSize, vehicleCount);
+                        for (int i = first; i < last; i++)
+                            prepareVehicle.accept(i);
+                    },
+                    IntStream.range(0, (vehicleCount + packSize - 1) / packSize)
+                            .map(pack -> pack * packSize)
+                            .iterator(),
+                    1);
+        } else {
+            for (int i = 0; i < vehicleCount; i++) {
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                prepareVehicle.accept(i);
+            }
+        }
 
-        int vehicleCount = 0;
-        for (Route metaRoute : scenario.getRoutes()) {
-            if (Thread.interrupted())
-                throw new InterruptedException();
 
-            if (metaRoute instanceof MetaRoute) {
-                StackRoute route = new StackRoute(metaRoute.getSpawnDelay());
-                route.setMonitored(metaRoute.isMonitored());
+        /* sequential: adding vehicles */
+        if (skippedCount == 0) {
+            scenario.getVehicleContainer().addVehicles(Arrays.asList(vehicles));
+        } else {
+            List<Vehicle> created = new ArrayList<>(createdCount);
+            for (Vehicle vehicle : vehicles)
+                if (vehicle != null)
+                    created.add(vehicle);
+            scenario.getVehicleContainer().addVehicles(created);
+            logger.debug(skippedCount + " of " + vehicleCount + " routes skipped by the route filter");
+        }
 
-                ShortestPathAlgorithm<Node, DirectedEdge> scout = scenario.getScoutFactory().get();
-                scout.findShortestPath(metaRoute.getOrigin(), metaRoute.getDestination(), route);
 
-                metaRoute = route;
-            }
-            Vehicle vehicle = createVehicle(scenario, metaRoute.clone());
-            scenario.getVehicleContainer().addVehicle(vehicle);
-            vehicle.registerInGraph();
-            logProgress(vehicleCount, scenario.getConfig().maxVehicleCount, listener);
+        /* streaming: routing in the background */
+        if (isStreaming) {
+            incrementalAssignment = new IncrementalRouteAssignment(firstId, metaRoutes, scouts, vehicles);
+            incrementalAssignment.start(config.multiThreading.nThreads, packSize);
+            scenario.getVehicleContainer().getSpawnScheduler().setLookahead(incrementalAssignment);
 
-            vehicleCount++;
+            // the vehicles spawning in the first step are registered in the graph like without streaming
+            List<Vehicle> dueFirst = new ArrayList<>();
+            for (Vehicle vehicle : vehicles)
+                if (vehicle != null && vehicle.getDriver().getTravellingTime() >= 0)
+                    dueFirst.add(vehicle);
+            incrementalAssignment.prepare(dueFirst);
         }
     }
 
-    private synchronized void logProgress(int finished, int total, ProgressListener listener) {
+    /**
+     * Lock-free: if several threads pass the next step of {@code percentageDelta} at the same time, only one of them
+     * logs it.
+     */
+    private void logProgress(int finished, int total, ProgressListener listener) {
         final int percentageDelta = 5;
 
         int percentage = (100 * finished) / total;
-        if (percentage - lastPercentage >= percentageDelta) {
-            logger.info(percentage + "% vehicles created.");
-            if (listener != null) listener.didProgress(percentage);
-            lastPercentage += percentageDelta;
+        int last       = lastPercentage.get();
+        while (percentage - last >= percentageDelta) {
+            if (lastPercentage.compareAndSet(last, last + percentageDelta)) {
+                logger.info(percentage + "% vehicles created.");
+                if (listener != null) listener.didProgress(percentage);
+                return;
+            }
+            last = lastPercentage.get();
         }
     }
 
@@ -252,6 +354,10 @@ public class VehicleScenarioBuilder implements ScenarioBuilder, Seeded, Resettab
         logger.debug("reset " + getClass().getSimpleName());
         idGenerator.reset();
         seedGenerator.reset();
+        if (incrementalAssignment != null) {
+            incrementalAssignment.cancel();
+            incrementalAssignment = null;
+        }
     }
 
 
@@ -10,6 +10,13 @@ public final class MultiThreadingConfig {
     public int nThreads;
     public int vehiclesPerRunnable;
     public int nodesPerThread;
+    /**
+     * If true and {@link #nThreads} {@literal >} 1, the street graph is split into one region per thread and every
+     * thread simulates the vehicles and nodes of its region, see
+     * {@link microtrafficsim.core.simulation.core.stepexecutors.PartitionedVehicleStepExecutor
+     * PartitionedVehicleStepExecutor}. {@link #vehiclesPerRunnable} and {@link #nodesPerThread} are ignored then.
+     */
+    public boolean graphPartitioningEnabled;
 
     /**
      * Just calls {@link #setup()}.
@@ -25,6 +32,7 @@ public final class MultiThreadingConfig {
         nThreads            = 8;
         vehiclesPerRunnable = 300;
         nodesPerThread      = 500;
+        graphPartitioningEnabled = false;
     }
 
     /**
@@ -36,5 +44,6 @@ public final class MultiThreadingConfig {
         nThreads            = config.nThreads;
         vehiclesPerRunnable = config.vehiclesPerRunnable;
         nodesPerThread      = config.nodesPerThread;
+        graphPartitioningEnabled = config.graphPartitioningEnabled;
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package microtrafficsim.core.simulation.configs;
+
+
+/**
+ * This class contains configurations for re-routing vehicles while the simulation is running, see
+ * {@link microtrafficsim.core.simulation.rerouting.DynamicRerouting DynamicRerouting}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public final class ReroutingConfig {
+    public boolean enabled;
+    /**
+     * Maximum number of vehicles getting a new route per step. The spawned vehicles are re-routed round-robin in
+     * order of their ids.
+     */
+    public int     vehiclesPerStep;
+    /**
+     * Weight of the current step when smoothing the vehicle counts and velocities per edge; {@code 1} means no
+     * smoothing.
+     */
+    public float   smoothingFactor;
+    /** Number of threads computing the new routes while the next step is executed */
+    public int     nThreads;
+
+    /**
+     * Just calls {@link #setup()}.
+     */
+    public ReroutingConfig() {
+        setup();
+    }
+
+    /**
+     * Setup the parameters of this config file.
+     */
+    public void setup() {
+        enabled         = false;
+        vehiclesPerStep = 100;
+        smoothingFactor = 0.1f;
+        nThreads        = 2;
+    }
+
+    /**
+     * Updates the parameter of this config file.
+     *
+     * @param config All values of the new config instance are set to this config-values.
+     */
+    public void update(ReroutingConfig config) {
+        enabled         = config.enabled;
+        vehiclesPerStep = config.vehiclesPerStep;
+        smoothingFactor = config.smoothingFactor;
+        nThreads        = config.nThreads;
+    }
+}
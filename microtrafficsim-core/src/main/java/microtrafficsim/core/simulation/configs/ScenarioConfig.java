@@ -16,6 +16,15 @@ import java.util.HashMap;
 public final class ScenarioConfig {
     public boolean showAreasWhileSimulating;
     public boolean nodesAreWeightedUniformly;
+    /**
+     * If true, {@link microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder VehicleScenarioBuilder}
+     * computes only the routes of the vehicles spawning in the first step before the scenario is prepared. The other
+     * routes are computed in order of their spawn delays on background threads while the simulation is running. A
+     * vehicle is registered in the graph one step before it becomes due, so the results differ from a scenario
+     * prepared with all routes, but they do not depend on the time routing takes. A checkpoint can only be stored
+     * after all vehicles have become due.
+     */
+    public boolean streamingPreparationEnabled;
     public final HashMap<Class<? extends Scenario>, Descriptor<Class<? extends Scenario>>> supportedClasses;
     public Descriptor<Class<? extends Scenario>> selectedClass;
 
@@ -33,6 +42,7 @@ public final class ScenarioConfig {
     private void setup() {
         showAreasWhileSimulating = false;
         nodesAreWeightedUniformly = true;
+        streamingPreparationEnabled = false;
     }
 
     /**
@@ -43,6 +53,7 @@ public final class ScenarioConfig {
     public void update(ScenarioConfig config) {
         showAreasWhileSimulating = config.showAreasWhileSimulating;
         nodesAreWeightedUniformly = config.nodesAreWeightedUniformly;
+        streamingPreparationEnabled = config.streamingPreparationEnabled;
 
         supportedClasses.clear();
         supportedClasses.putAll(config.supportedClasses);
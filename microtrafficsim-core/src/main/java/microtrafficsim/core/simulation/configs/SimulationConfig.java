@@ -1,6 +1,7 @@
 package microtrafficsim.core.simulation.configs;
 
 import microtrafficsim.core.map.StreetType;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 import microtrafficsim.math.random.distributions.impl.Random;
 
 import java.util.HashMap;
@@ -11,13 +12,20 @@ import java.util.HashMap;
  * This class contains the following simulation parameters/constants like the street priorities. <br>
  * &bull; {@link #speedup} a simple factor defining, how many steps should be calculated per second (depending on the cpu etc.,
  * the real speedup could be less) <br>
+ * &bull; {@link #dedicatedThreadEnabled} whether the simulation steps are executed by a dedicated thread (paced by
+ * {@link #speedup} with drift compensation; {@code Integer.MAX_VALUE} means back-to-back) instead of a
+ * {@link java.util.Timer} <br>
  * &bull; {@link #seed} this seed should be used for random variables and similar tasks
+ * &bull; {@link #randomGeneratorType} the type of the random generators of drivers and nodes; changing it changes the
+ * results of a seed <br>
  * &bull; {@link #scenario} This configuration object contains attributes about the scenario <br>
  * &bull; {@link #crossingLogic} This configuration object contains attributes relevant for the crossing logic <br>
  * &bull; {@link #visualization} This configuration object contains attributes relevant for the visualization <br>
  * &bull; {@link #maxVehicleCount} The initial number of vehicles on the streetgraph <br>
  * &bull; {@link #streetPriorityLevel} This is a function returning the street priority depending on the street type <br>
- * &bull; {@link #multiThreading} This configuration object contains attributes relevant for multi-threading
+ * &bull; {@link #multiThreading} This configuration object contains attributes relevant for multi-threading <br>
+ * &bull; {@link #rerouting} This configuration object contains attributes relevant for re-routing vehicles while
+ * simulating
  *
  * @author Jan-Oliver Schmidt, Dominic Parga Cacheiro
  */
@@ -26,7 +34,9 @@ public final class SimulationConfig {
     public float metersPerCell;
     public int   globalMaxVelocity;
     public int   speedup;
+    public boolean dedicatedThreadEnabled;
     public long  seed;
+    public StatefulRandomGenerator.Type randomGeneratorType;
 
     /* scenario */
     public final ScenarioConfig scenario;
@@ -46,6 +56,9 @@ public final class SimulationConfig {
     /* multithreading */
     public final MultiThreadingConfig multiThreading;
 
+    /* rerouting */
+    public final ReroutingConfig rerouting;
+
     /**
      * Just calls {@link #setup()}.
      */
@@ -55,6 +68,7 @@ public final class SimulationConfig {
         crossingLogic   = new CrossingLogicConfig();
         visualization   = new VisualizationConfig();
         multiThreading  = new MultiThreadingConfig();
+        rerouting       = new ReroutingConfig();
         setup();
     }
 
@@ -72,14 +86,17 @@ public final class SimulationConfig {
      * Resets the parameter of this config file. This method keeps references of<br>
      * &bull; {@link VisualizationConfig}<br>
      * &bull; {@link CrossingLogicConfig}<br>
-     * &bull; {@link MultiThreadingConfig}
+     * &bull; {@link MultiThreadingConfig}<br>
+     * &bull; {@link ReroutingConfig}
      */
     private void setup() {
         // 1/3,6 = 25/90 = 0,277... => 0,277 m/cell means 1 cell/s = 1 km/h
         metersPerCell     = 7.5f; // Nagel-Schreckenberg-Model
         globalMaxVelocity = 6; // = ca. 180 km/h after Nagel-Schreckenberg-Model
         speedup           = 1;
+        dedicatedThreadEnabled = false;
         seed              = new Random().nextLong();
+        randomGeneratorType = StatefulRandomGenerator.Type.JAVA;
         // vehicles
         maxVehicleCount = 100;
         // street type priorities
@@ -91,6 +108,7 @@ public final class SimulationConfig {
      * &bull; {@link VisualizationConfig}<br>
      * &bull; {@link CrossingLogicConfig}<br>
      * &bull; {@link MultiThreadingConfig}<br>
+     * &bull; {@link ReroutingConfig}<br>
      *
      * @param config All values of the new config instance are set to this config-values.
      */
@@ -99,7 +117,9 @@ public final class SimulationConfig {
         metersPerCell     = config.metersPerCell;
         globalMaxVelocity = config.globalMaxVelocity;
         speedup           = config.speedup;
+        dedicatedThreadEnabled = config.dedicatedThreadEnabled;
         seed              = config.seed;
+        randomGeneratorType = config.randomGeneratorType;
         /* scenario */
         scenario.update(config.scenario);
         /* crossing logic */
@@ -112,6 +132,8 @@ public final class SimulationConfig {
         streetPriorityLevel = config.streetPriorityLevel;
         /* multithreading */
         multiThreading.update(config.multiThreading);
+        /* rerouting */
+        rerouting.update(config.rerouting);
     }
 
 
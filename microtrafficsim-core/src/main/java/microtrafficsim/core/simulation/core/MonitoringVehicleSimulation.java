@@ -7,11 +7,11 @@ import java.util.List;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.logic.vehicles.machines.MonitoredVehicle;
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
-import microtrafficsim.core.simulation.scenarios.Scenario;
 import microtrafficsim.utils.Resettable;
 
 /**
- * Monitors all vehicles implementing {@link MonitoredVehicle}
+ * Monitors all vehicles implementing {@link MonitoredVehicle}. All records are kept in memory until the end, so for
+ * long runs, {@link StreamingVehicleMonitor} should be preferred.
  *
  * @author Dominic Parga Cacheiro
  */
@@ -19,28 +19,6 @@ public class MonitoringVehicleSimulation extends VehicleSimulation implements Re
     private List<VehicleStamp> vehicleStamps = new LinkedList<>();
 
 
-    @Override
-    protected void unsecureDoRunOneStep() {
-        long time = System.nanoTime();
-        willRunOneStep();
-
-        Scenario scenario = getScenario();
-        if (scenario.isPrepared()) {
-            vehicleStepExecutor.accelerateAll(scenario);
-            vehicleStepExecutor.willChangeLaneAll(scenario);
-            vehicleStepExecutor.changeLaneAll(scenario);
-            vehicleStepExecutor.brakeAll(scenario);
-            vehicleStepExecutor.moveAll(scenario);
-            vehicleStepExecutor.didMoveAll(scenario);
-            vehicleStepExecutor.spawnAll(scenario);
-            vehicleStepExecutor.updateNodes(scenario);
-            incAge();
-        }
-
-        didRunOneStep();
-        time = System.nanoTime() - time;
-    }
-
     @Override
     public void didRunOneStep() {
         super.didRunOneStep();
@@ -0,0 +1,341 @@
+package microtrafficsim.core.simulation.core;
+
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.machines.MonitoredVehicle;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * <p>
+ * Monitors all vehicles implementing {@link MonitoredVehicle} like {@link MonitoringVehicleSimulation}, but streams
+ * one record per monitored vehicle and step into a file instead of keeping all records in memory. Thus the memory
+ * usage is bounded by {@code bufferCount * bufferSize} independent of the simulation's duration.
+ *
+ * <p>
+ * The monitored vehicles are collected once per scenario and kept in their own list, so the vehicle container is not
+ * copied every step. The records are written into direct buffers by the simulation thread. Full buffers (or
+ * partially filled buffers after {@code flushInterval} steps) are handed over to a background thread writing them
+ * through a {@link FileChannel}. If the writer falls behind, the simulation waits for a free buffer.
+ *
+ * <p>
+ * Record layout (per monitored vehicle and step): <br>
+ * &bull; {@code simStep, vehicleId, spawnedVehicleCount, velocity, edgeId, edgeVehicleCount, edgeLaneCount,
+ * edgeLength} <br>
+ * &bull; {@link RecordFormat#BINARY}: fixed width of {@value #BINARY_RECORD_SIZE} bytes, big endian, types
+ * {@code int, long, int, int, long, int, int, int}; edge attributes are {@code -1} if the vehicle is not on an edge
+ * <br>
+ * &bull; {@link RecordFormat#CSV}: one line per record using the separator of {@link MonitoringVehicleSimulation}
+ * after a legend line; edge attributes are empty if the vehicle is not on an edge
+ *
+ * <p>
+ * {@link #close()} has to be called after the simulation has finished to write all remaining records. It may be
+ * called from any thread; steps after closing are ignored.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class StreamingVehicleMonitor implements StepListener, Closeable {
+    private static final Logger logger = new EasyMarkableLogger(StreamingVehicleMonitor.class);
+
+    public static final int BINARY_RECORD_SIZE = 40;
+    private static final int MAX_CSV_RECORD_SIZE = 128;
+    private static final String CSV_SEPARATOR = " ";
+    private static final String CSV_LEGEND = "simStep" + CSV_SEPARATOR
+            + "vehicleId" + CSV_SEPARATOR
+            + "spawnedVehicleCount" + CSV_SEPARATOR
+            + "cellsPerSecond" + CSV_SEPARATOR
+            + "edgeId" + CSV_SEPARATOR
+            + "edgeVehicleCount" + CSV_SEPARATOR
+            + "laneCount" + CSV_SEPARATOR
+            + "lengthInCells";
+    private static final ByteBuffer POISON = ByteBuffer.allocate(0);
+
+    public enum RecordFormat {
+        BINARY, CSV
+    }
+
+    /* config */
+    private final RecordFormat format;
+    private final int          recordSize;
+    private final int          flushInterval;
+
+    /* monitored vehicles */
+    private Scenario                    scenario;
+    private final ArrayList<Vehicle>    monitoredVehicles;
+    private final StringBuilder         csvLine;
+
+    /* buffers */
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final BlockingQueue<ByteBuffer> fullBuffers;
+    private ByteBuffer current;
+    private int        stepsSinceFlush;
+
+    /* writing */
+    private final FileChannel channel;
+    private final Thread      writer;
+    private volatile IOException writeError;
+    private volatile boolean     closed;      // written under this monitor, read by getters of other threads
+
+
+    /**
+     * Calls {@link #StreamingVehicleMonitor(File, RecordFormat, int, int, int)
+     * StreamingVehicleMonitor(file, format, 1 << 20, 4, 100)}
+     */
+    public StreamingVehicleMonitor(File file, RecordFormat format) throws IOException {
+        this(file, format, 1 << 20, 4, 100);
+    }
+
+    /**
+     * @param file          the records are written into this file; it is truncated if it exists already
+     * @param format        format of the records
+     * @param bufferSize    size of one buffer in bytes; has to hold at least one record
+     * @param bufferCount   number of buffers; has to be at least 2 to allow writing in the background
+     * @param flushInterval a buffer is handed over to the writer at least every {@code flushInterval} steps; values
+     *                      {@literal <=} 0 mean only full buffers are handed over
+     * @throws IOException if the file cannot be opened
+     */
+    public StreamingVehicleMonitor(File file, RecordFormat format, int bufferSize, int bufferCount, int flushInterval)
+            throws IOException {
+        this.format        = format;
+        this.recordSize    = format == RecordFormat.BINARY ? BINARY_RECORD_SIZE : MAX_CSV_RECORD_SIZE;
+        this.flushInterval = flushInterval;
+
+        if (bufferSize < Math.max(recordSize, CSV_LEGEND.length() + 1))
+            throw new IllegalArgumentException("bufferSize is too small for one record.");
+        if (bufferCount < 2)
+            throw new IllegalArgumentException("It must hold: bufferCount >= 2\nCurrent: " + bufferCount);
+
+        /* monitored vehicles */
+        scenario          = null;
+        monitoredVehicles = new ArrayList<>();
+        csvLine           = new StringBuilder(MAX_CSV_RECORD_SIZE);
+
+        /* buffers */
+        freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        fullBuffers = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount - 1; i++)
+            freeBuffers.add(ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.BIG_ENDIAN));
+        current         = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.BIG_ENDIAN);
+        stepsSinceFlush = 0;
+
+        /* writing */
+        channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        writer  = new Thread(this::writeLoop, getClass().getSimpleName() + "-writer");
+        writer.setDaemon(true);
+        writer.start();
+        closed = false;
+
+        if (format == RecordFormat.CSV)
+            putASCII(CSV_LEGEND);
+    }
+
+
+    /*
+    |==================|
+    | (i) StepListener |
+    |==================|
+    */
+    /**
+     * Synchronized with {@link #close()}, so closing from another thread does not hand over a buffer while records
+     * are written into it.
+     */
+    @Override
+    public synchronized void didOneStep(Simulation simulation) {
+        if (closed)
+            return;
+
+        if (simulation.getScenario() != scenario)
+            collectMonitoredVehicles(simulation.getScenario());
+
+        int simStep             = simulation.getAge();
+        int spawnedVehicleCount = scenario.getVehicleContainer().getSpawnedCount();
+
+        Iterator<Vehicle> iter = monitoredVehicles.iterator();
+        while (iter.hasNext()) {
+            Vehicle vehicle = iter.next();
+            if (vehicle.getState() == VehicleState.DESPAWNED) {
+                iter.remove();
+                continue;
+            }
+
+            if (current.remaining() < recordSize)
+                handOver();
+
+            if (format == RecordFormat.BINARY)
+                putBinary(simStep, spawnedVehicleCount, vehicle);
+            else
+                putCSV(simStep, spawnedVehicleCount, vehicle);
+        }
+
+        stepsSinceFlush++;
+        if (flushInterval > 0 && stepsSinceFlush >= flushInterval && current.position() > 0)
+            handOver();
+    }
+
+    private void collectMonitoredVehicles(Scenario scenario) {
+        this.scenario = scenario;
+        monitoredVehicles.clear();
+        if (scenario == null)
+            return;
+
+        for (Vehicle vehicle : scenario.getVehicleContainer().getVehicles())
+            if (vehicle instanceof MonitoredVehicle)
+                monitoredVehicles.add(vehicle);
+    }
+
+    /**
+     * @return number of currently monitored vehicles
+     */
+    public synchronized int getMonitoredCount() {
+        return monitoredVehicles.size();
+    }
+
+    /**
+     * @return true if {@link #close()} has been called
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+
+    /*
+    |=========|
+    | records |
+    |=========|
+    */
+    private void putBinary(int simStep, int spawnedVehicleCount, Vehicle vehicle) {
+        current.putInt(simStep)
+                .putLong(vehicle.getId())
+                .putInt(spawnedVehicleCount)
+                .putInt(vehicle.getVelocity());
+
+        DirectedEdge.Lane lane = vehicle.getLane();
+        if (lane != null) {
+            DirectedEdge edge = lane.getEdge();
+            current.putLong(edge.getId())
+                    .putInt(edge.getVehicleCount())
+                    .putInt(edge.getNumberOfLanes())
+                    .putInt(edge.getLength());
+        } else {
+            current.putLong(-1).putInt(-1).putInt(-1).putInt(-1);
+        }
+    }
+
+    private void putCSV(int simStep, int spawnedVehicleCount, Vehicle vehicle) {
+        csvLine.setLength(0);
+        csvLine.append(System.lineSeparator())
+                .append(simStep).append(CSV_SEPARATOR)
+                .append(vehicle.getId()).append(CSV_SEPARATOR)
+                .append(spawnedVehicleCount).append(CSV_SEPARATOR)
+                .append(vehicle.getVelocity()).append(CSV_SEPARATOR);
+
+        DirectedEdge.Lane lane = vehicle.getLane();
+        if (lane != null) {
+            DirectedEdge edge = lane.getEdge();
+            csvLine.append(edge.getId()).append(CSV_SEPARATOR)
+                    .append(edge.getVehicleCount()).append(CSV_SEPARATOR)
+                    .append(edge.getNumberOfLanes()).append(CSV_SEPARATOR)
+                    .append(edge.getLength());
+        } else {
+            csvLine.append(CSV_SEPARATOR).append(CSV_SEPARATOR).append(CSV_SEPARATOR);
+        }
+
+        putASCII(csvLine);
+    }
+
+    private void putASCII(CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++)
+            current.put((byte) chars.charAt(i));
+    }
+
+
+    /*
+    |=========|
+    | writing |
+    |=========|
+    */
+    /**
+     * Hands the current buffer over to the writer and takes a free one. Blocks if the writer has not finished any
+     * buffer yet.
+     */
+    private void handOver() {
+        stepsSinceFlush = 0;
+        if (current.position() == 0)
+            return;
+
+        current.flip();
+        try {
+            fullBuffers.put(current);
+            current = freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free buffer.", e);
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer buffer = fullBuffers.take();
+                if (buffer == POISON)
+                    break;
+
+                if (writeError == null) {
+                    try {
+                        while (buffer.hasRemaining())
+                            channel.write(buffer);
+                    } catch (IOException e) {
+                        writeError = e;
+                        logger.error("Writing monitored vehicles failed.", e);
+                    }
+                }
+
+                buffer.clear();
+                freeBuffers.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes all remaining records, waits for the writer and closes the file. Later steps are ignored.
+     *
+     * @throws IOException if writing any record or closing the file has failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            handOver();
+            fullBuffers.put(POISON);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+
+        if (writeError != null)
+            throw writeError;
+    }
+}
@@ -1,10 +1,18 @@
 package microtrafficsim.core.simulation.core;
 
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.core.profiling.LoggingStepProfiler;
+import microtrafficsim.core.simulation.core.profiling.StepPhase;
+import microtrafficsim.core.simulation.core.profiling.StepProfiler;
 import microtrafficsim.core.simulation.core.stepexecutors.MultiThreadedVehicleStepExecutor;
+import microtrafficsim.core.simulation.core.stepexecutors.PartitionedVehicleStepExecutor;
 import microtrafficsim.core.simulation.core.stepexecutors.SingleThreadedVehicleStepExecutor;
 import microtrafficsim.core.simulation.core.stepexecutors.VehicleStepExecutor;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.rerouting.DynamicRerouting;
 import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.containers.VehicleContainer;
+import microtrafficsim.utils.concurrency.PacedLoop;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 import microtrafficsim.utils.strings.StringUtils;
 import org.slf4j.Logger;
@@ -26,18 +34,31 @@ public class VehicleSimulation implements Simulation {
     private Logger logger = new EasyMarkableLogger(VehicleSimulation.class);
 
     private Scenario scenario;
+    private DynamicRerouting rerouting;
     protected VehicleStepExecutor vehicleStepExecutor;
 
     // simulation steps
-    private boolean            paused;
+    private volatile boolean   paused;
     private TimerTask          timerTask;
+    private PacedLoop          stepLoop;
     private final Lock         executionLock;
     private int                age;
     private List<StepListener> stepListeners;
 
+    // profiling
+    private static final StepPhase[] PHASES = StepPhase.values();
+    private volatile StepProfiler    stepProfiler;
+    private StepProfiler             traceProfiler;
+
     // logging
     private long time;
 
+    // step rate
+    private static final long STEP_RATE_WINDOW_NANOS = 500_000_000L;
+    private long            stepRateWindowStart;
+    private int             stepRateWindowCount;
+    private volatile double achievedStepRate;
+
     /**
      * Default constructor. Before this simulation can be used, it needs a scenario!
      */
@@ -75,20 +96,59 @@ public class VehicleSimulation implements Simulation {
         if (!scenario.isPrepared())
             throw new RuntimeException("The simulation sets a new scenario but the scenario is not prepared.");
 
+        initScenario(scenario, 0);
+        vehicleStepExecutor.updateNodes(this.scenario);
+    }
+
+    /**
+     * Like {@link #setAndInitPreparedScenario(Scenario)}, but the given scenario's vehicles and nodes are expected to
+     * be in the state after the given number of steps, e.g. restored from a checkpoint. Thus the nodes are not updated
+     * again and the next executed step continues the restored run.
+     *
+     * @param scenario This scenario is executed later.
+     * @param age      the age of the simulation the scenario's state has been taken from
+     */
+    public void setAndInitRestoredScenario(Scenario scenario, int age) {
+        if (!isPaused())
+            throw new RuntimeException("The simulation sets a new scenario but is not paused.");
+
+        if (!scenario.isPrepared())
+            throw new RuntimeException("The simulation sets a new scenario but the scenario is not prepared.");
+
+        initScenario(scenario, age);
+    }
+
+    private void initScenario(Scenario scenario, int age) {
         /* remove old scenario */
         removeCurrentScenario();
 
         /* add new scenario */
-        age = 0;
+        this.age = age;
         this.scenario = scenario;
         addStepListener(scenario);
-        int nThreads = scenario.getConfig().multiThreading.nThreads;
-        vehicleStepExecutor =
-                nThreads > 1 ?
-                        new MultiThreadedVehicleStepExecutor(nThreads) :
-                        new SingleThreadedVehicleStepExecutor();
+        vehicleStepExecutor = createVehicleStepExecutor(scenario);
 
-        vehicleStepExecutor.updateNodes(this.scenario);
+        if (scenario.getConfig().rerouting.enabled) {
+            rerouting = new DynamicRerouting(scenario);
+            addStepListener(rerouting);
+        }
+    }
+
+    /**
+     * Is called whenever a new scenario is set and creates the executor of its steps depending on the scenario's
+     * config.
+     *
+     * @param scenario the new scenario
+     * @return the executor used for all steps of the given scenario
+     */
+    protected VehicleStepExecutor createVehicleStepExecutor(Scenario scenario) {
+        int nThreads = scenario.getConfig().multiThreading.nThreads;
+        if (nThreads <= 1)
+            return new SingleThreadedVehicleStepExecutor();
+        else if (scenario.getConfig().multiThreading.graphPartitioningEnabled)
+            return new PartitionedVehicleStepExecutor(nThreads);
+        else
+            return new MultiThreadedVehicleStepExecutor(nThreads);
     }
 
     @Override
@@ -103,6 +163,18 @@ public class VehicleSimulation implements Simulation {
             stepListeners.remove(scenario);
         while (stepListeners.contains(scenario));
 
+        if (rerouting != null) {
+            removeStepListener(rerouting);
+            rerouting.shutdown();
+            rerouting = null;
+        }
+
+        // the loop thread is created again on demand, see run()
+        if (stepLoop != null) {
+            stepLoop.shutdown();
+            stepLoop = null;
+        }
+
         scenario = null;
         age = -1;
         vehicleStepExecutor = null;
@@ -135,20 +207,64 @@ public class VehicleSimulation implements Simulation {
         return age;
     }
 
+    /**
+     * Addition to superclass: If {@link SimulationConfig#dedicatedThreadEnabled} is set, the steps are executed by a
+     * dedicated thread instead of a {@link Timer}. It is paced by {@link SimulationConfig#speedup} steps per second
+     * with drift compensation, so steps neither pile up nor drift if one step takes longer than planned.
+     */
     @Override
     public final void run() {
         if (scenario.isPrepared() && isPaused() && scenario.getConfig().speedup > 0) {
-            timerTask = new TimerTask() {
-                @Override
-                public void run() {
-                    doRunOneStep();
-                }
-            };
-            new Timer().schedule(timerTask, 0, Math.max(1, 1000 / scenario.getConfig().speedup));
             paused = false;
+            if (scenario.getConfig().dedicatedThreadEnabled) {
+                if (stepLoop == null)
+                    stepLoop = new PacedLoop(this::doRunOneStep, e -> onStepFailure(), getClass().getSimpleName());
+                stepLoop.resume(scenario.getConfig().speedup);
+            } else {
+                timerTask = new TimerTask() {
+                    @Override
+                    public void run() {
+                        doRunOneStep();
+                    }
+                };
+                new Timer().schedule(timerTask, 0, getTimerPeriod());
+            }
         }
     }
 
+    /**
+     * Called by the dedicated thread after it has paused itself because a step has thrown an exception, so this
+     * simulation reports being paused as well and can be run again.
+     */
+    private void onStepFailure() {
+        paused = true;
+        stepRateWindowCount = 0;
+        achievedStepRate    = 0;
+    }
+
+    private long getTimerPeriod() {
+        return Math.max(1, 1000 / scenario.getConfig().speedup);
+    }
+
+    /**
+     * @return the steps per second this simulation tries to achieve when running; 0 if it is paused
+     */
+    public double getRequestedStepRate() {
+        if (isPaused() || scenario == null)
+            return 0;
+        if (stepLoop != null && !stepLoop.isPaused())
+            return stepLoop.getRequestedRate();
+        return 1000.0 / getTimerPeriod();
+    }
+
+    /**
+     * @return the steps per second measured over roughly the last half second of executed steps; 0 if there are not
+     * enough steps yet
+     */
+    public double getAchievedStepRate() {
+        return achievedStepRate;
+    }
+
     @Override
     public void willRunOneStep() {
         for (StepListener stepListener : stepListeners)
@@ -175,8 +291,24 @@ public class VehicleSimulation implements Simulation {
     @Override
     public final void doRunOneStep() {
         executionLock.lock();
-        unsecureDoRunOneStep();
-        executionLock.unlock();
+        try {
+            unsecureDoRunOneStep();
+            updateAchievedStepRate();
+        } finally {
+            executionLock.unlock();
+        }
+    }
+
+    private void updateAchievedStepRate() {
+        long now = System.nanoTime();
+        if (stepRateWindowCount == 0) {
+            stepRateWindowStart = now;
+        } else if (now - stepRateWindowStart >= STEP_RATE_WINDOW_NANOS) {
+            achievedStepRate    = stepRateWindowCount * 1e9 / (now - stepRateWindowStart);
+            stepRateWindowStart = now;
+            stepRateWindowCount = 0;
+        }
+        stepRateWindowCount++;
     }
 
     /**
@@ -186,58 +318,9 @@ public class VehicleSimulation implements Simulation {
         willRunOneStep();
 
         if (scenario.isPrepared()) {
-            if (logger.isTraceEnabled()) {
-                time = System.nanoTime();
-                vehicleStepExecutor.accelerateAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString(
-                                "time accelerate() and changeLane() = ",
-                                System.nanoTime() - time, "ns").toString()
-                );
-
-                long stamp = System.nanoTime();
-                vehicleStepExecutor.willChangeLaneAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time willChangeLane() etc. = ", System.nanoTime() - stamp, "ns")
-                                .toString()
-                );
-
-                stamp = System.nanoTime();
-                vehicleStepExecutor.changeLaneAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time changeLane() etc. = ", System.nanoTime() - stamp, "ns")
-                                .toString()
-                );
-
-                stamp = System.nanoTime();
-                vehicleStepExecutor.brakeAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time brake() etc. = ", System.nanoTime() - stamp, "ns").toString()
-                );
-
-                stamp = System.nanoTime();
-                vehicleStepExecutor.moveAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time move() = ", System.nanoTime() - stamp, "ns").toString()
-                );
-
-                stamp = System.nanoTime();
-                vehicleStepExecutor.didMoveAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time didMove() = ", System.nanoTime() - stamp, "ns").toString()
-                );
-
-                stamp = System.nanoTime();
-                vehicleStepExecutor.spawnAll(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time spawn() = ", System.nanoTime() - stamp, "ns").toString()
-                );
-
-                stamp = System.nanoTime();
-                vehicleStepExecutor.updateNodes(scenario);
-                logger.trace(
-                        StringUtils.buildTimeString("time updateNodes() = ", System.nanoTime() - stamp, "ns").toString()
-                );
+            StepProfiler profiler = getActiveStepProfiler();
+            if (profiler != null) {
+                doProfiledPhases(profiler);
             } else {
                 vehicleStepExecutor.accelerateAll(scenario);
                 vehicleStepExecutor.willChangeLaneAll(scenario);
@@ -254,6 +337,80 @@ public class VehicleSimulation implements Simulation {
         didRunOneStep();
     }
 
+    /**
+     * Executes all phases of one step like {@link #unsecureDoRunOneStep()}, but measures every phase and informs the
+     * given profiler. Not thread safe!
+     *
+     * @param profiler gets informed about every phase and the whole step
+     */
+    protected void doProfiledPhases(StepProfiler profiler) {
+        VehicleContainer vehicles = scenario.getVehicleContainer();
+        int vehicleCount = vehicles.getVehicleCount();
+        int spawnedCount = 0;
+
+        long stepStamp = System.nanoTime();
+        for (StepPhase phase : PHASES) {
+            // vehicles are only spawned in spawn phase and spawned vehicles do not despawn there
+            if (phase == StepPhase.SPAWN)
+                spawnedCount = -vehicles.getSpawnedCount();
+            int processedCount = phase.countProcessed(scenario);
+
+            long stamp = System.nanoTime();
+            phase.execute(vehicleStepExecutor, scenario);
+            profiler.didPhase(phase, System.nanoTime() - stamp, processedCount);
+
+            if (phase == StepPhase.SPAWN)
+                spawnedCount += vehicles.getSpawnedCount();
+        }
+        long stepNanos = System.nanoTime() - stepStamp;
+
+        profiler.didOneStep(this, stepNanos, spawnedCount, vehicleCount - vehicles.getVehicleCount());
+    }
+
+    /**
+     * @return the set profiler; or a {@link LoggingStepProfiler} if no profiler is set but trace logging is enabled;
+     * or null otherwise
+     */
+    private StepProfiler getActiveStepProfiler() {
+        if (stepProfiler != null)
+            return stepProfiler;
+
+        if (logger.isTraceEnabled()) {
+            if (traceProfiler == null)
+                traceProfiler = new LoggingStepProfiler(logger);
+            return traceProfiler;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the re-routing of the current scenario's vehicles; null if
+     * {@link SimulationConfig#rerouting rerouting} is disabled
+     */
+    public DynamicRerouting getRerouting() {
+        return rerouting;
+    }
+
+    /**
+     * @return the profiler measuring every phase of a simulation step; null if profiling is disabled
+     */
+    public StepProfiler getStepProfiler() {
+        return stepProfiler;
+    }
+
+    /**
+     * Sets a profiler measuring every phase of a simulation step. If it is null, the phases are not measured, which
+     * costs nothing (unless trace logging is enabled). The profiler is changed between two steps.
+     *
+     * @param stepProfiler gets informed about every step phase; null disables profiling
+     */
+    public void setStepProfiler(StepProfiler stepProfiler) {
+        executionLock.lock();
+        this.stepProfiler = stepProfiler;
+        executionLock.unlock();
+    }
+
     protected void incAge() {
         age++;
     }
@@ -263,13 +420,19 @@ public class VehicleSimulation implements Simulation {
         for (StepListener stepListener : stepListeners)
             stepListener.didOneStep(this);
 
-        logger.trace(StringUtils.buildTimeString(
-                "time for this step = ",
-                System.nanoTime() - time, "ns").toString()
-        );
-        logger.trace("number of vehicles after run = " + scenario.getVehicleContainer().getVehicleCount());
+        if (logger.isTraceEnabled()) {
+            logger.trace(StringUtils.buildTimeString(
+                    "time for this step = ",
+                    System.nanoTime() - time, "ns").toString()
+            );
+            logger.trace("number of vehicles after run = " + scenario.getVehicleContainer().getVehicleCount());
+        }
     }
 
+    /**
+     * Addition to superclass: If the steps are executed by a dedicated thread, this method waits until the current
+     * step has finished (unless it is called during a step, e.g. by a {@link StepListener}).
+     */
     @Override
     public final void cancel() {
         if (timerTask != null) {
@@ -278,7 +441,11 @@ public class VehicleSimulation implements Simulation {
             timerTask = null;
             executionLock.unlock();
         }
+        if (stepLoop != null)
+            stepLoop.pause();
         paused = true;
+        stepRateWindowCount = 0;
+        achievedStepRate    = 0;
     }
 
     @Override
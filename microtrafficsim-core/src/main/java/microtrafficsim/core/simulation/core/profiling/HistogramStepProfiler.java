@@ -0,0 +1,227 @@
+package microtrafficsim.core.simulation.core.profiling;
+
+import microtrafficsim.core.simulation.core.Simulation;
+import microtrafficsim.utils.Resettable;
+import microtrafficsim.utils.profiling.LogLinearHistogram;
+
+import java.util.EnumMap;
+import java.util.Locale;
+
+
+/**
+ * <p>
+ * Records the latency of every {@link StepPhase} and of whole steps into {@link LogLinearHistogram}s. Additionally,
+ * the number of processed entities per phase (e.g. vehicles or node updates) as well as spawns and despawns are
+ * counted.
+ *
+ * <p>
+ * The results can be queried programmatically or dumped using {@link #toCSV()} or {@link #toJSON()}. All latencies
+ * are in nanoseconds.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class HistogramStepProfiler implements StepProfiler, Resettable {
+
+    private static final StepPhase[] PHASES = StepPhase.values();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String CSV_SEPARATOR = ",";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final EnumMap<StepPhase, LogLinearHistogram> phaseLatencies;
+    private final LogLinearHistogram                     stepLatencies;
+    private final long[]                                 processedCounts;
+    private long stepCount;
+    private long spawnedCount;
+    private long despawnedCount;
+
+
+    public HistogramStepProfiler() {
+        phaseLatencies = new EnumMap<>(StepPhase.class);
+        for (StepPhase phase : PHASES)
+            phaseLatencies.put(phase, new LogLinearHistogram());
+        stepLatencies   = new LogLinearHistogram();
+        processedCounts = new long[PHASES.length];
+        reset();
+    }
+
+
+    /*
+    |==================|
+    | (i) StepProfiler |
+    |==================|
+    */
+    @Override
+    public void didPhase(StepPhase phase, long nanos, int processedCount) {
+        phaseLatencies.get(phase).record(nanos);
+        processedCounts[phase.ordinal()] += processedCount;
+    }
+
+    @Override
+    public void didOneStep(Simulation simulation, long nanos, int spawnedCount, int despawnedCount) {
+        stepLatencies.record(nanos);
+        stepCount++;
+        this.spawnedCount   += spawnedCount;
+        this.despawnedCount += despawnedCount;
+    }
+
+
+    /*
+    |=========|
+    | queries |
+    |=========|
+    */
+    /**
+     * @param phase the latencies of this phase are returned
+     * @return the histogram itself (no copy) containing all latencies of the given phase in nanoseconds
+     */
+    public LogLinearHistogram getPhaseLatencies(StepPhase phase) {
+        return phaseLatencies.get(phase);
+    }
+
+    /**
+     * @return the histogram itself (no copy) containing all step latencies in nanoseconds
+     */
+    public LogLinearHistogram getStepLatencies() {
+        return stepLatencies;
+    }
+
+    /**
+     * @param phase the processed entities of this phase are returned
+     * @return total number of entities processed by the given phase over all profiled steps
+     */
+    public long getProcessedCount(StepPhase phase) {
+        return processedCounts[phase.ordinal()];
+    }
+
+    /**
+     * @return total number of node updates over all profiled steps
+     */
+    public long getNodeUpdateCount() {
+        return getProcessedCount(StepPhase.UPDATE_NODES);
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getSpawnedCount() {
+        return spawnedCount;
+    }
+
+    public long getDespawnedCount() {
+        return despawnedCount;
+    }
+
+
+    /*
+    |=======|
+    | dumps |
+    |=======|
+    */
+    /**
+     * @return one line per phase (and one for the whole step) containing the number of profiled steps, processed
+     * entities, min, mean, percentiles and max of the latencies (in nanoseconds); the first line is the legend. Spawns
+     * and despawns are only part of {@link #toJSON()}.
+     */
+    public String toCSV() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("phase").append(CSV_SEPARATOR)
+                .append("count").append(CSV_SEPARATOR)
+                .append("processed").append(CSV_SEPARATOR)
+                .append("min").append(CSV_SEPARATOR)
+                .append("mean");
+        for (double percentile : PERCENTILES)
+            builder.append(CSV_SEPARATOR).append("p").append(percentileName(percentile));
+        builder.append(CSV_SEPARATOR).append("max");
+
+        for (StepPhase phase : PHASES)
+            appendCSVLine(builder, phase.name(), phaseLatencies.get(phase), processedCounts[phase.ordinal()]);
+        long totalProcessed = 0;
+        for (long processed : processedCounts)
+            totalProcessed += processed;
+        appendCSVLine(builder, "STEP", stepLatencies, totalProcessed);
+
+        return builder.append(LINE_SEPARATOR).toString();
+    }
+
+    private void appendCSVLine(StringBuilder builder, String name, LogLinearHistogram histogram, long processed) {
+        builder.append(LINE_SEPARATOR)
+                .append(name).append(CSV_SEPARATOR)
+                .append(histogram.getTotalCount()).append(CSV_SEPARATOR)
+                .append(processed).append(CSV_SEPARATOR)
+                .append(histogram.getMin()).append(CSV_SEPARATOR)
+                .append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+        for (double percentile : PERCENTILES)
+            builder.append(CSV_SEPARATOR).append(histogram.getValueAtPercentile(percentile));
+        builder.append(CSV_SEPARATOR).append(histogram.getMax());
+    }
+
+    /**
+     * @return a JSON object containing the counters and the latency statistics per phase
+     */
+    public String toJSON() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("{").append(LINE_SEPARATOR);
+        builder.append("  \"unit\": \"ns\",").append(LINE_SEPARATOR);
+        builder.append("  \"steps\": ").append(stepCount).append(",").append(LINE_SEPARATOR);
+        builder.append("  \"spawned\": ").append(spawnedCount).append(",").append(LINE_SEPARATOR);
+        builder.append("  \"despawned\": ").append(despawnedCount).append(",").append(LINE_SEPARATOR);
+        builder.append("  \"step\": ");
+        appendJSONHistogram(builder, stepLatencies, -1);
+        builder.append(",").append(LINE_SEPARATOR);
+
+        builder.append("  \"phases\": {").append(LINE_SEPARATOR);
+        for (int i = 0; i < PHASES.length; i++) {
+            StepPhase phase = PHASES[i];
+            builder.append("    \"").append(phase.name()).append("\": ");
+            appendJSONHistogram(builder, phaseLatencies.get(phase), processedCounts[i]);
+            if (i < PHASES.length - 1)
+                builder.append(",");
+            builder.append(LINE_SEPARATOR);
+        }
+        builder.append("  }").append(LINE_SEPARATOR);
+
+        return builder.append("}").append(LINE_SEPARATOR).toString();
+    }
+
+    /**
+     * @param processed is only appended if {@code >= 0}
+     */
+    private void appendJSONHistogram(StringBuilder builder, LogLinearHistogram histogram, long processed) {
+        builder.append("{\"count\": ").append(histogram.getTotalCount());
+        if (processed >= 0)
+            builder.append(", \"processed\": ").append(processed);
+        builder.append(", \"min\": ").append(histogram.getMin())
+                .append(", \"mean\": ").append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+        for (double percentile : PERCENTILES)
+            builder.append(", \"p").append(percentileName(percentile)).append("\": ")
+                    .append(histogram.getValueAtPercentile(percentile));
+        builder.append(", \"max\": ").append(histogram.getMax()).append("}");
+    }
+
+    private static String percentileName(double percentile) {
+        if (percentile == (long) percentile)
+            return Long.toString((long) percentile);
+        return Double.toString(percentile).replace('.', '_');
+    }
+
+
+    /*
+    |================|
+    | (i) Resettable |
+    |================|
+    */
+    @Override
+    public void reset() {
+        for (LogLinearHistogram histogram : phaseLatencies.values())
+            histogram.reset();
+        stepLatencies.reset();
+        for (int i = 0; i < processedCounts.length; i++)
+            processedCounts[i] = 0;
+        stepCount      = 0;
+        spawnedCount   = 0;
+        despawnedCount = 0;
+    }
+}
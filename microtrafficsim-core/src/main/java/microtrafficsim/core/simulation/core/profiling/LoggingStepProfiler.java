@@ -0,0 +1,40 @@
+package microtrafficsim.core.simulation.core.profiling;
+
+import microtrafficsim.core.simulation.core.Simulation;
+import microtrafficsim.utils.strings.StringUtils;
+import org.slf4j.Logger;
+
+
+/**
+ * Logs every phase duration using {@link Logger#trace(String)}. This profiler is meant for debugging; for measurements,
+ * {@link HistogramStepProfiler} should be used.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class LoggingStepProfiler implements StepProfiler {
+
+    private final Logger logger;
+
+    /**
+     * @param logger phase durations are logged on its trace level
+     */
+    public LoggingStepProfiler(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void didPhase(StepPhase phase, long nanos, int processedCount) {
+        if (logger.isTraceEnabled())
+            logger.trace(
+                    StringUtils.buildTimeString("time " + phase.getLabel() + " = ", nanos, "ns")
+                            .append(" (").append(processedCount).append(" processed)")
+                            .toString()
+            );
+    }
+
+    @Override
+    public void didOneStep(Simulation simulation, long nanos, int spawnedCount, int despawnedCount) {
+        if (logger.isTraceEnabled())
+            logger.trace("spawned = " + spawnedCount + ", despawned = " + despawnedCount);
+    }
+}
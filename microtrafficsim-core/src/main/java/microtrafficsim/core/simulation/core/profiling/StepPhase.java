@@ -0,0 +1,67 @@
+package microtrafficsim.core.simulation.core.profiling;
+
+import microtrafficsim.core.simulation.core.stepexecutors.VehicleStepExecutor;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+
+
+/**
+ * The phases of one simulation step in their order of execution. Every phase delegates to its respective method of
+ * {@link VehicleStepExecutor}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public enum StepPhase {
+    ACCELERATE("accelerate()"),
+    WILL_CHANGE_LANE("willChangeLane()"),
+    CHANGE_LANE("changeLane()"),
+    BRAKE("brake() and dawdle()"),
+    MOVE("move()"),
+    DID_MOVE("didMove()"),
+    SPAWN("spawn()"),
+    UPDATE_NODES("updateNodes()");
+
+    private final String label;
+
+    StepPhase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Executes this phase for the given scenario.
+     *
+     * @param executor executes the phase
+     * @param scenario this scenario's vehicles and nodes are processed
+     */
+    public void execute(VehicleStepExecutor executor, Scenario scenario) {
+        switch (this) {
+            case ACCELERATE:       executor.accelerateAll(scenario);     break;
+            case WILL_CHANGE_LANE: executor.willChangeLaneAll(scenario); break;
+            case CHANGE_LANE:      executor.changeLaneAll(scenario);     break;
+            case BRAKE:            executor.brakeAll(scenario);          break;
+            case MOVE:             executor.moveAll(scenario);           break;
+            case DID_MOVE:         executor.didMoveAll(scenario);        break;
+            case SPAWN:            executor.spawnAll(scenario);          break;
+            case UPDATE_NODES:     executor.updateNodes(scenario);       break;
+        }
+    }
+
+    /**
+     * @param scenario its vehicle container and graph are asked
+     * @return the number of entities this phase processes if it is executed now, e.g. the number of not spawned
+     * vehicles for {@link #SPAWN} or the number of nodes for {@link #UPDATE_NODES}
+     */
+    public int countProcessed(Scenario scenario) {
+        switch (this) {
+            case SPAWN:
+                return scenario.getVehicleContainer().getNotSpawnedCount();
+            case UPDATE_NODES:
+                return scenario.getGraph().getNodeMap().size();
+            default:
+                return scenario.getVehicleContainer().getSpawnedCount();
+        }
+    }
+}
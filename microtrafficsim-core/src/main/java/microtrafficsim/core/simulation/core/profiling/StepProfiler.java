@@ -0,0 +1,34 @@
+package microtrafficsim.core.simulation.core.profiling;
+
+import microtrafficsim.core.simulation.core.Simulation;
+import microtrafficsim.core.simulation.core.StepListener;
+
+
+/**
+ * <p>
+ * Similar to a {@link StepListener}, but gets informed about every {@link StepPhase} of a simulation step including
+ * its duration. A simulation only measures its phases if a profiler is set, so there are no costs otherwise.
+ *
+ * <p>
+ * All methods are called by the thread executing the simulation step, so implementations do not need to be
+ * thread-safe as long as they are used by one simulation only.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public interface StepProfiler {
+
+    /**
+     * @param phase          this phase has been executed
+     * @param nanos          duration of the phase in nanoseconds
+     * @param processedCount number of entities processed by the phase, see {@link StepPhase#countProcessed}
+     */
+    void didPhase(StepPhase phase, long nanos, int processedCount);
+
+    /**
+     * @param simulation     this simulation has finished its step; its age is not incremented yet
+     * @param nanos          duration of all phases in nanoseconds
+     * @param spawnedCount   number of vehicles spawned in this step
+     * @param despawnedCount number of vehicles despawned in this step
+     */
+    void didOneStep(Simulation simulation, long nanos, int spawnedCount, int despawnedCount);
+}
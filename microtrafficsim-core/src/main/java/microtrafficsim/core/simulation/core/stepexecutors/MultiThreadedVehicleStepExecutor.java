@@ -3,6 +3,7 @@ package microtrafficsim.core.simulation.core.stepexecutors;
 import microtrafficsim.core.logic.nodes.Node;
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
 import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler;
 import microtrafficsim.utils.concurrency.delegation.StaticThreadDelegator;
 import microtrafficsim.utils.concurrency.delegation.ThreadDelegator;
 
@@ -107,9 +108,10 @@ public class MultiThreadedVehicleStepExecutor implements VehicleStepExecutor {
     @Override
     public void spawnAll(final Scenario scenario) {
         try {
-            delegator.doTask(Vehicle::spawn,
-                    scenario.getVehicleContainer().getNotSpawnedVehicles().iterator(),
-                    scenario.getConfig().multiThreading.vehiclesPerRunnable
+            // one origin queue has to be processed in order by one thread
+            delegator.doTask(SpawnScheduler.OriginQueue::spawnAll,
+                    scenario.getVehicleContainer().getSpawnScheduler().nextStep().iterator(),
+                    scenario.getConfig().multiThreading.nodesPerThread
             );
         } catch (InterruptedException e) {
             e.printStackTrace();
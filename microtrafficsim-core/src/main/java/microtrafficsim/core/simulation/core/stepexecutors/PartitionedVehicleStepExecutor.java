@@ -0,0 +1,290 @@
+package microtrafficsim.core.simulation.core.stepexecutors;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartition;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartitioner;
+import microtrafficsim.core.logic.streetgraph.partitioning.impl.BfsGraphPartitioner;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler;
+import microtrafficsim.core.simulation.scenarios.containers.VehicleContainer;
+import microtrafficsim.utils.concurrency.delegation.StaticThreadDelegator;
+import microtrafficsim.utils.concurrency.delegation.ThreadDelegator;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+
+/**
+ * <p>
+ * A multi-threaded implementation of {@link VehicleStepExecutor} that splits the street graph into one region per
+ * thread using a {@link GraphPartitioner}. Every region owns its nodes, the edges leading to them and the spawned
+ * vehicles on these edges, and is processed by one task per phase. Thus, the vehicles of one lane and the node they
+ * are waiting at are touched by the same thread, which improves cache locality and reduces contention compared to
+ * {@link MultiThreadedVehicleStepExecutor} chunking the vehicles in container order.
+ *
+ * <p>
+ * Vehicles crossing a cut edge (see {@link GraphPartition}) are handed off explicitly: after moving and after
+ * spawning, every region puts the vehicles that belong to another region into an outbox per target region. Between
+ * the phases, every region takes over its vehicles from all outboxes in order of the source regions. No vehicle list
+ * is shared between threads, so the hand-off needs no locking. Lanes and nodes stay thread-safe, because a vehicle
+ * crossing a node still reads and writes the lanes of the neighbouring region while moving.
+ *
+ * <p>
+ * The results are the same as with {@link MultiThreadedVehicleStepExecutor}, since the vehicles of one phase do not
+ * depend on the order they are processed in. If the spawned vehicles have been changed from outside (e.g. by restoring
+ * a checkpoint or removing vehicles simulated by another process), the regions are rebuilt from the vehicle container
+ * at the beginning of the next step. Such changes are detected by {@link VehicleContainer#getModificationCount()}: the
+ * executor remembers the count after its own changes (moving and spawning), so any other difference is a change from
+ * outside.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class PartitionedVehicleStepExecutor implements VehicleStepExecutor {
+    private static final Logger logger = new EasyMarkableLogger(PartitionedVehicleStepExecutor.class);
+
+    private final ThreadDelegator  delegator;
+    private final int              nRegions;
+    private final GraphPartitioner partitioner;
+
+    /* regions */
+    private GraphPartition   partition;
+    private VehicleContainer container;
+    private long             expectedModificationCount;
+    private Region[]         regions;
+
+
+    /**
+     * Uses a {@link BfsGraphPartitioner} creating one region per thread.
+     *
+     * @param nThreads number of threads and regions
+     */
+    public PartitionedVehicleStepExecutor(int nThreads) {
+        this(new StaticThreadDelegator(nThreads), nThreads, new BfsGraphPartitioner());
+    }
+
+    /**
+     * @param delegator   executes the regions' tasks
+     * @param nRegions    number of regions
+     * @param partitioner splits the scenario's graph into {@code nRegions} regions
+     */
+    public PartitionedVehicleStepExecutor(ThreadDelegator delegator,
+                                          int nRegions,
+                                          GraphPartitioner partitioner) {
+        if (nRegions < 1)
+            throw new IllegalArgumentException("It must hold: nRegions >= 1\n" +
+                    "Current: " + nRegions);
+
+        this.delegator   = delegator;
+        this.nRegions    = nRegions;
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * @return the current partition of the scenario's graph; null if no step has been executed yet
+     */
+    public GraphPartition getPartition() {
+        return partition;
+    }
+
+
+    /*
+    |=========================|
+    | (i) VehicleStepExecutor |
+    |=========================|
+    */
+    @Override
+    public void accelerateAll(Scenario scenario) {
+        updateRegions(scenario);
+        doRegionTask(region -> {
+            for (Vehicle vehicle : region.vehicles)
+                vehicle.accelerate();
+        });
+    }
+
+    @Override
+    public void willChangeLaneAll(Scenario scenario) {
+        doRegionTask(region -> {
+            for (Vehicle vehicle : region.vehicles)
+                vehicle.willChangeLane();
+        });
+    }
+
+    @Override
+    public void changeLaneAll(Scenario scenario) {
+        doRegionTask(region -> {
+            for (Vehicle vehicle : region.vehicles)
+                vehicle.changeLane();
+        });
+    }
+
+    @Override
+    public void brakeAll(Scenario scenario) {
+        doRegionTask(region -> {
+            for (Vehicle vehicle : region.vehicles) {
+                vehicle.brake();
+                vehicle.dawdle();
+            }
+        });
+    }
+
+    @Override
+    public void moveAll(Scenario scenario) {
+        doRegionTask(region -> {
+            for (Vehicle vehicle : region.vehicles)
+                vehicle.move();
+        });
+        didOwnModifications();
+    }
+
+    @Override
+    public void didMoveAll(Scenario scenario) {
+        doRegionTask(region -> {
+            ArrayList<Vehicle> remaining = new ArrayList<>(region.vehicles.size());
+            for (Vehicle vehicle : region.vehicles) {
+                // vehicles having despawned while moving are dropped
+                if (vehicle.getState() != VehicleState.SPAWNED)
+                    continue;
+                vehicle.didMove();
+
+                int owner = partition.getRegion(vehicle.getLane().getEdge());
+                if (owner == region.index)
+                    remaining.add(vehicle);
+                else
+                    region.outboxes[owner].add(vehicle);
+            }
+            region.vehicles = remaining;
+        });
+        doRegionTask(this::takeOver);
+        didOwnModifications();
+    }
+
+    @Override
+    public void spawnAll(Scenario scenario) {
+        if (regions == null)
+            updateRegions(scenario);
+
+        // one origin queue has to be processed in order by one thread => by the region owning its origin
+        for (SpawnScheduler.OriginQueue queue : scenario.getVehicleContainer().getSpawnScheduler().nextStep()) {
+            int owner = queue.getOrigin() == null ? 0 : partition.getRegion(queue.getOrigin());
+            regions[owner].originQueues.add(queue);
+        }
+
+        doRegionTask(region -> {
+            for (SpawnScheduler.OriginQueue queue : region.originQueues)
+                queue.spawnAll(vehicle -> region.outboxes[partition.getRegion(vehicle.getLane().getEdge())]
+                        .add(vehicle));
+            region.originQueues.clear();
+        });
+        doRegionTask(this::takeOver);
+        didOwnModifications();
+    }
+
+    @Override
+    public void updateNodes(Scenario scenario) {
+        if (regions == null)
+            updateRegions(scenario);
+
+        doRegionTask(region -> {
+            for (Node node : partition.getNodes(region.index))
+                node.update();
+        });
+    }
+
+
+    /*
+    |=========|
+    | regions |
+    |=========|
+    */
+    /**
+     * Partitions the scenario's graph if it has changed and rebuilds the regions' vehicles if the container's spawned
+     * vehicles have been changed from outside.
+     */
+    private void updateRegions(Scenario scenario) {
+        Graph graph = scenario.getGraph();
+        VehicleContainer container = scenario.getVehicleContainer();
+
+        boolean isRebuildNeeded = false;
+        if (partition == null || !partition.getGraph().equals(graph)) {
+            partition = partitioner.partition(graph, nRegions);
+            logger.debug("graph partitioned into " + nRegions + " regions with "
+                    + partition.getCutEdgeCount() + " cut edges");
+            isRebuildNeeded = true;
+        }
+        if (this.container != container) {
+            this.container = container;
+            isRebuildNeeded = true;
+        }
+
+        if (container.getModificationCount() != expectedModificationCount)
+            isRebuildNeeded = true;
+
+        if (isRebuildNeeded) {
+            regions = new Region[nRegions];
+            for (int i = 0; i < nRegions; i++)
+                regions[i] = new Region(i, nRegions);
+
+            for (Vehicle vehicle : container.getSpawnedVehicles())
+                regions[partition.getRegion(vehicle.getLane().getEdge())].vehicles.add(vehicle);
+            didOwnModifications();
+        }
+    }
+
+    /**
+     * Has to be called after the regions' vehicles have been changed together with the container's spawned vehicles,
+     * so these changes do not trigger a rebuild.
+     */
+    private void didOwnModifications() {
+        if (container != null)
+            expectedModificationCount = container.getModificationCount();
+    }
+
+    /**
+     * Moves the vehicles of all outboxes addressed to the given region into its vehicles.
+     */
+    private void takeOver(Region region) {
+        for (Region source : regions) {
+            ArrayList<Vehicle> outbox = source.outboxes[region.index];
+            region.vehicles.addAll(outbox);
+            outbox.clear();
+        }
+    }
+
+    private void doRegionTask(Consumer<Region> task) {
+        if (regions == null)
+            return;
+
+        try {
+            delegator.doTask(task, Arrays.asList(regions).iterator(), 1);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * State owned by one region. Its lists are only accessed by the task processing this region, except for the
+     * outboxes, which are read by the target regions after the phase has finished.
+     */
+    private static class Region {
+        private final int                  index;
+        private ArrayList<Vehicle>         vehicles;
+        private final ArrayList<Vehicle>[] outboxes;    // per target region
+        private final ArrayList<SpawnScheduler.OriginQueue> originQueues;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Region(int index, int nRegions) {
+            this.index   = index;
+            vehicles     = new ArrayList<>();
+            outboxes     = new ArrayList[nRegions];
+            for (int i = 0; i < nRegions; i++)
+                outboxes[i] = new ArrayList<>();
+            originQueues = new ArrayList<>();
+        }
+    }
+}
@@ -3,20 +3,25 @@ package microtrafficsim.core.simulation.core.stepexecutors;
 import microtrafficsim.core.logic.nodes.Node;
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
 import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler;
 
 
 /**
  * A single-threaded implementation of {@link VehicleStepExecutor}.
  *
+ * <p>
+ * Every phase calls exactly the vehicle methods the multi-threaded executors call, so the results of a seed do not
+ * depend on the number of threads. Note: this is a behaviour change. Earlier versions called
+ * {@link Vehicle#willChangeLane()} in {@link #accelerateAll(Scenario)} as well, drawing one more random number per
+ * vehicle and step, so single-threaded results of existing seeds differ from those versions.
+ *
  * @author Dominic Parga Cacheiro
  */
 public class SingleThreadedVehicleStepExecutor implements VehicleStepExecutor {
     @Override
     public void accelerateAll(Scenario scenario) {
-        for (Vehicle vehicle : scenario.getVehicleContainer().getSpawnedVehicles()) {
+        for (Vehicle vehicle : scenario.getVehicleContainer().getSpawnedVehicles())
             vehicle.accelerate();
-            vehicle.willChangeLane();
-        }
     }
 
     @Override
@@ -55,8 +60,8 @@ public class SingleThreadedVehicleStepExecutor implements VehicleStepExecutor {
 
     @Override
     public void spawnAll(final Scenario scenario) {
-        for (Vehicle vehicle : scenario.getVehicleContainer().getNotSpawnedVehicles())
-            vehicle.spawn();
+        for (SpawnScheduler.OriginQueue queue : scenario.getVehicleContainer().getSpawnScheduler().nextStep())
+            queue.spawnAll();
     }
 
     @Override
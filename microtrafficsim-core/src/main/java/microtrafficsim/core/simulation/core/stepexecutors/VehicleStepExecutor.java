@@ -42,7 +42,9 @@ public interface VehicleStepExecutor {
     void didMoveAll(Scenario scenario);
 
     /**
-     * After executing tasks for spawned vehicles, there is space for not spawned ones {@literal ->} spawn them.
+     * After executing tasks for spawned vehicles, there is space for not spawned ones {@literal ->} spawn them. Only
+     * the vehicles being due in this step are processed, given by the container's
+     * {@link microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler SpawnScheduler}.
      *
      * @param scenario The scenario holding an iterator over all not-spawned vehicles getting prepared for moving.
      */
@@ -0,0 +1,273 @@
+package microtrafficsim.core.simulation.rerouting;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.shortestpath.astar.AStar;
+import microtrafficsim.core.shortestpath.astar.AStars;
+import microtrafficsim.core.simulation.configs.ReroutingConfig;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.Simulation;
+import microtrafficsim.core.simulation.core.StepListener;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.utils.concurrency.interruptsafe.InterruptSafeExecutors;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * <p>
+ * Re-routes the spawned vehicles of a scenario while it is simulated, using the travel times estimated by an
+ * {@link EdgeTravelTimeEstimator}. After every step, this listener
+ * <ol>
+ * <li> applies the routes computed since the last step,
+ * <li> updates the travel times with the current state and
+ * <li> chooses the next {@link ReroutingConfig#vehiclesPerStep} spawned vehicles (round-robin in order of their ids)
+ * and computes their new routes on {@link ReroutingConfig#nThreads} threads while the next step is executed.
+ * </ol>
+ *
+ * <p>
+ * A vehicle keeps the next edge of its route, because its lane has been chosen for it; the new route continues with
+ * the fastest path from this edge to the old destination. If the vehicle has entered its next edge before the new
+ * route is applied, the new route is dropped.
+ *
+ * <p>
+ * The routes of one step are applied after the next step, even if they have been computed earlier, so the results do
+ * not depend on the time routing takes or on the number of threads. The step loop only waits if routing takes longer
+ * than one step.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class DynamicRerouting implements StepListener {
+    private static final Logger logger = new EasyMarkableLogger(DynamicRerouting.class);
+
+    private final SimulationConfig        config;
+    private final EdgeTravelTimeEstimator estimator;
+    private final ExecutorService         pool;
+
+    /* round-robin */
+    private long lastId;
+
+    /* routes computed while the current step is executed */
+    private final ArrayList<Job>       pendingJobs;
+    private final ArrayList<Future<?>> pendingPacks;
+
+    private long reroutedCount;
+    private long droppedCount;
+
+
+    /**
+     * @param scenario its spawned vehicles are re-routed; its config's {@link SimulationConfig#rerouting} is used
+     */
+    public DynamicRerouting(Scenario scenario) {
+        config    = scenario.getConfig();
+        estimator = new EdgeTravelTimeEstimator(scenario.getGraph(), config.rerouting.smoothingFactor);
+        pool      = InterruptSafeExecutors.newFixedThreadPool(Math.max(1, config.rerouting.nThreads));
+
+        lastId       = -1;
+        pendingJobs  = new ArrayList<>();
+        pendingPacks = new ArrayList<>();
+    }
+
+    /**
+     * Stops the threads computing routes. Routes, which have not been applied yet, are dropped.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+        pendingJobs.clear();
+        pendingPacks.clear();
+    }
+
+
+    /*
+    |==================|
+    | (i) StepListener |
+    |==================|
+    */
+    @Override
+    public void didOneStep(Simulation simulation) {
+        // waits for the routing threads, which read a buffer of the estimator the next but one update reuses
+        applyPendingRoutes();
+
+        Collection<Vehicle> spawnedVehicles = simulation.getScenario().getVehicleContainer().getSpawnedVehicles();
+        estimator.update(spawnedVehicles);
+        computeRoutes(chooseVehicles(spawnedVehicles));
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    private void applyPendingRoutes() {
+        for (Future<?> pack : pendingPacks)
+            await(pack);
+
+        int rerouted = 0;
+        for (Job job : pendingJobs) {
+            if (job.newRoute == null)
+                continue;
+
+            Vehicle vehicle = job.vehicle;
+            Route   route   = vehicle.getDriver().getRoute();
+            boolean isValid = vehicle.getState() == VehicleState.SPAWNED
+                    && route == job.route
+                    && !route.isEmpty()
+                    && route.peek() == job.nextEdge;
+            if (!isValid) {
+                droppedCount++;
+                continue;
+            }
+
+            if (!job.newRoute.equals(route)) {
+                vehicle.getDriver().setRoute(job.newRoute);
+                rerouted++;
+            }
+        }
+        reroutedCount += rerouted;
+        if (!pendingJobs.isEmpty())
+            logger.trace(rerouted + " of " + pendingJobs.size() + " vehicles have got a new route");
+
+        pendingJobs.clear();
+        pendingPacks.clear();
+    }
+
+    /**
+     * @return the next vehicles in order of their ids after the last re-routed one, which have at least two edges
+     * left in their route
+     */
+    private ArrayList<Job> chooseVehicles(Collection<Vehicle> spawnedVehicles) {
+        ArrayList<Vehicle> vehicles = new ArrayList<>(spawnedVehicles);
+        if (!(spawnedVehicles instanceof SortedSet))
+            vehicles.sort(Comparator.comparingLong(Vehicle::getId));
+
+        // start after the last re-routed vehicle
+        int start = 0;
+        while (start < vehicles.size() && vehicles.get(start).getId() <= lastId)
+            start++;
+
+        ArrayList<Job> jobs = new ArrayList<>();
+        int budget = config.rerouting.vehiclesPerStep;
+        for (int k = 0; k < vehicles.size() && jobs.size() < budget; k++) {
+            Vehicle vehicle = vehicles.get((start + k) % vehicles.size());
+            lastId = vehicle.getId();
+
+            Route route = vehicle.getDriver().getRoute();
+            if (!(route instanceof StackRoute) || route.size() < 2)
+                continue;
+            jobs.add(new Job(vehicle, (StackRoute) route));
+        }
+        return jobs;
+    }
+
+    private void computeRoutes(ArrayList<Job> jobs) {
+        if (jobs.isEmpty())
+            return;
+
+        AStar<Node, DirectedEdge> scout = AStars.fastestPathAStar(
+                estimator.getTravelTimes(), config.metersPerCell, config.globalMaxVelocity);
+
+        int nThreads = Math.max(1, config.rerouting.nThreads);
+        int packSize = (jobs.size() + nThreads - 1) / nThreads;
+        for (int first = 0; first < jobs.size(); first += packSize) {
+            Collection<Job> pack = jobs.subList(first, Math.min(first + packSize, jobs.size()));
+            pendingPacks.add(pool.submit(() -> {
+                for (Job job : pack)
+                    job.computeRoute(scout);
+            }));
+        }
+        pendingJobs.addAll(jobs);
+    }
+
+    private static void await(Future<?> pack) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    pack.get();
+                    return;
+                } catch (InterruptedException e) {
+                    // the routes have to be applied in this step for determinism
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /*
+    |=========|
+    | getters |
+    |=========|
+    */
+    public EdgeTravelTimeEstimator getEstimator() {
+        return estimator;
+    }
+
+    /**
+     * @return number of vehicles, which have got a route different to their old one
+     */
+    public long getReroutedCount() {
+        return reroutedCount;
+    }
+
+    /**
+     * @return number of computed routes, which have not been applied because the vehicle has left its edge meanwhile
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+
+    /**
+     * The state of a vehicle's route when it has been chosen, which is read by routing threads.
+     */
+    private static class Job {
+        private final Vehicle      vehicle;
+        private final StackRoute   route;
+        private final DirectedEdge nextEdge;
+        private final Node         destination;
+        private final int          spawnDelay;
+        private final boolean      isMonitored;
+
+        /* written by a routing thread */
+        private StackRoute newRoute;
+
+        private Job(Vehicle vehicle, StackRoute route) {
+            this.vehicle = vehicle;
+            this.route   = route;
+            nextEdge     = route.peek();
+            destination  = route.getDestination();
+            spawnDelay   = route.getSpawnDelay();
+            isMonitored  = route.isMonitored();
+        }
+
+        private void computeRoute(AStar<Node, DirectedEdge> scout) {
+            StackRoute newRoute = new StackRoute(spawnDelay);
+            newRoute.setMonitored(isMonitored);
+            scout.findShortestPath(nextEdge, destination, newRoute);
+            if (newRoute.isEmpty())
+                return; // no path from the next edge
+
+            newRoute.push(nextEdge);
+            this.newRoute = newRoute;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package microtrafficsim.core.simulation.rerouting;
+
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+
+/**
+ * <p>
+ * Estimates the current travel time of every edge from the simulation state. After every step, the number of vehicles
+ * and their mean velocity per edge are smoothed exponentially. An edge without vehicles in this step is expected to be
+ * driven with its max velocity reduced by its smoothed density (vehicles per cell), so an edge, which has just been
+ * left by a jam, gets cheaper gradually instead of at once. The travel time is the edge's length divided by the
+ * smoothed velocity, so it is never less than {@link DirectedEdge#getTimeCostMillis()}.
+ *
+ * <p>
+ * The travel times are double-buffered: every {@link #update(Iterable)} writes the buffer the last but one update has
+ * published, so the {@link #getTravelTimes() travel times} of one step can be used by other threads while the next
+ * step is executed, but not longer.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class EdgeTravelTimeEstimator {
+
+    /** in cells/s; a jammed edge is not infinitely expensive */
+    public static final double MIN_VELOCITY = 0.1;
+
+    private final float                          smoothingFactor;
+    private final DirectedEdge[]                 edges;
+    private final HashMap<DirectedEdge, Integer> indices;
+
+    /* smoothed state */
+    private final double[] velocities;
+    private final double[] vehicleCounts;
+    private final int[]    cellCounts;
+
+    /* reused while updating */
+    private final int[]  currentCounts;
+    private final long[] currentVelocitySums;
+
+    /* double-buffered travel times */
+    private final double[]    travelTimesFront;
+    private final double[]    travelTimesBack;
+    private volatile double[] travelTimes;
+
+
+    /**
+     * @param graph           its edges are estimated
+     * @param smoothingFactor weight of the current step in {@code (0, 1]}; {@code 1} means no smoothing
+     */
+    public EdgeTravelTimeEstimator(Graph graph, float smoothingFactor) {
+        if (!(0 < smoothingFactor && smoothingFactor <= 1))
+            throw new IllegalArgumentException("It must hold: 0 < smoothingFactor <= 1\n" +
+                    "Current: " + smoothingFactor);
+
+        this.smoothingFactor = smoothingFactor;
+        edges   = new TreeSet<>(graph.getEdges()).toArray(new DirectedEdge[0]);
+        indices = new HashMap<>();
+        for (int i = 0; i < edges.length; i++)
+            indices.put(edges[i], i);
+
+        velocities          = new double[edges.length];
+        vehicleCounts       = new double[edges.length];
+        cellCounts          = new int[edges.length];
+        currentCounts       = new int[edges.length];
+        currentVelocitySums = new long[edges.length];
+        travelTimesFront    = new double[edges.length];
+        travelTimesBack     = new double[edges.length];
+        for (int i = 0; i < edges.length; i++)
+            cellCounts[i] = edges[i].getLength() * Math.max(1, edges[i].getNumberOfLanes());
+        reset();
+    }
+
+    /**
+     * Forgets all observations, so every edge is expected to be driven with its max velocity.
+     */
+    public void reset() {
+        double[] travelTimes = nextBuffer();
+        for (int i = 0; i < edges.length; i++) {
+            velocities[i]    = edges[i].getMaxVelocity();
+            vehicleCounts[i] = 0;
+            travelTimes[i]   = edges[i].getTimeCostMillis();
+        }
+        this.travelTimes = travelTimes;
+    }
+
+    /**
+     * Smoothes the vehicle counts and velocities per edge with the given vehicles' current state and publishes new
+     * travel times. Must not be called concurrently and not before every reader of the travel times published by the
+     * last but one update has finished.
+     *
+     * @param spawnedVehicles all spawned vehicles of the graph
+     */
+    public void update(Iterable<Vehicle> spawnedVehicles) {
+        Arrays.fill(currentCounts, 0);
+        Arrays.fill(currentVelocitySums, 0);
+        for (Vehicle vehicle : spawnedVehicles) {
+            DirectedEdge.Lane lane = vehicle.getLane();
+            if (lane == null)
+                continue;
+            Integer index = indices.get(lane.getEdge());
+            if (index == null) // e.g. the vehicle has been spawned in another graph
+                continue;
+            currentCounts[index]++;
+            currentVelocitySums[index] += vehicle.getVelocity();
+        }
+
+        double[] travelTimes = nextBuffer();
+        for (int i = 0; i < edges.length; i++) {
+            DirectedEdge edge = edges[i];
+            double velocity;
+            if (currentCounts[i] > 0) {
+                velocity = (double) currentVelocitySums[i] / currentCounts[i];
+            } else {
+                // no observation: linear velocity-density relation, a full edge does not move at all
+                double density = Math.min(vehicleCounts[i] / cellCounts[i], 1);
+                velocity = edge.getMaxVelocity() * (1 - density);
+            }
+
+            velocities[i]    += smoothingFactor * (velocity - velocities[i]);
+            vehicleCounts[i] += smoothingFactor * (currentCounts[i] - vehicleCounts[i]);
+
+            // 1000.0 because velocity is in cells/s = cells/1000ms
+            travelTimes[i] = (1000.0 * edge.getLength()) / Math.max(velocities[i], MIN_VELOCITY);
+        }
+        this.travelTimes = travelTimes;
+    }
+
+    /**
+     * @return the buffer not published by the last update
+     */
+    private double[] nextBuffer() {
+        return travelTimes == travelTimesFront ? travelTimesBack : travelTimesFront;
+    }
+
+
+    /*
+    |=========|
+    | getters |
+    |=========|
+    */
+    /**
+     * @return the travel times of the last update in ms; they are not changed by the next update, but by the one
+     * after. Unknown edges cost {@link DirectedEdge#getTimeCostMillis()}.
+     */
+    public ToDoubleFunction<DirectedEdge> getTravelTimes() {
+        double[] travelTimes = this.travelTimes;
+        return edge -> {
+            Integer index = indices.get(edge);
+            return index == null ? edge.getTimeCostMillis() : travelTimes[index];
+        };
+    }
+
+    /**
+     * @return the smoothed velocity of the given edge in cells/s
+     */
+    public double getVelocity(DirectedEdge edge) {
+        return velocities[indices.get(edge)];
+    }
+
+    /**
+     * @return the smoothed number of vehicles on the given edge
+     */
+    public double getVehicleCount(DirectedEdge edge) {
+        return vehicleCounts[indices.get(edge)];
+    }
+}
@@ -0,0 +1,332 @@
+package microtrafficsim.core.simulation.scenarios.containers;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+
+
+/**
+ * <p>
+ * Decides which not spawned vehicles are processed in a spawn phase, so one step does not touch every not spawned
+ * vehicle. A vehicle, whose driver's travelling time is negative due to its spawn delay, is put into a calendar bucket
+ * of the spawn phase it becomes due in. Due vehicles are moved into a ready queue of their origin node and stay there
+ * until they have spawned or despawned. Only the ready queues are processed.
+ *
+ * <p>
+ * The result is the same as calling {@link Vehicle#spawn()} for every not spawned vehicle in every step. The steps a
+ * waiting vehicle has skipped are caught up by {@link Vehicle#waitForSpawn(int)} lazily: its driver counts them using
+ * the scheduler's clock (see {@link microtrafficsim.core.logic.vehicles.driver.Driver#setSpawnClock(IntSupplier)
+ * Driver.setSpawnClock}) and applies them as soon as its state is read or the vehicle becomes due.
+ *
+ * <p>
+ * The spawn order is deterministic: every ready queue is sorted by vehicle id and the queues are ordered by the time
+ * their origin got its first ready vehicle. Vehicles of different origins do not influence each other while spawning
+ * (they leave different nodes and enter different edges), so the queues can be processed in parallel as long as every
+ * queue is processed by one thread in order.
+ *
+ * <p>
+ * Added vehicles are scheduled at the beginning of the next spawn phase, so their driver's state may still be changed
+ * after adding them (e.g. when restoring a checkpoint).
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class SpawnScheduler {
+
+    private final ReentrantLock lock;
+
+    /* state, guarded by lock */
+    private int                                    step;
+    private volatile int                           finishedSteps;    // clock of the waiting drivers
+    private final IntSupplier                      clock;
+    private final ArrayList<Vehicle>               unscheduled;
+    private final TreeMap<Integer, List<Vehicle>>  calendar;
+    private final LinkedHashMap<Node, OriginQueue> readyQueues;
+    private Lookahead                              lookahead;
+
+
+    public SpawnScheduler() {
+        lock        = new ReentrantLock();
+        step        = 0;
+        clock       = () -> finishedSteps;
+        unscheduled = new ArrayList<>();
+        calendar    = new TreeMap<>();
+        readyQueues = new LinkedHashMap<>();
+    }
+
+
+    /*
+    |==========|
+    | updating |
+    |==========|
+    */
+    /**
+     * Adds the given not spawned vehicle. It is scheduled at the beginning of the next spawn phase.
+     *
+     * @param vehicle not spawned vehicle; must not be added twice unless {@link #clear()} has been called in between
+     */
+    public void add(Vehicle vehicle) {
+        lock.lock();
+        try {
+            unscheduled.add(vehicle);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the given not spawned vehicles in the order of the given collection. They are scheduled at the beginning
+     * of the next spawn phase.
+     *
+     * @param vehicles not spawned vehicles; see {@link #add(Vehicle)}
+     */
+    public void addAll(Collection<Vehicle> vehicles) {
+        lock.lock();
+        try {
+            unscheduled.addAll(vehicles);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the lookahead completing vehicles before they become due. It is removed by {@link #clear()}.
+     *
+     * @param lookahead gets the vehicles becoming due in the next spawn phase; null for no lookahead
+     */
+    public void setLookahead(Lookahead lookahead) {
+        lock.lock();
+        try {
+            this.lookahead = lookahead;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all vehicles and resets the counted spawn phases.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            calendar.values().forEach(bucket -> bucket.forEach(SpawnScheduler::stopWaiting));
+            step          = 0;
+            finishedSteps = 0;
+            unscheduled.clear();
+            calendar.clear();
+            readyQueues.clear();
+            lookahead = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all vehicles matching the given filter in O(n) for n added vehicles.
+     */
+    public void removeIf(Predicate<Vehicle> filter) {
+        lock.lock();
+        try {
+            unscheduled.removeIf(filter);
+            calendar.values().forEach(bucket -> bucket.removeIf(vehicle -> {
+                if (!filter.test(vehicle))
+                    return false;
+                stopWaiting(vehicle);
+                return true;
+            }));
+            calendar.values().removeIf(List::isEmpty);
+            readyQueues.values().forEach(queue -> queue.vehicles.removeIf(filter));
+            readyQueues.values().removeIf(OriginQueue::isEmpty);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the next spawn phase: all added vehicles are scheduled and all vehicles becoming due in this phase are
+     * moved into the ready queues.
+     *
+     * @return the non-empty ready queues, which have to be processed in this spawn phase using
+     * {@link OriginQueue#spawnAll()}
+     */
+    public List<OriginQueue> nextStep() {
+        lock.lock();
+        try {
+            step++;
+
+            ArrayList<Vehicle> ready = new ArrayList<>();
+            for (Vehicle vehicle : unscheduled)
+                schedule(vehicle, ready);
+            unscheduled.clear();
+
+            List<Vehicle> due = calendar.remove(step);
+            if (due != null) {
+                for (Vehicle vehicle : due) {
+                    // catches up all steps until the last one, so the travelling time is 0 now
+                    stopWaiting(vehicle);
+                    if (vehicle.getState() == VehicleState.NOT_SPAWNED)
+                        ready.add(vehicle);
+                }
+            }
+
+            if (lookahead != null && !ready.isEmpty())
+                lookahead.prepare(ready);
+            for (Vehicle vehicle : ready)
+                makeReady(vehicle);
+
+            if (lookahead != null) {
+                List<Vehicle> dueNext = calendar.get(step + 1);
+                if (dueNext != null)
+                    lookahead.prepare(dueNext);
+            }
+
+            readyQueues.values().removeIf(OriginQueue::isEmpty);
+            finishedSteps = step;
+            return new ArrayList<>(readyQueues.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Has to be called while holding the lock.
+     */
+    private void schedule(Vehicle vehicle, List<Vehicle> ready) {
+        if (vehicle.getState() != VehicleState.NOT_SPAWNED)
+            return;
+
+        int travellingTime = vehicle.getDriver().getTravellingTime();
+        if (travellingTime >= 0)
+            ready.add(vehicle);
+        else {
+            vehicle.getDriver().setSpawnClock(clock);
+            calendar.computeIfAbsent(step - travellingTime, k -> new ArrayList<>()).add(vehicle);
+        }
+    }
+
+    private static void stopWaiting(Vehicle vehicle) {
+        vehicle.getDriver().setSpawnClock(null);
+    }
+
+    /**
+     * Has to be called while holding the lock.
+     */
+    private void makeReady(Vehicle vehicle) {
+        Route route  = vehicle.getDriver().getRoute();
+        Node  origin = route.isEmpty() ? null : route.getOrigin();
+        readyQueues.computeIfAbsent(origin, OriginQueue::new).vehicles.add(vehicle);
+    }
+
+
+    /*
+    |=========|
+    | getters |
+    |=========|
+    */
+    /**
+     * @return number of vehicles waiting for their spawn delay
+     */
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            int count = unscheduled.size();
+            for (List<Vehicle> bucket : calendar.values())
+                count += bucket.size();
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of vehicles being due, but not spawned yet
+     */
+    public int getReadyCount() {
+        lock.lock();
+        try {
+            int count = 0;
+            for (OriginQueue queue : readyQueues.values())
+                count += queue.vehicles.size();
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Completes not spawned vehicles shortly before they become due, e.g. by computing their routes, so not every
+     * vehicle has to be complete when it is added. At the end of every spawn phase, it gets the vehicles becoming due
+     * in the next spawn phase; the nodes are updated in between. Vehicles becoming due without having been passed
+     * before (e.g. added with a travelling time {@code >= 0}) are passed right before they are moved into the ready
+     * queues.
+     */
+    @FunctionalInterface
+    public interface Lookahead {
+
+        /**
+         * Is called while holding the scheduler's lock, so it must not call the scheduler. It may block until the
+         * given vehicles are complete, which keeps the results independent of the time the completion takes.
+         *
+         * @param vehicles not spawned vehicles in order of scheduling; a vehicle may be passed more than once
+         */
+        void prepare(List<Vehicle> vehicles);
+    }
+
+
+    /**
+     * The ready vehicles of one origin node sorted by their ids. Vehicles with an empty route share the queue with
+     * origin {@code null}.
+     */
+    public static class OriginQueue {
+        private final Node             origin;
+        private final TreeSet<Vehicle> vehicles;
+
+        private OriginQueue(Node origin) {
+            this.origin = origin;
+            vehicles    = new TreeSet<>(Comparator.comparingLong(Vehicle::getId));
+        }
+
+        /**
+         * @return the node all vehicles of this queue start at; {@code null} for vehicles with an empty route
+         */
+        public Node getOrigin() {
+            return origin;
+        }
+
+        public boolean isEmpty() {
+            return vehicles.isEmpty();
+        }
+
+        /**
+         * Calls {@link Vehicle#spawn()} for every vehicle of this queue in order of their ids and removes the vehicles
+         * that have spawned or despawned.
+         */
+        public void spawnAll() {
+            spawnAll(vehicle -> {});
+        }
+
+        /**
+         * Like {@link #spawnAll()}, but the given consumer gets every vehicle that has spawned in this call.
+         */
+        public void spawnAll(Consumer<Vehicle> spawned) {
+            Iterator<Vehicle> iter = vehicles.iterator();
+            while (iter.hasNext()) {
+                Vehicle vehicle = iter.next();
+                if (vehicle.getState() == VehicleState.NOT_SPAWNED) {
+                    vehicle.spawn();
+                    if (vehicle.getState() == VehicleState.SPAWNED)
+                        spawned.accept(vehicle);
+                }
+                if (vehicle.getState() != VehicleState.NOT_SPAWNED)
+                    iter.remove();
+            }
+        }
+    }
+}
@@ -32,11 +32,31 @@ public interface VehicleContainer extends VehicleStateListener, Iterable<Vehicle
      */
     void addVehicle(Vehicle vehicle);
 
+    /**
+     * Adds the vehicles as unspawned in the order of the given collection. Implementations may add them at once
+     * instead of calling {@link #addVehicle(Vehicle)} for every vehicle.
+     *
+     * @param vehicles Vehicles that have been added to the graph successfully.
+     */
+    default void addVehicles(Collection<Vehicle> vehicles) {
+        for (Vehicle vehicle : vehicles)
+            addVehicle(vehicle);
+    }
+
     /**
      * Clears this container, so after this call it is empty.
      */
     void clearAll();
 
+    /**
+     * Removes the given vehicles without changing their state, e.g. because they are simulated by another process.
+     * Not spawned vehicles are removed from the {@link #getSpawnScheduler() spawn scheduler} as well. If a removed
+     * vehicle spawns later (e.g. because it enters this process's part of the graph again), it is added again.
+     *
+     * @param vehicles vehicles to be removed
+     */
+    void removeVehicles(Collection<Vehicle> vehicles);
+
     default boolean isEmpty() {
         return getVehicleCount() == 0;
     }
@@ -51,6 +71,13 @@ public interface VehicleContainer extends VehicleStateListener, Iterable<Vehicle
      */
     int getSpawnedCount();
 
+    /**
+     * @return a counter that is increased by every change of the spawned vehicles (spawning, despawning, removing,
+     * clearing); thus a user caching the spawned vehicles can detect changes made by others, even if the number of
+     * spawned vehicles stays the same
+     */
+    long getModificationCount();
+
     /**
      * @return The amount of all not spawned vehicles
      */
@@ -80,6 +107,12 @@ public interface VehicleContainer extends VehicleStateListener, Iterable<Vehicle
      */
     Collection<Vehicle> getNotSpawnedVehicles();
 
+    /**
+     * @return the scheduler of this container's not spawned vehicles, deciding which of them are processed in the next
+     * spawn phase
+     */
+    SpawnScheduler getSpawnScheduler();
+
     // probably unused :(
     //	/**
     //	 * Returns the index of the list of the greatest size less than or equal to
@@ -2,6 +2,7 @@ package microtrafficsim.core.simulation.scenarios.containers.impl;
 
 import microtrafficsim.core.logic.vehicles.VehicleState;
 import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler;
 import microtrafficsim.core.simulation.scenarios.containers.VehicleContainer;
 
 import java.util.*;
@@ -16,6 +17,8 @@ import java.util.*;
 public class ConcurrentVehicleContainer implements VehicleContainer {
 
     protected Set<Vehicle> spawnedVehicles, notSpawnedVehicles, vehicles;
+    protected SpawnScheduler spawnScheduler;
+    protected long modificationCount;
 
     /**
      * Default constructor. It initializes the used sets as concurrent ones, so they can be edited while iterated.
@@ -24,6 +27,8 @@ public class ConcurrentVehicleContainer implements VehicleContainer {
         spawnedVehicles     = new TreeSet<>(Comparator.comparingLong(Vehicle::getId));
         notSpawnedVehicles  = new TreeSet<>(Comparator.comparingLong(Vehicle::getId));
         vehicles            = new TreeSet<>(Comparator.comparingLong(Vehicle::getId));
+        spawnScheduler      = new SpawnScheduler();
+        modificationCount   = 0;
     }
 
     /*
@@ -33,15 +38,43 @@ public class ConcurrentVehicleContainer implements VehicleContainer {
     */
     @Override
     public synchronized void addVehicle(Vehicle vehicle) {
-        notSpawnedVehicles.add(vehicle);
+        if (notSpawnedVehicles.add(vehicle))
+            spawnScheduler.add(vehicle);
         vehicles.add(vehicle);
     }
 
+    @Override
+    public synchronized void addVehicles(Collection<Vehicle> vehicles) {
+        ArrayList<Vehicle> notSpawned = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            if (notSpawnedVehicles.add(vehicle))
+                notSpawned.add(vehicle);
+            this.vehicles.add(vehicle);
+        }
+        spawnScheduler.addAll(notSpawned);
+    }
+
     @Override
     public synchronized void clearAll() {
+        modificationCount++;
         spawnedVehicles.clear();
         notSpawnedVehicles.clear();
         vehicles.clear();
+        spawnScheduler.clear();
+    }
+
+    @Override
+    public synchronized void removeVehicles(Collection<Vehicle> vehicles) {
+        HashSet<Vehicle> notSpawned = new HashSet<>();
+        for (Vehicle vehicle : vehicles) {
+            if (spawnedVehicles.remove(vehicle))
+                modificationCount++;
+            if (notSpawnedVehicles.remove(vehicle))
+                notSpawned.add(vehicle);
+            this.vehicles.remove(vehicle);
+        }
+        if (!notSpawned.isEmpty())
+            spawnScheduler.removeIf(notSpawned::contains);
     }
 
     @Override
@@ -54,6 +87,11 @@ public class ConcurrentVehicleContainer implements VehicleContainer {
         return spawnedVehicles.size();
     }
 
+    @Override
+    public synchronized long getModificationCount() {
+        return modificationCount;
+    }
+
     @Override
     public synchronized int getNotSpawnedCount() {
         return notSpawnedVehicles.size();
@@ -89,6 +127,11 @@ public class ConcurrentVehicleContainer implements VehicleContainer {
         return set;
     }
 
+    @Override
+    public SpawnScheduler getSpawnScheduler() {
+        return spawnScheduler;
+    }
+
     /*
     |==========================|
     | (i) VehicleStateListener |
@@ -97,12 +140,15 @@ public class ConcurrentVehicleContainer implements VehicleContainer {
     @Override
     public synchronized void stateChanged(Vehicle vehicle) {
         if (vehicle.getState() == VehicleState.DESPAWNED) {
-            spawnedVehicles.remove(vehicle);
+            if (spawnedVehicles.remove(vehicle))
+                modificationCount++;
             notSpawnedVehicles.remove(vehicle);
             vehicles.remove(vehicle);
         } else if (vehicle.getState() == VehicleState.SPAWNED) {
             notSpawnedVehicles.remove(vehicle);
-            spawnedVehicles.add(vehicle);
+            if (spawnedVehicles.add(vehicle))
+                modificationCount++;
+            vehicles.add(vehicle);
         }
     }
 
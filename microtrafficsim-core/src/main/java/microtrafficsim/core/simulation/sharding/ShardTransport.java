@@ -0,0 +1,38 @@
+package microtrafficsim.core.simulation.sharding;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/**
+ * <p>
+ * Connects the shards of a distributed simulation, e.g. one process per shard. The only operation is an all-to-all
+ * exchange of messages: every shard sends one message to every other shard and receives one message from every other
+ * shard. All shards have to call {@link #exchange(byte[][])} equally often, so the n-th call of one shard receives the
+ * messages of the n-th calls of the others. Because the call returns only after all messages have been received, it
+ * is a barrier for all shards as well.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public interface ShardTransport extends Closeable {
+
+    /**
+     * @return index of the shard using this transport, in {@code [0, getShardCount())}
+     */
+    int getShardIndex();
+
+    /**
+     * @return number of connected shards including this one
+     */
+    int getShardCount();
+
+    /**
+     * Sends {@code messages[j]} to shard {@code j} for every other shard and waits for the messages of all other
+     * shards.
+     *
+     * @param messages one message per shard; the message of this shard is ignored and may be null
+     * @return one message per shard in order of the shards' indices; the message of this shard is null
+     * @throws IOException if a shard cannot be reached or the transport has been closed
+     */
+    byte[][] exchange(byte[][] messages) throws IOException;
+}
@@ -0,0 +1,93 @@
+package microtrafficsim.core.simulation.sharding;
+
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartition;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartitioner;
+import microtrafficsim.core.logic.streetgraph.partitioning.impl.BfsGraphPartitioner;
+import microtrafficsim.core.simulation.builder.LogicVehicleFactory;
+import microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.core.stepexecutors.VehicleStepExecutor;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+
+import java.util.function.Predicate;
+
+
+/**
+ * <p>
+ * A {@link VehicleSimulation} simulating one shard of a distributed simulation by a
+ * {@link ShardedVehicleStepExecutor}. Every shard has to set a scenario with the same graph, the same config and the
+ * same seed, and all shards have to run the same number of steps. Every step waits for all other shards.
+ *
+ * <p>
+ * The vehicle container of a shard only contains the vehicles currently simulated by this shard, so e.g. the number
+ * of spawned vehicles of the whole simulation is the sum over all shards. To create only these vehicles, the scenario
+ * should be prepared with the route filter of {@link #createRouteFilter(Graph)}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class ShardedVehicleSimulation extends VehicleSimulation {
+
+    private final ShardTransport      transport;
+    private final GraphPartitioner    partitioner;
+    private final LogicVehicleFactory vehicleFactory;
+
+
+    /**
+     * Calls {@link #ShardedVehicleSimulation(ShardTransport, GraphPartitioner)
+     * ShardedVehicleSimulation(transport, new BfsGraphPartitioner())}
+     */
+    public ShardedVehicleSimulation(ShardTransport transport) {
+        this(transport, new BfsGraphPartitioner());
+    }
+
+    /**
+     * Calls {@link #ShardedVehicleSimulation(ShardTransport, GraphPartitioner, LogicVehicleFactory)
+     * ShardedVehicleSimulation(transport, partitioner, LogicVehicleFactory::defaultCreation)}
+     */
+    public ShardedVehicleSimulation(ShardTransport transport, GraphPartitioner partitioner) {
+        this(transport, partitioner, LogicVehicleFactory::defaultCreation);
+    }
+
+    /**
+     * Before this simulation can be used, it needs a scenario!
+     *
+     * @param transport      connects this shard to all other shards
+     * @param partitioner    has to be the same on all shards
+     * @param vehicleFactory creates the vehicles entering this shard from other shards; has to be the factory the
+     *                       scenario is prepared with
+     */
+    public ShardedVehicleSimulation(ShardTransport transport,
+                                    GraphPartitioner partitioner,
+                                    LogicVehicleFactory vehicleFactory)
+    {
+        super();
+        this.transport      = transport;
+        this.partitioner    = partitioner;
+        this.vehicleFactory = vehicleFactory;
+    }
+
+    public ShardTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * @param graph the graph of the scenario this shard is going to simulate
+     * @return filter accepting the routes starting in this shard's region of the given graph, see
+     * {@link VehicleScenarioBuilder#setRouteFilter(Predicate)}; routes without origin are accepted by shard 0
+     */
+    public Predicate<Route> createRouteFilter(Graph graph) {
+        GraphPartition partition = partitioner.partition(graph, transport.getShardCount());
+        int shardIndex = transport.getShardIndex();
+        return route -> Math.max(0, ShardedVehicleStepExecutor.getShard(partition, route)) == shardIndex;
+    }
+
+    /**
+     * @return a new {@link ShardedVehicleStepExecutor} ignoring the scenario's multi-threading config
+     */
+    @Override
+    protected VehicleStepExecutor createVehicleStepExecutor(Scenario scenario) {
+        return new ShardedVehicleStepExecutor(transport, partitioner, vehicleFactory);
+    }
+}
@@ -0,0 +1,444 @@
+package microtrafficsim.core.simulation.sharding;
+
+import microtrafficsim.core.entities.vehicle.VehicleEntity;
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartition;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartitioner;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.driver.BasicDriver;
+import microtrafficsim.core.logic.vehicles.machines.BasicVehicle;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.builder.LogicVehicleFactory;
+import microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder;
+import microtrafficsim.core.simulation.core.stepexecutors.MultiThreadedVehicleStepExecutor;
+import microtrafficsim.core.simulation.core.stepexecutors.SingleThreadedVehicleStepExecutor;
+import microtrafficsim.core.simulation.core.stepexecutors.VehicleStepExecutor;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.containers.SpawnScheduler;
+import microtrafficsim.core.simulation.scenarios.containers.VehicleContainer;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.util.*;
+
+
+/**
+ * <p>
+ * An implementation of {@link VehicleStepExecutor} simulating only one shard of the scenario. Every shard (e.g. one
+ * process per shard) has to load the same graph and the same scenario with the same seed; the graph is split into one
+ * region per shard by a {@link GraphPartitioner}. Like in {@link GraphPartition}, a shard owns its nodes and the edges
+ * leading to them. Spawned vehicles belong to the owner of their edge, not spawned vehicles to the owner of their
+ * route's origin (see {@link #getShard(GraphPartition, Route)}). Vehicles with empty routes despawn right when
+ * spawning, so they may belong to any shard.
+ *
+ * <p>
+ * Every shard only creates its own vehicles by preparing its scenario with the
+ * {@link VehicleScenarioBuilder#setRouteFilter(java.util.function.Predicate) route filter} of
+ * {@link ShardedVehicleSimulation#createRouteFilter(Graph)}. A vehicle received from another shard is created by the
+ * {@link LogicVehicleFactory} if it is new to this shard, so the message contains its seed and its remaining route as
+ * well.
+ *
+ * <p>
+ * A vehicle crossing a node may enter an edge of another shard. It is inserted into the local copy of this edge's
+ * lane as usual, but sent to the edge's owner in the next exchange and removed from the local vehicle container.
+ * The local copy keeps the vehicle until the exchange after, so the nodes of this shard still see it. Besides, the
+ * owner of an edge sends the max insertion indices of its lanes (see {@link DirectedEdge.Lane#getMaxInsertionIndex()})
+ * to the owner of the edge's origin, because this is the only information about foreign edges a shard needs.
+ *
+ * <p>
+ * One step uses three exchanges, which are barriers for all shards as well:
+ * <ol>
+ *     <li> before braking (max insertion indices after changing lanes)
+ *     <li> after moving (vehicles having crossed a node)
+ *     <li> after spawning (spawned vehicles)
+ * </ol>
+ * The results are the same as with a {@link SingleThreadedVehicleStepExecutor} or a
+ * {@link MultiThreadedVehicleStepExecutor} running the whole scenario, since the vehicles of one phase do not depend
+ * on the order they are processed in: vehicles handed off to another shard are inserted into their lanes by their
+ * position, and nodes order their vehicles by id. Every shard is simulated by one thread.
+ * Restoring checkpoints is not supported, because a shard only knows its own vehicles.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class ShardedVehicleStepExecutor implements VehicleStepExecutor {
+    private static final Logger logger = new EasyMarkableLogger(ShardedVehicleStepExecutor.class);
+
+    private static final Vehicle.LaneChangeDirection[] LANE_CHANGE_DIRECTIONS = Vehicle.LaneChangeDirection.values();
+
+    private final ShardTransport      transport;
+    private final GraphPartitioner    partitioner;
+    private final LogicVehicleFactory vehicleFactory;
+    private final int                 shardIndex;
+    private final int                 nShards;
+
+    /* shard */
+    private Scenario                       scenario;
+    private GraphPartition                 partition;
+    private VehicleContainer               container;
+    private DirectedEdge[]                 edges;
+    private HashMap<DirectedEdge, Integer> edgeIndices;
+    private HashMap<Long, BasicVehicle>    vehiclesById;
+    private ArrayList<DirectedEdge>[]      haloEdges; // own edges whose origin belongs to another shard
+    private ArrayList<BasicVehicle>[]      outboxes;
+    private ArrayList<BasicVehicle>        leftovers; // sent vehicles still on local copies of foreign lanes
+
+
+    /**
+     * Calls {@link #ShardedVehicleStepExecutor(ShardTransport, GraphPartitioner, LogicVehicleFactory)
+     * ShardedVehicleStepExecutor(transport, partitioner, LogicVehicleFactory::defaultCreation)}
+     */
+    public ShardedVehicleStepExecutor(ShardTransport transport, GraphPartitioner partitioner) {
+        this(transport, partitioner, LogicVehicleFactory::defaultCreation);
+    }
+
+    /**
+     * @param transport      connects this shard to all other shards; its shard count is the number of regions
+     * @param partitioner    splits the scenario's graph into one region per shard; has to be deterministic
+     * @param vehicleFactory creates the vehicles received from other shards; has to create {@link BasicVehicle}s
+     *                       with {@link BasicDriver}s like the factory the scenario has been prepared with
+     */
+    public ShardedVehicleStepExecutor(ShardTransport transport,
+                                      GraphPartitioner partitioner,
+                                      LogicVehicleFactory vehicleFactory)
+    {
+        this.transport      = transport;
+        this.partitioner    = partitioner;
+        this.vehicleFactory = vehicleFactory;
+        shardIndex          = transport.getShardIndex();
+        nShards             = transport.getShardCount();
+    }
+
+    /**
+     * @return the partition of the scenario's graph; null if the shard has not been set up yet
+     */
+    public GraphPartition getPartition() {
+        return partition;
+    }
+
+
+    /*
+    |=========================|
+    | (i) VehicleStepExecutor |
+    |=========================|
+    */
+    @Override
+    public void accelerateAll(Scenario scenario) {
+        setUp(scenario);
+        for (Vehicle vehicle : container.getSpawnedVehicles())
+            vehicle.accelerate();
+    }
+
+    @Override
+    public void willChangeLaneAll(Scenario scenario) {
+        for (Vehicle vehicle : scenario.getVehicleContainer().getSpawnedVehicles())
+            vehicle.willChangeLane();
+    }
+
+    @Override
+    public void changeLaneAll(Scenario scenario) {
+        for (Vehicle vehicle : scenario.getVehicleContainer().getSpawnedVehicles())
+            vehicle.changeLane();
+    }
+
+    @Override
+    public void brakeAll(Scenario scenario) {
+        setUp(scenario);
+        exchange();
+
+        for (Vehicle vehicle : container.getSpawnedVehicles()) {
+            vehicle.brake();
+            vehicle.dawdle();
+        }
+    }
+
+    @Override
+    public void moveAll(Scenario scenario) {
+        for (Vehicle vehicle : scenario.getVehicleContainer().getSpawnedVehicles())
+            vehicle.move();
+    }
+
+    @Override
+    public void didMoveAll(Scenario scenario) {
+        setUp(scenario);
+
+        for (Vehicle vehicle : container.getSpawnedVehicles())
+            post(vehicle);
+        exchange();
+
+        for (Vehicle vehicle : container.getSpawnedVehicles())
+            vehicle.didMove();
+    }
+
+    @Override
+    public void spawnAll(Scenario scenario) {
+        setUp(scenario);
+
+        for (SpawnScheduler.OriginQueue queue : container.getSpawnScheduler().nextStep())
+            queue.spawnAll(this::post);
+        exchange();
+    }
+
+    @Override
+    public void updateNodes(Scenario scenario) {
+        setUp(scenario);
+
+        for (Node node : partition.getNodes(shardIndex))
+            node.update();
+    }
+
+
+    /*
+    |=======|
+    | shard |
+    |=======|
+    */
+    /**
+     * Partitions the scenario's graph and collects the vehicles of the container, if the scenario is new to this
+     * executor.
+     *
+     * @throws IllegalStateException if the container contains vehicles of other shards, e.g. because the scenario has
+     *                               been prepared without the shard's route filter
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void setUp(Scenario scenario) {
+        Graph graph = scenario.getGraph();
+        if (partition != null && partition.getGraph().equals(graph) && container == scenario.getVehicleContainer())
+            return;
+
+        this.scenario = scenario;
+        partition     = partitioner.partition(graph, nShards);
+        container     = scenario.getVehicleContainer();
+
+        /* edges in the same order on all shards */
+        edges       = new TreeSet<>(graph.getEdges()).toArray(new DirectedEdge[0]);
+        edgeIndices = new HashMap<>();
+        haloEdges   = new ArrayList[nShards];
+        outboxes    = new ArrayList[nShards];
+        for (int i = 0; i < nShards; i++) {
+            haloEdges[i] = new ArrayList<>();
+            outboxes[i]  = new ArrayList<>();
+        }
+        leftovers = new ArrayList<>();
+
+        for (int i = 0; i < edges.length; i++) {
+            DirectedEdge edge = edges[i];
+            edgeIndices.put(edge, i);
+            edge.setRemoteMaxInsertionIndices(null);
+
+            int origin = partition.getRegion(edge.getOrigin());
+            if (partition.getRegion(edge) == shardIndex && origin != shardIndex)
+                haloEdges[origin].add(edge);
+        }
+
+        /* vehicles */
+        vehiclesById = new HashMap<>();
+        for (Vehicle vehicle : container.getVehicles()) {
+            if (!(vehicle instanceof BasicVehicle && vehicle.getDriver() instanceof BasicDriver))
+                throw new IllegalStateException("Sharded simulations need instances of "
+                        + BasicVehicle.class.getSimpleName() + " driven by "
+                        + BasicDriver.class.getSimpleName() + ".");
+            vehiclesById.put(vehicle.getId(), (BasicVehicle) vehicle);
+
+            int shard = getShard(vehicle);
+            if (shard >= 0 && shard != shardIndex)
+                throw new IllegalStateException("Vehicle " + vehicle.getId() + " belongs to shard " + shard
+                        + ", but shard " + shardIndex + " has created it. The scenario has to be prepared with the "
+                        + "route filter of " + ShardedVehicleSimulation.class.getSimpleName() + ".");
+        }
+
+        logger.debug("shard " + shardIndex + " of " + nShards + " owns "
+                + partition.getNodes(shardIndex).size() + " nodes and "
+                + container.getVehicleCount() + " vehicles; "
+                + partition.getCutEdgeCount() + " cut edges in total");
+    }
+
+    private int getShard(Vehicle vehicle) {
+        if (vehicle.getState() == VehicleState.SPAWNED)
+            return partition.getRegion(vehicle.getLane().getEdge());
+        return getShard(partition, vehicle.getDriver().getRoute());
+    }
+
+    /**
+     * @return the shard owning the origin of the given route, which may be a meta route; -1 if the route has no origin
+     */
+    static int getShard(GraphPartition partition, Route route) {
+        Node origin = route.getOrigin();
+        return origin == null ? -1 : partition.getRegion(origin);
+    }
+
+    /**
+     * Puts the given vehicle into the outbox of its edge's owner if this is another shard.
+     */
+    private void post(Vehicle vehicle) {
+        int owner = partition.getRegion(vehicle.getLane().getEdge());
+        if (owner != shardIndex)
+            outboxes[owner].add((BasicVehicle) vehicle);
+    }
+
+
+    /*
+    |==========|
+    | exchange |
+    |==========|
+    */
+    /**
+     * Removes the vehicles sent in the previous exchange from the local lanes, sends the vehicles of the outboxes and
+     * the max insertion indices of the own lanes, and inserts the received vehicles.
+     */
+    private void exchange() {
+        for (BasicVehicle vehicle : leftovers)
+            vehicle.getLane().removeVehicle(vehicle);
+        leftovers.clear();
+
+        byte[][] messages = new byte[nShards][];
+        try {
+            for (int shard = 0; shard < nShards; shard++) {
+                if (shard == shardIndex)
+                    continue;
+                // the max insertion indices are calculated before inserting received vehicles
+                // => the receiver has to consider the sent vehicles => they stay on its lanes until the next exchange
+                messages[shard] = write(haloEdges[shard], outboxes[shard]);
+
+                container.removeVehicles(new ArrayList<>(outboxes[shard]));
+                leftovers.addAll(outboxes[shard]);
+                outboxes[shard].clear();
+            }
+
+            byte[][] received = transport.exchange(messages);
+            for (int shard = 0; shard < nShards; shard++)
+                if (shard != shardIndex)
+                    read(received[shard]);
+        } catch (IOException e) {
+            throw new RuntimeException("Shard " + shardIndex + " failed to exchange vehicles.", e);
+        }
+    }
+
+    private byte[] write(ArrayList<DirectedEdge> halo, ArrayList<BasicVehicle> vehicles) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream      out   = new DataOutputStream(bytes);
+
+        /* max insertion indices */
+        out.writeInt(halo.size());
+        for (DirectedEdge edge : halo) {
+            out.writeInt(edgeIndices.get(edge));
+            out.writeInt(edge.getNumberOfLanes());
+            for (int i = 0; i < edge.getNumberOfLanes(); i++)
+                out.writeInt(edge.getLane(i).getMaxInsertionIndex());
+        }
+
+        /* vehicles */
+        out.writeInt(vehicles.size());
+        for (BasicVehicle vehicle : vehicles) {
+            BasicVehicle.Snapshot snapshot = vehicle.snapshot();
+            out.writeLong(vehicle.getId());
+            out.writeInt(edgeIndices.get(snapshot.lane.getEdge()));
+            out.writeInt(snapshot.lane.getIndex());
+            out.writeInt(snapshot.cellPosition);
+            out.writeInt(snapshot.velocity);
+            out.writeBoolean(snapshot.lastVelocityIsZero);
+            out.writeBoolean(snapshot.laneIsCorrect);
+            out.writeInt(snapshot.outermostTurningLaneIndex);
+            out.writeInt(snapshot.laneChangeDirection.ordinal());
+
+            BasicDriver.Snapshot driver = ((BasicDriver) vehicle.getDriver()).snapshot();
+            out.writeLong(((BasicDriver) vehicle.getDriver()).getSeed());
+            out.writeLong(driver.randomState);
+            out.writeInt(driver.travellingTime);
+            out.writeInt(driver.priorityCounter);
+            out.writeInt(driver.anger);
+            out.writeInt(driver.totalAnger);
+            out.writeFloat(driver.dawdleFactor);
+            out.writeFloat(driver.laneChangeFactor);
+
+            // the remaining route in order of the stack, so the receiver can create the vehicle if it is new
+            Route route = vehicle.getDriver().getRoute();
+            out.writeBoolean(route.isMonitored());
+            out.writeInt(route.getSpawnDelay());
+            out.writeInt(route.size());
+            for (DirectedEdge edge : route)
+                out.writeInt(edgeIndices.get(edge));
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void read(byte[] message) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+
+        /* max insertion indices */
+        int nHalo = in.readInt();
+        for (int h = 0; h < nHalo; h++) {
+            DirectedEdge edge = edges[in.readInt()];
+            int[] maxInsertionIndices = new int[in.readInt()];
+            for (int i = 0; i < maxInsertionIndices.length; i++)
+                maxInsertionIndices[i] = in.readInt();
+            edge.setRemoteMaxInsertionIndices(maxInsertionIndices);
+        }
+
+        /* vehicles */
+        int nVehicles = in.readInt();
+        for (int v = 0; v < nVehicles; v++) {
+            long id = in.readLong();
+            BasicVehicle.Snapshot snapshot = new BasicVehicle.Snapshot();
+            snapshot.state                     = VehicleState.SPAWNED;
+            snapshot.lane                      = edges[in.readInt()].getLane(in.readInt());
+            snapshot.cellPosition              = in.readInt();
+            snapshot.velocity                  = in.readInt();
+            snapshot.lastVelocityIsZero        = in.readBoolean();
+            snapshot.laneIsCorrect             = in.readBoolean();
+            snapshot.outermostTurningLaneIndex = in.readInt();
+            snapshot.laneChangeDirection       = LANE_CHANGE_DIRECTIONS[in.readInt()];
+
+            long seed = in.readLong();
+            BasicDriver.Snapshot driver = new BasicDriver.Snapshot();
+            driver.randomState      = in.readLong();
+            driver.travellingTime   = in.readInt();
+            driver.priorityCounter  = in.readInt();
+            driver.anger            = in.readInt();
+            driver.totalAnger       = in.readInt();
+            driver.dawdleFactor     = in.readFloat();
+            driver.laneChangeFactor = in.readFloat();
+
+            StackRoute route = new StackRoute(0);
+            route.setMonitored(in.readBoolean());
+            route.setSpawnDelay(in.readInt());
+            int routeSize = in.readInt();
+            for (int i = 0; i < routeSize; i++)
+                route.add(edges[in.readInt()]);
+
+            BasicVehicle vehicle = vehiclesById.get(id);
+            if (vehicle == null) {
+                vehicle = createVehicle(id, seed, route);
+            } else {
+                // this shard's copy of the route is behind the sender's copy
+                Route localRoute = vehicle.getDriver().getRoute();
+                while (localRoute.size() > routeSize)
+                    localRoute.pop();
+            }
+
+            ((BasicDriver) vehicle.getDriver()).restore(driver);
+            vehicle.restore(snapshot);
+        }
+    }
+
+    /**
+     * Creates a vehicle entering this shard for the first time. It is neither in the container nor on any lane yet.
+     */
+    private BasicVehicle createVehicle(long id, long seed, Route route) throws IOException {
+        Vehicle vehicle = vehicleFactory.create(id, seed, scenario, route);
+        if (!(vehicle instanceof BasicVehicle && vehicle.getDriver() instanceof BasicDriver))
+            throw new IOException("The vehicle factory has to create instances of "
+                    + BasicVehicle.class.getSimpleName() + " driven by "
+                    + BasicDriver.class.getSimpleName() + ".");
+        vehicle.setEntity(new VehicleEntity(vehicle, null));
+
+        vehiclesById.put(id, (BasicVehicle) vehicle);
+        return (BasicVehicle) vehicle;
+    }
+}
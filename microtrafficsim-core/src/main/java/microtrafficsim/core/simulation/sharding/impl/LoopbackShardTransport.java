@@ -0,0 +1,91 @@
+package microtrafficsim.core.simulation.sharding.impl;
+
+import microtrafficsim.core.simulation.sharding.ShardTransport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * {@link ShardTransport} connecting shards in the same JVM, e.g. for testing. Every ordered pair of shards shares a
+ * queue; the messages are not copied.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class LoopbackShardTransport implements ShardTransport {
+
+    private final int                                 shardIndex;
+    private final LinkedBlockingQueue<byte[]>[][]     channels; // [from][to]
+    private volatile boolean                          isClosed;
+
+
+    private LoopbackShardTransport(int shardIndex, LinkedBlockingQueue<byte[]>[][] channels) {
+        this.shardIndex = shardIndex;
+        this.channels   = channels;
+        isClosed        = false;
+    }
+
+    /**
+     * @param nShards number of shards
+     * @return connected transports, one per shard in order of the shards' indices
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static LoopbackShardTransport[] create(int nShards) {
+        if (nShards < 1)
+            throw new IllegalArgumentException("It must hold: nShards >= 1\n" +
+                    "Current: " + nShards);
+
+        LinkedBlockingQueue<byte[]>[][] channels = new LinkedBlockingQueue[nShards][nShards];
+        for (int from = 0; from < nShards; from++)
+            for (int to = 0; to < nShards; to++)
+                channels[from][to] = new LinkedBlockingQueue<>();
+
+        LoopbackShardTransport[] transports = new LoopbackShardTransport[nShards];
+        for (int i = 0; i < nShards; i++)
+            transports[i] = new LoopbackShardTransport(i, channels);
+        return transports;
+    }
+
+
+    /*
+    |====================|
+    | (i) ShardTransport |
+    |====================|
+    */
+    @Override
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    @Override
+    public int getShardCount() {
+        return channels.length;
+    }
+
+    @Override
+    public byte[][] exchange(byte[][] messages) throws IOException {
+        if (isClosed)
+            throw new IOException("The transport has been closed.");
+
+        int nShards = getShardCount();
+        for (int to = 0; to < nShards; to++)
+            if (to != shardIndex)
+                channels[shardIndex][to].add(messages[to] == null ? new byte[0] : messages[to]);
+
+        byte[][] received = new byte[nShards][];
+        try {
+            for (int from = 0; from < nShards; from++)
+                if (from != shardIndex)
+                    received[from] = channels[from][shardIndex].take();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while waiting for other shards.");
+        }
+        return received;
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+    }
+}
@@ -0,0 +1,226 @@
+package microtrafficsim.core.simulation.sharding.impl;
+
+import microtrafficsim.core.simulation.sharding.ShardTransport;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * <p>
+ * {@link ShardTransport} connecting the shards by TCP sockets, e.g. one process per shard on localhost. Every shard
+ * listens on its own address; a shard connects to all shards of smaller index and accepts the connections of all
+ * shards of greater index. A message is sent as its length followed by its bytes.
+ *
+ * <p>
+ * The messages of one exchange are sent by one thread per connection while the calling thread receives, so two
+ * shards sending large messages to each other do not block each other. Receiving a message times out like
+ * connecting, so a shard that has crashed or hangs does not block the others forever.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class SocketShardTransport implements ShardTransport {
+    private static final Logger logger = new EasyMarkableLogger(SocketShardTransport.class);
+
+    private static final int RETRY_MILLIS = 50;
+
+    private final int                shardIndex;
+    private final int                timeoutMillis;
+    private final Socket[]           sockets;
+    private final DataInputStream[]  inputs;
+    private final DataOutputStream[] outputs;
+    private final ExecutorService    senders;
+
+
+    private SocketShardTransport(int shardIndex, int nShards, int timeoutMillis) {
+        this.shardIndex    = shardIndex;
+        this.timeoutMillis = timeoutMillis;
+        sockets            = new Socket[nShards];
+        inputs             = new DataInputStream[nShards];
+        outputs            = new DataOutputStream[nShards];
+        senders            = Executors.newFixedThreadPool(Math.max(1, nShards - 1), runnable -> {
+            Thread thread = new Thread(runnable, "shard-" + shardIndex + "-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Connects this shard to all other shards. Blocks until all connections are established.
+     *
+     * @param shardIndex    index of this shard
+     * @param addresses     the listening address of every shard in order of the shards' indices
+     * @param timeoutMillis maximum time for connecting to a shard that is not listening yet and for waiting for the
+     *                      message of a shard in {@link #exchange(byte[][])}; it has to be greater than the longest
+     *                      time a shard needs between two exchanges
+     * @return the connected transport
+     * @throws IOException if a shard cannot be reached within the given timeout
+     */
+    public static SocketShardTransport connect(int shardIndex, InetSocketAddress[] addresses, int timeoutMillis)
+            throws IOException
+    {
+        int nShards = addresses.length;
+        if (shardIndex < 0 || shardIndex >= nShards)
+            throw new IllegalArgumentException("It must hold: 0 <= shardIndex < addresses.length\n" +
+                    "Current: shardIndex = " + shardIndex + ", addresses.length = " + nShards);
+
+        SocketShardTransport transport = new SocketShardTransport(shardIndex, nShards, timeoutMillis);
+        try (ServerSocket server = new ServerSocket()) {
+            server.setReuseAddress(true);
+            server.bind(addresses[shardIndex]);
+
+            // connect to smaller indices
+            for (int other = 0; other < shardIndex; other++) {
+                Socket socket = connect(addresses[other], timeoutMillis);
+                transport.init(other, socket);
+                transport.outputs[other].writeInt(shardIndex);
+                transport.outputs[other].flush();
+            }
+
+            // accept greater indices
+            server.setSoTimeout(timeoutMillis);
+            for (int i = shardIndex + 1; i < nShards; i++) {
+                Socket socket = server.accept();
+                socket.setSoTimeout(timeoutMillis);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                int other = input.readInt();
+                if (other <= shardIndex || other >= nShards || transport.sockets[other] != null) {
+                    socket.close();
+                    throw new IOException("Unexpected connection of shard " + other + ".");
+                }
+                transport.init(other, socket);
+                transport.inputs[other] = input;
+            }
+        } catch (IOException e) {
+            transport.close();
+            throw e;
+        }
+
+        logger.debug("shard " + shardIndex + " connected to " + (nShards - 1) + " shards");
+        return transport;
+    }
+
+    private static Socket connect(InetSocketAddress address, int timeoutMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(address, timeoutMillis);
+                return socket;
+            } catch (IOException e) {
+                socket.close();
+                if (System.currentTimeMillis() >= deadline)
+                    throw e;
+            }
+
+            // the other shard is not listening yet
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while connecting to " + address + ".");
+            }
+        }
+    }
+
+    private void init(int other, Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMillis);
+        sockets[other] = socket;
+        inputs[other]  = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        outputs[other] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+
+    /*
+    |====================|
+    | (i) ShardTransport |
+    |====================|
+    */
+    @Override
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    @Override
+    public int getShardCount() {
+        return sockets.length;
+    }
+
+    @Override
+    public byte[][] exchange(byte[][] messages) throws IOException {
+        int nShards = getShardCount();
+
+        /* send */
+        ArrayList<Future<Void>> sent = new ArrayList<>(nShards - 1);
+        for (int to = 0; to < nShards; to++) {
+            if (to == shardIndex)
+                continue;
+
+            DataOutputStream output  = outputs[to];
+            byte[]           message = messages[to] == null ? new byte[0] : messages[to];
+            sent.add(senders.submit(() -> {
+                output.writeInt(message.length);
+                output.write(message);
+                output.flush();
+                return null;
+            }));
+        }
+
+        /* receive */
+        byte[][] received = new byte[nShards][];
+        for (int from = 0; from < nShards; from++) {
+            if (from == shardIndex)
+                continue;
+
+            DataInputStream input = inputs[from];
+            try {
+                byte[] message = new byte[input.readInt()];
+                input.readFully(message);
+                received[from] = message;
+            } catch (SocketTimeoutException e) {
+                // a partially read message cannot be continued
+                close();
+                throw new SocketTimeoutException("Shard " + shardIndex + " has not received the message of shard "
+                        + from + " within " + timeoutMillis + " ms. The transport has been closed.");
+            }
+        }
+
+        /* wait for sending */
+        try {
+            for (Future<Void> future : sent)
+                future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while sending to other shards.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+
+        return received;
+    }
+
+    @Override
+    public void close() {
+        senders.shutdownNow();
+        for (Socket socket : sockets) {
+            if (socket == null)
+                continue;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("closing a socket failed", e);
+            }
+        }
+    }
+}
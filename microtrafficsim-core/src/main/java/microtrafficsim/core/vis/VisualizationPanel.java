@@ -6,6 +6,7 @@ import com.jogamp.opengl.util.FPSAnimator;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -52,6 +53,8 @@ public class VisualizationPanel extends JPanel {
 
         animator = new FPSAnimator(window, config.fps, true);
         visualization.getRenderContext().setAnimator(animator);
+        visualization.getRenderContext().getTaskScheduler()
+                .setBudget((long) (config.taskBudget * 1_000_000), TimeUnit.NANOSECONDS);
 
         canvas = new NewtCanvasAWT(window);
 
@@ -2,6 +2,7 @@ package microtrafficsim.core.vis;
 
 import com.jogamp.opengl.GLCapabilities;
 import com.jogamp.opengl.GLProfile;
+import microtrafficsim.core.vis.context.tasks.RenderTaskScheduler;
 
 
 /**
@@ -26,6 +27,11 @@ public class VisualizerConfig {
      */
     public int fps;
 
+    /**
+     * The time in milliseconds that may be spent per frame on executing queued render-tasks, e.g. uploading tiles.
+     */
+    public double taskBudget;
+
 
     /**
      * Construct a new configuration based on the given properties.
@@ -38,5 +44,6 @@ public class VisualizerConfig {
         this.glprofile      = glprofile;
         this.glcapabilities = glcapabilities;
         this.fps            = fps;
+        this.taskBudget     = RenderTaskScheduler.DEFAULT_BUDGET_MS;
     }
 }
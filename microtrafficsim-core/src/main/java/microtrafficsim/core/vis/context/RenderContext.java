@@ -9,12 +9,12 @@ import microtrafficsim.core.vis.context.exceptions.UncaughtExceptionHandler;
 import microtrafficsim.core.vis.context.state.*;
 import microtrafficsim.core.vis.context.tasks.FutureRenderTask;
 import microtrafficsim.core.vis.context.tasks.RenderTask;
+import microtrafficsim.core.vis.context.tasks.RenderTaskScheduler;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 import org.slf4j.Logger;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static microtrafficsim.build.BuildSetup.DEBUG_CORE_VIS;
 
@@ -28,9 +28,9 @@ public class RenderContext implements GLEventListener {
     private static final Logger logger = new EasyMarkableLogger(RenderContext.class);
 
     /**
-     * Execution budget per frame in nanoseconds for render-tasks.
+     * Threshold for the combined execution time of render-tasks per frame, above which a warning is logged.
      */
-    private static final long RTASK_EXECUTION_BUDGED_NS = 33_000_000;
+    private static final long RTASK_EXECUTION_WARNING_NS = 33_000_000;
 
 
     // -- state ---------------------------------------------------------------
@@ -48,7 +48,7 @@ public class RenderContext implements GLEventListener {
 
 
     // -- context -------------------------------------------------------------
-    private Queue<FutureRenderTask<?>> tasks;
+    private RenderTaskScheduler        tasks;
     private GLAnimatorControl          animator;
     private GLAutoDrawable             drawable;
     private UncaughtExceptionHandler   exhdlr;
@@ -73,7 +73,7 @@ public class RenderContext implements GLEventListener {
      * Constructs a new {@code RenderContext}. This does not create an actual OpenGL context.
      */
     public RenderContext() {
-        this.tasks = new ConcurrentLinkedQueue<>();
+        this.tasks = new RenderTaskScheduler();
 
         this.renderer = null;
         this.animator = null;
@@ -132,26 +132,30 @@ public class RenderContext implements GLEventListener {
 
 
     /**
-     * Returns the task-queue used to perform synchronized tasks on the OpenGL context.
+     * Returns the scheduler used to perform synchronized tasks on the OpenGL context. The scheduler can be used to
+     * configure the time spent on tasks per frame and to query the number of queued tasks.
      *
-     * @return the task-queue used to perform synchronized tasks on the OpenGL context.
+     * @return the scheduler used to perform synchronized tasks on the OpenGL context.
      */
-    public Queue<? extends Future<?>> getTaskQueue() {
+    public RenderTaskScheduler getTaskScheduler() {
         return tasks;
     }
 
     /**
      * Adds the given task to the task-queue of this context. The task-queue is used to
-     * perform synchronized tasks on the OpenGL context.
+     * perform synchronized tasks on the OpenGL context. Queued tasks are executed in order of their priority, with
+     * the time spent per frame limited by the budget of the {@link #getTaskScheduler() task-scheduler}.
      *
-     * @param task  the task to be executed.
-     * @param delay set to {@code true} to delay the task if the OpenGL context is current. If set to {@code false} and
-     *              the OpenGL context is current, the task is going to be executed directly without waiting for the
-     *              next frame.
-     * @param <V>   the return-type of the submitted task.
+     * @param task     the task to be executed.
+     * @param delay    set to {@code true} to delay the task if the OpenGL context is current. If set to {@code false}
+     *                 and the OpenGL context is current, the task is going to be executed directly without waiting
+     *                 for the next frame.
+     * @param priority the priority of the task, tasks with higher priority are executed first.
+     * @param cost     the estimated execution time of the task in nanoseconds, zero if unknown.
+     * @param <V>      the return-type of the submitted task.
      * @return the {@code Future} corresponding to the submitted task.
      */
-    public <V> Future<V> addTask(RenderTask<V> task, boolean delay) {
+    public <V> Future<V> addTask(RenderTask<V> task, boolean delay, double priority, long cost) {
         FutureRenderTask<V> future = new FutureRenderTask<>(task);
 
         // if delay is false and the context is current on this thread, run the task instantly
@@ -159,11 +163,31 @@ public class RenderContext implements GLEventListener {
         if (!delay && drawable != null && drawable.getContext().isCurrent())
             future.run(this);
         else
-            tasks.add(future);
+            tasks.add(future, priority, cost);
 
         return future;
     }
 
+    /**
+     * Adds the given task to the task-queue of this context. The task-queue is used to
+     * perform synchronized tasks on the OpenGL context.
+     * <p>
+     * This call is equal to
+     * {@link RenderContext#addTask(RenderTask, boolean, double, long)
+     *  addTask(task, delay, RenderTaskScheduler.DEFAULT_PRIORITY, 0)}
+     * </p>
+     *
+     * @param task  the task to be executed.
+     * @param delay set to {@code true} to delay the task if the OpenGL context is current. If set to {@code false} and
+     *              the OpenGL context is current, the task is going to be executed directly without waiting for the
+     *              next frame.
+     * @param <V>   the return-type of the submitted task.
+     * @return the {@code Future} corresponding to the submitted task.
+     */
+    public <V> Future<V> addTask(RenderTask<V> task, boolean delay) {
+        return addTask(task, delay, RenderTaskScheduler.DEFAULT_PRIORITY, 0);
+    }
+
     /**
      * Adds the given task to the task-queue of this context. The task-queue is used to
      * perform synchronized tasks on the OpenGL context.
@@ -185,7 +209,7 @@ public class RenderContext implements GLEventListener {
      * @return {@code true} if there are any tasks that should be executed on this context.
      */
     public boolean hasTasks() {
-        return tasks.isEmpty();
+        return !tasks.isEmpty();
     }
 
 
@@ -254,10 +278,7 @@ public class RenderContext implements GLEventListener {
         this.Viewport.setInternal(0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
 
         // finish executing all tasks (may contain cleanup tasks)
-        while (!tasks.isEmpty()) {
-            tasks.poll().run(this);
-            Thread.interrupted();    // interrupts are task-local, clear if necessary
-        }
+        tasks.executeAll(this);
 
         try {
             renderer.dispose(this);
@@ -273,19 +294,13 @@ public class RenderContext implements GLEventListener {
         this.drawable = drawable;
         this.Viewport.setInternal(0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
 
-        // execute tasks on work queue
-        long t = System.nanoTime();
-        while (!tasks.isEmpty()) {
-            tasks.poll().run(this);
-            Thread.interrupted();    // interrupts are task-local, clear if necessary
-
-            // make sure we do not block the main thread
-            long dt = System.nanoTime() - t;
-            if (dt > RTASK_EXECUTION_BUDGED_NS) {
-                logger.warn("time for combined task execution exceeded threshold: " + (dt / 1_000_000) + "ms");
-                break;
-            }
-        }
+        // execute tasks on work queue, as far as the budget allows
+        tasks.execute(this);
+
+        // make sure we do not block the main thread
+        long dt = tasks.getLastExecutionTime(TimeUnit.NANOSECONDS);
+        if (dt > RTASK_EXECUTION_WARNING_NS)
+            logger.warn("time for combined task execution exceeded threshold: " + (dt / 1_000_000) + "ms");
 
         // display renderer
         try {
@@ -0,0 +1,216 @@
+package microtrafficsim.core.vis.context.tasks;
+
+import microtrafficsim.core.vis.context.RenderContext;
+
+import java.util.ArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Time-budgeted scheduler for tasks to be executed on a {@code RenderContext}. Tasks are executed in order of their
+ * priority (higher first, equal priorities in order of submission). Per frame, tasks are only executed as long as the
+ * time spent on them (including the estimated cost of the next task) stays within the budget, the remaining tasks
+ * are deferred to the next frame. At least one task is executed per frame to guarantee progress. Tasks submitted
+ * while the tasks of a frame are executed are deferred to the next frame.
+ *
+ * @author Maximilian Luz
+ */
+public class RenderTaskScheduler {
+
+    /**
+     * The priority of tasks submitted without explicit priority.
+     */
+    public static final double DEFAULT_PRIORITY = 0.0;
+
+    /**
+     * The default execution budget per frame, in milliseconds.
+     */
+    public static final double DEFAULT_BUDGET_MS = 8.0;
+
+    private final PriorityBlockingQueue<Entry> tasks;
+    private final AtomicLong                   sequence;
+    private final ArrayList<Entry>             deferred;    // only accessed during execution
+
+    private volatile long budget;
+
+    private volatile long lastExecutionTime;
+    private volatile int  lastExecutionCount;
+
+
+    /**
+     * Constructs a new {@code RenderTaskScheduler} using the default budget.
+     */
+    public RenderTaskScheduler() {
+        this.tasks    = new PriorityBlockingQueue<>();
+        this.sequence = new AtomicLong();
+        this.deferred = new ArrayList<>();
+
+        this.budget = (long) (DEFAULT_BUDGET_MS * 1_000_000);
+
+        this.lastExecutionTime  = 0;
+        this.lastExecutionCount = 0;
+    }
+
+
+    /**
+     * Sets the time that may be spent on task execution per frame.
+     *
+     * @param duration the budget per frame.
+     * @param unit     the unit of the given duration.
+     */
+    public void setBudget(long duration, TimeUnit unit) {
+        if (duration < 0)
+            throw new IllegalArgumentException("It must hold: duration >= 0\nCurrent: duration = " + duration);
+
+        this.budget = unit.toNanos(duration);
+    }
+
+    /**
+     * Returns the time that may be spent on task execution per frame.
+     *
+     * @param unit the unit in which the budget should be returned.
+     * @return the budget per frame.
+     */
+    public long getBudget(TimeUnit unit) {
+        return unit.convert(budget, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Adds the given task to this scheduler.
+     *
+     * @param task     the task to add.
+     * @param priority the priority of the task, tasks with higher priority are executed first.
+     * @param cost     the estimated execution time of the task in nanoseconds, zero if unknown.
+     */
+    public void add(FutureRenderTask<?> task, double priority, long cost) {
+        tasks.add(new Entry(task, priority, cost, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Returns the number of tasks waiting for execution.
+     *
+     * @return the number of queued tasks.
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Checks if there are any tasks waiting for execution.
+     *
+     * @return {@code true} if there are no queued tasks.
+     */
+    public boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+
+    /**
+     * Executes the queued tasks in order of their priority until the budget for this frame is exhausted.
+     *
+     * @param context the context on which the tasks are executed.
+     * @return the number of executed tasks.
+     */
+    public int execute(RenderContext context) {
+        long start = System.nanoTime();
+        long limit = sequence.get();
+        int  count = 0;
+
+        Entry entry;
+        while ((entry = tasks.poll()) != null) {
+            // tasks submitted during this frame (e.g. re-submitted or delayed tasks) are executed in the next frame
+            if (entry.sequence >= limit) {
+                deferred.add(entry);
+                continue;
+            }
+
+            // defer the task if it would exceed the budget
+            long elapsed = System.nanoTime() - start;
+            if (count > 0 && elapsed + entry.cost > budget) {
+                deferred.add(entry);
+                break;
+            }
+
+            entry.task.run(context);
+            Thread.interrupted();    // interrupts are task-local, clear if necessary
+            count++;
+        }
+
+        tasks.addAll(deferred);
+        deferred.clear();
+
+        lastExecutionTime  = System.nanoTime() - start;
+        lastExecutionCount = count;
+        return count;
+    }
+
+    /**
+     * Executes all queued tasks, ignoring the budget, e.g. to finish all (cleanup-) tasks before the context is
+     * disposed.
+     *
+     * @param context the context on which the tasks are executed.
+     * @return the number of executed tasks.
+     */
+    public int executeAll(RenderContext context) {
+        long start = System.nanoTime();
+        int  count = 0;
+
+        Entry entry;
+        while ((entry = tasks.poll()) != null) {
+            entry.task.run(context);
+            Thread.interrupted();    // interrupts are task-local, clear if necessary
+            count++;
+        }
+
+        lastExecutionTime  = System.nanoTime() - start;
+        lastExecutionCount = count;
+        return count;
+    }
+
+
+    /**
+     * Returns the time spent on task execution during the last frame.
+     *
+     * @param unit the unit in which the time should be returned.
+     * @return the time spent on task execution during the last frame.
+     */
+    public long getLastExecutionTime(TimeUnit unit) {
+        return unit.convert(lastExecutionTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of tasks executed during the last frame.
+     *
+     * @return the number of tasks executed during the last frame.
+     */
+    public int getLastExecutionCount() {
+        return lastExecutionCount;
+    }
+
+
+    /**
+     * Queue entry, ordered by priority and submission.
+     */
+    private static class Entry implements Comparable<Entry> {
+        final FutureRenderTask<?> task;
+        final double              priority;
+        final long                cost;
+        final long                sequence;
+
+        Entry(FutureRenderTask<?> task, double priority, long cost, long sequence) {
+            this.task     = task;
+            this.priority = priority;
+            this.cost     = cost;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = Double.compare(other.priority, priority);
+            return cmp != 0 ? cmp : Long.compare(sequence, other.sequence);
+        }
+    }
+}
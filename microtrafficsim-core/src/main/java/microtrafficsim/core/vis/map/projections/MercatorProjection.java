@@ -36,9 +36,9 @@ public class MercatorProjection implements Projection {
     }
 
     @Override
-    public Vec2d project(Coordinate c) {
-        double x = scale * c.lon / 180.0;
-        double y = scale * Math.log(Math.tan(Math.PI / 4 + Math.toRadians(c.lat) / 2)) / Math.PI;
+    public Vec2d project(double lat, double lon) {
+        double x = scale * lon / 180.0;
+        double y = scale * Math.log(Math.tan(Math.PI / 4 + Math.toRadians(lat) / 2)) / Math.PI;
 
         return new Vec2d(x, y);
     }
@@ -27,8 +27,8 @@ public class PlateCarreeProjection implements Projection {
     }
 
     @Override
-    public Vec2d project(Coordinate c) {
-        return new Vec2d(c.lon, c.lat);
+    public Vec2d project(double lat, double lon) {
+        return new Vec2d(lon, lat);
     }
 
     @Override
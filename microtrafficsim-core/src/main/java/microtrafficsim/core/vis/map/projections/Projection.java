@@ -2,6 +2,7 @@ package microtrafficsim.core.vis.map.projections;
 
 import microtrafficsim.core.map.Bounds;
 import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.math.Rect2d;
 import microtrafficsim.math.Vec2d;
 
@@ -27,13 +28,35 @@ public interface Projection {
      */
     Rect2d getProjectedMaximumBounds();
 
+    /**
+     * Project the given coordinate.
+     *
+     * @param lat the latitude of the coordinate to project.
+     * @param lon the longitude of the coordinate to project.
+     * @return the projected coordinate as vector.
+     */
+    Vec2d project(double lat, double lon);
+
     /**
      * Project the given coordinate.
      *
      * @param c the coordinate to project.
      * @return the projected coordinate as vector.
      */
-    Vec2d project(Coordinate c);
+    default Vec2d project(Coordinate c) {
+        return project(c.lat, c.lon);
+    }
+
+    /**
+     * Project the coordinate at the given index.
+     *
+     * @param coords the coordinates containing the coordinate to project.
+     * @param i      the index of the coordinate to project.
+     * @return the projected coordinate as vector.
+     */
+    default Vec2d project(PackedCoordinates coords, int i) {
+        return project(coords.getLat(i), coords.getLon(i));
+    }
 
     /**
      * Un-projects the given vector.
@@ -57,6 +80,20 @@ public interface Projection {
         return projected;
     }
 
+    /**
+     * Project the packed coordinates using this projection.
+     *
+     * @param coords the coordinates to project.
+     * @return the projected coordinates.
+     */
+    default Vec2d[] project(PackedCoordinates coords) {
+        Vec2d[] projected = new Vec2d[coords.size()];
+        for (int i = 0; i < projected.length; i++) {
+            projected[i] = project(coords.getLat(i), coords.getLon(i));
+        }
+        return projected;
+    }
+
     /**
      * Un-project the array of coordinates using this projection.
      *
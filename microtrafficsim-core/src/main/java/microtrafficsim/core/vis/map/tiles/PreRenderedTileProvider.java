@@ -8,6 +8,7 @@ import microtrafficsim.core.map.tiles.TileId;
 import microtrafficsim.core.map.tiles.TilingScheme;
 import microtrafficsim.core.vis.context.RenderContext;
 import microtrafficsim.core.vis.context.tasks.RenderTask;
+import microtrafficsim.core.vis.context.tasks.RenderTaskScheduler;
 import microtrafficsim.core.vis.map.projections.Projection;
 import microtrafficsim.core.vis.map.tiles.layers.TileLayer;
 import microtrafficsim.core.vis.map.tiles.layers.TileLayerBucket;
@@ -64,6 +65,11 @@ public class PreRenderedTileProvider implements TileProvider {
 
     private static final BucketComparator CMP_BUCKET = new BucketComparator();
 
+    /**
+     * Weight of the latest measurement in the running estimate of the tile initialization cost.
+     */
+    private static final double COST_ESTIMATE_WEIGHT = 0.2;
+
     private RenderContext context;
 
     private TileLayerProvider           provider;
@@ -82,6 +88,8 @@ public class PreRenderedTileProvider implements TileProvider {
     private TileBufferPool pool;
     private TileQuad       quad;
 
+    private volatile double costPerBucket;    // running estimate of the initialization time per bucket in ns
+
     /**
      * Constructs a new {@code PreRenderedTileProvider} for the given layer-provider.
      *
@@ -103,6 +111,7 @@ public class PreRenderedTileProvider implements TileProvider {
         this.tileListener = new HashSet<>();
         this.provider.addLayerChangeListener(new LayerChangeListenerImpl());
         this.pool = new TileBufferPool(provider.getTilingScheme().getTileSize(), targetBufferPoolSize);
+        this.costPerBucket = 0.0;
     }
 
     /**
@@ -189,6 +198,11 @@ public class PreRenderedTileProvider implements TileProvider {
 
     @Override
     public Tile require(RenderContext context, TileId id) throws Exception {
+        return require(context, id, RenderTaskScheduler.DEFAULT_PRIORITY);
+    }
+
+    @Override
+    public Tile require(RenderContext context, TileId id, double priority) throws Exception {
         ArrayList<TileLayerBucket> buckets = new ArrayList<>();
         PreRenderedTile            tile;
         Future<Void>               task;
@@ -218,11 +232,20 @@ public class PreRenderedTileProvider implements TileProvider {
              *  tile.initialize(c) will clean up on interrupts etc. It either returns
              *  using a CancellationException or exit successfully.
              */
+            int nBuckets = buckets.size();
+            long cost = (long) (costPerBucket * nBuckets);
+
             tile = new PreRenderedTile(id, buckets);
             task = context.addTask(c -> {
+                long start = System.nanoTime();
                 tile.initialize(c);
+
+                double measured = (double) (System.nanoTime() - start) / nBuckets;
+                costPerBucket = costPerBucket == 0.0
+                        ? measured : (1.0 - COST_ESTIMATE_WEIGHT) * costPerBucket + COST_ESTIMATE_WEIGHT * measured;
+
                 return null;
-            });
+            }, false, priority, cost);
 
             // make sure we clean up on interrupts
         } catch (Exception e) {
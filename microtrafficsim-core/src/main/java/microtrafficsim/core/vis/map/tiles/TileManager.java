@@ -11,6 +11,7 @@ import microtrafficsim.core.vis.view.OrthographicView;
 import microtrafficsim.math.Mat4f;
 import microtrafficsim.math.MathUtils;
 import microtrafficsim.math.Rect2d;
+import microtrafficsim.math.Vec2d;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -29,6 +30,7 @@ public strictfp class TileManager {
     private ExecutorService worker;
 
     private TileRect tiles;
+    private Vec2d    focus;
 
     private HashMap<TileId, Tile>         visible;
     private HashMap<TileId, Future<Tile>> loading;
@@ -50,6 +52,7 @@ public strictfp class TileManager {
         this.worker   = worker;
 
         this.tiles = new TileRect(0, 0, 0, 0, 0);
+        this.focus = new Vec2d(0.0, 0.0);
 
         this.visible    = new HashMap<>();
         this.loading    = new HashMap<>();
@@ -177,6 +180,9 @@ public strictfp class TileManager {
         TileRect provided = scheme.getTiles(provider.getProjectedBounds(), zoom);
         TileRect common   = provided != null ? TileRect.intersect(view, provided) : null;    // provided and in view
 
+        // tiles near the center of the view are initialized first
+        this.focus = new Vec2d((viewport.xmin + viewport.xmax) / 2.0, (viewport.ymin + viewport.ymax) / 2.0);
+
         // load tiles asynchronously, move loaded tiles to visible, update
         boolean rebuild = mgmtReload(context, common);
         rebuild |= mgmtMoveLoaded(context);
@@ -265,7 +271,7 @@ public strictfp class TileManager {
      */
     private boolean mgmtAsyncReload(RenderContext context, TileId id) throws Exception {
 
-        Future<Tile> prev = loading.put(id, worker.submit(new Loader(context, provider, id)));
+        Future<Tile> prev = loading.put(id, worker.submit(new Loader(context, provider, id, getPriority(id))));
         if (prev == null) return false;
 
         // if the previous task is not finished, cancel it
@@ -454,6 +460,22 @@ public strictfp class TileManager {
         context.ShaderState.unbind(gl);
     }
 
+    /**
+     * Returns the priority with which the tasks for loading the given tile should be executed, i.e. the negative
+     * squared distance of the tile center to the center of the view.
+     *
+     * @param id the id of the tile.
+     * @return the priority of the given tile.
+     */
+    private double getPriority(TileId id) {
+        Rect2d bounds = provider.getTilingScheme().getBounds(id);
+
+        double dx = (bounds.xmin + bounds.xmax) / 2.0 - focus.x;
+        double dy = (bounds.ymin + bounds.ymax) / 2.0 - focus.y;
+
+        return -(dx * dx + dy * dy);
+    }
+
     /**
      * Loader-task for asynchronous tile loading.
      */
@@ -462,6 +484,7 @@ public strictfp class TileManager {
         private RenderContext context;
         private TileProvider  provider;
         private TileId        id;
+        private double        priority;
 
         /**
          * Constructs a new loader-task.
@@ -469,18 +492,20 @@ public strictfp class TileManager {
          * @param context  the context on which the tile is going to be displayed.
          * @param provider the provider providing the tile.
          * @param id       the id of the tile.
+         * @param priority the priority with which the tile should be initialized on the context.
          */
-        private Loader(RenderContext context, TileProvider provider, TileId id) {
+        private Loader(RenderContext context, TileProvider provider, TileId id, double priority) {
             this.context  = context;
             this.provider = provider;
             this.id       = id;
+            this.priority = priority;
         }
 
         @Override
         public Tile call() throws Exception {
             Tile tile;
             try {
-                tile = provider.require(context, id);
+                tile = provider.require(context, id, priority);
             } catch (InterruptedException e) {
                 throw new CancellationException();    // cancel this task
             }
@@ -93,6 +93,25 @@ public interface TileProvider {
      */
     Tile require(RenderContext context, TileId tile) throws Exception;
 
+    /**
+     * Prepares and returns the required tile. Tasks required to be executed on the given context for loading the tile
+     * should be submitted with the given priority, e.g. to load tiles near the center of the view first. The default
+     * implementation ignores the priority.
+     *
+     * @param context  the context on which the tile should be loaded (if necessary).
+     * @param tile     the tile that should be returned.
+     * @param priority the priority of the tasks submitted to the context, see
+     *                 {@link RenderContext#addTask(microtrafficsim.core.vis.context.tasks.RenderTask, boolean, double,
+     *                 long) RenderContext.addTask(...)}.
+     * @return the provided tile.
+     * @throws InterruptedException if the loading thread has been interrupted.
+     * @throws ExecutionException   if any exception occurs during the load-operation.
+     * @throws Exception            if any exception occurs outside the load-operation.
+     */
+    default Tile require(RenderContext context, TileId tile, double priority) throws Exception {
+        return require(context, tile);
+    }
+
     /**
      * Releases the provided tile.
      *
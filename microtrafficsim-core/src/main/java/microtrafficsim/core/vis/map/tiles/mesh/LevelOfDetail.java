@@ -0,0 +1,124 @@
+package microtrafficsim.core.vis.map.tiles.mesh;
+
+import microtrafficsim.core.map.tiles.TileId;
+import microtrafficsim.core.map.tiles.TilingScheme;
+import microtrafficsim.math.Rect2d;
+import microtrafficsim.math.Vec2i;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+
+/**
+ * Level-of-detail description for feature meshes. Geometry is simplified with a tolerance depending on the zoom-band
+ * of the tile the mesh is generated for, and polygons below a minimum area are dropped. Tolerances and areas are
+ * specified in pixels of the tile, so a band describes how much detail may be lost on screen. The simplification
+ * does not introduce self-intersections, see {@link microtrafficsim.math.geometry.Lines Lines}.
+ *
+ * @author Maximilian Luz
+ */
+public class LevelOfDetail {
+
+    private ArrayList<Band> bands;
+
+
+    /**
+     * Constructs a new {@code LevelOfDetail} without any bands, i.e. always using the full detail.
+     */
+    public LevelOfDetail() {
+        this.bands = new ArrayList<>();
+    }
+
+    /**
+     * Returns the default level-of-detail, keeping full detail from zoom-level 17 on.
+     *
+     * @return the default level-of-detail.
+     */
+    public static LevelOfDetail getDefault() {
+        LevelOfDetail lod = new LevelOfDetail();
+        lod.add(new Band(17, 0.00, 0.0));
+        lod.add(new Band(14, 0.25, 1.0));
+        lod.add(new Band( 0, 0.50, 4.0));
+        return lod;
+    }
+
+
+    /**
+     * Adds the given band, replacing the band with the same minimum zoom-level.
+     *
+     * @param band the band to add.
+     */
+    public void add(Band band) {
+        bands.removeIf(b -> b.minZoom == band.minZoom);
+        bands.add(band);
+        bands.sort(Comparator.comparingInt((Band b) -> b.minZoom).reversed());
+    }
+
+    /**
+     * Returns the band used for the given zoom-level.
+     *
+     * @param zoom the zoom-level.
+     * @return the band used for the given zoom-level or {@code null} if the full detail should be used.
+     */
+    public Band get(int zoom) {
+        for (Band band : bands)
+            if (zoom >= band.minZoom)
+                return band;
+
+        return null;
+    }
+
+    /**
+     * Returns the simplification-tolerance for the given tile in projected units.
+     *
+     * @param scheme the tiling-scheme of the tile.
+     * @param tile   the tile.
+     * @return the tolerance for the given tile, zero if the full detail should be used.
+     */
+    public double getTolerance(TilingScheme scheme, TileId tile) {
+        Band band = get(tile.z);
+        return band != null ? band.tolerance * getPixelSize(scheme, tile) : 0.0;
+    }
+
+    /**
+     * Returns the minimum area of polygons for the given tile in projected units.
+     *
+     * @param scheme the tiling-scheme of the tile.
+     * @param tile   the tile.
+     * @return the minimum area of polygons for the given tile, zero if all polygons should be kept.
+     */
+    public double getMinArea(TilingScheme scheme, TileId tile) {
+        Band band = get(tile.z);
+        double px = getPixelSize(scheme, tile);
+        return band != null ? band.minArea * px * px : 0.0;
+    }
+
+    private static double getPixelSize(TilingScheme scheme, TileId tile) {
+        Rect2d bounds = scheme.getBounds(tile);
+        Vec2i  size   = scheme.getTileSize();
+        return (bounds.xmax - bounds.xmin) / size.x;
+    }
+
+
+    /**
+     * Level-of-detail properties used from a specific zoom-level on.
+     */
+    public static class Band {
+        public final int    minZoom;
+        public final double tolerance;
+        public final double minArea;
+
+        /**
+         * Constructs a new {@code Band}.
+         *
+         * @param minZoom   the minimum zoom-level from which on this band is used.
+         * @param tolerance the simplification-tolerance in pixels.
+         * @param minArea   the minimum area of polygons in square-pixels.
+         */
+        public Band(int minZoom, double tolerance, double minArea) {
+            this.minZoom   = minZoom;
+            this.tolerance = tolerance;
+            this.minArea   = minArea;
+        }
+    }
+}
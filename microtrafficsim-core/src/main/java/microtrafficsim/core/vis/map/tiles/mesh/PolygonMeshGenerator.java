@@ -1,7 +1,7 @@
 package microtrafficsim.core.vis.map.tiles.mesh;
 
 import com.jogamp.opengl.GL3;
-import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.core.map.TileFeature;
 import microtrafficsim.core.map.features.Polygon;
 import microtrafficsim.core.map.tiles.TileId;
@@ -14,18 +14,60 @@ import microtrafficsim.core.vis.mesh.impl.SingleFloatAttributeIndexedMesh;
 import microtrafficsim.core.vis.opengl.DataTypes;
 import microtrafficsim.math.Rect2d;
 import microtrafficsim.math.Vec2d;
+import microtrafficsim.math.geometry.Lines;
+import microtrafficsim.math.geometry.polygons.EarClippingTriangulator;
 import microtrafficsim.math.geometry.polygons.SweepLineTriangulator;
 import microtrafficsim.math.geometry.polygons.Triangulator;
 import microtrafficsim.utils.collections.ArrayUtils;
+import microtrafficsim.utils.hashing.FNVHashBuilder;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
+/**
+ * {@code FeatureMeshGenerator} for polygons.
+ *
+ * @author Maximilian Luz
+ */
 public class PolygonMeshGenerator implements FeatureMeshGenerator {
 
-    private Triangulator triangulator = new SweepLineTriangulator();
+    private static final int CACHE_SIZE = 4096;
+
+    private Triangulator sweepline   = new SweepLineTriangulator();
+    private Triangulator earclipping = new EarClippingTriangulator();
+    private LevelOfDetail lod;
+
+    /**
+     * Triangulations of the polygons in projected space, so that polygons spanning multiple tiles are only
+     * triangulated once.
+     */
+    private final LinkedHashMap<CacheKey, CacheEntry> cache = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+
+    /**
+     * Constructs a new {@code PolygonMeshGenerator} using the default level-of-detail.
+     */
+    public PolygonMeshGenerator() {
+        this(LevelOfDetail.getDefault());
+    }
+
+    /**
+     * Constructs a new {@code PolygonMeshGenerator} using the given level-of-detail.
+     *
+     * @param lod the level-of-detail used to simplify the polygons.
+     */
+    public PolygonMeshGenerator(LevelOfDetail lod) {
+        this.lod = lod;
+    }
 
 
     @Override
@@ -37,7 +79,10 @@ public class PolygonMeshGenerator implements FeatureMeshGenerator {
                 source.getFeatureProvider(),
                 source.getFeatureName(),
                 source.getTilingScheme(),
-                source.getRevision()
+                source.getRevision(),
+                lod.getTolerance(source.getTilingScheme(), tile),
+                lod.getMinArea(source.getTilingScheme(), tile),
+                source.getStyle().getProperty("triangulator", TriangulationMethod.SWEEP_LINE)
         );
     }
 
@@ -92,21 +137,24 @@ public class PolygonMeshGenerator implements FeatureMeshGenerator {
         Projection   projection = scheme.getProjection();
         Rect2d       bounds     = scheme.getBounds(getFeatureBounds(src, tile));
 
-        // TODO: replace triangulation-method
-        // NOTE: outline has start-node == end-node
+        TriangulationMethod method = src.getStyle().getProperty("triangulator", TriangulationMethod.SWEEP_LINE);
+        double tolerance = lod.getTolerance(scheme, tile);
+        double minArea   = lod.getMinArea(scheme, tile);
 
         int counter = 0;
         for (Polygon polygon : feature.getData()) {
             if (Thread.interrupted()) throw new InterruptedException();
 
-            Vec2d outline[] = project(projection, bounds, target, polygon.outline, polygon.outline.length - 1);
-            Triangulator.Result result = triangulator.triangulate(new microtrafficsim.math.geometry.polygons.Polygon(outline).normalize());
+            Triangulator.Result result = triangulate(polygon, projection, method, tolerance, minArea);
             if (result == null) {
-                System.err.println("Failed to triangulate polygon (around coordinate " + polygon.outline[0].toString() + ").");
+                System.err.println("Failed to triangulate polygon (around coordinate " + polygon.outline.get(0).toString() + ").");
                 continue;
             }
 
-            vertices.addAll(result.vertices);
+            // results are cached in projected space, transform to target
+            for (Vec2d v : result.vertices)
+                vertices.add(transform(bounds, target, new Vec2d(v)));
+
             for (int i : result.indices)
                 indices.add(counter + i);
 
@@ -115,38 +163,135 @@ public class PolygonMeshGenerator implements FeatureMeshGenerator {
     }
 
     /**
-     * Project the given {@code Coordinate}s from the given source-rectangle to the given target-rectangle using the
-     * given projection.
+     * Triangulates the given polygon in projected space, or returns its cached triangulation.
+     *
+     * @return the triangulation of the given polygon, empty if the polygon is too small to be displayed, or
+     * {@code null} if the triangulation failed.
+     */
+    private Triangulator.Result triangulate(Polygon polygon, Projection projection, TriangulationMethod method,
+                                            double tolerance, double minArea) {
+        CacheKey key = new CacheKey(polygon.id, method, tolerance, minArea);
+
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.outline == polygon.outline)
+                return entry.result;
+        }
+
+        // NOTE: outline has start-node == end-node
+        Vec2d[] outline = project(projection, polygon.outline, polygon.outline.size() - 1);
+
+        Triangulator.Result result;
+        if (minArea > 0.0 && microtrafficsim.math.geometry.polygons.Polygon.area(outline) < minArea) {
+            result = new Triangulator.Result(new ArrayList<>(), new ArrayList<>());
+
+        } else {
+            Vec2d simplified[] = Lines.simplify(outline, tolerance, true);
+
+            if (simplified.length < 3) {
+                result = new Triangulator.Result(new ArrayList<>(), new ArrayList<>());
+            } else {
+                Triangulator triangulator = method == TriangulationMethod.EAR_CLIPPING ? earclipping : sweepline;
+
+                result = triangulate(triangulator, simplified);
+                if (result == null && simplified != outline)
+                    result = triangulate(triangulator, outline);
+            }
+        }
+
+        if (result != null) {
+            synchronized (cache) {
+                cache.put(key, new CacheEntry(polygon.outline, result));
+            }
+        }
+
+        return result;
+    }
+
+    private static Triangulator.Result triangulate(Triangulator triangulator, Vec2d[] outline) {
+        return triangulator.triangulate(new microtrafficsim.math.geometry.polygons.Polygon(outline).normalize());
+    }
+
+    /**
+     * Project the given coordinates using the given projection.
      *
      * @param projection the projection to use.
-     * @param from       the source rectangle.
-     * @param to         the target rectangle.
-     * @param c          the coordinate to project.
-     * @return the projected coordinate as vector.
+     * @param c          the coordinates to project.
+     * @param len        the number of coordinates to project.
+     * @return the projected coordinates as vectors.
      */
-    private static Vec2d[] project(Projection projection, Rect2d from, Rect2d to, Coordinate[] c, int len) {
+    private static Vec2d[] project(Projection projection, PackedCoordinates c, int len) {
         Vec2d[] result = new Vec2d[len];
 
         for (int i = 0; i < len; i++)
-            result[i] = project(projection, from, to, c[i]);
+            result[i] = projection.project(c, i);
 
         return result;
     }
 
     /**
-     * Project the given {@code Coordinate} from the given source-rectangle to the given target-rectangle using the
-     * given projection.
+     * Transforms the given projected point from the given source-rectangle to the given target-rectangle.
      *
-     * @param projection the projection to use.
-     * @param from       the source rectangle.
-     * @param to         the target rectangle.
-     * @param c          the coordinate to project.
-     * @return the projected coordinate as vector.
+     * @param from the source rectangle.
+     * @param to   the target rectangle.
+     * @param p    the point to transform, modified in place.
+     * @return the transformed point.
      */
-    private static Vec2d project(Projection projection, Rect2d from, Rect2d to, Coordinate c) {
-        Vec2d p = projection.project(c);
+    private static Vec2d transform(Rect2d from, Rect2d to, Vec2d p) {
         p.x     = ((p.x - from.xmin) / (from.xmax - from.xmin)) * (to.xmax - to.xmin) + to.xmin;
         p.y     = ((p.y - from.ymin) / (from.ymax - from.ymin)) * (to.ymax - to.ymin) + to.ymin;
         return p;
     }
+
+
+    /**
+     * The triangulation methods available for polygons, selected per feature by the {@code "triangulator"} property
+     * of its style.
+     */
+    public enum TriangulationMethod { SWEEP_LINE, EAR_CLIPPING }
+
+    private static class CacheKey {
+        private final long id;
+        private final TriangulationMethod method;
+        private final double tolerance;
+        private final double minArea;
+
+        private CacheKey(long id, TriangulationMethod method, double tolerance, double minArea) {
+            this.id = id;
+            this.method = method;
+            this.tolerance = tolerance;
+            this.minArea = minArea;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) return false;
+
+            CacheKey other = (CacheKey) obj;
+            return this.id == other.id
+                    && this.method == other.method
+                    && this.tolerance == other.tolerance
+                    && this.minArea == other.minArea;
+        }
+
+        @Override
+        public int hashCode() {
+            return new FNVHashBuilder()
+                    .add(id)
+                    .add(method)
+                    .add(tolerance)
+                    .add(minArea)
+                    .getHash();
+        }
+    }
+
+    private static class CacheEntry {
+        private final PackedCoordinates   outline;
+        private final Triangulator.Result result;
+
+        private CacheEntry(PackedCoordinates outline, Triangulator.Result result) {
+            this.outline = outline;
+            this.result  = result;
+        }
+    }
 }
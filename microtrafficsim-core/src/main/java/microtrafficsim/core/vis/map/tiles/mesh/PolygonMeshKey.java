@@ -21,6 +21,9 @@ public class PolygonMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
     private final String              feature;
     private final TilingScheme        scheme;
     private final long                revision;
+    private final double              tolerance;
+    private final double              minArea;
+    private final PolygonMeshGenerator.TriangulationMethod method;
 
     /**
      * Creates a new {@code PolygonMeshKey}.
@@ -32,6 +35,9 @@ public class PolygonMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
      * @param feature    the feature from which this mesh was created.
      * @param scheme     the tiling-scheme used for the mesh.
      * @param revision   the revision of this mesh.
+     * @param tolerance  the simplification-tolerance used for the mesh.
+     * @param minArea    the minimum area of polygons contained in the mesh.
+     * @param method     the method used to triangulate the polygons.
      */
     public PolygonMeshKey(RenderContext       context,
                           TileRect            tiles,
@@ -39,7 +45,10 @@ public class PolygonMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
                           TileFeatureProvider provider,
                           String              feature,
                           TilingScheme        scheme,
-                          long                revision) {
+                          long                revision,
+                          double              tolerance,
+                          double              minArea,
+                          PolygonMeshGenerator.TriangulationMethod method) {
         this.context    = context;
         this.tiles      = tiles;
         this.target     = target;
@@ -47,6 +56,9 @@ public class PolygonMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
         this.feature    = feature;
         this.scheme     = scheme;
         this.revision   = revision;
+        this.tolerance  = tolerance;
+        this.minArea    = minArea;
+        this.method     = method;
     }
 
 
@@ -61,7 +73,10 @@ public class PolygonMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
                 && this.provider == other.provider
                 && this.feature.equals(other.feature)
                 && this.scheme.equals(other.scheme)
-                && this.revision == other.revision;
+                && this.revision == other.revision
+                && this.tolerance == other.tolerance
+                && this.minArea == other.minArea
+                && this.method == other.method;
     }
 
     @Override
@@ -73,6 +88,9 @@ public class PolygonMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
                 .add(feature)
                 .add(scheme)
                 .add(revision)
+                .add(tolerance)
+                .add(minArea)
+                .add(method)
                 .getHash();
     }
 }
@@ -2,6 +2,7 @@ package microtrafficsim.core.vis.map.tiles.mesh;
 
 import com.jogamp.opengl.GL3;
 import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.core.map.TileFeature;
 import microtrafficsim.core.map.features.Street;
 import microtrafficsim.core.map.tiles.TileId;
@@ -14,18 +15,18 @@ import microtrafficsim.core.vis.mesh.Mesh;
 import microtrafficsim.core.vis.mesh.builder.LineMeshBuilder;
 import microtrafficsim.core.vis.mesh.impl.DualFloatAttributeIndexedMesh;
 import microtrafficsim.core.vis.mesh.style.Style;
-import microtrafficsim.core.vis.mesh.utils.VertexSet;
+import microtrafficsim.core.vis.mesh.utils.GrowableIntBuffer;
+import microtrafficsim.core.vis.mesh.utils.PackedVertexSet;
 import microtrafficsim.core.vis.utils.LaneOffset;
 import microtrafficsim.math.Rect2d;
+import microtrafficsim.math.Vec2d;
 import microtrafficsim.math.Vec3d;
-import microtrafficsim.math.Vec3f;
+import microtrafficsim.math.geometry.Lines;
 import microtrafficsim.utils.collections.HashListMultiMap;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 
 
 /**
@@ -35,6 +36,26 @@ import java.util.HashMap;
  */
 public class StreetMeshGenerator implements FeatureMeshGenerator {
 
+    private LevelOfDetail lod;
+    private ThreadLocal<Arena> arenas = ThreadLocal.withInitial(Arena::new);
+
+
+    /**
+     * Constructs a new {@code StreetMeshGenerator} using the default level-of-detail.
+     */
+    public StreetMeshGenerator() {
+        this(LevelOfDetail.getDefault());
+    }
+
+    /**
+     * Constructs a new {@code StreetMeshGenerator} using the given level-of-detail.
+     *
+     * @param lod the level-of-detail used to simplify the streets.
+     */
+    public StreetMeshGenerator(LevelOfDetail lod) {
+        this.lod = lod;
+    }
+
     @Override
     public FeatureMeshKey getKey(RenderContext context, FeatureTileLayerSource source, TileId tile, Rect2d target) {
         StreetStyle style = StreetStyle.from(source.getStyle(), source.getFeatureProvider().getProperties().drivingOnTheRight);
@@ -46,6 +67,7 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
                 source.getFeatureName(),
                 source.getTilingScheme(),
                 source.getRevision(),
+                lod.getTolerance(source.getTilingScheme(), tile),
                 style.lanewidth,
                 style.linewidth,
                 style.cap,
@@ -71,25 +93,26 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
         // get tile and source properties
         TilingScheme scheme = src.getTilingScheme();
         Rect2d bounds = scheme.getBounds(getFeatureBounds(src, tile));
-        MeshProjection projection = new MeshProjection(scheme.getProjection(), bounds, target);
+        MeshProjection projection = new MeshProjection(scheme.getProjection(), bounds, target,
+                lod.getTolerance(scheme, tile));
 
         StreetStyle style = StreetStyle.from(src.getStyle(), src.getFeatureProvider().getProperties().drivingOnTheRight);
 
-        // generate mesh
-        VertexSet<LineMeshBuilder.Vertex> vertices = new VertexSet<>();
-        HashMap<Double, IndexBucket> buckets = new HashMap<>();
+        // generate mesh, re-using the buffers of this thread
+        Arena arena = arenas.get();
+        arena.clear();
 
         try {
-            generate(context, feature, projection, style, vertices, buckets);
+            generate(context, feature, projection, style, arena);
         } finally {
             src.getFeatureProvider().release(feature);
         }
 
-        return mesh(vertices, buckets.values(), projection);
+        return mesh(arena);
     }
 
     private void generate(RenderContext context, TileFeature<? extends Street> feature, MeshProjection projection,
-                          StreetStyle style, VertexSet<LineMeshBuilder.Vertex> vertices, HashMap<Double, IndexBucket> buckets)
+                          StreetStyle style, Arena arena)
             throws InterruptedException
     {
         HashListMultiMap<Coordinate, Street> intersections = null;
@@ -97,8 +120,8 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
             intersections = new HashListMultiMap<>();
 
             for (Street street : feature.getData()) {
-                intersections.add(street.coordinates[0], street);
-                intersections.add(street.coordinates[street.coordinates.length - 1], street);
+                intersections.add(street.coordinates.get(0), street);
+                intersections.add(street.coordinates.get(street.coordinates.size() - 1), street);
             }
 
             intersections.entrySet().removeIf(entry -> {
@@ -110,8 +133,8 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
                 if (a == b)
                     return false;
 
-                boolean aligned = a.coordinates[0].equals(b.coordinates[b.coordinates.length - 1])
-                        || a.coordinates[a.coordinates.length - 1].equals(b.coordinates[0]);
+                boolean aligned = a.coordinates.matches(0, b.coordinates, b.coordinates.size() - 1)
+                        || a.coordinates.matches(a.coordinates.size() - 1, b.coordinates, 0);
 
                 if (aligned) {
                     return a.numLanesFwd != b.numLanesFwd || a.numLanesBwd != b.numLanesBwd;
@@ -121,15 +144,17 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
             });
         }
 
-        int restart = context.PrimitiveRestart.getIndex();
-        LineMeshBuilder builder = new LineMeshBuilder(null);
+        BucketBuilder emitter = arena.emitter;
+        emitter.projection = projection;
+        emitter.restart = context.PrimitiveRestart.getIndex();
+
+        LineMeshBuilder builder = arena.builder;
+        builder.setEmitter(emitter);
 
         for (Street street : feature.getData()) {
             if (Thread.interrupted()) throw new InterruptedException();
 
-            IndexBucket bucket = buckets.computeIfAbsent(street.layer, k -> new IndexBucket(street.layer));
-            builder.setEmitter(new BucketBuilder(vertices, bucket, restart));
-
+            emitter.bucket = arena.getBucket(street.layer);
             generate(street, projection, builder, style, intersections);
         }
     }
@@ -141,8 +166,8 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
         Vec3d in = null;
         Vec3d out = null;
         if (intersections != null) {
-            ArrayList<Street> ax = intersections.get(street.coordinates[0]);
-            ArrayList<Street> bx = intersections.get(street.coordinates[street.coordinates.length - 1]);
+            ArrayList<Street> ax = intersections.get(street.coordinates.get(0));
+            ArrayList<Street> bx = intersections.get(street.coordinates.get(street.coordinates.size() - 1));
 
             if (ax != null) {
                 Vec3d a = getOtherPos(ax, street, projection);
@@ -190,42 +215,28 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
     }
 
     /**
-     * Generate a Mesh instance from the given vertices and indices.
+     * Generate a Mesh instance from the vertices and indices stored in the given arena.
      *
-     * @param vertices   the vertices from which the mesh will be generated.
-     * @param indices    the indices in buckets from which the mesh will be generated.
-     * @param projection the projection to project the mesh to the tile.
+     * @param arena the arena containing the vertices and indices from which the mesh will be generated.
      * @return the generated mesh.
      * @throws InterruptedException if the executing thread is interrupted.
      */
-    private Mesh mesh(VertexSet<LineMeshBuilder.Vertex> vertices, Collection<IndexBucket> indices,
-                      MeshProjection projection) throws InterruptedException
-    {
-        // create vertex buffer
-        FloatBuffer vb = FloatBuffer.allocate(vertices.size() * 6);
-        for (LineMeshBuilder.Vertex v : vertices.getVertices()) {
-            if (Thread.interrupted()) throw new InterruptedException();
+    private Mesh mesh(Arena arena) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
 
-            Vec3f pos = projection.globalToTile(v.position);
-
-            vb.put(pos.x);
-            vb.put(pos.y);
-            vb.put(pos.z);
-            vb.put((float) v.segment.x);
-            vb.put((float) v.segment.y);
-            vb.put((float) v.segment.z);
-        }
+        // create vertex buffer
+        FloatBuffer vb = FloatBuffer.allocate(arena.vertices.size() * 6);
+        vb.put(arena.vertices.getVertices());
         vb.rewind();
 
         // create index buffer
         int nIndices = 0;
-        for (IndexBucket i : indices)
-            nIndices += i.size();
+        for (int i = 0; i < arena.used; i++)
+            nIndices += arena.buckets.get(i).size();
 
         IntBuffer ib = IntBuffer.allocate(nIndices);
-        for (IndexBucket bucket : indices)
-            for (int i : bucket)
-                ib.put(i);
+        for (int i = 0; i < arena.used; i++)
+            ib.put(arena.buckets.get(i).indices.getBuffer());
         ib.rewind();
 
         // create mesh and buckets
@@ -235,7 +246,8 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
         ArrayList<DualFloatAttributeIndexedMesh.Bucket> buckets = new ArrayList<>();
 
         int offset = 0;
-        for (IndexBucket indexbucket : indices) {
+        for (int i = 0; i < arena.used; i++) {
+            IndexBucket indexbucket = arena.buckets.get(i);
             double layer = indexbucket.getLayer();
             int    count = indexbucket.size();
 
@@ -251,15 +263,21 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
     private Vec3d getOtherPos(ArrayList<Street> streets, Street street, MeshProjection projection) {
         Street other = streets.get(0) != street ? streets.get(0) : streets.get(1);
 
+        PackedCoordinates a = street.coordinates;
+        PackedCoordinates b = other.coordinates;
+
+        // use the simplified geometry of the other street, so that both join seamlessly
+        Vec3d[] projected = projection.toGlobal(b, street.layer);
+
         Vec3d otherPos;
-        if (street.coordinates[street.coordinates.length - 1].equals(other.coordinates[0])) {
-            otherPos = projection.toGlobal(other.coordinates[1], street.layer);
-        } else if (street.coordinates[0].equals(other.coordinates[other.coordinates.length - 1])) {
-            otherPos = projection.toGlobal(other.coordinates[other.coordinates.length - 2], street.layer);
-        } else if (street.coordinates[0].equals(other.coordinates[0])) {
-            otherPos = projection.toGlobal(other.coordinates[1], street.layer);
+        if (a.matches(a.size() - 1, b, 0)) {
+            otherPos = projected[1];
+        } else if (a.matches(0, b, b.size() - 1)) {
+            otherPos = projected[projected.length - 2];
+        } else if (a.matches(0, b, 0)) {
+            otherPos = projected[1];
         } else {
-            otherPos = projection.toGlobal(other.coordinates[other.coordinates.length - 2], street.layer);
+            otherPos = projected[projected.length - 2];
         }
 
         return otherPos;
@@ -317,40 +335,84 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
     }
 
 
-    private static class IndexBucket extends ArrayList<Integer> {
-        private double layer;
+    /**
+     * Buffers used to generate meshes, re-used for all meshes generated by one thread.
+     */
+    private static class Arena {
+        private PackedVertexSet vertices = new PackedVertexSet(6, 1 << 14);
+        private ArrayList<IndexBucket> buckets = new ArrayList<>();
+        private int used = 0;
+
+        private LineMeshBuilder builder = new LineMeshBuilder(null);
+        private BucketBuilder emitter = new BucketBuilder(vertices);
+
+        /**
+         * Returns the bucket for the given layer, re-using a previously allocated bucket if possible.
+         */
+        private IndexBucket getBucket(double layer) {
+            for (int i = 0; i < used; i++)
+                if (buckets.get(i).layer == layer)
+                    return buckets.get(i);
+
+            if (used == buckets.size())
+                buckets.add(new IndexBucket());
+
+            IndexBucket bucket = buckets.get(used++);
+            bucket.layer = layer;
+            bucket.indices.clear();
+            return bucket;
+        }
+
+        private void clear() {
+            vertices.clear();
+            used = 0;
 
-        public IndexBucket(double layer) {
-            this.layer = layer;
+            // release references to the previous tile
+            emitter.projection = null;
+            emitter.bucket = null;
         }
+    }
 
+    private static class IndexBucket {
+        private double layer;
+        private GrowableIntBuffer indices = new GrowableIntBuffer(1 << 12);
 
         public double getLayer() {
             return layer;
         }
+
+        public int size() {
+            return indices.size();
+        }
     }
 
     private static class BucketBuilder implements LineMeshBuilder.VertexEmitter {
-        private VertexSet<LineMeshBuilder.Vertex> vertices;
-        private ArrayList<Integer> indices;
+        private PackedVertexSet vertices;
+        private MeshProjection projection;
+        private IndexBucket bucket;
         private int restart;
+        private float[] vertex = new float[6];
 
-        public BucketBuilder(VertexSet<LineMeshBuilder.Vertex> vertices, ArrayList<Integer> indices, int restart) {
+        public BucketBuilder(PackedVertexSet vertices) {
             this.vertices = vertices;
-            this.indices = indices;
-            this.restart = restart;
         }
 
-        public int add(LineMeshBuilder.Vertex vertex) {
+        public int add(double x, double y, double z, double sx, double sy, double sz) {
+            vertex[0] = projection.globalToTileX(x);
+            vertex[1] = projection.globalToTileY(y);
+            vertex[2] = (float) z;
+            vertex[3] = (float) sx;
+            vertex[4] = (float) sy;
+            vertex[5] = (float) sz;
             return vertices.add(vertex);
         }
 
         public void emit(int id) {
-            indices.add(id);
+            bucket.indices.add(id);
         }
 
         public void next() {
-            indices.add(restart);
+            bucket.indices.add(restart);
         }
     }
 
@@ -358,6 +420,7 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
         private Projection projection;
         private Rect2d from;
         private Rect2d to;
+        private double tolerance;
 
         /**
          * Create a projection to project the given {@code Coordinate} from the given rectangle to the given rectangle
@@ -366,31 +429,31 @@ public class StreetMeshGenerator implements FeatureMeshGenerator {
          * @param projection the projection to use.
          * @param from       the source rectangle.
          * @param to         the target rectangle.
+         * @param tolerance  the tolerance used to simplify the projected lines.
          */
-        private MeshProjection(Projection projection, Rect2d from, Rect2d to) {
+        private MeshProjection(Projection projection, Rect2d from, Rect2d to, double tolerance) {
             this.projection = projection;
             this.from = from;
             this.to = to;
+            this.tolerance = tolerance;
         }
 
-        private Vec3d[] toGlobal(Coordinate[] coords, double layer) {
-            Vec3d[] projected = new Vec3d[coords.length];
-            for (int i = 0; i < coords.length; i++) {
-                projected[i] = new Vec3d(projection.project(coords[i]), layer);
+        private Vec3d[] toGlobal(PackedCoordinates coords, double layer) {
+            Vec2d[] simplified = Lines.simplify(projection.project(coords), tolerance);
+
+            Vec3d[] projected = new Vec3d[simplified.length];
+            for (int i = 0; i < projected.length; i++) {
+                projected[i] = new Vec3d(simplified[i], layer);
             }
             return projected;
         }
 
-        private Vec3d toGlobal(Coordinate coord, double layer) {
-            return new Vec3d(projection.project(coord), layer);
+        private float globalToTileX(double x) {
+            return (float) (((x - from.xmin) / (from.xmax - from.xmin)) * (to.xmax - to.xmin) + to.xmin);
         }
 
-        private Vec3f globalToTile(Vec3d p) {
-            return new Vec3f(
-                    (float) (((p.x - from.xmin) / (from.xmax - from.xmin)) * (to.xmax - to.xmin) + to.xmin),
-                    (float) (((p.y - from.ymin) / (from.ymax - from.ymin)) * (to.ymax - to.ymin) + to.ymin),
-                    (float) p.z
-            );
+        private float globalToTileY(double y) {
+            return (float) (((y - from.ymin) / (from.ymax - from.ymin)) * (to.ymax - to.ymin) + to.ymin);
         }
     }
 }
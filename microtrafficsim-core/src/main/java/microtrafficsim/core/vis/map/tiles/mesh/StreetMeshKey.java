@@ -24,6 +24,7 @@ public class StreetMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
     private final String feature;
     private final TilingScheme scheme;
     private final long revision;
+    private final double tolerance;
     private final double lanewidth;
     private final double outline;
     private final LineMeshBuilder.CapType cap;
@@ -44,6 +45,7 @@ public class StreetMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
      * @param feature    the feature from which this mesh was created.
      * @param scheme     the tiling-scheme used for the mesh.
      * @param revision   the revision of this mesh.
+     * @param tolerance  the simplification-tolerance used for the mesh.
      * @param lanewidth  the width of one lane.
      * @param drivingOnTheRight {@code true} if the forward edge of a street is on the right.
      */
@@ -54,6 +56,7 @@ public class StreetMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
                          String              feature,
                          TilingScheme        scheme,
                          long                revision,
+                         double              tolerance,
                          double              lanewidth,
                          double              outline,
                          LineMeshBuilder.CapType      cap,
@@ -70,6 +73,7 @@ public class StreetMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
         this.feature    = feature;
         this.scheme     = scheme;
         this.revision   = revision;
+        this.tolerance  = tolerance;
         this.lanewidth  = lanewidth;
         this.outline    = outline;
         this.cap = cap;
@@ -94,6 +98,7 @@ public class StreetMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
                 && this.feature.equals(other.feature)
                 && this.scheme.equals(other.scheme)
                 && this.revision == other.revision
+                && this.tolerance == other.tolerance
                 && this.lanewidth == other.lanewidth
                 && this.outline == other.outline
                 && this.cap == other.cap
@@ -114,6 +119,7 @@ public class StreetMeshKey implements FeatureMeshGenerator.FeatureMeshKey {
                 .add(feature)
                 .add(scheme)
                 .add(revision)
+                .add(tolerance)
                 .add(lanewidth)
                 .add(outline)
                 .add(cap)
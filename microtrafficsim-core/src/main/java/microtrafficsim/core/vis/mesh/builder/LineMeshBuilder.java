@@ -91,9 +91,21 @@ public class LineMeshBuilder {
     }
 
     public interface VertexEmitter {
-        int add(Vertex vertex);
+        int add(double x, double y, double z, double sx, double sy, double sz);
         void emit(int id);
         void next();
+
+        default int add(Vec3d position, Vec3d segment) {
+            return add(position.x, position.y, position.z, segment.x, segment.y, segment.z);
+        }
+
+        default int add(Vec2d position, double z, Vec3d segment) {
+            return add(position.x, position.y, z, segment.x, segment.y, segment.z);
+        }
+
+        default int add(Vertex vertex) {
+            return add(vertex.position, vertex.segment);
+        }
     }
 
 
@@ -454,8 +466,8 @@ public class LineMeshBuilder {
         final Vec3d l1 = new Vec3d(0.0,  ext, ext);
         final Vec3d l2 = new Vec3d(0.0, -ext, ext);
 
-        emitter.emit(emitter.add(new Vertex(p1, l1)));
-        emitter.emit(emitter.add(new Vertex(p2, l2)));
+        emitter.emit(emitter.add(p1, l1));
+        emitter.emit(emitter.add(p2, l2));
     }
 
     private void emitSquareCapBegin(Vec3d pos, Vec3d dir, Style style) {
@@ -474,21 +486,13 @@ public class LineMeshBuilder {
         Vec3d l3 = new Vec3d(-ext,  0.0, ext);
         Vec3d l4 = new Vec3d(-ext,  0.0, ext);
 
-        Vertex v0 = new Vertex(new Vec3d(p0, pos.z),       l0);
-        Vertex v1 = new Vertex(new Vec3d(p1, pos.z), l1);
-        Vertex v2 = new Vertex(new Vec3d(p2, pos.z), l2);
-        Vertex v3 = new Vertex(new Vec3d(p3, pos.z), l1);
-        Vertex v4 = new Vertex(new Vec3d(p4, pos.z), l2);
-        Vertex v5 = new Vertex(new Vec3d(p3, pos.z), l3);
-        Vertex v6 = new Vertex(new Vec3d(p4, pos.z), l4);
-
-        int i0 = emitter.add(v0);
-        int i1 = emitter.add(v1);
-        int i3 = emitter.add(v3);
-        int i4 = emitter.add(v4);
-        int i2 = emitter.add(v2);
-        int i5 = emitter.add(v5);
-        int i6 = emitter.add(v6);
+        int i0 = emitter.add(p0, pos.z, l0);
+        int i1 = emitter.add(p1, pos.z, l1);
+        int i3 = emitter.add(p3, pos.z, l1);
+        int i4 = emitter.add(p4, pos.z, l2);
+        int i2 = emitter.add(p2, pos.z, l2);
+        int i5 = emitter.add(p3, pos.z, l3);
+        int i6 = emitter.add(p4, pos.z, l4);
 
         emitter.emit(i0);
         emitter.emit(i1);
@@ -522,21 +526,13 @@ public class LineMeshBuilder {
         Vec3d l3 = new Vec3d(ext,  0.0, ext);
         Vec3d l4 = new Vec3d(ext,  0.0, ext);
 
-        Vertex v0 = new Vertex(new Vec3d(p0, pos.z), l0);
-        Vertex v1 = new Vertex(new Vec3d(p1, pos.z), l1);
-        Vertex v2 = new Vertex(new Vec3d(p2, pos.z), l2);
-        Vertex v3 = new Vertex(new Vec3d(p3, pos.z), l1);
-        Vertex v4 = new Vertex(new Vec3d(p4, pos.z), l2);
-        Vertex v5 = new Vertex(new Vec3d(p3, pos.z), l3);
-        Vertex v6 = new Vertex(new Vec3d(p4, pos.z), l4);
-
-        int i1 = emitter.add(v1);
-        int i2 = emitter.add(v2);
-        int i0 = emitter.add(v0);
-        int i3 = emitter.add(v3);
-        int i4 = emitter.add(v4);
-        int i6 = emitter.add(v6);
-        int i5 = emitter.add(v5);
+        int i1 = emitter.add(p1, pos.z, l1);
+        int i2 = emitter.add(p2, pos.z, l2);
+        int i0 = emitter.add(p0, pos.z, l0);
+        int i3 = emitter.add(p3, pos.z, l1);
+        int i4 = emitter.add(p4, pos.z, l2);
+        int i6 = emitter.add(p4, pos.z, l4);
+        int i5 = emitter.add(p3, pos.z, l3);
 
         emitter.emit(i1);
         emitter.emit(i2);
@@ -568,10 +564,10 @@ public class LineMeshBuilder {
         Vec3d l3 = new Vec3d(ext,  ext, ext);
         Vec3d l4 = new Vec3d(ext, -ext, ext);
 
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p3, pos.z), l3)));
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p4, pos.z), l4)));
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p1, pos.z), l1)));
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p2, pos.z), l2)));
+        emitter.emit(emitter.add(p3, pos.z, l3));
+        emitter.emit(emitter.add(p4, pos.z, l4));
+        emitter.emit(emitter.add(p1, pos.z, l1));
+        emitter.emit(emitter.add(p2, pos.z, l2));
     }
 
     private void emitRoundCapEnd(Vec3d pos, Vec3d dir, Style style) {
@@ -588,10 +584,10 @@ public class LineMeshBuilder {
         Vec3d l3 = new Vec3d(ext,  ext, ext);
         Vec3d l4 = new Vec3d(ext, -ext, ext);
 
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p1, pos.z), l1)));
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p2, pos.z), l2)));
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p3, pos.z), l3)));
-        emitter.emit(emitter.add(new Vertex(new Vec3d(p4, pos.z), l4)));
+        emitter.emit(emitter.add(p1, pos.z, l1));
+        emitter.emit(emitter.add(p2, pos.z, l2));
+        emitter.emit(emitter.add(p3, pos.z, l3));
+        emitter.emit(emitter.add(p4, pos.z, l4));
     }
 
 
@@ -630,12 +626,12 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightA = emitter.add(new Vertex(pRightA, l1));
-        int iLeftA  = emitter.add(new Vertex(pLeftA,  l2));
-        int iRightB = emitter.add(new Vertex(pRightB, l1));
-        int iLeftB  = emitter.add(new Vertex(pLeftB,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightA = emitter.add(pRightA, l1);
+        int iLeftA  = emitter.add(pLeftA,  l2);
+        int iRightB = emitter.add(pRightB, l1);
+        int iLeftB  = emitter.add(pLeftB,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {
             if (curve > 0) {
@@ -671,19 +667,19 @@ public class LineMeshBuilder {
 
         if (!bevel) {                           // miter cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
-                int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+                int iLeftAC = emitter.add(pLeftA, lo);
+                int iLeftBC = emitter.add(pLeftB, lo);
 
                 emitter.emit(iLeftAC);
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
                 emitter.emit(iLeftBC);
             } else {
-                int iRightAC = emitter.add(new Vertex(pRightA, lo));
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightAC = emitter.add(pRightA, lo);
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iRightAC);
                 emitter.emit(iCenter);
@@ -692,15 +688,15 @@ public class LineMeshBuilder {
             }
         } else {                                // bevel cap
             if (curve > 0) {
-                int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
-                int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+                int iLeftAC = emitter.add(pLeftA, lo);
+                int iLeftBC = emitter.add(pLeftB, lo);
 
                 emitter.emit(iLeftAC);
                 emitter.emit(iLeftBC);
                 emitter.emit(iCenter);
             } else {
-                int iRightAC = emitter.add(new Vertex(pRightA, lo));
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightAC = emitter.add(pRightA, lo);
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iRightBC);
                 emitter.emit(iRightAC);
@@ -751,12 +747,12 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightA = emitter.add(new Vertex(pRightA, l1));
-        int iLeftA  = emitter.add(new Vertex(pLeftA,  l2));
-        int iRightB = emitter.add(new Vertex(pRightB, l1));
-        int iLeftB  = emitter.add(new Vertex(pLeftB,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightA = emitter.add(pRightA, l1);
+        int iLeftA  = emitter.add(pLeftA,  l2);
+        int iRightB = emitter.add(pRightB, l1);
+        int iLeftB  = emitter.add(pLeftB,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {
             if (curve > 0) {
@@ -792,15 +788,15 @@ public class LineMeshBuilder {
 
         // bevel cap
         if (curve > 0) {
-            int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
-            int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+            int iLeftAC = emitter.add(pLeftA, lo);
+            int iLeftBC = emitter.add(pLeftB, lo);
 
             emitter.emit(iLeftAC);
             emitter.emit(iLeftBC);
             emitter.emit(iCenter);
         } else {
-            int iRightAC = emitter.add(new Vertex(pRightA, lo));
-            int iRightBC = emitter.add(new Vertex(pRightB, lo));
+            int iRightAC = emitter.add(pRightA, lo);
+            int iRightBC = emitter.add(pRightB, lo);
 
             emitter.emit(iRightBC);
             emitter.emit(iRightAC);
@@ -852,12 +848,12 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightA = emitter.add(new Vertex(pRightA, l1));
-        int iLeftA  = emitter.add(new Vertex(pLeftA,  l2));
-        int iRightB = emitter.add(new Vertex(pRightB, l1));
-        int iLeftB  = emitter.add(new Vertex(pLeftB,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightA = emitter.add(pRightA, l1);
+        int iLeftA  = emitter.add(pLeftA,  l2);
+        int iRightB = emitter.add(pRightB, l1);
+        int iLeftB  = emitter.add(pLeftB,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {
             if (curve > 0) {
@@ -894,7 +890,7 @@ public class LineMeshBuilder {
         if (miter) {                            // miter cage
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
             Vec3d lx = new Vec3d((float) (sin * -innerext), (float) (-ext * curve), (float) ext);
-            int iOuter = emitter.add(new Vertex(pOuter, lx));
+            int iOuter = emitter.add(pOuter, lx);
 
             if (curve > 0) {
                 emitter.emit(iLeftA);
@@ -915,9 +911,9 @@ public class LineMeshBuilder {
             Vec3d pOuterAC = new Vec3d(Vec2d.mul(normalIn,  -curve * ext).add( dirIn.xy().mul(ext)).add(pos.xy()), pos.z);
             Vec3d pOuterBC = new Vec3d(Vec2d.mul(normalOut, -curve * ext).sub(dirOut.xy().mul(ext)).add(pos.xy()), pos.z);
 
-            int iOuter   = emitter.add(new Vertex(pOuter,   lo));
-            int iOuterAC = emitter.add(new Vertex(pOuterAC, lx));
-            int iOuterBC = emitter.add(new Vertex(pOuterBC, lx));
+            int iOuter   = emitter.add(pOuter,   lo);
+            int iOuterAC = emitter.add(pOuterAC, lx);
+            int iOuterBC = emitter.add(pOuterBC, lx);
 
             if (curve > 0) {
                 emitter.emit(iLeftA);
@@ -986,10 +982,10 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightB = emitter.add(new Vertex(pRightB, l1));
-        int iLeftB  = emitter.add(new Vertex(pLeftB,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightB = emitter.add(pRightB, l1);
+        int iLeftB  = emitter.add(pLeftB,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {                       // filler
             if (curve > 0) {
@@ -1006,16 +1002,16 @@ public class LineMeshBuilder {
 
         if (!bevel) {                           // miter cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+                int iLeftBC = emitter.add(pLeftB, lo);
 
                 emitter.emit(iCenter);
                 emitter.emit(iOuter);
                 emitter.emit(iLeftBC);
             } else {
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
@@ -1023,16 +1019,16 @@ public class LineMeshBuilder {
             }
         } else {                                // bevel cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -curve * ext * cos).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+                int iLeftBC = emitter.add(pLeftB, lo);
 
                 emitter.emit(iOuter);
                 emitter.emit(iLeftBC);
                 emitter.emit(iCenter);
             } else {
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iRightBC);
                 emitter.emit(iOuter);
@@ -1085,10 +1081,10 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightA = emitter.add(new Vertex(pRightA, l1));
-        int iLeftA  = emitter.add(new Vertex(pLeftA,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightA = emitter.add(pRightA, l1);
+        int iLeftA  = emitter.add(pLeftA,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {
             if (curve > 0) {
@@ -1122,16 +1118,16 @@ public class LineMeshBuilder {
 
         if (!bevel) {                           // miter cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
+                int iLeftAC = emitter.add(pLeftA, lo);
 
                 emitter.emit(iLeftAC);
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
             } else {
-                int iRightAC = emitter.add(new Vertex(pRightA, lo));
+                int iRightAC = emitter.add(pRightA, lo);
 
                 emitter.emit(iRightAC);
                 emitter.emit(iCenter);
@@ -1139,17 +1135,17 @@ public class LineMeshBuilder {
             }
         } else {                                // bevel cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -curve * ext * cos).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
+                int iLeftAC = emitter.add(pLeftA, lo);
 
                 emitter.emit(iLeftAC);
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
             } else {
-                int iRightAC = emitter.add(new Vertex(pRightA, lo));
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightAC = emitter.add(pRightA, lo);
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iOuter);
                 emitter.emit(iRightAC);
@@ -1185,10 +1181,10 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightB = emitter.add(new Vertex(pRightB, l1));
-        int iLeftB  = emitter.add(new Vertex(pLeftB,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightB = emitter.add(pRightB, l1);
+        int iLeftB  = emitter.add(pLeftB,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {                       // filler
             if (curve > 0) {
@@ -1205,16 +1201,16 @@ public class LineMeshBuilder {
 
         if (!bevel) {                           // miter cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+                int iLeftBC = emitter.add(pLeftB, lo);
 
                 emitter.emit(iCenter);
                 emitter.emit(iOuter);
                 emitter.emit(iLeftBC);
             } else {
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
@@ -1222,16 +1218,16 @@ public class LineMeshBuilder {
             }
         } else {                                // bevel cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -curve * ext * cos).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftBC = emitter.add(new Vertex(pLeftB, lo));
+                int iLeftBC = emitter.add(pLeftB, lo);
 
                 emitter.emit(iOuter);
                 emitter.emit(iLeftBC);
                 emitter.emit(iCenter);
             } else {
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iRightBC);
                 emitter.emit(iOuter);
@@ -1284,10 +1280,10 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightA = emitter.add(new Vertex(pRightA, l1));
-        int iLeftA  = emitter.add(new Vertex(pLeftA,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightA = emitter.add(pRightA, l1);
+        int iLeftA  = emitter.add(pLeftA,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {
             if (curve > 0) {
@@ -1321,16 +1317,16 @@ public class LineMeshBuilder {
 
         if (!bevel) {                           // miter cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
+                int iLeftAC = emitter.add(pLeftA, lo);
 
                 emitter.emit(iLeftAC);
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
             } else {
-                int iRightAC = emitter.add(new Vertex(pRightA, lo));
+                int iRightAC = emitter.add(pRightA, lo);
 
                 emitter.emit(iRightAC);
                 emitter.emit(iCenter);
@@ -1338,17 +1334,17 @@ public class LineMeshBuilder {
             }
         } else {                                // bevel cap
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -curve * ext * cos).add(pos.xy()), pos.z);
-            int iOuter = emitter.add(new Vertex(pOuter, lo));
+            int iOuter = emitter.add(pOuter, lo);
 
             if (curve > 0) {
-                int iLeftAC = emitter.add(new Vertex(pLeftA, lo));
+                int iLeftAC = emitter.add(pLeftA, lo);
 
                 emitter.emit(iLeftAC);
                 emitter.emit(iOuter);
                 emitter.emit(iCenter);
             } else {
-                int iRightAC = emitter.add(new Vertex(pRightA, lo));
-                int iRightBC = emitter.add(new Vertex(pRightB, lo));
+                int iRightAC = emitter.add(pRightA, lo);
+                int iRightBC = emitter.add(pRightB, lo);
 
                 emitter.emit(iOuter);
                 emitter.emit(iRightAC);
@@ -1384,10 +1380,10 @@ public class LineMeshBuilder {
         Vec3d pRightB = new Vec3d(Vec2d.mul(normalOut,  ext).add(pos.xy()), pos.z);
         Vec3d pLeftB  = new Vec3d(Vec2d.mul(normalOut, -ext).add(pos.xy()), pos.z);
 
-        int iRightB = emitter.add(new Vertex(pRightB, l1));
-        int iLeftB  = emitter.add(new Vertex(pLeftB,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightB = emitter.add(pRightB, l1);
+        int iLeftB  = emitter.add(pLeftB,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {                       // filler
             if (curve > 0) {
@@ -1405,7 +1401,7 @@ public class LineMeshBuilder {
         if (miter) {                            // miter cage
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
             Vec3d lx = new Vec3d((float) (sin * -innerext), (float) (-ext * curve), (float) ext);
-            int iOuter = emitter.add(new Vertex(pOuter, lx));
+            int iOuter = emitter.add(pOuter, lx);
 
             if (curve > 0) {
                 emitter.emit(iCenter);
@@ -1423,8 +1419,8 @@ public class LineMeshBuilder {
             Vec3d pOuter   = new Vec3d(Vec2d.mul(normalMed, -ext * 1.5 * curve).add(pos.xy()), pos.z);
             Vec3d pOuterBC = new Vec3d(Vec2d.mul(normalOut, -curve * ext).sub(dirOut.xy().mul(ext)).add(pos.xy()), pos.z);
 
-            int iOuter   = emitter.add(new Vertex(pOuter,   lo));
-            int iOuterBC = emitter.add(new Vertex(pOuterBC, lx));
+            int iOuter   = emitter.add(pOuter,   lo);
+            int iOuterBC = emitter.add(pOuterBC, lx);
 
             if (curve > 0) {
                 emitter.emit(iOuter);
@@ -1482,10 +1478,10 @@ public class LineMeshBuilder {
         Vec3d pRightA = new Vec3d(Vec2d.mul(normalIn,   ext).add(pos.xy()), pos.z);
         Vec3d pLeftA  = new Vec3d(Vec2d.mul(normalIn,  -ext).add(pos.xy()), pos.z);
 
-        int iRightA = emitter.add(new Vertex(pRightA, l1));
-        int iLeftA  = emitter.add(new Vertex(pLeftA,  l2));
-        int iInner  = emitter.add(new Vertex(pInner,  li));
-        int iCenter = emitter.add(new Vertex(pos, l0));
+        int iRightA = emitter.add(pRightA, l1);
+        int iLeftA  = emitter.add(pLeftA,  l2);
+        int iInner  = emitter.add(pInner,  li);
+        int iCenter = emitter.add(pos, l0);
 
         if (intersects) {
             if (curve > 0) {
@@ -1520,7 +1516,7 @@ public class LineMeshBuilder {
         if (miter) {                            // miter cage
             Vec3d pOuter = new Vec3d(Vec2d.mul(normalMed, -innerext).add(pos.xy()), pos.z);
             Vec3d lx = new Vec3d((float) (sin * -innerext), (float) (-ext * curve), (float) ext);
-            int iOuter = emitter.add(new Vertex(pOuter, lx));
+            int iOuter = emitter.add(pOuter, lx);
 
             if (curve > 0) {
                 emitter.emit(iLeftA);
@@ -1538,8 +1534,8 @@ public class LineMeshBuilder {
             Vec3d pOuter   = new Vec3d(Vec2d.mul(normalMed, -ext * 1.5 * curve).add(pos.xy()), pos.z);
             Vec3d pOuterAC = new Vec3d(Vec2d.mul(normalIn,  -curve * ext).add( dirIn.xy().mul(ext)).add(pos.xy()), pos.z);
 
-            int iOuter   = emitter.add(new Vertex(pOuter,   lo));
-            int iOuterAC = emitter.add(new Vertex(pOuterAC, lx));
+            int iOuter   = emitter.add(pOuter,   lo);
+            int iOuterAC = emitter.add(pOuterAC, lx);
 
             if (curve > 0) {
                 emitter.emit(iLeftA);
@@ -0,0 +1,76 @@
+package microtrafficsim.core.vis.mesh.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+
+/**
+ * Growable list of {@code int}s, stored in a direct buffer. The list can be cleared and re-used, keeping its allocated
+ * memory, e.g. to collect the indices of multiple meshes without boxing them.
+ *
+ * @author Maximilian Luz
+ */
+public class GrowableIntBuffer {
+    private IntBuffer buffer;
+
+
+    /**
+     * Constructs a new {@code GrowableIntBuffer}.
+     *
+     * @param capacity the initial number of values that can be stored without growing.
+     */
+    public GrowableIntBuffer(int capacity) {
+        this.buffer = allocate(Math.max(capacity, 1));
+    }
+
+
+    /**
+     * Appends the given value.
+     *
+     * @param value the value to append.
+     */
+    public void add(int value) {
+        if (!buffer.hasRemaining()) {
+            IntBuffer grown = allocate(buffer.capacity() * 2);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+
+        buffer.put(value);
+    }
+
+    /**
+     * Returns the number of stored values.
+     *
+     * @return the number of stored values.
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Returns the stored values as buffer. The returned buffer is a view on the internal storage, valid until this
+     * list is modified.
+     *
+     * @return the stored values.
+     */
+    public IntBuffer getBuffer() {
+        IntBuffer view = buffer.duplicate();
+        view.flip();
+        return view;
+    }
+
+    /**
+     * Removes all values, keeping the allocated memory.
+     */
+    public void clear() {
+        buffer.clear();
+    }
+
+
+    private static IntBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+}
@@ -0,0 +1,163 @@
+package microtrafficsim.core.vis.mesh.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Set of vertices consisting of a fixed number of {@code float}s each, stored consecutively in a growable direct
+ * buffer. Equal vertices are stored only once, their index is looked up using an open-addressing hash-table on the
+ * primitive values. The set can be cleared and re-used, keeping its allocated memory.
+ *
+ * @author Maximilian Luz
+ */
+public class PackedVertexSet {
+    private final int stride;
+
+    private FloatBuffer vertices;
+    private int[]       table;          // vertex-index + 1, 0 marks an empty slot
+    private int         count;
+
+
+    /**
+     * Constructs a new {@code PackedVertexSet}.
+     *
+     * @param stride   the number of {@code float}s per vertex.
+     * @param capacity the initial number of vertices that can be stored without growing.
+     */
+    public PackedVertexSet(int stride, int capacity) {
+        if (stride <= 0)
+            throw new IllegalArgumentException("It must hold: stride > 0\n" +
+                    "Current: stride = " + stride);
+
+        this.stride   = stride;
+        this.vertices = allocate(Math.max(capacity, 1) * stride);
+        this.table    = new int[Integer.highestOneBit(Math.max(capacity, 1)) * 4];
+        this.count    = 0;
+    }
+
+
+    /**
+     * Adds the given vertex if it is not already contained in this set.
+     *
+     * @param vertex the vertex to add, only its first {@code stride} values are used.
+     * @return the index of the given vertex.
+     */
+    public int add(float[] vertex) {
+        int mask = table.length - 1;
+        int slot = hash(vertex) & mask;
+
+        while (table[slot] != 0) {
+            int index = table[slot] - 1;
+            if (matches(index, vertex))
+                return index;
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (count * stride == vertices.capacity())
+            vertices = grow(vertices);
+
+        int offset = count * stride;
+        for (int i = 0; i < stride; i++)
+            vertices.put(offset + i, vertex[i]);
+
+        table[slot] = ++count;
+        if (count * 2 > table.length)
+            rehash();
+
+        return count - 1;
+    }
+
+    /**
+     * Returns the number of vertices in this set.
+     *
+     * @return the number of vertices in this set.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the stored vertices as buffer. The returned buffer is a view on the internal storage, valid until this
+     * set is modified, and contains {@code size() * stride} values.
+     *
+     * @return the stored vertices.
+     */
+    public FloatBuffer getVertices() {
+        FloatBuffer view = vertices.duplicate();
+        view.position(0);
+        view.limit(count * stride);
+        return view;
+    }
+
+    /**
+     * Removes all vertices from this set, keeping the allocated memory.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        count = 0;
+    }
+
+
+    private boolean matches(int index, float[] vertex) {
+        int offset = index * stride;
+        for (int i = 0; i < stride; i++)
+            if (vertices.get(offset + i) != vertex[i])
+                return false;
+
+        return true;
+    }
+
+    private int hash(float[] vertex) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < stride; i++)
+            hash = (hash ^ bits(vertex[i])) * 0x01000193;
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private int hash(int index) {
+        int offset = index * stride;
+
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < stride; i++)
+            hash = (hash ^ bits(vertices.get(offset + i))) * 0x01000193;
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bits(float value) {
+        return value == 0.0f ? 0 : Float.floatToIntBits(value);      // -0.0 == 0.0
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+
+        for (int index = 0; index < count; index++) {
+            int slot = hash(index) & mask;
+            while (table[slot] != 0)
+                slot = (slot + 1) & mask;
+
+            table[slot] = index + 1;
+        }
+    }
+
+    private static FloatBuffer grow(FloatBuffer buffer) {
+        FloatBuffer grown = allocate(buffer.capacity() * 2);
+
+        FloatBuffer src = buffer.duplicate();
+        src.clear();
+        grown.put(src);
+        grown.clear();
+
+        return grown;
+    }
+
+    private static FloatBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
@@ -0,0 +1,275 @@
+package microtrafficsim.core.vis.simulation;
+
+import microtrafficsim.core.entities.street.StreetEntity;
+import microtrafficsim.core.entities.vehicle.LogicVehicleEntity;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.map.PackedCoordinates;
+import microtrafficsim.core.map.features.Street;
+import microtrafficsim.core.vis.map.projections.Projection;
+import microtrafficsim.math.Vec2d;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+
+/**
+ * Uniform grid over the projected geometry of the edges of a street-graph. The index is built once and can then be
+ * used to query the edges (and thus the vehicles) intersecting a rectangle, e.g. the viewport, without visiting all
+ * edges of the graph.
+ *
+ * <p>
+ * Each edge is stored in all cells overlapped by the bounding box of its geometry, the cells are stored in a packed
+ * array. The index is immutable after construction and can thus be queried concurrently.
+ *
+ * @author Maximilian Luz
+ */
+public class EdgeIndex {
+
+    /**
+     * The average number of edges per grid-cell aimed for.
+     */
+    private static final int EDGES_PER_CELL = 4;
+    private static final int MAX_CELLS_PER_AXIS = 1024;
+
+    private final DirectedEdge[] edges;
+    private final double[]       bounds;      // (xmin, ymin, xmax, ymax) per edge
+    private final int            maxLanes;
+
+    private final double x0;
+    private final double y0;
+    private final double cellw;
+    private final double cellh;
+    private final int    nx;
+    private final int    ny;
+
+    private final int[] cellStart;            // first entry of each cell in cellEdges, one additional end-marker
+    private final int[] cellEdges;            // edge-indices, grouped by cell
+
+
+    /**
+     * Builds a new {@code EdgeIndex} for the given edges. The geometry of an edge is taken from its street entity,
+     * if no such geometry is available, the straight line between origin and destination is used.
+     *
+     * @param edges      the edges to index.
+     * @param projection the projection used to project the edge geometry.
+     */
+    public EdgeIndex(Collection<DirectedEdge> edges, Projection projection) {
+        this.edges  = edges.toArray(new DirectedEdge[edges.size()]);
+        this.bounds = new double[this.edges.length * 4];
+
+        // project edge bounds
+        double xmin = Double.POSITIVE_INFINITY;
+        double ymin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY;
+        double ymax = Double.NEGATIVE_INFINITY;
+        int lanes = 0;
+
+        for (int i = 0; i < this.edges.length; i++) {
+            lanes = Math.max(lanes, project(this.edges[i], projection, bounds, i * 4));
+
+            xmin = Math.min(xmin, bounds[i * 4]);
+            ymin = Math.min(ymin, bounds[i * 4 + 1]);
+            xmax = Math.max(xmax, bounds[i * 4 + 2]);
+            ymax = Math.max(ymax, bounds[i * 4 + 3]);
+        }
+
+        this.maxLanes = lanes;
+
+        if (this.edges.length == 0) {
+            xmin = 0.0;
+            ymin = 0.0;
+            xmax = 0.0;
+            ymax = 0.0;
+        }
+
+        // choose grid size, aiming for square cells
+        double w = Math.max(xmax - xmin, Double.MIN_NORMAL);
+        double h = Math.max(ymax - ymin, Double.MIN_NORMAL);
+        double cells = Math.max(1.0, (double) this.edges.length / EDGES_PER_CELL);
+
+        this.nx = clamp((int) Math.ceil(Math.sqrt(cells * w / h)), 1, MAX_CELLS_PER_AXIS);
+        this.ny = clamp((int) Math.ceil(cells / nx), 1, MAX_CELLS_PER_AXIS);
+        this.x0 = xmin;
+        this.y0 = ymin;
+        this.cellw = w / nx;
+        this.cellh = h / ny;
+
+        // count entries per cell
+        this.cellStart = new int[nx * ny + 1];
+        for (int i = 0; i < this.edges.length; i++) {
+            int cx0 = cellX(bounds[i * 4]);
+            int cy0 = cellY(bounds[i * 4 + 1]);
+            int cx1 = cellX(bounds[i * 4 + 2]);
+            int cy1 = cellY(bounds[i * 4 + 3]);
+
+            for (int cy = cy0; cy <= cy1; cy++)
+                for (int cx = cx0; cx <= cx1; cx++)
+                    cellStart[cy * nx + cx + 1]++;
+        }
+
+        for (int c = 0; c < nx * ny; c++)
+            cellStart[c + 1] += cellStart[c];
+
+        // fill cells
+        this.cellEdges = new int[cellStart[nx * ny]];
+        int[] fill = new int[nx * ny];
+        for (int i = 0; i < this.edges.length; i++) {
+            int cx0 = cellX(bounds[i * 4]);
+            int cy0 = cellY(bounds[i * 4 + 1]);
+            int cx1 = cellX(bounds[i * 4 + 2]);
+            int cy1 = cellY(bounds[i * 4 + 3]);
+
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int c = cy * nx + cx;
+                    cellEdges[cellStart[c] + fill[c]++] = i;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the number of indexed edges.
+     *
+     * @return the number of indexed edges.
+     */
+    public int size() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the maximum number of lanes (in both directions) of the street of any indexed edge. Vehicles are
+     * displayed with an offset to their street depending on their lane, queries should thus be expanded by this
+     * number of lane-widths.
+     *
+     * @return the maximum number of lanes of any indexed street.
+     */
+    public int getMaxLanes() {
+        return maxLanes;
+    }
+
+
+    /**
+     * Adds all edges whose bounding box intersects the given rectangle to the given collection. Each edge is added
+     * only once.
+     *
+     * @param xmin the minimum x-coordinate of the rectangle.
+     * @param ymin the minimum y-coordinate of the rectangle.
+     * @param xmax the maximum x-coordinate of the rectangle.
+     * @param ymax the maximum y-coordinate of the rectangle.
+     * @param dst  the collection to which the edges should be added.
+     */
+    public void getEdges(double xmin, double ymin, double xmax, double ymax, Collection<? super DirectedEdge> dst) {
+        forEachEdge(xmin, ymin, xmax, ymax, dst::add);
+    }
+
+    /**
+     * Adds all vehicles on the lanes of the edges whose bounding box intersects the given rectangle to the given
+     * collection. Vehicles outside of the rectangle may be added and have to be culled by the caller.
+     *
+     * @param xmin the minimum x-coordinate of the rectangle.
+     * @param ymin the minimum y-coordinate of the rectangle.
+     * @param xmax the maximum x-coordinate of the rectangle.
+     * @param ymax the maximum y-coordinate of the rectangle.
+     * @param dst  the collection to which the vehicles should be added.
+     */
+    public void getVehicles(double xmin, double ymin, double xmax, double ymax,
+                            Collection<? super LogicVehicleEntity> dst)
+    {
+        forEachEdge(xmin, ymin, xmax, ymax, edge -> {
+            for (DirectedEdge.Lane lane : edge)
+                lane.forEachVehicle(dst::add);
+        });
+    }
+
+
+    private void forEachEdge(double xmin, double ymin, double xmax, double ymax, Consumer<DirectedEdge> action) {
+        if (edges.length == 0 || xmax < xmin || ymax < ymin) return;
+
+        int cx0 = cellX(xmin);
+        int cy0 = cellY(ymin);
+        int cx1 = cellX(xmax);
+        int cy1 = cellY(ymax);
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int c = cy * nx + cx;
+
+                for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                    int i = cellEdges[k];
+
+                    double exmin = bounds[i * 4];
+                    double eymin = bounds[i * 4 + 1];
+                    double exmax = bounds[i * 4 + 2];
+                    double eymax = bounds[i * 4 + 3];
+
+                    if (exmax < xmin || exmin > xmax || eymax < ymin || eymin > ymax)
+                        continue;
+
+                    // report each edge only in the cell containing the minimum of the intersection
+                    if (cellX(Math.max(exmin, xmin)) != cx || cellY(Math.max(eymin, ymin)) != cy)
+                        continue;
+
+                    action.accept(edges[i]);
+                }
+            }
+        }
+    }
+
+    private int cellX(double x) {
+        return clamp((int) ((x - x0) / cellw), 0, nx - 1);
+    }
+
+    private int cellY(double y) {
+        return clamp((int) ((y - y0) / cellh), 0, ny - 1);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    /**
+     * Writes the projected bounding box of the given edge to {@code dst[offset]} to {@code dst[offset + 3]}.
+     *
+     * @return the number of lanes of the street of the given edge.
+     */
+    private static int project(DirectedEdge edge, Projection projection, double[] dst, int offset) {
+        StreetEntity entity = edge.getEntity();
+        Street street = entity != null ? entity.getGeometry() : null;
+
+        double xmin = Double.POSITIVE_INFINITY;
+        double ymin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY;
+        double ymax = Double.NEGATIVE_INFINITY;
+        int lanes;
+
+        if (street != null && street.coordinates.size() > 0) {
+            PackedCoordinates coords = street.coordinates;
+            for (int i = 0; i < coords.size(); i++) {
+                Vec2d p = projection.project(coords, i);
+                xmin = Math.min(xmin, p.x);
+                ymin = Math.min(ymin, p.y);
+                xmax = Math.max(xmax, p.x);
+                ymax = Math.max(ymax, p.y);
+            }
+
+            lanes = street.numLanesFwd + street.numLanesBwd;
+        } else {
+            Vec2d a = projection.project(edge.getOrigin().getCoordinate());
+            Vec2d b = projection.project(edge.getDestination().getCoordinate());
+            xmin = Math.min(a.x, b.x);
+            ymin = Math.min(a.y, b.y);
+            xmax = Math.max(a.x, b.x);
+            ymax = Math.max(a.y, b.y);
+
+            lanes = edge.getNumberOfLanes();
+        }
+
+        dst[offset]     = xmin;
+        dst[offset + 1] = ymin;
+        dst[offset + 2] = xmax;
+        dst[offset + 3] = ymax;
+        return lanes;
+    }
+}
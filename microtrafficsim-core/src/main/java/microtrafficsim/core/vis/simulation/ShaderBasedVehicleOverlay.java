@@ -2,6 +2,7 @@ package microtrafficsim.core.vis.simulation;
 
 import com.jogamp.opengl.GL3;
 import microtrafficsim.core.entities.vehicle.LogicVehicleEntity;
+import microtrafficsim.core.logic.streetgraph.Graph;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.map.Coordinate;
 import microtrafficsim.core.map.MapProperties;
@@ -31,7 +32,6 @@ import microtrafficsim.utils.resources.PackagedResource;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
 
 
 // TODO: shader based anti-aliasing in fragment-shader?
@@ -77,6 +77,10 @@ public class ShaderBasedVehicleOverlay implements VehicleOverlay {
 
     private boolean enabled;
 
+    private Graph                         indexedGraph;
+    private EdgeIndex                     edgeIndex;
+    private ArrayList<LogicVehicleEntity> vehicles;
+
     private UniformMat4f uView;
     private UniformMat4f uProjection;
 
@@ -105,6 +109,10 @@ public class ShaderBasedVehicleOverlay implements VehicleOverlay {
         this.uVehicleScale = null;
 
         this.enabled = true;
+
+        this.indexedGraph = null;
+        this.edgeIndex    = null;
+        this.vehicles     = new ArrayList<>();
     }
 
     @Override
@@ -223,10 +231,14 @@ public class ShaderBasedVehicleOverlay implements VehicleOverlay {
         Rect2d viewrect = view.getViewportBounds();
         Rect2d ndcrect = new Rect2d(-1.0, -1.0, 1.0, 1.0);
 
-        // update vehicle list
-        Collection<? extends LogicVehicleEntity>
-                vehicles = new ArrayList<>(simulation.getScenario().getVehicleContainer().getSpawnedVehicles());
-        int                                      len      = vehicles.size();
+        // update vehicle list, only visit vehicles on edges near the viewport
+        EdgeIndex index  = getEdgeIndex();
+        double    margin = lanewidth * (index.getMaxLanes() + 1);
+
+        vehicles.clear();
+        index.getVehicles(left - margin, bottom - margin, right + margin, top + margin, vehicles);
+
+        int len = vehicles.size();
         if (len == 0) return;
 
         // orphan last buffer and load it to a new one
@@ -265,7 +277,7 @@ public class ShaderBasedVehicleOverlay implements VehicleOverlay {
             buffer.putFloat((float) pos.y);
             buffer.putFloat((float) dir.x);
             buffer.putFloat((float) dir.y);
-            buffer.putInt(v.getBaseColor().toIntABGR());
+            buffer.putInt(v.getColor().toIntABGR());
             vehicleCount++;
         }
 
@@ -312,7 +324,9 @@ public class ShaderBasedVehicleOverlay implements VehicleOverlay {
 
     @Override
     public void setSimulation(Simulation simulation) {
-        this.simulation = simulation;
+        this.simulation   = simulation;
+        this.indexedGraph = null;
+        this.edgeIndex    = null;
     }
 
     @Override
@@ -321,6 +335,22 @@ public class ShaderBasedVehicleOverlay implements VehicleOverlay {
     }
 
 
+    /**
+     * Returns the spatial index of the edges of the displayed graph, (re-)builds it if the graph has changed.
+     *
+     * @return the edge-index of the currently displayed graph.
+     */
+    private EdgeIndex getEdgeIndex() {
+        Graph graph = simulation.getScenario().getGraph();
+
+        if (edgeIndex == null || indexedGraph != graph) {
+            edgeIndex    = new EdgeIndex(graph.getEdges(), projection);
+            indexedGraph = graph;
+        }
+
+        return edgeIndex;
+    }
+
     private Vec2f getVehicleSize(double zoom, double zoomMax) {
         final double slowdecaylevel = 15.0;
 
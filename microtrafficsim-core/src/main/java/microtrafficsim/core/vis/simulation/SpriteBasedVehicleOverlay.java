@@ -2,6 +2,7 @@ package microtrafficsim.core.vis.simulation;
 
 import com.jogamp.opengl.GL3;
 import microtrafficsim.core.entities.vehicle.LogicVehicleEntity;
+import microtrafficsim.core.logic.streetgraph.Graph;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.map.Coordinate;
 import microtrafficsim.core.map.MapProperties;
@@ -31,7 +32,6 @@ import microtrafficsim.utils.resources.PackagedResource;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
 
 
 /**
@@ -75,6 +75,10 @@ public class SpriteBasedVehicleOverlay implements VehicleOverlay {
 
     private boolean enabled;
 
+    private Graph                         indexedGraph;
+    private EdgeIndex                     edgeIndex;
+    private ArrayList<LogicVehicleEntity> vehicles;
+
     private UniformMat4f uView;
     private UniformMat4f uProjection;
 
@@ -101,6 +105,10 @@ public class SpriteBasedVehicleOverlay implements VehicleOverlay {
 
         this.enabled = true;
 
+        this.indexedGraph = null;
+        this.edgeIndex    = null;
+        this.vehicles     = new ArrayList<>();
+
         this.uView = null;
         this.uProjection = null;
     }
@@ -252,10 +260,14 @@ public class SpriteBasedVehicleOverlay implements VehicleOverlay {
         Rect2d viewrect = view.getViewportBounds();
         Rect2d ndcrect = new Rect2d(-1.0, -1.0, 1.0, 1.0);
 
-        // update vehicle list
-        Collection<? extends LogicVehicleEntity>
-                vehicles = new ArrayList<>(simulation.getScenario().getVehicleContainer().getSpawnedVehicles());
-        int len          = vehicles.size();
+        // update vehicle list, only visit vehicles on edges near the viewport
+        EdgeIndex index  = getEdgeIndex();
+        double    margin = lanewidth * (index.getMaxLanes() + 1);
+
+        vehicles.clear();
+        index.getVehicles(left - margin, bottom - margin, right + margin, top + margin, vehicles);
+
+        int len = vehicles.size();
         if (len == 0) return;
 
         // orphan last buffer and load it to a new one
@@ -295,7 +307,7 @@ public class SpriteBasedVehicleOverlay implements VehicleOverlay {
             buffer.putFloat((float) v.getLayer());
             buffer.putFloat((float) dir.x);
             buffer.putFloat((float) dir.y);
-            buffer.putInt(v.getBaseColor().toIntABGR());
+            buffer.putInt(v.getColor().toIntABGR());
             vehicleCount++;
         }
 
@@ -353,7 +365,9 @@ public class SpriteBasedVehicleOverlay implements VehicleOverlay {
 
     @Override
     public void setSimulation(Simulation simulation) {
-        this.simulation = simulation;
+        this.simulation   = simulation;
+        this.indexedGraph = null;
+        this.edgeIndex    = null;
     }
 
     public VisVehicleFactory getVehicleFactory() {
@@ -361,6 +375,22 @@ public class SpriteBasedVehicleOverlay implements VehicleOverlay {
     }
 
 
+    /**
+     * Returns the spatial index of the edges of the displayed graph, (re-)builds it if the graph has changed.
+     *
+     * @return the edge-index of the currently displayed graph.
+     */
+    private EdgeIndex getEdgeIndex() {
+        Graph graph = simulation.getScenario().getGraph();
+
+        if (edgeIndex == null || indexedGraph != graph) {
+            edgeIndex    = new EdgeIndex(graph.getEdges(), projection);
+            indexedGraph = graph;
+        }
+
+        return edgeIndex;
+    }
+
     private float getVehicleSize(double zoom, double zoomMax) {
         final double slowdecaylevel = 15.0;
 
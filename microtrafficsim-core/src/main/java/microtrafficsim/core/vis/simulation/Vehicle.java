@@ -4,7 +4,9 @@ import microtrafficsim.core.entities.vehicle.VehicleEntity;
 import microtrafficsim.core.entities.vehicle.VisualizationVehicleEntity;
 import microtrafficsim.core.logic.streets.DirectedEdge;
 import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.core.map.features.Street;
+import microtrafficsim.core.map.style.VehicleStyleSheet;
 import microtrafficsim.core.vis.opengl.utils.Color;
 
 
@@ -21,6 +23,8 @@ public class Vehicle implements VisualizationVehicleEntity {
 
     private Color         color;
 
+    private final VehicleColorCache styleColor;
+
     private Coordinate    position;
     private Coordinate    target;
     private double        layer;
@@ -41,6 +45,8 @@ public class Vehicle implements VisualizationVehicleEntity {
         this.position = new Coordinate(0, 0);
         this.color    = color;
 
+        this.styleColor = new VehicleColorCache();
+
         target = new Coordinate(1, 1);
     }
 
@@ -62,6 +68,23 @@ public class Vehicle implements VisualizationVehicleEntity {
     @Override
     public void setBaseColor(Color color) {
         this.color = color;
+        styleColor.invalidate();
+    }
+
+    /**
+     * Returns the color of this vehicle for drawing it now. The style of the logic vehicle is only evaluated if an
+     * attribute the color depends on has changed since the last evaluation (see
+     * {@link VehicleStyleSheet#getColorDependencies()}). Thus, overlays should call this method once per frame and
+     * only for the vehicles they draw.
+     *
+     * @return the current color of this vehicle; the base color if the logic vehicle has no style
+     */
+    public Color getColor() {
+        if (entity == null)
+            return color;
+
+        color = styleColor.get(entity.getLogic(), color);
+        return color;
     }
 
     @Override
@@ -72,9 +95,10 @@ public class Vehicle implements VisualizationVehicleEntity {
 
         double pos = (entity.getLogic().getCellPosition() + 0.5f) * (geom.length / edge.getLength());
 
-        Coordinate a;
-        Coordinate b;
-        Coordinate c;
+        PackedCoordinates coords = geom.coordinates;
+        int a;
+        int b;
+        int c;
 
         double dSegment   = 0;
         double dToSegment = 0;
@@ -91,10 +115,10 @@ public class Vehicle implements VisualizationVehicleEntity {
                 dToSegment = nd;
             }
 
-            a = geom.coordinates[segment];
-            b = geom.coordinates[segment + 1];
-            if (segment + 2 < geom.coordinates.length)
-                c = geom.coordinates[segment + 2];
+            a = segment;
+            b = segment + 1;
+            if (segment + 2 < coords.size())
+                c = segment + 2;
             else
                 c = b;
 
@@ -110,10 +134,10 @@ public class Vehicle implements VisualizationVehicleEntity {
                 dToSegment = nd;
             }
 
-            a = geom.coordinates[segment + 1];
-            b = geom.coordinates[segment];
+            a = segment + 1;
+            b = segment;
             if (segment - 1 >= 0)
-                c = geom.coordinates[segment - 1];
+                c = segment - 1;
             else
                 c = b;
         }
@@ -121,16 +145,14 @@ public class Vehicle implements VisualizationVehicleEntity {
         double pSegment = pos - dToSegment;
 
         if (dSegment - pSegment < MIN_TARGET_DISTANCE) {
-            target.lat = c.lat;
-            target.lon = c.lon;
+            coords.get(c, target);
         } else {
-            target.lat = b.lat;
-            target.lon = b.lon;
+            coords.get(b, target);
         }
 
         pSegment /= dSegment;
-        position.lat = a.lat + (b.lat - a.lat) * pSegment;
-        position.lon = a.lon + (b.lon - a.lon) * pSegment;
+        position.lat = coords.getLat(a) + (coords.getLat(b) - coords.getLat(a)) * pSegment;
+        position.lon = coords.getLon(a) + (coords.getLon(b) - coords.getLon(a)) * pSegment;
 
         isStreetBidirectional = edge.getEntity().getForwardEdge() != null && edge.getEntity().getBackwardEdge() != null;
         this.edge = edge;
@@ -0,0 +1,73 @@
+package microtrafficsim.core.vis.simulation;
+
+import microtrafficsim.core.entities.vehicle.LogicVehicleEntity;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.map.style.VehicleStyleSheet;
+import microtrafficsim.core.map.style.VehicleStyleSheet.ColorDependency;
+import microtrafficsim.core.vis.opengl.utils.Color;
+
+import java.util.Set;
+
+
+/**
+ * Lazily evaluated color of one visualized vehicle. The style of the logic vehicle is only evaluated if an attribute
+ * the color depends on has changed since the last evaluation (see {@link VehicleStyleSheet#getColorDependencies()}).
+ *
+ * @author Maximilian Luz
+ */
+class VehicleColorCache {
+
+    private Color             color;
+    private VehicleStyleSheet style;
+    private long              stamp;
+
+
+    /**
+     * Constructs a new, invalid {@code VehicleColorCache}.
+     */
+    VehicleColorCache() {
+        this.color = null;
+        this.style = null;
+        this.stamp = 0;
+    }
+
+
+    /**
+     * Invalidates the cached color, so the style is evaluated on the next call to {@link #get(LogicVehicleEntity,
+     * Color)}.
+     */
+    void invalidate() {
+        style = null;
+    }
+
+    /**
+     * Returns the color of the given vehicle, evaluating its style only if necessary.
+     *
+     * @param logic    the logic vehicle.
+     * @param fallback the color to use if the logic vehicle has no style.
+     * @return the current color of the given vehicle.
+     */
+    Color get(LogicVehicleEntity logic, Color fallback) {
+        if (!(logic instanceof Vehicle))
+            return fallback;
+
+        Vehicle vehicle = (Vehicle) logic;
+        VehicleStyleSheet style = vehicle.getStyle();
+        if (style == null)
+            return fallback;
+
+        Set<ColorDependency> dependencies = style.getColorDependencies();
+        long stamp = 0;
+        if (dependencies.contains(ColorDependency.VELOCITY))
+            stamp = vehicle.getVelocity();
+        if (dependencies.contains(ColorDependency.ANGER))
+            stamp = (stamp << 32) ^ vehicle.getDriver().getAnger();
+
+        if (style != this.style || stamp != this.stamp || dependencies.contains(ColorDependency.UNKNOWN)) {
+            this.color = style.getColor(vehicle);
+            this.style = style;
+            this.stamp = stamp;
+        }
+        return color;
+    }
+}
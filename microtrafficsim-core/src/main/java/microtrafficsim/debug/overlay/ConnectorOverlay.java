@@ -4,7 +4,7 @@ import com.jogamp.opengl.GL3;
 import microtrafficsim.core.logic.nodes.Node;
 import microtrafficsim.core.logic.streetgraph.Graph;
 import microtrafficsim.core.logic.streets.DirectedEdge;
-import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
 import microtrafficsim.core.map.MapProperties;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
 import microtrafficsim.core.vis.Overlay;
@@ -226,23 +226,23 @@ public class ConnectorOverlay implements Overlay {
         Vec2d dirTo;
 
         if (fromEdge.getEntity().getForwardEdge() == fromEdge) {
-            Coordinate[] coordinates = fromEdge.getEntity().getGeometry().coordinates;
-            pos = projection.project(coordinates[coordinates.length - 1]);
-            dirFrom = projection.project(coordinates[coordinates.length - 2]).sub(pos).normalize();
+            PackedCoordinates coordinates = fromEdge.getEntity().getGeometry().coordinates;
+            pos = projection.project(coordinates, coordinates.size() - 1);
+            dirFrom = projection.project(coordinates, coordinates.size() - 2).sub(pos).normalize();
         } else {
-            Coordinate[] coordinates = fromEdge.getEntity().getGeometry().coordinates;
-            pos = projection.project(coordinates[0]);
-            dirFrom = projection.project(coordinates[1]).sub(pos).normalize();
+            PackedCoordinates coordinates = fromEdge.getEntity().getGeometry().coordinates;
+            pos = projection.project(coordinates, 0);
+            dirFrom = projection.project(coordinates, 1).sub(pos).normalize();
         }
 
         if (toEdge.getEntity().getForwardEdge() == toEdge) {
-            Coordinate[] coordinates = toEdge.getEntity().getGeometry().coordinates;
-            Vec2d p = projection.project(coordinates[0]);
-            dirTo = projection.project(coordinates[1]).sub(p).normalize();
+            PackedCoordinates coordinates = toEdge.getEntity().getGeometry().coordinates;
+            Vec2d p = projection.project(coordinates, 0);
+            dirTo = projection.project(coordinates, 1).sub(p).normalize();
         } else {
-            Coordinate[] coordinates = toEdge.getEntity().getGeometry().coordinates;
-            Vec2d p = projection.project(coordinates[coordinates.length - 1]);
-            dirTo = projection.project(coordinates[coordinates.length - 2]).sub(p).normalize();
+            PackedCoordinates coordinates = toEdge.getEntity().getGeometry().coordinates;
+            Vec2d p = projection.project(coordinates, coordinates.size() - 1);
+            dirTo = projection.project(coordinates, coordinates.size() - 2).sub(p).normalize();
         }
 
         Vec2d dirFrom90 = new Vec2d(-dirFrom.y, dirFrom.x);
@@ -294,13 +294,13 @@ public class ConnectorOverlay implements Overlay {
         Vec2d dir;
 
         if (fromEdge.getEntity().getForwardEdge() == fromEdge) {
-            Coordinate[] coordinates = fromEdge.getEntity().getGeometry().coordinates;
-            pos = projection.project(coordinates[coordinates.length - 1]);
-            dir = projection.project(coordinates[coordinates.length - 2]).sub(pos).normalize();
+            PackedCoordinates coordinates = fromEdge.getEntity().getGeometry().coordinates;
+            pos = projection.project(coordinates, coordinates.size() - 1);
+            dir = projection.project(coordinates, coordinates.size() - 2).sub(pos).normalize();
         } else {
-            Coordinate[] coordinates = fromEdge.getEntity().getGeometry().coordinates;
-            pos = projection.project(coordinates[0]);
-            dir = projection.project(coordinates[1]).sub(pos).normalize();
+            PackedCoordinates coordinates = fromEdge.getEntity().getGeometry().coordinates;
+            pos = projection.project(coordinates, 0);
+            dir = projection.project(coordinates, 1).sub(pos).normalize();
         }
 
         Vec2d dir90 = new Vec2d(-dir.y, dir.x);
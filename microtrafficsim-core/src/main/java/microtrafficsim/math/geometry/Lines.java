@@ -3,6 +3,10 @@ package microtrafficsim.math.geometry;
 
 import microtrafficsim.math.Vec2d;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
 public class Lines {
     private Lines() {}
 
@@ -42,4 +46,247 @@ public class Lines {
         return true;
     }
 
+    /**
+     * Simplifies the given open polyline, see {@link #simplify(Vec2d[], double, boolean)}.
+     *
+     * @param line      the polyline to simplify.
+     * @param tolerance the maximum distance of a removed vertex to the simplified line.
+     * @return the simplified polyline, or {@code line} itself if no vertex has been removed.
+     */
+    public static Vec2d[] simplify(Vec2d[] line, double tolerance) {
+        return simplify(line, tolerance, false);
+    }
+
+    /**
+     * Simplifies the given polyline using the Douglas-Peucker algorithm. The first and the last vertex are always
+     * kept, thus lines connected at their end-points stay connected.
+     * <p>
+     * Plain Douglas-Peucker may let the simplified line intersect itself, e.g. if two parts of a concave polygon come
+     * close to each other. Thus segments of the simplified line intersecting or touching other (non-adjacent) segments
+     * are split again at their farthest removed vertex until no such segment is left. Intersections already contained
+     * in the given line are kept.
+     *
+     * @param line      the polyline to simplify.
+     * @param tolerance the maximum distance of a removed vertex to the simplified line.
+     * @param closed    if {@code true}, the line is a polygon outline whose last vertex is connected to its first one.
+     * @return the simplified polyline, or {@code line} itself if no vertex has been removed.
+     */
+    public static Vec2d[] simplify(Vec2d[] line, double tolerance, boolean closed) {
+        if (line.length <= 2 || tolerance <= 0.0)
+            return line;
+
+        boolean[] keep = new boolean[line.length];
+        keep[0] = true;
+        keep[line.length - 1] = true;
+        simplify(line, tolerance * tolerance, keep);
+
+        // split the intersecting segments until the simplified line is as simple as the given one
+        boolean split = true;
+        while (split) {
+            split = false;
+
+            int[] kept = getKeptIndices(keep);
+            boolean[] intersecting = getIntersectingSegments(line, kept, closed);
+            for (int i = 0; i < kept.length - 1; i++) {
+                if (!intersecting[i]) continue;
+
+                int max = getFarthestVertex(line, kept[i], kept[i + 1], -1.0);
+                if (max != -1) {
+                    keep[max] = true;
+                    split = true;
+                }
+            }
+        }
+
+        int[] kept = getKeptIndices(keep);
+        if (kept.length == line.length)
+            return line;
+
+        Vec2d[] result = new Vec2d[kept.length];
+        for (int i = 0; i < kept.length; i++)
+            result[i] = line[kept[i]];
+
+        return result;
+    }
+
+    /**
+     * Marks the vertices kept by the Douglas-Peucker algorithm between the first and the last vertex.
+     */
+    private static void simplify(Vec2d[] line, double tolsq, boolean[] keep) {
+        int[] stack = new int[line.length * 2];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = line.length - 1;
+
+        while (top > 0) {
+            int b = stack[--top];
+            int a = stack[--top];
+
+            int max = getFarthestVertex(line, a, b, tolsq);
+            if (max != -1) {
+                keep[max] = true;
+
+                stack[top++] = a;
+                stack[top++] = max;
+                stack[top++] = max;
+                stack[top++] = b;
+            }
+        }
+    }
+
+    /**
+     * Returns the vertex between {@code a} and {@code b} farthest from the segment {@code (a, b)}.
+     *
+     * @return the index of the farthest vertex, or {@code -1} if no vertex is farther away than {@code sqrt(minsq)}.
+     */
+    private static int getFarthestVertex(Vec2d[] line, int a, int b, double minsq) {
+        int    max  = -1;
+        double dmax = minsq;
+        for (int i = a + 1; i < b; i++) {
+            double d = segmentDistanceSq(line[a], line[b], line[i]);
+            if (d > dmax) {
+                dmax = d;
+                max  = i;
+            }
+        }
+
+        return max;
+    }
+
+    private static int[] getKeptIndices(boolean[] keep) {
+        int count = 0;
+        for (boolean k : keep)
+            if (k) count++;
+
+        int[] kept = new int[count];
+        for (int i = 0, j = 0; i < keep.length; i++)
+            if (keep[i])
+                kept[j++] = i;
+
+        return kept;
+    }
+
+    /**
+     * Returns which segments of the simplified line intersect or touch another segment. Segment {@code i} connects
+     * the kept vertices {@code i} and {@code i + 1}, the closing segment of a closed line is the last one. Adjacent
+     * segments only intersect if they overlap. The segments are swept in order of their minimum x-coordinate, so only
+     * segments overlapping in x are tested against each other.
+     *
+     * @param line   the full polyline.
+     * @param kept   the indices of the vertices of the simplified line.
+     * @param closed if {@code true}, the closing segment is tested as well.
+     * @return {@code true} at the index of every intersecting segment.
+     */
+    private static boolean[] getIntersectingSegments(Vec2d[] line, int[] kept, boolean closed) {
+        int nSegments = closed ? kept.length : kept.length - 1;
+        boolean[] intersecting = new boolean[nSegments];
+
+        // an open line ending where it starts (e.g. a roundabout) is connected at its end-points
+        boolean ring = closed || line[0].equals(line[line.length - 1]);
+
+        Vec2d[] from = new Vec2d[nSegments];
+        Vec2d[] to   = new Vec2d[nSegments];
+        Integer[] order = new Integer[nSegments];
+        for (int i = 0; i < nSegments; i++) {
+            from[i]  = line[kept[i]];
+            to[i]    = line[kept[(i + 1) % kept.length]];
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> Math.min(from[i].x, to[i].x)));
+
+        ArrayList<Integer> active = new ArrayList<>();
+        for (int i : order) {
+            double xmin = Math.min(from[i].x, to[i].x);
+            double ymin = Math.min(from[i].y, to[i].y);
+            double ymax = Math.max(from[i].y, to[i].y);
+            active.removeIf(j -> Math.max(from[j].x, to[j].x) < xmin);
+
+            for (int j : active) {
+                if (Math.max(from[j].y, to[j].y) < ymin || Math.min(from[j].y, to[j].y) > ymax)
+                    continue;
+
+                boolean hit;
+                if (Math.abs(i - j) == 1) {
+                    int first = Math.min(i, j);
+                    hit = segmentsOverlap(from[first], to[first], to[first + 1]);
+                } else if (ring && Math.abs(i - j) == nSegments - 1) {
+                    int last = Math.max(i, j);
+                    hit = segmentsOverlap(from[last], to[last], to[0]);
+                } else {
+                    hit = segmentsIntersect(from[i], to[i], from[j], to[j]);
+                }
+
+                if (hit) {
+                    intersecting[i] = true;
+                    intersecting[j] = true;
+                }
+            }
+
+            active.add(i);
+        }
+
+        return intersecting;
+    }
+
+    /**
+     * Checks if the adjacent segments {@code (a, v)} and {@code (v, c)} overlap, i.e. if the line turns back on
+     * itself at {@code v}.
+     */
+    private static boolean segmentsOverlap(Vec2d a, Vec2d v, Vec2d c) {
+        double ax = a.x - v.x;
+        double ay = a.y - v.y;
+        double cx = c.x - v.x;
+        double cy = c.y - v.y;
+
+        return ax * cy - ay * cx == 0.0 && ax * cx + ay * cy > 0.0;
+    }
+
+    /**
+     * Checks if the line segments (p, q) described by the given vertex-pairs intersect or touch, including their
+     * end-points and (partially) coincidental segments.
+     */
+    private static boolean segmentsIntersect(Vec2d pa, Vec2d pb, Vec2d qa, Vec2d qb) {
+        double d1 = orientation(qa, qb, pa);
+        double d2 = orientation(qa, qb, pb);
+        double d3 = orientation(pa, pb, qa);
+        double d4 = orientation(pa, pb, qb);
+
+        if (d1 * d2 < 0.0 && d3 * d4 < 0.0)
+            return true;
+
+        return (d1 == 0.0 && isInBounds(qa, qb, pa))
+                || (d2 == 0.0 && isInBounds(qa, qb, pb))
+                || (d3 == 0.0 && isInBounds(pa, pb, qa))
+                || (d4 == 0.0 && isInBounds(pa, pb, qb));
+    }
+
+    private static double orientation(Vec2d a, Vec2d b, Vec2d p) {
+        return (b.x - a.x) * (p.y - a.y) - (b.y - a.y) * (p.x - a.x);
+    }
+
+    private static boolean isInBounds(Vec2d a, Vec2d b, Vec2d p) {
+        return Math.min(a.x, b.x) <= p.x && p.x <= Math.max(a.x, b.x)
+                && Math.min(a.y, b.y) <= p.y && p.y <= Math.max(a.y, b.y);
+    }
+
+    /**
+     * Returns the squared distance of point {@code p} to the line segment {@code (a, b)}.
+     *
+     * @param a the first vertex of the segment.
+     * @param b the second vertex of the segment.
+     * @param p the point.
+     * @return the squared distance of {@code p} to the segment.
+     */
+    public static double segmentDistanceSq(Vec2d a, Vec2d b, Vec2d p) {
+        double dx = b.x - a.x;
+        double dy = b.y - a.y;
+
+        double len = dx * dx + dy * dy;
+        double t = len > 0.0 ? ((p.x - a.x) * dx + (p.y - a.y) * dy) / len : 0.0;
+        t = Math.max(0.0, Math.min(1.0, t));
+
+        double px = a.x + t * dx - p.x;
+        double py = a.y + t * dy - p.y;
+        return px * px + py * py;
+    }
 }
@@ -0,0 +1,722 @@
+package microtrafficsim.math.geometry.polygons;
+
+import microtrafficsim.math.Vec2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+/**
+ * Polygon triangulator based on ear-clipping, following the approach of Mapbox' earcut. Islands are merged into the
+ * outline by bridge-edges, ears are looked up using a z-order curve for larger polygons. If the polygon is not simple,
+ * local self-intersections are cured and the polygon is split along valid diagonals as fallback.
+ * <p>
+ * In contrast to the {@link SweepLineTriangulator}, this triangulator works on primitive arrays only and produces no
+ * additional vertices, its worst-case run-time is however quadratic.
+ *
+ * @author Maximilian Luz
+ */
+public final class EarClippingTriangulator implements Triangulator {
+
+    /**
+     * Number of vertices from which on ears are looked up using a z-order curve.
+     */
+    private static final int HASHING_THRESHOLD = 80;
+
+
+    /**
+     * Triangulates the given polygon.
+     *
+     * @param polygon the polygon to triangulate.
+     * @return the triangulated polygon as {@code Result}, its vertices are the vertices of the outline followed by the
+     *         vertices of the islands. This method will never return {@code null}.
+     */
+    @Override
+    public Result triangulate(Polygon polygon) {
+        int len = polygon.outline.length;
+        for (Vec2d[] island : polygon.islands)
+            len += island.length;
+
+        double[] coords  = new double[len * 2];
+        int[]    islands = new int[polygon.islands.length];
+        ArrayList<Vec2d> vertices = new ArrayList<>(len);
+
+        int n = put(coords, 0, polygon.outline, vertices);
+        for (int i = 0; i < polygon.islands.length; i++) {
+            islands[i] = n;
+            n = put(coords, n, polygon.islands[i], vertices);
+        }
+
+        int[] triangles = triangulate(coords, islands);
+
+        ArrayList<Integer> indices = new ArrayList<>(triangles.length);
+        for (int i : triangles)
+            indices.add(i);
+
+        return new Result(vertices, indices);
+    }
+
+    /**
+     * Triangulates the polygon described by the given coordinates.
+     *
+     * @param coords  the coordinates of the polygon as {@code [x0, y0, x1, y1, ...]}, the outline followed by the
+     *                islands. The first vertex of a loop should not be repeated as its last vertex.
+     * @param islands the indices of the first vertex of each island (i.e. the index in {@code coords} divided by two).
+     * @return the generated triangles as index-triples pointing to the vertices of {@code coords}.
+     */
+    public int[] triangulate(double[] coords, int[] islands) {
+        return new State(coords).triangulate(islands);
+    }
+
+    private static int put(double[] coords, int offset, Vec2d[] loop, ArrayList<Vec2d> vertices) {
+        for (Vec2d v : loop) {
+            coords[offset * 2]     = v.x;
+            coords[offset * 2 + 1] = v.y;
+            vertices.add(v);
+            offset++;
+        }
+        return offset;
+    }
+
+
+    /**
+     * State of a single triangulation. Vertices are stored as nodes of a doubly-linked list (and of the z-order list),
+     * both using indices into primitive arrays, {@code -1} represents {@code null}.
+     */
+    private static final class State {
+        private final double[] coords;
+
+        private int[]     index;
+        private double[]  x;
+        private double[]  y;
+        private int[]     prev;
+        private int[]     next;
+        private int[]     z;
+        private int[]     prevZ;
+        private int[]     nextZ;
+        private boolean[] steiner;
+        private int       nodes;
+
+        private int[] triangles;
+        private int   ntriangles;
+
+        private double minX;
+        private double minY;
+        private double invSize;
+
+        private State(double[] coords) {
+            this.coords = coords;
+
+            int capacity = coords.length / 2 + 8;
+            this.index   = new int[capacity];
+            this.x       = new double[capacity];
+            this.y       = new double[capacity];
+            this.prev    = new int[capacity];
+            this.next    = new int[capacity];
+            this.z       = new int[capacity];
+            this.prevZ   = new int[capacity];
+            this.nextZ   = new int[capacity];
+            this.steiner = new boolean[capacity];
+            this.nodes   = 0;
+
+            this.triangles  = new int[Math.max(coords.length / 2 - 2, 1) * 3];
+            this.ntriangles = 0;
+        }
+
+
+        private int[] triangulate(int[] islands) {
+            int outerLen = islands.length > 0 ? islands[0] * 2 : coords.length;
+            int outer = linkedList(0, outerLen, true);
+            if (outer == -1 || next[outer] == prev[outer])
+                return new int[0];
+
+            if (islands.length > 0)
+                outer = eliminateHoles(islands, outer);
+
+            if (coords.length > HASHING_THRESHOLD * 2) {
+                minX = coords[0];
+                minY = coords[1];
+                double maxX = minX;
+                double maxY = minY;
+
+                for (int i = 2; i < outerLen; i += 2) {
+                    minX = Math.min(minX, coords[i]);
+                    minY = Math.min(minY, coords[i + 1]);
+                    maxX = Math.max(maxX, coords[i]);
+                    maxY = Math.max(maxY, coords[i + 1]);
+                }
+
+                invSize = Math.max(maxX - minX, maxY - minY);
+                invSize = invSize != 0.0 ? 32767.0 / invSize : 0.0;
+            }
+
+            earcut(outer, 0);
+            return Arrays.copyOf(triangles, ntriangles);
+        }
+
+
+        /* -- linked list --------------------------------------------------------------------------------------- */
+
+        private int linkedList(int start, int end, boolean clockwise) {
+            int last = -1;
+
+            if (clockwise == (signedArea(start, end) > 0)) {
+                for (int i = start; i < end; i += 2)
+                    last = insert(i / 2, coords[i], coords[i + 1], last);
+            } else {
+                for (int i = end - 2; i >= start; i -= 2)
+                    last = insert(i / 2, coords[i], coords[i + 1], last);
+            }
+
+            if (last != -1 && equals(last, next[last])) {
+                remove(last);
+                last = next[last];
+            }
+
+            return last;
+        }
+
+        private double signedArea(int start, int end) {
+            double sum = 0.0;
+            for (int i = start, j = end - 2; i < end; i += 2) {
+                sum += (coords[j] - coords[i]) * (coords[i + 1] + coords[j + 1]);
+                j = i;
+            }
+            return sum;
+        }
+
+        private int create(int i, double px, double py) {
+            if (nodes == index.length) {
+                int capacity = nodes * 2;
+                index   = Arrays.copyOf(index, capacity);
+                x       = Arrays.copyOf(x, capacity);
+                y       = Arrays.copyOf(y, capacity);
+                prev    = Arrays.copyOf(prev, capacity);
+                next    = Arrays.copyOf(next, capacity);
+                z       = Arrays.copyOf(z, capacity);
+                prevZ   = Arrays.copyOf(prevZ, capacity);
+                nextZ   = Arrays.copyOf(nextZ, capacity);
+                steiner = Arrays.copyOf(steiner, capacity);
+            }
+
+            int p = nodes++;
+            index[p]   = i;
+            x[p]       = px;
+            y[p]       = py;
+            prev[p]    = -1;
+            next[p]    = -1;
+            z[p]       = 0;
+            prevZ[p]   = -1;
+            nextZ[p]   = -1;
+            steiner[p] = false;
+            return p;
+        }
+
+        private int insert(int i, double px, double py, int last) {
+            int p = create(i, px, py);
+
+            if (last == -1) {
+                prev[p] = p;
+                next[p] = p;
+            } else {
+                next[p] = next[last];
+                prev[p] = last;
+                prev[next[last]] = p;
+                next[last] = p;
+            }
+
+            return p;
+        }
+
+        private void remove(int p) {
+            prev[next[p]] = prev[p];
+            next[prev[p]] = next[p];
+
+            if (prevZ[p] != -1) nextZ[prevZ[p]] = nextZ[p];
+            if (nextZ[p] != -1) prevZ[nextZ[p]] = prevZ[p];
+        }
+
+        private int filterPoints(int start, int end) {
+            if (start == -1) return start;
+            if (end == -1) end = start;
+
+            int p = start;
+            boolean again;
+            do {
+                again = false;
+
+                if (!steiner[p] && (equals(p, next[p]) || area(prev[p], p, next[p]) == 0.0)) {
+                    remove(p);
+                    p = end = prev[p];
+                    if (p == next[p]) break;
+                    again = true;
+                } else {
+                    p = next[p];
+                }
+            } while (again || p != end);
+
+            return end;
+        }
+
+        private int splitPolygon(int a, int b) {
+            int a2 = create(index[a], x[a], y[a]);
+            int b2 = create(index[b], x[b], y[b]);
+            int an = next[a];
+            int bp = prev[b];
+
+            next[a] = b;
+            prev[b] = a;
+
+            next[a2] = an;
+            prev[an] = a2;
+
+            next[b2] = a2;
+            prev[a2] = b2;
+
+            next[bp] = b2;
+            prev[b2] = bp;
+
+            return b2;
+        }
+
+
+        /* -- ear clipping -------------------------------------------------------------------------------------- */
+
+        private void earcut(int ear, int pass) {
+            if (ear == -1) return;
+            if (pass == 0 && invSize != 0.0) indexCurve(ear);
+
+            int stop = ear;
+            while (prev[ear] != next[ear]) {
+                int p = prev[ear];
+                int n = next[ear];
+
+                if (invSize != 0.0 ? isEarHashed(ear) : isEar(ear)) {
+                    emit(index[p], index[ear], index[n]);
+                    remove(ear);
+
+                    ear  = next[n];
+                    stop = next[n];
+                    continue;
+                }
+
+                ear = n;
+
+                if (ear == stop) {
+                    if (pass == 0) {
+                        earcut(filterPoints(ear, -1), 1);
+                    } else if (pass == 1) {
+                        ear = cureLocalIntersections(filterPoints(ear, -1));
+                        earcut(ear, 2);
+                    } else {
+                        splitEarcut(ear);
+                    }
+                    break;
+                }
+            }
+        }
+
+        private boolean isEar(int ear) {
+            int a = prev[ear];
+            int b = ear;
+            int c = next[ear];
+
+            if (area(a, b, c) >= 0.0) return false;
+
+            double x0 = Math.min(x[a], Math.min(x[b], x[c]));
+            double y0 = Math.min(y[a], Math.min(y[b], y[c]));
+            double x1 = Math.max(x[a], Math.max(x[b], x[c]));
+            double y1 = Math.max(y[a], Math.max(y[b], y[c]));
+
+            int p = next[c];
+            while (p != a) {
+                if (x[p] >= x0 && x[p] <= x1 && y[p] >= y0 && y[p] <= y1
+                        && pointInTriangle(x[a], y[a], x[b], y[b], x[c], y[c], x[p], y[p])
+                        && area(prev[p], p, next[p]) >= 0.0)
+                    return false;
+
+                p = next[p];
+            }
+
+            return true;
+        }
+
+        private boolean isEarHashed(int ear) {
+            int a = prev[ear];
+            int b = ear;
+            int c = next[ear];
+
+            if (area(a, b, c) >= 0.0) return false;
+
+            double x0 = Math.min(x[a], Math.min(x[b], x[c]));
+            double y0 = Math.min(y[a], Math.min(y[b], y[c]));
+            double x1 = Math.max(x[a], Math.max(x[b], x[c]));
+            double y1 = Math.max(y[a], Math.max(y[b], y[c]));
+
+            int minZ = zOrder(x0, y0);
+            int maxZ = zOrder(x1, y1);
+
+            int p = prevZ[ear];
+            int n = nextZ[ear];
+
+            while (p != -1 && z[p] >= minZ && n != -1 && z[n] <= maxZ) {
+                if (blocks(p, a, b, c, x0, y0, x1, y1)) return false;
+                p = prevZ[p];
+
+                if (blocks(n, a, b, c, x0, y0, x1, y1)) return false;
+                n = nextZ[n];
+            }
+
+            while (p != -1 && z[p] >= minZ) {
+                if (blocks(p, a, b, c, x0, y0, x1, y1)) return false;
+                p = prevZ[p];
+            }
+
+            while (n != -1 && z[n] <= maxZ) {
+                if (blocks(n, a, b, c, x0, y0, x1, y1)) return false;
+                n = nextZ[n];
+            }
+
+            return true;
+        }
+
+        /**
+         * Checks if the (reflex) node {@code p} lies inside the triangle {@code (a, b, c)}, preventing it from being
+         * an ear.
+         */
+        private boolean blocks(int p, int a, int b, int c, double x0, double y0, double x1, double y1) {
+            return x[p] >= x0 && x[p] <= x1 && y[p] >= y0 && y[p] <= y1 && p != a && p != c
+                    && pointInTriangle(x[a], y[a], x[b], y[b], x[c], y[c], x[p], y[p])
+                    && area(prev[p], p, next[p]) >= 0.0;
+        }
+
+        private int cureLocalIntersections(int start) {
+            int p = start;
+            do {
+                int a = prev[p];
+                int b = next[next[p]];
+
+                if (!equals(a, b) && intersects(a, p, next[p], b) && locallyInside(a, b) && locallyInside(b, a)) {
+                    emit(index[a], index[p], index[b]);
+
+                    remove(p);
+                    remove(next[p]);
+
+                    p = start = b;
+                }
+                p = next[p];
+            } while (p != start);
+
+            return filterPoints(p, -1);
+        }
+
+        private void splitEarcut(int start) {
+            int a = start;
+            do {
+                int b = next[next[a]];
+                while (b != prev[a]) {
+                    if (index[a] != index[b] && isValidDiagonal(a, b)) {
+                        int c = splitPolygon(a, b);
+
+                        a = filterPoints(a, next[a]);
+                        c = filterPoints(c, next[c]);
+
+                        earcut(a, 0);
+                        earcut(c, 0);
+                        return;
+                    }
+                    b = next[b];
+                }
+                a = next[a];
+            } while (a != start);
+        }
+
+        private void emit(int a, int b, int c) {
+            if (ntriangles + 3 > triangles.length)
+                triangles = Arrays.copyOf(triangles, Math.max(triangles.length * 2, ntriangles + 3));
+
+            triangles[ntriangles++] = a;
+            triangles[ntriangles++] = b;
+            triangles[ntriangles++] = c;
+        }
+
+
+        /* -- islands ------------------------------------------------------------------------------------------- */
+
+        private int eliminateHoles(int[] islands, int outer) {
+            int[] queue = new int[islands.length];
+
+            for (int i = 0; i < islands.length; i++) {
+                int start = islands[i] * 2;
+                int end   = i < islands.length - 1 ? islands[i + 1] * 2 : coords.length;
+
+                int list = linkedList(start, end, false);
+                if (list == -1) {
+                    queue[i] = -1;
+                    continue;
+                }
+
+                if (list == next[list])
+                    steiner[list] = true;
+
+                queue[i] = getLeftmost(list);
+            }
+
+            Integer[] sorted = new Integer[queue.length];
+            int count = 0;
+            for (int q : queue)
+                if (q != -1)
+                    sorted[count++] = q;
+
+            Arrays.sort(sorted, 0, count, (a, b) -> Double.compare(x[a], x[b]));
+
+            for (int i = 0; i < count; i++)
+                outer = eliminateHole(sorted[i], outer);
+
+            return outer;
+        }
+
+        private int eliminateHole(int hole, int outer) {
+            int bridge = findHoleBridge(hole, outer);
+            if (bridge == -1)
+                return outer;
+
+            int bridgeReverse = splitPolygon(bridge, hole);
+            filterPoints(bridgeReverse, next[bridgeReverse]);
+            return filterPoints(bridge, next[bridge]);
+        }
+
+        private int findHoleBridge(int hole, int outer) {
+            double hx = x[hole];
+            double hy = y[hole];
+            double qx = Double.NEGATIVE_INFINITY;
+            int m = -1;
+
+            // find a segment intersected by a ray from the hole's leftmost point to the left
+            int p = outer;
+            do {
+                int n = next[p];
+                if (hy <= y[p] && hy >= y[n] && y[n] != y[p]) {
+                    double sx = x[p] + (hy - y[p]) * (x[n] - x[p]) / (y[n] - y[p]);
+                    if (sx <= hx && sx > qx) {
+                        qx = sx;
+                        m  = x[p] < x[n] ? p : n;
+                        if (sx == hx) return m;     // hole touches outer segment
+                    }
+                }
+                p = n;
+            } while (p != outer);
+
+            if (m == -1) return -1;
+
+            // look for points inside the triangle of hole point, segment intersection and endpoint, if there are
+            // none, the endpoint is the bridge, otherwise use the point with the minimum angle to the ray
+            int    stop   = m;
+            double mx     = x[m];
+            double my     = y[m];
+            double tanMin = Double.POSITIVE_INFINITY;
+
+            p = m;
+            do {
+                if (hx >= x[p] && x[p] >= mx && hx != x[p]
+                        && pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, x[p], y[p])) {
+
+                    double tan = Math.abs(hy - y[p]) / (hx - x[p]);
+
+                    if (locallyInside(p, hole) && (tan < tanMin || (tan == tanMin
+                            && (x[p] > x[m] || (x[p] == x[m] && sectorContainsSector(m, p)))))) {
+                        m = p;
+                        tanMin = tan;
+                    }
+                }
+                p = next[p];
+            } while (p != stop);
+
+            return m;
+        }
+
+        private boolean sectorContainsSector(int m, int p) {
+            return area(prev[m], m, prev[p]) < 0.0 && area(next[p], m, next[m]) < 0.0;
+        }
+
+        private int getLeftmost(int start) {
+            int p = start;
+            int leftmost = start;
+            do {
+                if (x[p] < x[leftmost] || (x[p] == x[leftmost] && y[p] < y[leftmost]))
+                    leftmost = p;
+                p = next[p];
+            } while (p != start);
+
+            return leftmost;
+        }
+
+
+        /* -- z-order curve ------------------------------------------------------------------------------------- */
+
+        private void indexCurve(int start) {
+            int p = start;
+            do {
+                if (z[p] == 0) z[p] = zOrder(x[p], y[p]);
+                prevZ[p] = prev[p];
+                nextZ[p] = next[p];
+                p = next[p];
+            } while (p != start);
+
+            nextZ[prevZ[p]] = -1;
+            prevZ[p] = -1;
+
+            sortLinked(p);
+        }
+
+        private void sortLinked(int list) {
+            int inSize = 1;
+            int numMerges;
+
+            do {
+                int p = list;
+                int tail = -1;
+                list = -1;
+                numMerges = 0;
+
+                while (p != -1) {
+                    numMerges++;
+
+                    int q = p;
+                    int pSize = 0;
+                    for (int i = 0; i < inSize; i++) {
+                        pSize++;
+                        q = nextZ[q];
+                        if (q == -1) break;
+                    }
+
+                    int qSize = inSize;
+                    while (pSize > 0 || (qSize > 0 && q != -1)) {
+                        int e;
+                        if (pSize != 0 && (qSize == 0 || q == -1 || z[p] <= z[q])) {
+                            e = p;
+                            p = nextZ[p];
+                            pSize--;
+                        } else {
+                            e = q;
+                            q = nextZ[q];
+                            qSize--;
+                        }
+
+                        if (tail != -1) nextZ[tail] = e;
+                        else list = e;
+
+                        prevZ[e] = tail;
+                        tail = e;
+                    }
+
+                    p = q;
+                }
+
+                nextZ[tail] = -1;
+                inSize *= 2;
+            } while (numMerges > 1);
+        }
+
+        private int zOrder(double px, double py) {
+            int ix = (int) ((px - minX) * invSize);
+            int iy = (int) ((py - minY) * invSize);
+
+            ix = (ix | (ix << 8)) & 0x00FF00FF;
+            ix = (ix | (ix << 4)) & 0x0F0F0F0F;
+            ix = (ix | (ix << 2)) & 0x33333333;
+            ix = (ix | (ix << 1)) & 0x55555555;
+
+            iy = (iy | (iy << 8)) & 0x00FF00FF;
+            iy = (iy | (iy << 4)) & 0x0F0F0F0F;
+            iy = (iy | (iy << 2)) & 0x33333333;
+            iy = (iy | (iy << 1)) & 0x55555555;
+
+            return ix | (iy << 1);
+        }
+
+
+        /* -- geometric predicates ------------------------------------------------------------------------------ */
+
+        private double area(int p, int q, int r) {
+            return (y[q] - y[p]) * (x[r] - x[q]) - (x[q] - x[p]) * (y[r] - y[q]);
+        }
+
+        private boolean equals(int p, int q) {
+            return x[p] == x[q] && y[p] == y[q];
+        }
+
+        private static boolean pointInTriangle(double ax, double ay, double bx, double by, double cx, double cy,
+                                               double px, double py) {
+            return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+                    && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+                    && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+        }
+
+        private boolean isValidDiagonal(int a, int b) {
+            return index[next[a]] != index[b] && index[prev[a]] != index[b] && !intersectsPolygon(a, b)
+                    && (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b)
+                            && (area(prev[a], a, prev[b]) != 0.0 || area(a, prev[b], b) != 0.0)
+                        || equals(a, b) && area(prev[a], a, next[a]) > 0.0 && area(prev[b], b, next[b]) > 0.0);
+        }
+
+        private boolean intersects(int p1, int q1, int p2, int q2) {
+            double o1 = Math.signum(area(p1, q1, p2));
+            double o2 = Math.signum(area(p1, q1, q2));
+            double o3 = Math.signum(area(p2, q2, p1));
+            double o4 = Math.signum(area(p2, q2, q1));
+
+            if (o1 != o2 && o3 != o4) return true;
+
+            if (o1 == 0.0 && onSegment(p1, p2, q1)) return true;
+            if (o2 == 0.0 && onSegment(p1, q2, q1)) return true;
+            if (o3 == 0.0 && onSegment(p2, p1, q2)) return true;
+            if (o4 == 0.0 && onSegment(p2, q1, q2)) return true;
+
+            return false;
+        }
+
+        private boolean onSegment(int p, int q, int r) {
+            return x[q] <= Math.max(x[p], x[r]) && x[q] >= Math.min(x[p], x[r])
+                    && y[q] <= Math.max(y[p], y[r]) && y[q] >= Math.min(y[p], y[r]);
+        }
+
+        private boolean intersectsPolygon(int a, int b) {
+            int p = a;
+            do {
+                int n = next[p];
+                if (index[p] != index[a] && index[n] != index[a] && index[p] != index[b] && index[n] != index[b]
+                        && intersects(p, n, a, b))
+                    return true;
+
+                p = n;
+            } while (p != a);
+
+            return false;
+        }
+
+        private boolean locallyInside(int a, int b) {
+            return area(prev[a], a, next[a]) < 0.0
+                    ? area(a, b, next[a]) >= 0.0 && area(a, prev[a], b) >= 0.0
+                    : area(a, b, prev[a]) < 0.0 || area(a, next[a], b) < 0.0;
+        }
+
+        private boolean middleInside(int a, int b) {
+            double px = (x[a] + x[b]) / 2.0;
+            double py = (y[a] + y[b]) / 2.0;
+
+            boolean inside = false;
+            int p = a;
+            do {
+                int n = next[p];
+                if (((y[p] > py) != (y[n] > py)) && y[n] != y[p]
+                        && (px < (x[n] - x[p]) * (py - y[p]) / (y[n] - y[p]) + x[p]))
+                    inside = !inside;
+
+                p = n;
+            } while (p != a);
+
+            return inside;
+        }
+    }
+}
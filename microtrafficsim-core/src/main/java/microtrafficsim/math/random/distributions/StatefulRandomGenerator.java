@@ -0,0 +1,55 @@
+package microtrafficsim.math.random.distributions;
+
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.math.random.distributions.impl.SplitMixRandom;
+
+/**
+ * A {@link RandomGenerator} whose whole internal state is one {@code long}. Thus the state can be stored (e.g. in
+ * checkpoints or messages between shards) and set again without changing the generated numbers.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public interface StatefulRandomGenerator extends RandomGenerator {
+
+    /**
+     * @return the current internal state; setting it later using {@link #setState(long)} continues the sequence of
+     * generated numbers from this point on
+     */
+    long getState();
+
+    /**
+     * Sets the internal state without changing the seed, so {@link #reset()} still resets to the seed's state.
+     *
+     * @param state returned by {@link #getState()} of a generator of the same type with equal seed
+     */
+    void setState(long state);
+
+    /**
+     * @return the type creating generators of this class
+     */
+    Type getType();
+
+
+    /**
+     * The implementations of {@code StatefulRandomGenerator}: <br>
+     * &bull; {@link #JAVA} {@link Random}, generating the same numbers as {@link java.util.Random} <br>
+     * &bull; {@link #SPLIT_MIX} {@link SplitMixRandom}, supporting jumps ahead; its draws are slower than
+     * {@link #JAVA}'s, but per-vehicle seeds can be split off in any order
+     */
+    enum Type {
+        JAVA {
+            @Override
+            public StatefulRandomGenerator create(long seed) {
+                return new Random(seed);
+            }
+        },
+        SPLIT_MIX {
+            @Override
+            public StatefulRandomGenerator create(long seed) {
+                return new SplitMixRandom(seed);
+            }
+        };
+
+        public abstract StatefulRandomGenerator create(long seed);
+    }
+}
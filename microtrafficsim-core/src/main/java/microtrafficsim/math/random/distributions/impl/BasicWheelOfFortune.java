@@ -1,5 +1,6 @@
 package microtrafficsim.math.random.distributions.impl;
 
+import microtrafficsim.math.random.distributions.RandomGenerator;
 import microtrafficsim.math.random.distributions.WheelOfFortune;
 import microtrafficsim.utils.collections.PrioritySkipListSet;
 import microtrafficsim.utils.collections.SkipList;
@@ -8,13 +9,13 @@ import java.util.*;
 
 /**
  * Basic implementation using a {@link PrioritySkipListSet} comparing by the objects' hashcodes. For the random number
- * generator used for {@link #nextObject()}, {@link Random} is used.
+ * generator used for {@link #nextObject()}, {@link Random} is used by default.
  *
  * @author Dominic Parga Cacheiro
  */
 public class BasicWheelOfFortune<T> implements WheelOfFortune<T> {
 
-    private Random random;
+    private RandomGenerator random;
     private SkipList<T> elements;
     private TreeMap<T, Integer> fields;
     private int n;
@@ -27,7 +28,7 @@ public class BasicWheelOfFortune<T> implements WheelOfFortune<T> {
      * Important if random reference is important
      * @param random
      */
-    public BasicWheelOfFortune(Random random) {
+    public BasicWheelOfFortune(RandomGenerator random) {
         this(random, null);
     }
 
@@ -35,7 +36,7 @@ public class BasicWheelOfFortune<T> implements WheelOfFortune<T> {
         this(new Random(seed), comparator);
     }
 
-    public BasicWheelOfFortune(Random random, Comparator<? super T> comparator) {
+    public BasicWheelOfFortune(RandomGenerator random, Comparator<? super T> comparator) {
         this.random = random;
         elements    = new PrioritySkipListSet<>(comparator);
         fields      = new TreeMap<>(comparator);
@@ -1,16 +1,18 @@
 package microtrafficsim.math.random.distributions.impl;
 
-import microtrafficsim.math.random.distributions.RandomGenerator;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
 
 /**
- * Just a wrapper class for Javas {@code Random} class ensuring seed resetting.
+ * Just a wrapper class for Javas {@code Random} class ensuring seed resetting. In addition, the internal state can be
+ * read and set (e.g. for checkpoints) without changing the generated numbers. Unlike {@link java.util.Random}, this
+ * class is not thread-safe.
  *
  * @author Dominic Parga Cacheiro
  */
-public class Random implements RandomGenerator {
+public class Random implements StatefulRandomGenerator {
 
     private long seed;
-    private java.util.Random random;
+    private StatefulRandom random;
     private static volatile long seedUniquifier = 8682522807148012L;
 
     /**
@@ -32,6 +34,27 @@ public class Random implements RandomGenerator {
         return ++seedUniquifier + System.nanoTime();
     }
 
+    /*
+    |=============================|
+    | (i) StatefulRandomGenerator |
+    |=============================|
+    */
+    @Override
+    public long getState() {
+        return random.state;
+    }
+
+    @Override
+    public void setState(long state) {
+        random.state = state;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.JAVA;
+    }
+
+
     /*
     |=====================|
     | (i) RandomGenerator |
@@ -48,7 +71,7 @@ public class Random implements RandomGenerator {
     @Override
     public void setSeed(long seed) {
         this.seed = seed;
-        random = new java.util.Random(seed);
+        random = new StatefulRandom(seed);
     }
 
     @Override
@@ -123,4 +146,42 @@ public class Random implements RandomGenerator {
     public float nextFloat() {
         return random.nextFloat();
     }
+
+
+    /**
+     * <p>
+     * Generates exactly the same numbers as {@link java.util.Random}, but stores its state accessible.
+     *
+     * <p>
+     * In contrast to {@link java.util.Random}, this class is NOT thread-safe: its state is a plain field instead of an
+     * atomic one, so it must only be used by one thread at a time (like the surrounding generator).
+     */
+    private static class StatefulRandom extends java.util.Random {
+        private static final long serialVersionUID = -2364390837316542519L;
+
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND     = 0xBL;
+        private static final long MASK       = (1L << 48) - 1;
+
+        private long state;
+
+        private StatefulRandom(long seed) {
+            super(seed);
+        }
+
+        /**
+         * Is called by the super constructor as well.
+         */
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            state = (seed ^ MULTIPLIER) & MASK;
+        }
+
+        @Override
+        protected int next(int bits) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int) (state >>> (48 - bits));
+        }
+    }
 }
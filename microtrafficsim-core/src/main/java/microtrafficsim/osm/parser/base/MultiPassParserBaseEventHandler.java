@@ -9,6 +9,7 @@ import microtrafficsim.osm.parser.features.FeatureMatcher;
 import microtrafficsim.osm.parser.relations.RelationBase;
 import microtrafficsim.osm.parser.relations.RelationFactory;
 import microtrafficsim.osm.primitives.Node;
+import microtrafficsim.osm.primitives.Primitive;
 import microtrafficsim.osm.primitives.Relation;
 import microtrafficsim.osm.primitives.Way;
 import microtrafficsim.utils.Resettable;
@@ -136,6 +137,26 @@ public class MultiPassParserBaseEventHandler implements ParserBaseEventHandler,
     }
 
 
+    @Override
+    public boolean isRequired(Primitive.Type type, long id) {
+        if (pass == 0) {
+            // relations are abstracted by the relation-factory, independent of features
+            return type == Primitive.Type.RELATION || matcher.isTagIndependent(type);
+        }
+
+        switch (type) {
+        case NODE: return requiredNodes.contains(id);
+        case WAY:  return requiredWays.contains(id);
+        default:   return false;
+        }
+    }
+
+    @Override
+    public boolean isCandidateTag(Primitive.Type type, String key, String value) {
+        return pass == 0 && matcher.isCandidateTag(type, key, value);
+    }
+
+
     @Override
     public void onStart() {}
 
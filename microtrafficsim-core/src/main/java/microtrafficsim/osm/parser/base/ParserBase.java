@@ -8,13 +8,15 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Map;
 
 
 /**
  * A OpenStreetMap XML parser base, providing functionality for extracting
- * OpenStreetMap primitives (elements).
+ * OpenStreetMap primitives (elements). Tags and node-references are buffered
+ * while streaming, the primitives are only created for elements which are
+ * required by the {@code ParserBaseEventHandler} or have a candidate tag.
  *
  * @author Maximilian Luz
  */
@@ -22,6 +24,12 @@ public class ParserBase {
 
     private ParserBaseEventHandler handler;
 
+    /* buffers reused for every element, the primitives are only created if required */
+    private final ArrayList<String> tagKeys;
+    private final ArrayList<String> tagValues;
+    private long[]                  nodeRefs;
+    private int                     nodeRefCount;
+
     /**
      * Constructs a new {@code ParserBase} using the specified handler.
      *
@@ -29,6 +37,10 @@ public class ParserBase {
      */
     public ParserBase(ParserBaseEventHandler handler) {
         this.handler = handler;
+
+        this.tagKeys   = new ArrayList<>();
+        this.tagValues = new ArrayList<>();
+        this.nodeRefs  = new long[64];
     }
 
 
@@ -100,18 +112,20 @@ public class ParserBase {
      */
     private void parseNode(XMLStreamReader reader) throws XMLStreamException {
         long    id      = Long.parseLong(reader.getAttributeValue(null, "id"));
-        double  lat     = Double.parseDouble(reader.getAttributeValue(null, "lat"));
-        double  lon     = Double.parseDouble(reader.getAttributeValue(null, "lon"));
+        String  lat     = reader.getAttributeValue(null, "lat");
+        String  lon     = reader.getAttributeValue(null, "lon");
         boolean visible = parseOptionalBoolean(reader.getAttributeValue(null, "visible"), true);
 
-        HashMap<String, String> tags = new HashMap<>();
+        boolean required = handler.isRequired(Primitive.Type.NODE, id);
+        clearTags();
 
         int level = 1;
         while (reader.hasNext() && level > 0) {
             switch (reader.next()) {
             case XMLStreamReader.START_ELEMENT:
                 level++;
-                if (reader.getLocalName().equals("tag")) parseTag(reader, tags);
+                if (reader.getLocalName().equals("tag"))
+                    required |= parseTag(reader, Primitive.Type.NODE, required);
                 break;
 
             case XMLStreamReader.END_ELEMENT: level--; break;
@@ -120,7 +134,9 @@ public class ParserBase {
             }
         }
 
-        handler.onPrimitiveParsed(new Node(id, lat, lon, visible, tags));
+        if (!required) return;
+
+        handler.onPrimitiveParsed(new Node(id, Double.parseDouble(lat), Double.parseDouble(lon), visible, getTags()));
     }
 
     /**
@@ -134,8 +150,9 @@ public class ParserBase {
         long    id      = Long.parseLong(reader.getAttributeValue(null, "id"));
         boolean visible = parseOptionalBoolean(reader.getAttributeValue(null, "visible"), true);
 
-        ArrayList<Long> nodes = new ArrayList<>();
-        HashMap<String, String> tags = new HashMap<>();
+        boolean required = handler.isRequired(Primitive.Type.WAY, id);
+        clearTags();
+        nodeRefCount = 0;
 
         int level = 0;
         while (reader.hasNext() && level >= 0) {
@@ -145,9 +162,9 @@ public class ParserBase {
 
                 String name = reader.getLocalName();
                 if (name.equals("nd"))
-                    nodes.add(Long.parseLong(reader.getAttributeValue(null, "ref")));
+                    addNodeRef(Long.parseLong(reader.getAttributeValue(null, "ref")));
                 else if (name.equals("tag"))
-                    parseTag(reader, tags);
+                    required |= parseTag(reader, Primitive.Type.WAY, required);
 
                 break;
 
@@ -155,7 +172,13 @@ public class ParserBase {
             }
         }
 
-        handler.onPrimitiveParsed(new Way(id, visible, nodes, tags));
+        if (!required) return;
+
+        ArrayList<Long> nodes = new ArrayList<>(nodeRefCount);
+        for (int i = 0; i < nodeRefCount; i++)
+            nodes.add(nodeRefs[i]);
+
+        handler.onPrimitiveParsed(new Way(id, visible, nodes, getTags()));
     }
 
     /**
@@ -169,8 +192,10 @@ public class ParserBase {
         long    id      = Long.parseLong(reader.getAttributeValue(null, "id"));
         boolean visible = parseOptionalBoolean(reader.getAttributeValue(null, "visible"), true);
 
+        boolean required = handler.isRequired(Primitive.Type.RELATION, id);
+        clearTags();
+
         ArrayList<RelationMember> members = new ArrayList<>();
-        HashMap<String, String> tags = new HashMap<>();
 
         int level = 0;
         while (reader.hasNext() && level >= 0) {
@@ -182,7 +207,7 @@ public class ParserBase {
                 if (name.equals("member"))
                     members.add(parseRelationMember(reader));
                 else if (name.equals("tag"))
-                    parseTag(reader, tags);
+                    required |= parseTag(reader, Primitive.Type.RELATION, required);
 
                 break;
 
@@ -190,9 +215,10 @@ public class ParserBase {
             }
         }
 
-        handler.onPrimitiveParsed(new Relation(id, visible, members, tags));
-    }
+        if (!required) return;
 
+        handler.onPrimitiveParsed(new Relation(id, visible, members, getTags()));
+    }
 
     /**
      * Parse a {@code RelationMember} object from the given {@code
@@ -220,16 +246,54 @@ public class ParserBase {
 
     /**
      * Parse a OpenStreetMap tag from the given {@code XMLStreamReader} and
-     * insert it in the given {@code Map}.
+     * append it to the tag-buffer.
      *
-     * @param reader the {@code XMLStreamReader} from which to read.
-     * @param tags   the {@code Map} in which to insert the tag.
+     * @param reader   the {@code XMLStreamReader} from which to read.
+     * @param type     the type of the element containing the tag.
+     * @param required {@code true} if the element is already known to be
+     *                 required, the handler is not asked in this case.
+     * @return {@code true} if the tag is a candidate tag of the given type.
      * @throws XMLStreamException
      */
-    private void parseTag(XMLStreamReader reader, Map<String, String> tags) throws XMLStreamException {
+    private boolean parseTag(XMLStreamReader reader, Primitive.Type type, boolean required)
+            throws XMLStreamException {
         String k = reader.getAttributeValue(null, "k");
         String v = reader.getAttributeValue(null, "v");
-        tags.put(k, v);
+        tagKeys.add(k);
+        tagValues.add(v);
+
+        return !required && handler.isCandidateTag(type, k, v);
+    }
+
+    /**
+     * Clears the tag-buffer.
+     */
+    private void clearTags() {
+        tagKeys.clear();
+        tagValues.clear();
+    }
+
+    /**
+     * Creates a new {@code Map} containing the tags of the tag-buffer.
+     *
+     * @return the buffered tags.
+     */
+    private HashMap<String, String> getTags() {
+        HashMap<String, String> tags = new HashMap<>();
+        for (int i = 0; i < tagKeys.size(); i++)
+            tags.put(tagKeys.get(i), tagValues.get(i));
+        return tags;
+    }
+
+    /**
+     * Appends the given node-reference to the node-buffer.
+     *
+     * @param ref the id of the referenced node.
+     */
+    private void addNodeRef(long ref) {
+        if (nodeRefCount == nodeRefs.length)
+            nodeRefs = Arrays.copyOf(nodeRefs, nodeRefs.length * 2);
+        nodeRefs[nodeRefCount++] = ref;
     }
 
 
@@ -2,6 +2,7 @@ package microtrafficsim.osm.parser.base;
 
 import microtrafficsim.core.map.Bounds;
 import microtrafficsim.osm.primitives.Node;
+import microtrafficsim.osm.primitives.Primitive;
 import microtrafficsim.osm.primitives.Relation;
 import microtrafficsim.osm.primitives.Way;
 
@@ -55,4 +56,31 @@ public interface ParserBaseEventHandler {
      * @param r the {@code Relation} object which has been parsed.
      */
     void onPrimitiveParsed(Relation r);
+
+
+    /**
+     * Checks if the element with the given type and id has to be created independent of its tags. The
+     * {@code ParserBase} only creates elements (and calls the callback-functions) which are required or have at least
+     * one {@link #isCandidateTag(Primitive.Type, String, String) candidate tag}.
+     *
+     * @param type the type of the element.
+     * @param id   the id of the element.
+     * @return {@code true} if the element has to be created.
+     */
+    default boolean isRequired(Primitive.Type type, long id) {
+        return true;
+    }
+
+    /**
+     * Checks if an element with the given type and tag has to be created.
+     *
+     * @param type  the type of the element.
+     * @param key   the key of the tag.
+     * @param value the value of the tag.
+     * @return {@code true} if elements with the given tag have to be created.
+     * @see #isRequired(Primitive.Type, long)
+     */
+    default boolean isCandidateTag(Primitive.Type type, String key, String value) {
+        return true;
+    }
 }
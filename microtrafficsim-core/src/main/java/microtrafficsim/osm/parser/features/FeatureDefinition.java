@@ -90,8 +90,8 @@ public class FeatureDefinition {
         this.name        = name;
         this.generator   = generator;
         this.dependency  = dependency;
-        this.nodeMatcher = nodeMatcher != null ? nodeMatcher : n -> false;
-        this.wayMatcher  = wayMatcher != null ? wayMatcher : n -> false;
+        this.nodeMatcher = nodeMatcher != null ? nodeMatcher : TagPredicate.none();
+        this.wayMatcher  = wayMatcher != null ? wayMatcher : TagPredicate.none();
 
         if (generator != null) {
             this.nodeComponents = new HashSet<>(generator.getRequiredNodeComponents());
@@ -150,6 +150,26 @@ public class FeatureDefinition {
         return wayMatcher.test(w);
     }
 
+    /**
+     * Returns the predicate specifying which nodes belong to this definition. If it is a {@link TagPredicate}, nodes
+     * without a candidate tag are skipped by the parser.
+     *
+     * @return the predicate used to match nodes.
+     */
+    public Predicate<Node> getNodeMatcher() {
+        return nodeMatcher;
+    }
+
+    /**
+     * Returns the predicate specifying which ways belong to this definition. If it is a {@link TagPredicate}, ways
+     * without a candidate tag are skipped by the parser.
+     *
+     * @return the predicate used to match ways.
+     */
+    public Predicate<Way> getWayMatcher() {
+        return wayMatcher;
+    }
+
     /**
      * Returns all component-types which should be initialized on any node that
      * matches this feature-definition in the data-abstraction phase.
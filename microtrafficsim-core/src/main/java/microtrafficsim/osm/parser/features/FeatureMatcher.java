@@ -1,6 +1,7 @@
 package microtrafficsim.osm.parser.features;
 
 import microtrafficsim.osm.primitives.Node;
+import microtrafficsim.osm.primitives.Primitive;
 import microtrafficsim.osm.primitives.Way;
 
 import java.util.Set;
@@ -28,4 +29,28 @@ public interface FeatureMatcher {
      * @return the set of feature-definitions that match the specified Way.
      */
     Set<FeatureDefinition> getFeatures(Way w);
+
+    /**
+     * Checks if primitives of the given type have to be tested independent of their tags, i.e. if a primitive without
+     * any candidate tag may match a feature-definition.
+     *
+     * @param type the type of the primitives.
+     * @return {@code true} if every primitive of the given type has to be tested.
+     */
+    default boolean isTagIndependent(Primitive.Type type) {
+        return true;
+    }
+
+    /**
+     * Checks if a primitive of the given type having the given tag may match a feature-definition. Primitives without
+     * any candidate tag can be skipped before they are created, unless {@link #isTagIndependent(Primitive.Type)}.
+     *
+     * @param type  the type of the primitive.
+     * @param key   the key of the tag.
+     * @param value the value of the tag.
+     * @return {@code true} if the given tag is a candidate tag for primitives of the given type.
+     */
+    default boolean isCandidateTag(Primitive.Type type, String key, String value) {
+        return true;
+    }
 }
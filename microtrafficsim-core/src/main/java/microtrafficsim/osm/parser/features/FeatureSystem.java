@@ -1,12 +1,12 @@
 package microtrafficsim.osm.parser.features;
 
 import microtrafficsim.osm.primitives.Node;
+import microtrafficsim.osm.primitives.Primitive;
 import microtrafficsim.osm.primitives.Way;
 import microtrafficsim.utils.logging.EasyMarkableLogger;
 import org.slf4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 
 /**
@@ -20,6 +20,10 @@ public class FeatureSystem implements FeatureMatcher {
 
     private HashMap<String, FeatureDefinition> features;
 
+    /* compiled from the features' matchers, reset when the features change */
+    private TagDecisionTable<Node> nodeTable;
+    private TagDecisionTable<Way>  wayTable;
+
 
     /**
      * Creates a new, empty {@code FeatureSystem}.
@@ -37,6 +41,7 @@ public class FeatureSystem implements FeatureMatcher {
      * definition's name.
      */
     public FeatureDefinition putFeature(FeatureDefinition feature) {
+        invalidateTables();
         return this.features.put(feature.getName(), feature);
     }
 
@@ -47,6 +52,7 @@ public class FeatureSystem implements FeatureMatcher {
      * @param features the {@code FeatureDefinitions} to register.
      */
     public void putFeatures(Collection<? extends FeatureDefinition> features) {
+        invalidateTables();
         for (FeatureDefinition def : features)
             this.features.put(def.getName(), def);
     }
@@ -69,6 +75,7 @@ public class FeatureSystem implements FeatureMatcher {
      * specified name.
      */
     public FeatureDefinition removeFeature(String name) {
+        invalidateTables();
         return this.features.remove(name);
     }
 
@@ -166,14 +173,61 @@ public class FeatureSystem implements FeatureMatcher {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the definitions having a candidate tag of the given node and the ones without {@code TagPredicate} are
+     * tested. The returned set is empty and unmodifiable if no definition matches.
+     */
     @Override
     public Set<FeatureDefinition> getFeatures(Node n) {
-        return features.values().stream().filter(d -> d.matches(n)).collect(Collectors.toSet());
+        return getNodeTable().getFeatures(n, n.tags);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the definitions having a candidate tag of the given way and the ones without {@code TagPredicate} are
+     * tested. The returned set is empty and unmodifiable if no definition matches.
+     */
     @Override
     public Set<FeatureDefinition> getFeatures(Way w) {
-        return features.values().stream().filter(d -> d.matches(w)).collect(Collectors.toSet());
+        return getWayTable().getFeatures(w, w.tags);
+    }
+
+    @Override
+    public boolean isTagIndependent(Primitive.Type type) {
+        switch (type) {
+        case NODE: return getNodeTable().hasUnconditionalMatchers();
+        case WAY:  return getWayTable().hasUnconditionalMatchers();
+        default:   return true;
+        }
+    }
+
+    @Override
+    public boolean isCandidateTag(Primitive.Type type, String key, String value) {
+        switch (type) {
+        case NODE: return getNodeTable().isCandidateTag(key, value);
+        case WAY:  return getWayTable().isCandidateTag(key, value);
+        default:   return true;
+        }
+    }
+
+    private TagDecisionTable<Node> getNodeTable() {
+        if (nodeTable == null)
+            nodeTable = new TagDecisionTable<>(features.values(), FeatureDefinition::getNodeMatcher);
+        return nodeTable;
+    }
+
+    private TagDecisionTable<Way> getWayTable() {
+        if (wayTable == null)
+            wayTable = new TagDecisionTable<>(features.values(), FeatureDefinition::getWayMatcher);
+        return wayTable;
+    }
+
+    private void invalidateTables() {
+        nodeTable = null;
+        wayTable  = null;
     }
 
 
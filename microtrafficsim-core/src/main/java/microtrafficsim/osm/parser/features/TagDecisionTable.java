@@ -0,0 +1,157 @@
+package microtrafficsim.osm.parser.features;
+
+import microtrafficsim.osm.primitives.Primitive;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * Decision table compiled from the matchers of multiple {@code FeatureDefinition}s for one type of primitives. The
+ * candidate tags of all {@code TagPredicate}s are associated by their key, so the definitions possibly
+ * matching a primitive are found by looking up its tags. Definitions with other predicates are tested on every
+ * primitive.
+ *
+ * @param <T> the type of the primitives matched by this table.
+ * @author Maximilian Luz
+ */
+class TagDecisionTable<T extends Primitive> {
+
+    private final HashMap<String, KeyEntry> keys;
+    private final FeatureDefinition[]       unconditional;
+    private final Predicate<T>[]            unconditionalMatchers;
+
+
+    /**
+     * Compiles the matchers of the given definitions.
+     *
+     * @param features the definitions to compile.
+     * @param matchers returns the matcher of a definition for this table's type of primitives.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TagDecisionTable(Collection<FeatureDefinition> features,
+                     Function<FeatureDefinition, Predicate<T>> matchers)
+    {
+        keys = new HashMap<>();
+        ArrayList<FeatureDefinition> unconditional = new ArrayList<>();
+
+        for (FeatureDefinition feature : features) {
+            Predicate<T> matcher = matchers.apply(feature);
+
+            if (!(matcher instanceof TagPredicate)) {
+                unconditional.add(feature);
+                continue;
+            }
+
+            Map<String, Set<String>> candidates = ((TagPredicate<T>) matcher).getCandidateTags();
+            for (Map.Entry<String, Set<String>> tag : candidates.entrySet()) {
+                KeyEntry entry = keys.computeIfAbsent(tag.getKey(), k -> new KeyEntry());
+
+                if (tag.getValue() == null) {
+                    entry.anyValue.add(feature, matcher);
+                } else {
+                    for (String value : tag.getValue())
+                        entry.byValue.computeIfAbsent(value, v -> new Candidates()).add(feature, matcher);
+                }
+            }
+        }
+
+        this.unconditional         = unconditional.toArray(new FeatureDefinition[unconditional.size()]);
+        this.unconditionalMatchers = new Predicate[this.unconditional.length];
+        for (int i = 0; i < this.unconditional.length; i++)
+            unconditionalMatchers[i] = matchers.apply(this.unconditional[i]);
+    }
+
+
+    /**
+     * Checks if primitives have to be tested independent of their tags.
+     *
+     * @return {@code true} if at least one definition has to be tested on every primitive.
+     */
+    boolean hasUnconditionalMatchers() {
+        return unconditional.length > 0;
+    }
+
+    /**
+     * Checks if a primitive having the given tag could match any definition of this table.
+     *
+     * @param key   the key of the tag.
+     * @param value the value of the tag.
+     * @return {@code true} if the given tag is a candidate tag of at least one definition.
+     */
+    boolean isCandidateTag(String key, String value) {
+        KeyEntry entry = keys.get(key);
+        return entry != null && (!entry.anyValue.isEmpty() || entry.byValue.containsKey(value));
+    }
+
+    /**
+     * Returns all definitions matching the given primitive.
+     *
+     * @param primitive the primitive to test.
+     * @param tags      the tags of the given primitive.
+     * @return the set of definitions matching the given primitive, an empty and unmodifiable set if there are none.
+     */
+    Set<FeatureDefinition> getFeatures(T primitive, Map<String, String> tags) {
+        Set<FeatureDefinition> result = null;
+
+        for (int i = 0; i < unconditional.length; i++)
+            if (unconditionalMatchers[i].test(primitive))
+                result = add(result, unconditional[i]);
+
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            KeyEntry entry = keys.get(tag.getKey());
+            if (entry == null) continue;
+
+            result = entry.anyValue.test(primitive, result);
+
+            Candidates candidates = entry.byValue.get(tag.getValue());
+            if (candidates != null)
+                result = candidates.test(primitive, result);
+        }
+
+        return result != null ? result : Collections.emptySet();
+    }
+
+    private static Set<FeatureDefinition> add(Set<FeatureDefinition> result, FeatureDefinition feature) {
+        if (result == null)
+            result = new HashSet<>();
+        result.add(feature);
+        return result;
+    }
+
+
+    /**
+     * The definitions having a candidate tag with one key.
+     */
+    private class KeyEntry {
+        final Candidates                  anyValue = new Candidates();
+        final HashMap<String, Candidates> byValue  = new HashMap<>();
+    }
+
+    /**
+     * Definitions and their matchers for one candidate tag.
+     */
+    private class Candidates {
+        final ArrayList<FeatureDefinition> features = new ArrayList<>();
+        final ArrayList<Predicate<T>>      matchers = new ArrayList<>();
+
+        void add(FeatureDefinition feature, Predicate<T> matcher) {
+            features.add(feature);
+            matchers.add(matcher);
+        }
+
+        boolean isEmpty() {
+            return features.isEmpty();
+        }
+
+        Set<FeatureDefinition> test(T primitive, Set<FeatureDefinition> result) {
+            for (int i = 0; i < features.size(); i++) {
+                FeatureDefinition feature = features.get(i);
+                if ((result == null || !result.contains(feature)) && matchers.get(i).test(primitive))
+                    result = TagDecisionTable.add(result, feature);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package microtrafficsim.osm.parser.features;
+
+import microtrafficsim.osm.primitives.Primitive;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+
+/**
+ * A predicate selecting OpenStreetMap primitives, which declares the tags a primitive needs for being matched. The
+ * {@code FeatureSystem} compiles these tags into a decision table, so the parser can skip any primitive without such
+ * a tag before creating it. Predicates not implementing this interface have to be tested on every primitive.
+ *
+ * @param <T> the type of the primitive to test.
+ * @author Maximilian Luz
+ */
+public interface TagPredicate<T extends Primitive> extends Predicate<T> {
+
+    /**
+     * Returns the candidate tags of this predicate, i.e. this predicate may only return {@code true} for primitives
+     * having at least one of these tags. The values of a key are given as set, where {@code null} stands for any value.
+     * An empty map means that this predicate never matches.
+     *
+     * @return the candidate tags of this predicate, associated by their key.
+     */
+    Map<String, Set<String>> getCandidateTags();
+
+
+    /**
+     * Returns a predicate matching no primitive.
+     *
+     * @param <T> the type of the primitive to test.
+     * @return a predicate matching no primitive.
+     */
+    static <T extends Primitive> TagPredicate<T> none() {
+        return new TagPredicate<T>() {
+            @Override
+            public Map<String, Set<String>> getCandidateTags() {
+                return Collections.emptyMap();
+            }
+
+            @Override
+            public boolean test(T t) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a predicate only testing primitives having the given key with one of the given values.
+     *
+     * @param predicate the predicate testing the primitives having a candidate tag.
+     * @param key       the key of the candidate tags.
+     * @param values    the values of the candidate tags; no values stand for any value.
+     * @param <T>       the type of the primitive to test.
+     * @return a predicate testing the primitives having a candidate tag with {@code predicate}.
+     */
+    static <T extends Primitive> TagPredicate<T> withTag(Predicate<T> predicate, String key, String... values) {
+        Set<String> candidates = values.length == 0 ? null : Collections.unmodifiableSet(
+                new HashSet<>(Arrays.asList(values)));
+        Map<String, Set<String>> tags = Collections.singletonMap(key, candidates);
+
+        return new TagPredicate<T>() {
+            @Override
+            public Map<String, Set<String>> getCandidateTags() {
+                return tags;
+            }
+
+            @Override
+            public boolean test(T t) {
+                return predicate.test(t);
+            }
+        };
+    }
+}
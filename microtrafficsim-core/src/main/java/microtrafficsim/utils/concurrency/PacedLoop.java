@@ -0,0 +1,253 @@
+package microtrafficsim.utils.concurrency;
+
+import microtrafficsim.utils.functional.Procedure;
+import microtrafficsim.utils.functional.Procedure1;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import org.slf4j.Logger;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * <p>
+ * Executes a procedure repeatedly on one dedicated thread. The executions are either back-to-back or paced by a
+ * target rate (executions per second). The pacing uses an absolute schedule, so small delays of one execution are
+ * compensated by the following ones instead of drifting. If the loop falls behind by more than
+ * {@value #MAX_BACKLOG} periods, the schedule is reset instead of catching up with a burst of executions.
+ *
+ * <p>
+ * {@link #pause()} is a handshake: it returns after the currently running execution has finished, so the caller can
+ * rely on no execution running afterwards. If it is called by the loop thread itself (e.g. inside the procedure), it
+ * only requests pausing.
+ *
+ * <p>
+ * If the procedure throws a {@link RuntimeException}, the loop pauses itself and calls its failure handler on the
+ * loop thread, so the owner can update its own state (e.g. report being paused). The loop can be resumed afterwards.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class PacedLoop {
+    private static final Logger logger = new EasyMarkableLogger(PacedLoop.class);
+
+    private static final int MAX_BACKLOG = 4;
+
+    private final Procedure                     procedure;
+    private final Procedure1<RuntimeException>  failureHandler;
+    private final String                        name;
+
+    /* state, guarded by lock */
+    private final ReentrantLock lock;
+    private final Condition     stateChanged;
+    private Thread  thread;
+    private boolean runRequested;
+    private boolean isPausedAcknowledged;
+    private boolean isShutdown;
+    private long    periodNanos;
+
+    /* statistics */
+    private volatile double requestedRate;
+    private volatile long   executionCount;
+
+
+    /**
+     * Calls {@link #PacedLoop(Procedure, Procedure1, String) PacedLoop(procedure, null, name)}
+     */
+    public PacedLoop(Procedure procedure, String name) {
+        this(procedure, null, name);
+    }
+
+    /**
+     * @param procedure      is executed repeatedly
+     * @param failureHandler is called on the loop thread after the loop has paused itself due to an exception thrown
+     *                       by the procedure; may be null
+     * @param name           name of the loop thread
+     */
+    public PacedLoop(Procedure procedure, Procedure1<RuntimeException> failureHandler, String name) {
+        this.procedure      = procedure;
+        this.failureHandler = failureHandler;
+        this.name           = name;
+
+        lock                 = new ReentrantLock();
+        stateChanged         = lock.newCondition();
+        thread               = null;
+        runRequested         = false;
+        isPausedAcknowledged = true;
+        isShutdown           = false;
+        periodNanos          = 0;
+
+        requestedRate  = 0;
+        executionCount = 0;
+    }
+
+
+    /*
+    |=========|
+    | control |
+    |=========|
+    */
+    /**
+     * Starts or resumes the loop. If it is running already, only the rate is updated.
+     *
+     * @param executionsPerSecond target rate; {@code Double.POSITIVE_INFINITY} (or any rate greater than
+     *                            {@code 10^9}) executes back-to-back
+     */
+    public void resume(double executionsPerSecond) {
+        if (!(executionsPerSecond > 0))
+            throw new IllegalArgumentException("It must hold: executionsPerSecond > 0\n" +
+                    "Current: " + executionsPerSecond);
+
+        lock.lock();
+        try {
+            if (isShutdown)
+                throw new IllegalStateException("The loop has been shut down already.");
+
+            requestedRate = executionsPerSecond;
+            periodNanos   = (long) Math.floor(1e9 / executionsPerSecond);
+            runRequested  = true;
+
+            if (thread == null) {
+                thread = new Thread(this::loop, name);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pauses the loop after the currently running execution and waits for it, unless it is called by the loop thread.
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            runRequested = false;
+            stateChanged.signalAll();
+
+            if (Thread.currentThread() != thread) {
+                while (!isPausedAcknowledged)
+                    stateChanged.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pauses the loop (like {@link #pause()}) and terminates its thread. The loop cannot be resumed afterwards.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            isShutdown = true;
+        } finally {
+            lock.unlock();
+        }
+        pause();
+    }
+
+    /**
+     * @return true if the loop is paused or has not been started yet, false if it is requested to run
+     */
+    public boolean isPaused() {
+        lock.lock();
+        try {
+            return !runRequested;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /*
+    |============|
+    | statistics |
+    |============|
+    */
+    /**
+     * @return the rate given by the last call of {@link #resume(double)}; 0 if it has never been called
+     */
+    public double getRequestedRate() {
+        return requestedRate;
+    }
+
+    /**
+     * @return number of executions since this loop has been created
+     */
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+
+    /*
+    |======|
+    | loop |
+    |======|
+    */
+    private void loop() {
+        long deadline = System.nanoTime();
+
+        while (true) {
+            long period;
+
+            /* pause handshake */
+            lock.lock();
+            try {
+                if (!runRequested) {
+                    isPausedAcknowledged = true;
+                    stateChanged.signalAll();
+                    while (!runRequested && !isShutdown)
+                        stateChanged.awaitUninterruptibly();
+
+                    // restart schedule after pausing
+                    deadline = System.nanoTime();
+                }
+                if (isShutdown) {
+                    isPausedAcknowledged = true;
+                    stateChanged.signalAll();
+                    return;
+                }
+                isPausedAcknowledged = false;
+                period = periodNanos;
+            } finally {
+                lock.unlock();
+            }
+
+            /* execute */
+            try {
+                procedure.invoke();
+            } catch (RuntimeException e) {
+                logger.error("Execution of " + name + " failed; the loop is paused.", e);
+                lock.lock();
+                try {
+                    runRequested = false;
+                } finally {
+                    lock.unlock();
+                }
+                if (failureHandler != null)
+                    failureHandler.invoke(e);
+            }
+            executionCount++;
+
+            /* pacing */
+            long now = System.nanoTime();
+            deadline += period;
+            if (now - deadline > MAX_BACKLOG * period) {
+                deadline = now;
+            } else if (deadline > now) {
+                lock.lock();
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    while (remaining > 0 && runRequested && !isShutdown)
+                        remaining = stateChanged.awaitNanos(remaining);
+                } catch (InterruptedException ignored) {
+                    // the loop is only stopped by pause() or shutdown()
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
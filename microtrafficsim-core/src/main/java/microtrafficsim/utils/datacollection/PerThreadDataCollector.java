@@ -0,0 +1,410 @@
+package microtrafficsim.utils.datacollection;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * <p>
+ * This collector stores numbers assigned to {@link Tag}s without locking the putting threads. Every thread appends its
+ * data to its own primitive ring buffer; tags are interned to {@code int} ids, so putting data neither allocates a
+ * {@code Tag} nor boxes the value (using {@link #intern(String)} and {@link #put(int, double)}).
+ *
+ * <p>
+ * The ring buffers are merged only when the data is read ({@link #size(String)}, {@link #get(String)},
+ * {@link #iterator()}), when {@link #flush()} is called or when a thread's ring buffer is full. Thus, the collector
+ * can be used while measuring without distorting the timings it measures.
+ *
+ * <p>
+ * A ring buffer does not keep its thread alive. After its thread has terminated, the ring buffer is merged one last
+ * time and dropped by the next merge. Threads living longer than their measurements, e.g. threads of a pool, should
+ * call {@link #release()} to drop their ring buffer early.
+ *
+ * <p>
+ * Like {@link ConcurrentHashDataCollector}, a tag without bundle stores only the latest value and a tag with bundle
+ * stores all values. The order of values from one thread is preserved, but values of different threads are ordered
+ * by the time they are merged. Only {@link Number}s can be collected; they are stored as {@code double}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class PerThreadDataCollector implements DataCollector<Object> {
+
+    private final int ringCapacity;
+
+    /* tags */
+    private final ConcurrentHashMap<String, Integer> tagIds;
+    private final CopyOnWriteArrayList<String>       labels;
+
+    /* per thread buffers */
+    private final ThreadLocal<Ring>          localRing;
+    private final CopyOnWriteArrayList<Ring> rings;
+
+    /* merged data */
+    private final ReentrantLock    lock;
+    private final ArrayList<Entry> entries;
+
+
+    /**
+     * Calls {@link #PerThreadDataCollector(int) PerThreadDataCollector(1 << 14)}
+     */
+    public PerThreadDataCollector() {
+        this(1 << 14);
+    }
+
+    /**
+     * @param ringCapacity capacity of every thread's ring buffer; is rounded up to the next power of two
+     */
+    public PerThreadDataCollector(int ringCapacity) {
+        if (ringCapacity < 1)
+            throw new IllegalArgumentException("It must hold: ringCapacity >= 1\nCurrent: " + ringCapacity);
+
+        int capacity = 1;
+        while (capacity < ringCapacity)
+            capacity <<= 1;
+        this.ringCapacity = capacity;
+
+        tagIds = new ConcurrentHashMap<>();
+        labels = new CopyOnWriteArrayList<>();
+
+        rings     = new CopyOnWriteArrayList<>();
+        localRing = ThreadLocal.withInitial(() -> {
+            Ring ring = new Ring(this.ringCapacity, Thread.currentThread());
+            rings.add(ring);
+            return ring;
+        });
+
+        lock    = new ReentrantLock();
+        entries = new ArrayList<>();
+    }
+
+
+    /*
+    |=========|
+    | putting |
+    |=========|
+    */
+    /**
+     * Interns the given tag. Putting data using the returned id is faster than using the tag itself.
+     *
+     * @param tag this tag is interned
+     * @return the id of the given tag; it is the same for every call with an equal tag
+     */
+    public int intern(String tag) {
+        Integer id = tagIds.get(tag);
+        if (id != null)
+            return id;
+
+        synchronized (tagIds) {
+            id = tagIds.get(tag);
+            if (id == null) {
+                id = labels.size();
+                labels.add(tag);
+                tagIds.put(tag, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Appends the given value to the calling thread's ring buffer. Only if it is full, it is merged before.
+     *
+     * @param tagId id returned by {@link #intern(String)}
+     * @param value this value is stored under the given tag
+     */
+    public void put(int tagId, double value) {
+        Ring ring = localRing.get();
+        if (!ring.offer(tagId, value)) {
+            lock.lock();
+            try {
+                drain(ring);
+            } finally {
+                lock.unlock();
+            }
+            ring.offer(tagId, value);
+        }
+    }
+
+    /**
+     * Merges the calling thread's ring buffer and drops it. If the calling thread puts data again, it gets a new ring
+     * buffer.
+     */
+    public void release() {
+        Ring ring = localRing.get();
+        localRing.remove();
+
+        lock.lock();
+        try {
+            drain(ring);
+            rings.remove(ring);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merges all ring buffers.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            drainAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /*
+    |=========|
+    | reading |
+    |=========|
+    */
+    /**
+     * @param tag the data of this tag is returned
+     * @return a copy of all values stored under the given tag; an empty array if there is no such tag
+     */
+    public double[] get(String tag) {
+        Integer id = tagIds.get(tag);
+        if (id == null)
+            return new double[0];
+
+        lock.lock();
+        try {
+            drainAll();
+            Entry entry = getEntry(id);
+            if (entry == null)
+                return new double[0];
+            return Arrays.copyOf(entry.values, entry.size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * @return number of ring buffers currently held, including the ones of terminated threads not merged yet
+     */
+    public int getRingCount() {
+        return rings.size();
+    }
+
+
+    /*
+    |===================|
+    | (i) DataCollector |
+    |===================|
+    */
+    @Override
+    public boolean addBundle(String tag) {
+        int id = intern(tag);
+
+        lock.lock();
+        try {
+            drainAll();
+            if (getEntry(id) != null)
+                return false;
+            setEntry(id, new Entry(true));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calls {@link #put(int, double) put(intern(tag), number.doubleValue())}
+     *
+     * @param obj has to be a {@link Number}
+     * @throws IllegalArgumentException if the given object is not a {@code Number}
+     */
+    @Override
+    public void put(String tag, Object obj) {
+        if (!(obj instanceof Number))
+            throw new IllegalArgumentException(getClass().getSimpleName() + " can only collect numbers.");
+
+        put(intern(tag), ((Number) obj).doubleValue());
+    }
+
+    @Override
+    public int size(String tag) {
+        Integer id = tagIds.get(tag);
+        if (id == null)
+            return 0;
+
+        lock.lock();
+        try {
+            drainAll();
+            Entry entry = getEntry(id);
+            return entry == null ? 0 : entry.size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merges all ring buffers and iterates over a snapshot of the merged data. Like
+     * {@link ConcurrentHashDataCollector#iterator()}, a bundle's values are returned as {@code Double} after its
+     * {@link Tag}, and a tag without bundle is returned as {@link Data}.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        List<Object> snapshot = new ArrayList<>();
+
+        lock.lock();
+        try {
+            drainAll();
+            for (int id = 0; id < entries.size(); id++) {
+                Entry entry = entries.get(id);
+                if (entry == null)
+                    continue;
+
+                if (entry.bundle) {
+                    snapshot.add(new Tag(labels.get(id)));
+                    for (int i = 0; i < entry.size; i++)
+                        snapshot.add(entry.values[i]);
+                } else {
+                    snapshot.add(new Data(entry.values[0]));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return snapshot.iterator();
+    }
+
+
+    /*
+    |=========|
+    | merging |
+    |=========|
+    */
+    /**
+     * Has to be called while holding the lock. Drops the ring buffers of terminated threads after merging them.
+     */
+    private void drainAll() {
+        for (Ring ring : rings) {
+            // checked before draining, so a terminated thread's ring cannot get new data after its last merge
+            boolean terminated = ring.isOrphaned();
+            drain(ring);
+            if (terminated)
+                rings.remove(ring);
+        }
+    }
+
+    /**
+     * Has to be called while holding the lock, because there must not be two consumers of one ring at once.
+     */
+    private void drain(Ring ring) {
+        long tail = ring.tail.get();
+        long head = ring.head.get();
+        for (long i = tail; i < head; i++) {
+            int idx = (int) (i & ring.mask);
+            merge(ring.tags[idx], ring.values[idx]);
+        }
+        ring.tail.lazySet(head);
+    }
+
+    private void merge(int id, double value) {
+        Entry entry = getEntry(id);
+        if (entry == null) {
+            entry = new Entry(false);
+            setEntry(id, entry);
+        }
+        entry.add(value);
+    }
+
+    private Entry getEntry(int id) {
+        return id < entries.size() ? entries.get(id) : null;
+    }
+
+    private void setEntry(int id, Entry entry) {
+        while (entries.size() <= id)
+            entries.add(null);
+        entries.set(id, entry);
+    }
+
+
+    /**
+     * A single-producer ring buffer. The producer is the owning thread, the consumer is any thread holding the
+     * collector's lock.
+     */
+    private static class Ring {
+        private final WeakReference<Thread> owner;
+        private final int[]      tags;
+        private final double[]   values;
+        private final int        mask;
+        private final AtomicLong head;
+        private final AtomicLong tail;
+        private long cachedTail;
+
+        Ring(int capacity, Thread owner) {
+            this.owner = new WeakReference<>(owner);
+            tags       = new int[capacity];
+            values     = new double[capacity];
+            mask       = capacity - 1;
+            head       = new AtomicLong();
+            tail       = new AtomicLong();
+            cachedTail = 0;
+        }
+
+        /**
+         * @return true if the owning thread has terminated, so this ring does not get any new data
+         */
+        boolean isOrphaned() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        /**
+         * @return false if this ring is full
+         */
+        boolean offer(int tag, double value) {
+            long h = head.get();
+            if (h - cachedTail >= tags.length) {
+                cachedTail = tail.get();
+                if (h - cachedTail >= tags.length)
+                    return false;
+            }
+
+            int idx = (int) (h & mask);
+            tags[idx]   = tag;
+            values[idx] = value;
+            head.lazySet(h + 1);
+            return true;
+        }
+    }
+
+    /**
+     * Merged data of one tag. Without bundle, only the latest value is stored.
+     */
+    private static class Entry {
+        private final boolean bundle;
+        private double[] values;
+        private int      size;
+
+        Entry(boolean bundle) {
+            this.bundle = bundle;
+            values      = new double[bundle ? 16 : 1];
+            size        = 0;
+        }
+
+        void add(double value) {
+            if (!bundle) {
+                values[0] = value;
+                size      = 1;
+                return;
+            }
+
+            if (size == values.length)
+                values = Arrays.copyOf(values, 2 * size);
+            values[size++] = value;
+        }
+    }
+}
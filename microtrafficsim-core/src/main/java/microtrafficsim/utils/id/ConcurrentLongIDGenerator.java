@@ -29,6 +29,23 @@ public class ConcurrentLongIDGenerator implements LongGenerator {
         return returnID;
     }
 
+    /**
+     * Reserves a range of consecutive ids as if {@link #next()} would have been called {@code count} times, so the
+     * ids of the range can be assigned concurrently, e.g. by their index in the range.
+     *
+     * @param count number of reserved ids
+     * @return first id of the reserved range {@code [first, first + count)}
+     */
+    public synchronized long reserve(long count) {
+        if (count < 0)
+            throw new IllegalArgumentException("It must hold: count >= 0\n" +
+                    "Current: " + count);
+
+        long first = id;
+        id         = id + count;
+        return first;
+    }
+
     @Override
     public synchronized void reset() {
         id = initialID;
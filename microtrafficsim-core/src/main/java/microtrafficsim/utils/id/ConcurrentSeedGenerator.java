@@ -3,19 +3,28 @@ package microtrafficsim.utils.id;
 
 import microtrafficsim.math.random.Seeded;
 import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.math.random.distributions.impl.SplitMixRandom;
 
 /**
+ * <p>
  * Concurrent implementation of {@link LongGenerator} using an object of {@link Random} to create seeds for every
  * call of {@link #next()}.
  *
+ * <p>
+ * In addition, {@link #split(long)} returns the seed of an indexed stream without synchronization. Its result only
+ * depends on the seed and the index, not on the order of calls, so seeds can be assigned by multiple threads
+ * deterministically.
+ *
  * @author Dominic Parga Cacheiro
  */
 public class ConcurrentSeedGenerator implements LongGenerator, Seeded {
 
     private Random seeds;
+    private volatile long seed; // for split(...) without synchronization
 
     public ConcurrentSeedGenerator() {
         seeds = new Random();
+        seed  = seeds.getSeed();
     }
 
     /**
@@ -23,7 +32,8 @@ public class ConcurrentSeedGenerator implements LongGenerator, Seeded {
      *             of {@link #next()}.
      */
     public ConcurrentSeedGenerator(long seed) {
-        seeds = new Random(seed);
+        seeds     = new Random(seed);
+        this.seed = seed;
     }
 
     /*
@@ -34,6 +44,7 @@ public class ConcurrentSeedGenerator implements LongGenerator, Seeded {
     @Override
     public synchronized void setSeed(long seed) {
         seeds.setSeed(seed);
+        this.seed = seed;
     }
 
     @Override
@@ -55,6 +66,17 @@ public class ConcurrentSeedGenerator implements LongGenerator, Seeded {
         return seeds.nextLong();
     }
 
+    /**
+     * Jumps ahead in a {@link SplitMixRandom} seeded with this generator's seed, so the seeds of different indices are
+     * independent of each other and of {@link #next()}. This method is neither synchronized nor changing any state.
+     *
+     * @param index index of the stream, e.g. the index of a vehicle
+     * @return the seed of the stream with the given index
+     */
+    public long split(long index) {
+        return SplitMixRandom.longAt(seed, index);
+    }
+
     @Override
     public synchronized void reset() {
         seeds.reset();
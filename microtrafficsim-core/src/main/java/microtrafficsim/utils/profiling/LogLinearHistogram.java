@@ -0,0 +1,229 @@
+package microtrafficsim.utils.profiling;
+
+import microtrafficsim.utils.Resettable;
+
+
+/**
+ * <p>
+ * A histogram for non-negative {@code long} values (e.g. latencies in nanoseconds) in the spirit of HdrHistogram. The
+ * value range is split into buckets of powers of two and every bucket is split into {@code 2^subBucketBits} linear
+ * sub-buckets. Thus the relative error of every recorded value is at most {@code 2^-subBucketBits} while the whole
+ * {@code long} range is covered by a few thousand counters.
+ *
+ * <p>
+ * Recording a value is O(1) and does not allocate anything. This class is not thread-safe, so every thread should use
+ * its own instance, which can be merged using {@link #add(LogLinearHistogram)}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class LogLinearHistogram implements Resettable {
+
+    private final int    subBucketBits;
+    private final int    subBucketCount;
+    private final long[] counts;
+
+    private long totalCount;
+    private long sum;
+    private long min;
+    private long max;
+
+    /**
+     * Calls {@link #LogLinearHistogram(int) LogLinearHistogram(5)}, which results in a relative error of at most
+     * {@code 1/32 ~ 3%}.
+     */
+    public LogLinearHistogram() {
+        this(5);
+    }
+
+    /**
+     * @param subBucketBits Every power-of-two-bucket is split into {@code 2^subBucketBits} sub-buckets; has to be in
+     *                      {@code [1, 16]}
+     */
+    public LogLinearHistogram(int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 16)
+            throw new IllegalArgumentException("It must hold: 1 <= subBucketBits <= 16\n" +
+                    "Current: " + subBucketBits);
+
+        this.subBucketBits  = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.counts         = new long[(64 - subBucketBits) * subBucketCount];
+        reset();
+    }
+
+
+    /*
+    |=========|
+    | records |
+    |=========|
+    */
+    /**
+     * Records the given value once. Negative values are recorded as 0.
+     *
+     * @param value this value is recorded
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records the given value {@code count} times. Negative values are recorded as 0.
+     *
+     * @param value this value is recorded
+     * @param count number of records
+     */
+    public void record(long value, long count) {
+        if (count <= 0)
+            return;
+        if (value < 0)
+            value = 0;
+
+        counts[indexOf(value)] += count;
+        totalCount += count;
+        sum        += value * count;
+        if (value < min)
+            min = value;
+        if (value > max)
+            max = value;
+    }
+
+    /**
+     * Adds all records of the given histogram to this one.
+     *
+     * @param other its records are added to this histogram; has to use the same number of sub-bucket bits
+     */
+    public void add(LogLinearHistogram other) {
+        if (other.subBucketBits != subBucketBits)
+            throw new IllegalArgumentException("Histograms with different sub-bucket bits cannot be merged.");
+
+        for (int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+        totalCount += other.totalCount;
+        sum        += other.sum;
+        min         = Math.min(min, other.min);
+        max         = Math.max(max, other.max);
+    }
+
+
+    /*
+    |=========|
+    | queries |
+    |=========|
+    */
+    public int getSubBucketBits() {
+        return subBucketBits;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0;
+    }
+
+    /**
+     * @return the exact sum of all recorded values
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the exact minimum of all recorded values; 0 if this histogram is empty
+     */
+    public long getMin() {
+        return isEmpty() ? 0 : min;
+    }
+
+    /**
+     * @return the exact maximum of all recorded values; 0 if this histogram is empty
+     */
+    public long getMax() {
+        return isEmpty() ? 0 : max;
+    }
+
+    /**
+     * @return the exact mean of all recorded values; 0 if this histogram is empty
+     */
+    public double getMean() {
+        return isEmpty() ? 0 : sum / (double) totalCount;
+    }
+
+    /**
+     * @param percentile has to be in {@code [0, 100]}
+     * @return the highest value that is equivalent (in terms of this histogram's precision) to the value at the given
+     * percentile; clamped to {@code [min, max]}; 0 if this histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (isEmpty())
+            return 0;
+
+        percentile = Math.min(Math.max(percentile, 0), 100);
+        long rank  = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+
+        long cumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank)
+                return Math.min(Math.max(highestEquivalentValue(i), min), max);
+        }
+
+        return max;
+    }
+
+    /**
+     * @param value any non-negative value
+     * @return number of records that are equivalent to the given value in terms of this histogram's precision
+     */
+    public long getCountAtValue(long value) {
+        return counts[indexOf(Math.max(0, value))];
+    }
+
+
+    /*
+    |=========|
+    | buckets |
+    |=========|
+    */
+    /**
+     * Values smaller than {@code 2 * subBucketCount} are stored linearly. For every bigger value, its highest bit
+     * determines the shift, and its highest {@code subBucketBits + 1} bits determine the sub-bucket.
+     */
+    private int indexOf(long value) {
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - subBucketBits;
+        if (shift <= 0)
+            return (int) value;
+        return shift * subBucketCount + (int) (value >>> shift);
+    }
+
+    private long lowestEquivalentValue(int index) {
+        if (index < 2 * subBucketCount)
+            return index;
+        int shift = index / subBucketCount - 1;
+        long top  = index - shift * subBucketCount;
+        return top << shift;
+    }
+
+    private long highestEquivalentValue(int index) {
+        if (index < 2 * subBucketCount)
+            return index;
+        int shift = index / subBucketCount - 1;
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+
+
+    /*
+    |================|
+    | (i) Resettable |
+    |================|
+    */
+    @Override
+    public void reset() {
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = 0;
+        totalCount = 0;
+        sum        = 0;
+        min        = Long.MAX_VALUE;
+        max        = Long.MIN_VALUE;
+    }
+}
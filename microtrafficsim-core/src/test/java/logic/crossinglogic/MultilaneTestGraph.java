@@ -258,13 +258,13 @@ public class MultilaneTestGraph {
         SimulationConfig.StreetPriorityFunction priority = new SimulationConfig.DefaultStreetPriorityFunction();
 
         Vec2d origDir = new Vec2d(
-                from.coordinates[1].lon - from.coordinates[0].lon,
-                from.coordinates[1].lat - from.coordinates[0].lat
+                from.coordinates.getLon(1) - from.coordinates.getLon(0),
+                from.coordinates.getLat(1) - from.coordinates.getLat(0)
         );
 
         Vec2d destDir = new Vec2d(
-                from.coordinates[from.coordinates.length - 1].lon - from.coordinates[from.coordinates.length - 1].lon,
-                from.coordinates[from.coordinates.length - 2].lat - from.coordinates[from.coordinates.length - 2].lat
+                from.coordinates.getLon(from.coordinates.size() - 1) - from.coordinates.getLon(from.coordinates.size() - 1),
+                from.coordinates.getLat(from.coordinates.size() - 2) - from.coordinates.getLat(from.coordinates.size() - 2)
         );
 
         DirectedEdge forward = new DirectedEdge(
@@ -0,0 +1,111 @@
+package logic.determinism;
+
+import microtrafficsim.core.convenience.exfmt.ExfmtStorage;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import testhelper.SimulationFixture;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests whether a simulation restored from a checkpoint continues bit-identically to the uninterrupted simulation the
+ * checkpoint has been taken from.
+ *
+ * <p>
+ * The reference simulation executes {@value warmUpSteps} steps, stores a checkpoint and executes up to
+ * {@value maxStep} steps, remembering the state every {@value checkInterval} steps. Then a new graph is parsed, the
+ * checkpoint is restored into a new scenario and the restored simulation has to reach exactly the same states. A
+ * state check compares for every vehicle its lane, cell position, velocity and its driver's state (see
+ * {@link SimulationFixture}).
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class CheckpointDeterminismTest {
+    private static Logger logger = new EasyMarkableLogger(CheckpointDeterminismTest.class);
+
+    /* testing parameters */
+    private static final int warmUpSteps = 50;
+    private static final int maxStep = 250;
+    private static final int checkInterval = 25;
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    private static HashMap<Long, String> getCurrentState(VehicleSimulation simulation) {
+        return SimulationFixture.getCurrentState(simulation,
+                vehicle -> "prio=" + vehicle.getDriver().getPriorityCounter());
+    }
+
+    private static void simulate(VehicleSimulation simulation, int steps) {
+        for (int i = 0; i < steps; i++)
+            simulation.runOneStep();
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testRestoredSimulationContinuesIdentically() throws Exception {
+        SimulationConfig config = SimulationFixture.createConfig(new Random().getSeed(), 8);
+        logger.info("config created with seed = " + config.seed);
+        ExfmtStorage storage = new ExfmtStorage();
+        File checkpoint = File.createTempFile("checkpoint", ".mtsc");
+        checkpoint.deleteOnExit();
+
+
+        /* reference run */
+        VehicleSimulation simulation = SimulationFixture.createSimulation(config);
+
+        simulate(simulation, warmUpSteps);
+        assertTrue("Checkpoint could not be saved.", storage.saveCheckpoint(checkpoint, simulation));
+
+        TreeMap<Integer, HashMap<Long, String>> expected = new TreeMap<>();
+        for (int age = warmUpSteps + checkInterval; age <= maxStep; age += checkInterval) {
+            simulate(simulation, checkInterval);
+            expected.put(age, getCurrentState(simulation));
+        }
+        assertFalse("Scenario has no vehicles.", expected.firstEntry().getValue().isEmpty());
+
+
+        /* restored run */
+        Scenario restoredScenario = SimulationFixture.createScenario(config);
+        VehicleSimulation restored = storage.loadCheckpoint(checkpoint, new VehicleSimulation(), restoredScenario);
+        assertNotNull("Checkpoint could not be loaded.", restored);
+        assertEquals("Wrong age", warmUpSteps, restored.getAge());
+
+        for (int age : expected.keySet()) {
+            simulate(restored, checkInterval);
+            assertEquals("Wrong age", age, restored.getAge());
+            assertEquals("Unequal vehicle states after " + age + " steps", expected.get(age), getCurrentState(restored));
+        }
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
@@ -0,0 +1,161 @@
+package logic.determinism;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streetgraph.partitioning.GraphPartition;
+import microtrafficsim.core.logic.streetgraph.partitioning.impl.BfsGraphPartitioner;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.containers.VehicleContainer;
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import testhelper.SimulationFixture;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests whether a simulation partitioning its graph into regions (see
+ * {@link microtrafficsim.core.simulation.core.stepexecutors.PartitionedVehicleStepExecutor
+ * PartitionedVehicleStepExecutor}) reaches exactly the same states as a simulation using the
+ * {@link microtrafficsim.core.simulation.core.stepexecutors.MultiThreadedVehicleStepExecutor
+ * MultiThreadedVehicleStepExecutor}.
+ *
+ * <p>
+ * Both simulations use the same seed and execute {@value maxStep} steps. Every {@value checkInterval} steps, every
+ * vehicle's lane, cell position, velocity and its driver's state are compared (see {@link SimulationFixture}).
+ * Furthermore, the partition itself is checked, and changing the vehicle container from outside.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class PartitionedDeterminismTest {
+    private static Logger logger = new EasyMarkableLogger(PartitionedDeterminismTest.class);
+
+    /* testing parameters */
+    private static final int maxStep = 200;
+    private static final int checkInterval = 20;
+
+
+    private SimulationConfig createConfig(long seed, int nThreads, boolean partitioned) {
+        SimulationConfig config = SimulationFixture.createConfig(seed, nThreads);
+        config.multiThreading.graphPartitioningEnabled = partitioned;
+        return config;
+    }
+
+    private void testPartitionedFor(int nThreads) throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed + ", nThreads = " + nThreads);
+
+        VehicleSimulation reference   = SimulationFixture.createSimulation(createConfig(seed, nThreads, false));
+        VehicleSimulation partitioned = SimulationFixture.createSimulation(createConfig(seed, nThreads, true));
+        SimulationFixture.assertEqualRuns(reference, partitioned, maxStep, checkInterval);
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testPartitionCoversGraph() throws Exception {
+        Graph graph = SimulationFixture.createGraph(createConfig(new Random().getSeed(), 4, true));
+        int nRegions = 4;
+        GraphPartition partition = new BfsGraphPartitioner().partition(graph, nRegions);
+
+        assertEquals(nRegions, partition.getRegionCount());
+        int nNodes = 0;
+        for (int region = 0; region < nRegions; region++) {
+            for (Node node : partition.getNodes(region))
+                assertEquals(region, partition.getRegion(node));
+            nNodes += partition.getNodes(region).size();
+        }
+        assertEquals(graph.getNodes().size(), nNodes);
+        for (Node node : graph.getNodes())
+            assertNotEquals(-1, partition.getRegion(node));
+
+        // deterministic
+        GraphPartition again = new BfsGraphPartitioner().partition(graph, nRegions);
+        for (int region = 0; region < nRegions; region++)
+            assertEquals(partition.getNodes(region), again.getNodes(region));
+    }
+
+    @Test
+    public void testTwoRegions() throws Exception {
+        testPartitionedFor(2);
+    }
+
+    @Test
+    public void testEightRegions() throws Exception {
+        testPartitionedFor(8);
+    }
+
+    /**
+     * Vehicles are removed from and added to the container from outside (like a shard handing them off) such that the
+     * number of spawned vehicles stays the same. The partitioned simulation has to notice the change anyway: only the
+     * container's spawned vehicles are simulated, which is visible by their travelling time.
+     */
+    @Test
+    public void testChangesFromOutside() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        VehicleSimulation reference   = SimulationFixture.createSimulation(createConfig(seed, 4, false));
+        VehicleSimulation partitioned = SimulationFixture.createSimulation(createConfig(seed, 4, true));
+        SimulationFixture.assertEqualRuns(reference, partitioned, 40, 20);
+
+        for (VehicleSimulation simulation : new VehicleSimulation[]{reference, partitioned}) {
+            VehicleContainer container = simulation.getScenario().getVehicleContainer();
+
+            // vehicles far away from their destinations, so they do not despawn in the next steps
+            Iterator<Vehicle> longestRoutes = container.getSpawnedVehicles().stream()
+                    .sorted(Comparator.comparingInt((Vehicle vehicle) -> -vehicle.getDriver().getRoute().size())
+                            .thenComparingLong(Vehicle::getId))
+                    .iterator();
+            Vehicle readded = longestRoutes.next();
+            Vehicle removed = longestRoutes.next();
+
+            // the first vehicle leaves the container, but stays on its lane
+            container.removeVehicles(Collections.singletonList(readded));
+            simulation.runOneStep();
+
+            // swap without changing the number of spawned vehicles
+            int spawnedCount = container.getSpawnedCount();
+            container.stateChanged(readded);
+            container.removeVehicles(Collections.singletonList(removed));
+            assertEquals(spawnedCount, container.getSpawnedCount());
+
+            int readdedTime = readded.getDriver().getTravellingTime();
+            int removedTime = removed.getDriver().getTravellingTime();
+            simulation.runOneStep();
+            assertEquals(VehicleState.SPAWNED, readded.getState());
+            assertEquals("The readded vehicle has not been simulated.",
+                    readdedTime + 1, readded.getDriver().getTravellingTime());
+            assertEquals("The removed vehicle has been simulated.",
+                    removedTime, removed.getDriver().getTravellingTime());
+        }
+
+        SimulationFixture.assertEqualRuns(reference, partitioned, 100, 20);
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
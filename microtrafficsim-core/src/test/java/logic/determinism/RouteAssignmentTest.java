@@ -0,0 +1,111 @@
+package logic.determinism;
+
+import microtrafficsim.core.logic.routes.MetaRoute;
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.impl.AreaScenario;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import testhelper.DefaultAssertions;
+import testhelper.SimulationFixture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests whether the three-stage preparation of
+ * {@link microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder VehicleScenarioBuilder} assigns the
+ * same routes as assigning them sequentially: for every meta route in order, a scout is drawn from the scenario and
+ * the route is computed right away.
+ *
+ * <p>
+ * The seed is fixed. The i-th vehicle (ordered by id) has to get the i-th sequentially computed route, for one and
+ * for several threads.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class RouteAssignmentTest {
+
+    /* testing parameters */
+    private static final long seed = 42;
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    /**
+     * @return the routes of the given not prepared scenario, computed sequentially in order of its meta routes
+     */
+    private static List<Route> assignSequentially(Scenario scenario) {
+        scenario.executeBeforeBuilding();
+
+        List<Route> routes = new ArrayList<>();
+        for (Route route : scenario.getRoutes()) {
+            if (route instanceof MetaRoute) {
+                StackRoute stackRoute = new StackRoute(route.getSpawnDelay());
+                scenario.getScoutFactory().get()
+                        .findShortestPath(route.getOrigin(), route.getDestination(), stackRoute);
+                route = stackRoute;
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private void testPipelineFor(int nThreads) throws Exception {
+        // preparing resets the scenario, so both assignments draw the same scouts on the same graph
+        AreaScenario scenario = SimulationFixture.createScenario(SimulationFixture.createConfig(seed, nThreads));
+        List<Route> expected = assignSequentially(scenario);
+        SimulationFixture.prepare(scenario);
+
+        TreeMap<Long, Vehicle> vehicles = new TreeMap<>();
+        for (Vehicle vehicle : scenario.getVehicleContainer())
+            vehicles.put(vehicle.getId(), vehicle);
+
+        assertEquals("Wrong number of vehicles", expected.size(), vehicles.size());
+        assertFalse("Scenario has no vehicles.", vehicles.isEmpty());
+        int i = 0;
+        for (Vehicle vehicle : vehicles.values()) {
+            Route actual = vehicle.getDriver().getRoute();
+            assertTrue("Vehicle " + vehicle.getId() + " has no route.", actual instanceof StackRoute);
+            assertEquals(expected.get(i).getSpawnDelay(), actual.getSpawnDelay());
+            DefaultAssertions.assertRoutes(expected.get(i++), actual);
+        }
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testSingleThreadedPipeline() throws Exception {
+        testPipelineFor(1);
+    }
+
+    @Test
+    public void testMultiThreadedPipeline() throws Exception {
+        testPipelineFor(4);
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
@@ -0,0 +1,308 @@
+package logic.determinism;
+
+import microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.impl.AreaScenario;
+import microtrafficsim.core.simulation.sharding.ShardTransport;
+import microtrafficsim.core.simulation.sharding.ShardedVehicleSimulation;
+import microtrafficsim.core.simulation.sharding.impl.LoopbackShardTransport;
+import microtrafficsim.core.simulation.sharding.impl.SocketShardTransport;
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import testhelper.SimulationFixture;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests whether a simulation split into shards (see {@link ShardedVehicleSimulation}) reaches exactly the same states
+ * as a simulation using the
+ * {@link microtrafficsim.core.simulation.core.stepexecutors.SingleThreadedVehicleStepExecutor
+ * SingleThreadedVehicleStepExecutor} and one using the
+ * {@link microtrafficsim.core.simulation.core.stepexecutors.MultiThreadedVehicleStepExecutor
+ * MultiThreadedVehicleStepExecutor}. Every shard uses its own graph and scenario like a separate process would and
+ * only creates the vehicles starting in its region. {@link #testTwoShardProcesses()} runs the shards in separate
+ * processes indeed (see {@link ShardProcess}).
+ *
+ * <p>
+ * All simulations use the same seed and execute {@value maxStep} steps. Every {@value checkInterval} steps, the
+ * vehicles of all shards are compared to the vehicles of the reference simulations (see {@link SimulationFixture}).
+ * Every vehicle has to be simulated by exactly one shard.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class ShardedDeterminismTest {
+    private static Logger logger = new EasyMarkableLogger(ShardedDeterminismTest.class);
+
+    /* testing parameters */
+    private static final int maxStep = 200;
+    private static final int checkInterval = 20;
+    private static final int connectTimeoutMillis = 10_000;
+    private static final long processTimeoutMillis = 120_000;
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    /**
+     * @return a new shard whose scenario only contains the vehicles starting in the shard's region
+     */
+    private static ShardedVehicleSimulation createShard(ShardTransport transport, long seed) throws Exception {
+        ShardedVehicleSimulation shard = new ShardedVehicleSimulation(transport);
+        AreaScenario scenario = SimulationFixture.createScenario(SimulationFixture.createConfig(seed, 1));
+
+        VehicleScenarioBuilder builder = new VehicleScenarioBuilder(seed);
+        builder.setRouteFilter(shard.createRouteFilter(scenario.getGraph()));
+        builder.prepare(scenario);
+        shard.setAndInitPreparedScenario(scenario);
+        return shard;
+    }
+
+    private static InetSocketAddress[] createAddresses(int nShards) throws Exception {
+        InetSocketAddress[] addresses = new InetSocketAddress[nShards];
+        for (int i = 0; i < nShards; i++)
+            try (ServerSocket socket = new ServerSocket(0)) {
+                addresses[i] = new InetSocketAddress(InetAddress.getLoopbackAddress(), socket.getLocalPort());
+            }
+        return addresses;
+    }
+
+    /**
+     * Asserts that the shards' vehicles are disjoint and that no vehicle is missing.
+     */
+    private static void assertShardedVehicles(VehicleSimulation reference, VehicleSimulation[] shards) {
+        int total = reference.getScenario().getVehicleContainer().getVehicleCount();
+        int sum = 0;
+        for (VehicleSimulation shard : shards) {
+            int count = shard.getScenario().getVehicleContainer().getVehicleCount();
+            assertTrue("A shard has created the vehicles of other shards.", count < total);
+            sum += count;
+        }
+        assertEquals("Wrong number of vehicles over all shards", total, sum);
+    }
+
+    private void testShardedFor(ShardTransport[] transports) throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed + ", nShards = " + transports.length);
+
+        VehicleSimulation[] references = new VehicleSimulation[2];
+        for (int i = 0; i < references.length; i++)
+            references[i] = SimulationFixture.createSimulation(SimulationFixture.createConfig(seed, i + 1));
+
+        VehicleSimulation[] shards = new VehicleSimulation[transports.length];
+        for (int i = 0; i < shards.length; i++)
+            shards[i] = createShard(transports[i], seed);
+        assertShardedVehicles(references[0], shards);
+
+        ExecutorService pool = Executors.newFixedThreadPool(shards.length);
+        try {
+            for (int age = checkInterval; age <= maxStep; age += checkInterval) {
+                ArrayList<Future<?>> running = new ArrayList<>();
+                for (VehicleSimulation shard : shards)
+                    running.add(pool.submit(() -> {
+                        for (int i = 0; i < checkInterval; i++)
+                            shard.runOneStep();
+                    }));
+                for (VehicleSimulation reference : references)
+                    for (int i = 0; i < checkInterval; i++)
+                        reference.runOneStep();
+                for (Future<?> future : running)
+                    future.get();
+
+                HashMap<Long, String> actual = new HashMap<>();
+                for (VehicleSimulation shard : shards)
+                    SimulationFixture.putCurrentState(shard, null, actual);
+
+                for (VehicleSimulation reference : references) {
+                    HashMap<Long, String> expected = SimulationFixture.getCurrentState(reference);
+                    if (age == checkInterval)
+                        assertFalse("Scenario has no vehicles.", expected.isEmpty());
+
+                    assertEquals("Unequal vehicle states after " + age + " steps compared to "
+                            + reference.getScenario().getConfig().multiThreading.nThreads + " thread(s)",
+                            expected, actual);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            for (ShardTransport transport : transports)
+                transport.close();
+        }
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testThreeLoopbackShards() throws Exception {
+        testShardedFor(LoopbackShardTransport.create(3));
+    }
+
+    @Test
+    public void testTwoSocketShards() throws Exception {
+        int nShards = 2;
+        InetSocketAddress[] addresses = createAddresses(nShards);
+
+        ExecutorService pool = Executors.newFixedThreadPool(nShards);
+        ShardTransport[] transports = new ShardTransport[nShards];
+        try {
+            ArrayList<Future<SocketShardTransport>> connecting = new ArrayList<>();
+            for (int i = 0; i < nShards; i++) {
+                int shardIndex = i;
+                connecting.add(pool.submit(
+                        () -> SocketShardTransport.connect(shardIndex, addresses, connectTimeoutMillis)));
+            }
+            for (int i = 0; i < nShards; i++)
+                transports[i] = connecting.get(i).get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        testShardedFor(transports);
+    }
+
+    /**
+     * Every shard runs in its own JVM (see {@link ShardProcess}) and writes its vehicles' states after
+     * {@value maxStep} steps, which are compared to a single-threaded simulation.
+     */
+    @Test
+    public void testTwoShardProcesses() throws Exception {
+        int nShards = 2;
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed + ", nShards = " + nShards + " processes");
+        InetSocketAddress[] addresses = createAddresses(nShards);
+
+        File[] stateFiles = new File[nShards];
+        Process[] processes = new Process[nShards];
+        try {
+            for (int i = 0; i < nShards; i++) {
+                stateFiles[i] = File.createTempFile("shard" + i, ".txt");
+
+                ArrayList<String> command = new ArrayList<>();
+                command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(ShardProcess.class.getName());
+                command.add(Long.toString(seed));
+                command.add(Integer.toString(i));
+                command.add(stateFiles[i].getPath());
+                for (InetSocketAddress address : addresses)
+                    command.add(Integer.toString(address.getPort()));
+                processes[i] = new ProcessBuilder(command).inheritIO().start();
+            }
+
+            VehicleSimulation reference = SimulationFixture.createSimulation(SimulationFixture.createConfig(seed, 1));
+            for (int i = 0; i < maxStep; i++)
+                reference.runOneStep();
+
+            HashMap<Long, String> actual = new HashMap<>();
+            for (int i = 0; i < nShards; i++) {
+                assertTrue("Shard process " + i + " has not finished.",
+                        processes[i].waitFor(processTimeoutMillis, TimeUnit.MILLISECONDS));
+                assertEquals("Shard process " + i + " has failed.", 0, processes[i].exitValue());
+
+                for (String line : Files.readAllLines(stateFiles[i].toPath(), StandardCharsets.UTF_8)) {
+                    int separator = line.indexOf(' ');
+                    long id = Long.parseLong(line.substring(0, separator));
+                    assertNull("Vehicle " + id + " is simulated twice.", actual.put(id, line.substring(separator + 1)));
+                }
+            }
+
+            HashMap<Long, String> expected = SimulationFixture.getCurrentState(reference);
+            assertFalse("Scenario has no vehicles.", expected.isEmpty());
+            assertEquals("Unequal vehicle states after " + maxStep + " steps", expected, actual);
+        } finally {
+            for (int i = 0; i < nShards; i++) {
+                if (processes[i] != null)
+                    processes[i].destroyForcibly();
+                if (stateFiles[i] != null)
+                    stateFiles[i].delete();
+            }
+        }
+    }
+
+
+    /*
+    |===============|
+    | shard process |
+    |===============|
+    */
+    /**
+     * <p>
+     * Runs one shard of {@link #testTwoShardProcesses()} connected by a {@link SocketShardTransport} on localhost.
+     * After {@value maxStep} steps, it writes one line {@code vehicleId stamp} per vehicle (see
+     * {@link SimulationFixture#getCurrentState(VehicleSimulation)}) into the given file.
+     *
+     * <p>
+     * Arguments: {@code seed shardIndex stateFile port...} with one port per shard
+     */
+    public static class ShardProcess {
+        public static void main(String[] args) {
+            LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+
+            // the simulation's threads must not keep the process alive
+            try {
+                run(args);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+            System.exit(0);
+        }
+
+        private static void run(String[] args) throws Exception {
+            long seed = Long.parseLong(args[0]);
+            int shardIndex = Integer.parseInt(args[1]);
+            File stateFile = new File(args[2]);
+            InetSocketAddress[] addresses = new InetSocketAddress[args.length - 3];
+            for (int i = 0; i < addresses.length; i++)
+                addresses[i] = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[i + 3]));
+
+            try (ShardTransport transport = SocketShardTransport.connect(shardIndex, addresses, connectTimeoutMillis)) {
+                VehicleSimulation shard = createShard(transport, seed);
+                for (int i = 0; i < maxStep; i++)
+                    shard.runOneStep();
+
+                try (PrintWriter out = new PrintWriter(stateFile, StandardCharsets.UTF_8.name())) {
+                    for (Map.Entry<Long, String> entry : SimulationFixture.getCurrentState(shard).entrySet())
+                        out.println(entry.getKey() + " " + entry.getValue());
+                }
+            }
+        }
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
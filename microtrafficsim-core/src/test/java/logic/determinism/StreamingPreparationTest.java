@@ -0,0 +1,257 @@
+package logic.determinism;
+
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.routes.MetaRoute;
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.shortestpath.ShortestPathAlgorithm;
+import microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.impl.AreaScenario;
+import microtrafficsim.core.simulation.scenarios.impl.RandomRouteScenario;
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import testhelper.SimulationFixture;
+
+import java.util.Stack;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the streaming preparation of
+ * {@link microtrafficsim.core.simulation.configs.ScenarioConfig#streamingPreparationEnabled}: the routes of vehicles
+ * spawning later are computed while the simulation is running, but the results must neither depend on the number of
+ * threads nor on the time routing takes. Furthermore, a simulation waiting for routes has to stop waiting if the
+ * routing is cancelled or the waiting thread is interrupted.
+ *
+ * <p>
+ * Every {@value checkInterval} steps, every vehicle's lane, cell position, velocity and its driver's state are
+ * compared (see {@link SimulationFixture}).
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class StreamingPreparationTest {
+    private static Logger logger = new EasyMarkableLogger(StreamingPreparationTest.class);
+
+    /* testing parameters */
+    private static final int maxStep = 200;
+    private static final int checkInterval = 20;
+    private static final int maxSpawnDelay = 100;
+    private static final int blockedSpawnDelay = maxSpawnDelay / 2;
+    private static final long timeoutMillis = 10_000;
+
+
+    private SimulationConfig createConfig(long seed, int nThreads, boolean isStreaming) {
+        SimulationConfig config = SimulationFixture.createConfig(seed, nThreads);
+        config.scenario.streamingPreparationEnabled = isStreaming;
+        config.multiThreading.vehiclesPerRunnable   = 50;
+        return config;
+    }
+
+    /**
+     * @param isDelayed if true, the i-th route gets a spawn delay of {@code i % maxSpawnDelay}
+     */
+    private VehicleSimulation createSimulation(SimulationConfig config, boolean isDelayed) throws Exception {
+        AreaScenario scenario = SimulationFixture.createScenario(config);
+        if (isDelayed) {
+            int i = 0;
+            for (Route route : scenario.getRoutes())
+                route.setSpawnDelay(i++ % maxSpawnDelay);
+        }
+        return SimulationFixture.createSimulation(scenario);
+    }
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    /**
+     * A scenario whose scouts block for routes spawning after {@value #blockedSpawnDelay} steps until they are
+     * released, so the preparation finishes, but the simulation has to wait for the background routing later.
+     */
+    private static class BlockingScenario extends RandomRouteScenario {
+        private final CountDownLatch blocked  = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private BlockingScenario(SimulationConfig config) throws Exception {
+            super(config.seed, config, SimulationFixture.createGraph(config));
+            redefineMetaRoutes();
+            int i = 0;
+            for (Route route : getRoutes())
+                route.setSpawnDelay(i++ % maxSpawnDelay);
+        }
+
+        @Override
+        public Supplier<ShortestPathAlgorithm<Node, DirectedEdge>> getScoutFactory() {
+            Supplier<ShortestPathAlgorithm<Node, DirectedEdge>> factory = super.getScoutFactory();
+            return () -> {
+                ShortestPathAlgorithm<Node, DirectedEdge> scout = factory.get();
+                return (Node start, Node end, Stack<? super DirectedEdge> shortestPath) -> {
+                    if (((Route) shortestPath).getSpawnDelay() >= blockedSpawnDelay) {
+                        blocked.countDown();
+                        try {
+                            released.await();
+                        } catch (InterruptedException e) {
+                            // cancelled
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    scout.findShortestPath(start, end, shortestPath);
+                };
+            };
+        }
+    }
+
+    /**
+     * Runs steps on a new thread until a step throws.
+     *
+     * @param failure is set to the exception thrown by the step
+     * @param interrupted is set to the thread's interrupt flag after the step has thrown
+     */
+    private static Thread startStepping(VehicleSimulation simulation,
+                                        AtomicReference<RuntimeException> failure,
+                                        AtomicReference<Boolean> interrupted)
+    {
+        Thread thread = new Thread(() -> {
+            try {
+                for (int age = 0; age <= maxSpawnDelay; age++)
+                    simulation.runOneStep();
+            } catch (RuntimeException e) {
+                failure.set(e);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits until the given thread is blocked, e.g. waiting for a route.
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testThreadCount() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        VehicleSimulation single = createSimulation(createConfig(seed, 1, true), true);
+        VehicleSimulation multi  = createSimulation(createConfig(seed, 4, true), true);
+        SimulationFixture.assertEqualRuns(single, multi, maxStep, checkInterval);
+    }
+
+    @Test
+    public void testRoutesAreAssignedBeforeSpawning() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        VehicleSimulation simulation = createSimulation(createConfig(seed, 4, true), true);
+        for (Vehicle vehicle : simulation.getScenario().getVehicleContainer()) {
+            Route route = vehicle.getDriver().getRoute();
+            if (route.getSpawnDelay() == 0)
+                assertTrue("Vehicle " + vehicle.getId() + " spawning first has no route.",
+                        route instanceof StackRoute);
+        }
+
+        for (int age = 0; age <= maxSpawnDelay; age++)
+            simulation.runOneStep();
+        for (Vehicle vehicle : simulation.getScenario().getVehicleContainer())
+            assertFalse("Vehicle " + vehicle.getId() + " has become due without route.",
+                    vehicle.getDriver().getRoute() instanceof MetaRoute);
+    }
+
+    @Test
+    public void testWithoutSpawnDelays() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        // all vehicles spawn in the first step, so all routes are computed during the preparation
+        VehicleSimulation eager     = createSimulation(createConfig(seed, 4, false), false);
+        VehicleSimulation streaming = createSimulation(createConfig(seed, 4, true), false);
+        SimulationFixture.assertEqualRuns(eager, streaming, maxStep, checkInterval);
+    }
+
+    @Test
+    public void testCancellation() throws Exception {
+        SimulationConfig config = createConfig(42, 1, true);
+        BlockingScenario scenario = new BlockingScenario(config);
+        VehicleScenarioBuilder builder = new VehicleScenarioBuilder(config.seed);
+        builder.prepare(scenario);
+        VehicleSimulation simulation = new VehicleSimulation();
+        simulation.setAndInitPreparedScenario(scenario);
+        assertTrue(scenario.blocked.await(timeoutMillis, TimeUnit.MILLISECONDS));
+
+        // resetting cancels the blocked pack and the waiting ones, so the simulation must not wait for them forever
+        builder.reset();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicReference<Boolean> interrupted = new AtomicReference<>();
+        Thread stepping = startStepping(simulation, failure, interrupted);
+        stepping.join(timeoutMillis);
+        assertFalse("Simulation waits for cancelled routes.", stepping.isAlive());
+        assertTrue("Wrong failure: " + failure.get(), failure.get() instanceof CancellationException);
+        assertFalse(interrupted.get());
+    }
+
+    @Test
+    public void testInterruptWhileWaiting() throws Exception {
+        SimulationConfig config = createConfig(42, 1, true);
+        BlockingScenario scenario = new BlockingScenario(config);
+        VehicleScenarioBuilder builder = new VehicleScenarioBuilder(config.seed);
+        builder.prepare(scenario);
+        VehicleSimulation simulation = new VehicleSimulation();
+        simulation.setAndInitPreparedScenario(scenario);
+
+        // the stepping thread waits for a blocked route; interrupting it has to stop the waiting
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicReference<Boolean> interrupted = new AtomicReference<>();
+        Thread stepping = startStepping(simulation, failure, interrupted);
+        assertTrue(scenario.blocked.await(timeoutMillis, TimeUnit.MILLISECONDS));
+        awaitWaiting(stepping);
+        stepping.interrupt();
+        stepping.join(timeoutMillis);
+        assertFalse("Interrupt has been swallowed.", stepping.isAlive());
+        assertTrue("Wrong failure: " + failure.get(), failure.get() instanceof CancellationException);
+        assertTrue("Interrupt flag has not been restored.", interrupted.get());
+
+        scenario.released.countDown();
+        builder.reset();
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
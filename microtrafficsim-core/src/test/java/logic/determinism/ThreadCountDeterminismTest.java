@@ -0,0 +1,84 @@
+package logic.determinism;
+
+import microtrafficsim.core.logic.vehicles.driver.BasicDriver;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import testhelper.SimulationFixture;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>
+ * Tests whether the results of a seed do not depend on the number of threads: a single-threaded simulation has to
+ * reach exactly the same states as a multi-threaded one. This is tested for every
+ * {@link StatefulRandomGenerator.Type}.
+ *
+ * <p>
+ * Both simulations use the same seed and execute {@value maxStep} steps. Every {@value checkInterval} steps, every
+ * vehicle's lane, cell position, velocity and its driver's state are compared (see {@link SimulationFixture}).
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class ThreadCountDeterminismTest {
+    private static Logger logger = new EasyMarkableLogger(ThreadCountDeterminismTest.class);
+
+    /* testing parameters */
+    private static final int maxStep = 200;
+    private static final int checkInterval = 20;
+
+
+    private SimulationConfig createConfig(long seed, int nThreads, StatefulRandomGenerator.Type randomGeneratorType) {
+        SimulationConfig config = SimulationFixture.createConfig(seed, nThreads);
+        config.randomGeneratorType = randomGeneratorType;
+        return config;
+    }
+
+    private void testThreadCountFor(StatefulRandomGenerator.Type type) throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed + ", random = " + type);
+
+        VehicleSimulation single = SimulationFixture.createSimulation(createConfig(seed, 1, type));
+        VehicleSimulation multi  = SimulationFixture.createSimulation(createConfig(seed, 4, type));
+
+        // the generators are of the configured type
+        for (Vehicle vehicle : single.getScenario().getVehicleContainer())
+            assertEquals(type, ((BasicDriver) vehicle.getDriver()).getRandomGeneratorType());
+
+        SimulationFixture.assertEqualRuns(single, multi, maxStep, checkInterval);
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testJavaRandom() throws Exception {
+        testThreadCountFor(StatefulRandomGenerator.Type.JAVA);
+    }
+
+    @Test
+    public void testSplitMixRandom() throws Exception {
+        testThreadCountFor(StatefulRandomGenerator.Type.SPLIT_MIX);
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
@@ -0,0 +1,265 @@
+package logic.monitoring;
+
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.VehicleState;
+import microtrafficsim.core.logic.vehicles.machines.MonitoredVehicle;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.core.Simulation;
+import microtrafficsim.core.simulation.core.StepListener;
+import microtrafficsim.core.simulation.core.StreamingVehicleMonitor;
+import microtrafficsim.core.simulation.core.StreamingVehicleMonitor.RecordFormat;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.impl.AreaScenario;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import testhelper.SimulationFixture;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the records written by {@link StreamingVehicleMonitor}: they are read back from the file and compared to the
+ * records a listener collects in memory during the same steps. Furthermore, the flush interval and closing are tested.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class StreamingVehicleMonitorTest {
+
+    /* testing parameters */
+    private static final long seed = 42;
+    private static final int steps = 60;
+    private static final int monitoredRoutes = 20;
+    private static final long timeoutMillis = 10_000;
+
+    private File file;
+
+
+    /**
+     * @return simulation whose first {@value monitoredRoutes} routes are monitored
+     */
+    private VehicleSimulation createSimulation() throws Exception {
+        AreaScenario scenario = SimulationFixture.createScenario(SimulationFixture.createConfig(seed, 1));
+        int i = 0;
+        for (Route route : scenario.getRoutes())
+            route.setMonitored(i++ < monitoredRoutes);
+        return SimulationFixture.createSimulation(scenario);
+    }
+
+    /**
+     * Collects the expected records in memory, one array {@code simStep, vehicleId, spawnedVehicleCount, velocity,
+     * edgeId, edgeVehicleCount, edgeLaneCount, edgeLength} per record, edge attributes are -1 if the vehicle is not
+     * on an edge.
+     */
+    private static class RecordCollector implements StepListener {
+        private final List<long[]> records = new ArrayList<>();
+
+        @Override
+        public void didOneStep(Simulation simulation) {
+            int spawnedCount = simulation.getScenario().getVehicleContainer().getSpawnedCount();
+            for (Vehicle vehicle : simulation.getScenario().getVehicleContainer().getVehicles()) {
+                if (!(vehicle instanceof MonitoredVehicle) || vehicle.getState() == VehicleState.DESPAWNED)
+                    continue;
+
+                DirectedEdge.Lane lane = vehicle.getLane();
+                DirectedEdge edge = lane == null ? null : lane.getEdge();
+                records.add(new long[]{
+                        simulation.getAge(), vehicle.getId(), spawnedCount, vehicle.getVelocity(),
+                        edge == null ? -1 : edge.getId(),
+                        edge == null ? -1 : edge.getVehicleCount(),
+                        edge == null ? -1 : edge.getNumberOfLanes(),
+                        edge == null ? -1 : edge.getLength()
+                });
+            }
+        }
+    }
+
+    private List<long[]> simulate(StreamingVehicleMonitor monitor, int steps) throws Exception {
+        VehicleSimulation simulation = createSimulation();
+        RecordCollector collector = new RecordCollector();
+        simulation.addStepListener(monitor);
+        simulation.addStepListener(collector);
+        for (int i = 0; i < steps; i++)
+            simulation.runOneStep();
+        assertFalse("No vehicle has been monitored.", collector.records.isEmpty());
+        return collector.records;
+    }
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    private static List<long[]> readBinary(File file) throws Exception {
+        List<long[]> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            while (true) {
+                long[] record = new long[8];
+                try {
+                    record[0] = in.readInt();
+                } catch (EOFException e) {
+                    return records;
+                }
+                record[1] = in.readLong();
+                record[2] = in.readInt();
+                record[3] = in.readInt();
+                record[4] = in.readLong();
+                record[5] = in.readInt();
+                record[6] = in.readInt();
+                record[7] = in.readInt();
+                records.add(record);
+            }
+        }
+    }
+
+    private static List<long[]> readCSV(File file) throws Exception {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+        assertTrue("Legend is missing.", lines.get(0).startsWith("simStep"));
+
+        List<long[]> records = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(" ", -1);
+            assertEquals("Wrong field count in '" + line + "'", 8, fields.length);
+
+            long[] record = new long[8];
+            for (int i = 0; i < 8; i++)
+                record[i] = fields[i].isEmpty() ? -1 : Long.parseLong(fields[i]);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static void assertRecords(List<long[]> expected, List<long[]> actual) {
+        assertEquals("Wrong record count", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals("Unequal record #" + i, expected.get(i), actual.get(i));
+    }
+
+    /**
+     * Waits until the file has the given length, because the buffers are written in the background.
+     */
+    private static void awaitLength(File file, long length) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (file.length() < length && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals("Wrong file length", length, file.length());
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        // small buffers, so records are handed over in the middle of a step
+        StreamingVehicleMonitor monitor = new StreamingVehicleMonitor(
+                file, RecordFormat.BINARY, 3 * StreamingVehicleMonitor.BINARY_RECORD_SIZE + 7, 2, 0);
+        List<long[]> expected = simulate(monitor, steps);
+        monitor.close();
+
+        assertEquals(expected.size() * StreamingVehicleMonitor.BINARY_RECORD_SIZE, file.length());
+        assertRecords(expected, readBinary(file));
+    }
+
+    @Test
+    public void testCSVRoundTrip() throws Exception {
+        StreamingVehicleMonitor monitor = new StreamingVehicleMonitor(file, RecordFormat.CSV, 1024, 3, 0);
+        List<long[]> expected = simulate(monitor, steps);
+        monitor.close();
+
+        assertRecords(expected, readCSV(file));
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        int flushInterval = 5;
+        StreamingVehicleMonitor monitor = new StreamingVehicleMonitor(
+                file, RecordFormat.BINARY, 1 << 20, 2, flushInterval);
+
+        // the records of the first flushInterval steps are written without closing, the ones of the last step are not
+        List<long[]> expected = simulate(monitor, flushInterval + 1);
+        long lastStep = expected.get(expected.size() - 1)[0];
+        long flushed  = expected.stream().filter(record -> record[0] != lastStep).count();
+        awaitLength(file, flushed * StreamingVehicleMonitor.BINARY_RECORD_SIZE);
+
+        monitor.close();
+        assertEquals(expected.size() * StreamingVehicleMonitor.BINARY_RECORD_SIZE, file.length());
+    }
+
+    @Test
+    public void testWithoutFlushInterval() throws Exception {
+        StreamingVehicleMonitor monitor = new StreamingVehicleMonitor(file, RecordFormat.BINARY, 1 << 20, 2, 0);
+        List<long[]> expected = simulate(monitor, steps);
+
+        // the buffer is not full, so nothing has been handed over to the writer
+        assertEquals(0, file.length());
+        monitor.close();
+        assertRecords(expected, readBinary(file));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        StreamingVehicleMonitor monitor = new StreamingVehicleMonitor(file, RecordFormat.BINARY, 1 << 20, 2, 1);
+        VehicleSimulation simulation = createSimulation();
+        simulation.addStepListener(monitor);
+        for (int i = 0; i < steps; i++)
+            simulation.runOneStep();
+
+        // closing from another thread writes everything
+        Thread closing = new Thread(() -> {
+            try {
+                monitor.close();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        closing.start();
+        closing.join(timeoutMillis);
+        assertFalse("Closing has not finished.", closing.isAlive());
+        assertTrue(monitor.isClosed());
+
+        // later steps are ignored, closing again does nothing
+        long length = file.length();
+        assertTrue(length > 0);
+        simulation.runOneStep();
+        monitor.close();
+        assertEquals(length, file.length());
+        assertEquals(length / StreamingVehicleMonitor.BINARY_RECORD_SIZE, readBinary(file).size());
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @Before
+    public void createFile() throws Exception {
+        file = File.createTempFile("monitor", ".bin");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
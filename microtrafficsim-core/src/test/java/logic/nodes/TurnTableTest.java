@@ -0,0 +1,88 @@
+package logic.nodes;
+
+import microtrafficsim.core.convenience.parser.DefaultParserConfig;
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.map.MapProperties;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.utils.logging.LoggingLevel;
+import microtrafficsim.utils.resources.PackagedResource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests whether the lookups of a {@link Node} using its compiled turn table equal the lookups in its connectors.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class TurnTableTest {
+
+    private static Graph graph;
+
+
+    @BeforeClass
+    public static void initialize() throws Exception {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+
+        SimulationConfig config = new SimulationConfig();
+        config.crossingLogic.drivingOnTheRight = true;
+
+        File file = new PackagedResource(TurnTableTest.class, "/logic/3_edges_but_4-node.osm").asTemporaryFile();
+        graph = DefaultParserConfig.get(config).build().parse(
+                file,
+                new MapProperties(config.crossingLogic.drivingOnTheRight)).streetgraph;
+    }
+
+
+    @Test
+    public void testLookupsEqualConnectors() {
+        int nConnectors = 0;
+
+        for (Node node : graph.getNodes()) {
+            for (DirectedEdge incoming : node.getIncomingEdges()) {
+                for (DirectedEdge leaving : node.getLeavingEdges()) {
+                    int outermost = -1;
+
+                    for (DirectedEdge.Lane lane : incoming) {
+                        TreeMap<DirectedEdge, DirectedEdge.Lane> connected = node.getConnectors().get(lane);
+                        DirectedEdge.Lane expected = connected == null ? null : connected.get(leaving);
+
+                        assertEquals(expected, node.getLeavingLane(lane, leaving));
+                        assertEquals(expected != null, node.isLaneCorrect(lane, leaving));
+                        if (expected != null) {
+                            nConnectors++;
+                            if (outermost < 0)
+                                outermost = lane.getIndex();
+                        }
+                    }
+
+                    assertEquals(outermost, node.findOutermostTurningLaneIndex(incoming, leaving));
+                }
+            }
+        }
+
+        assertTrue("Graph has no connectors.", nConnectors > 0);
+    }
+
+    @Test
+    public void testForeignEdgesAreNotConnected() {
+        for (Node node : graph.getNodes()) {
+            for (Node other : graph.getNodes()) {
+                if (other == node)
+                    continue;
+
+                for (DirectedEdge incoming : node.getIncomingEdges())
+                    for (DirectedEdge leaving : other.getLeavingEdges()) {
+                        assertNull(node.getLeavingLane(incoming.getLane(0), leaving));
+                        assertEquals(-1, node.findOutermostTurningLaneIndex(incoming, leaving));
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package logic.rerouting;
+
+import microtrafficsim.core.logic.routes.Route;
+import microtrafficsim.core.logic.routes.StackRoute;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.rerouting.DynamicRerouting;
+import microtrafficsim.math.random.distributions.impl.Random;
+import microtrafficsim.utils.logging.EasyMarkableLogger;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import testhelper.SimulationFixture;
+
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link DynamicRerouting}: the re-routed vehicles have to reach the same states for every number of threads
+ * and their new routes have to be drivable.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class DynamicReroutingTest {
+    private static Logger logger = new EasyMarkableLogger(DynamicReroutingTest.class);
+
+    /* testing parameters */
+    private static final int maxStep = 200;
+    private static final int checkInterval = 20;
+
+
+    private SimulationConfig createConfig(long seed, int nThreads, int nReroutingThreads) {
+        SimulationConfig config = SimulationFixture.createConfig(seed, nThreads);
+        config.rerouting.enabled         = true;
+        config.rerouting.vehiclesPerStep = 50;
+        config.rerouting.nThreads        = nReroutingThreads;
+        return config;
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testThreadCount() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        VehicleSimulation single = SimulationFixture.createSimulation(createConfig(seed, 1, 1));
+        VehicleSimulation multi  = SimulationFixture.createSimulation(createConfig(seed, 4, 3));
+
+        SimulationFixture.assertEqualRuns(single, multi, maxStep, checkInterval,
+                vehicle -> "route=" + vehicle.getDriver().getRoute().size());
+        assertEquals(single.getRerouting().getReroutedCount(), multi.getRerouting().getReroutedCount());
+    }
+
+    @Test
+    public void testRoutesAreDrivable() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        VehicleSimulation simulation = SimulationFixture.createSimulation(createConfig(seed, 4, 2));
+        for (int age = 0; age < maxStep; age++)
+            simulation.runOneStep();
+
+        DynamicRerouting rerouting = simulation.getRerouting();
+        logger.info("rerouted = " + rerouting.getReroutedCount() + ", dropped = " + rerouting.getDroppedCount());
+
+        for (Vehicle vehicle : simulation.getScenario().getVehicleContainer().getSpawnedVehicles()) {
+            Route route = vehicle.getDriver().getRoute();
+            if (route.isEmpty())
+                continue;
+            assertTrue(route instanceof StackRoute);
+
+            // the route continues the vehicle's edge and every edge continues its predecessor
+            DirectedEdge previous = vehicle.getLane().getEdge();
+            StackRoute   edges    = (StackRoute) route;
+            for (int i = edges.size() - 1; i >= 0; i--) {
+                DirectedEdge edge = edges.get(i);
+                assertTrue("Vehicle " + vehicle.getId() + " cannot turn from " + previous + " into " + edge,
+                        previous.getDestination().getLeavingEdges(previous).contains(edge));
+                previous = edge;
+            }
+        }
+    }
+
+    @Test
+    public void testTravelTimesAreOptimistic() throws Exception {
+        long seed = new Random().getSeed();
+        logger.info("seed = " + seed);
+
+        VehicleSimulation simulation = SimulationFixture.createSimulation(createConfig(seed, 4, 2));
+        for (int age = 0; age < maxStep; age++)
+            simulation.runOneStep();
+
+        // the A-star heuristic assumes free flow, so no edge must be faster
+        ToDoubleFunction<DirectedEdge> travelTimes = simulation.getRerouting().getEstimator().getTravelTimes();
+        for (DirectedEdge edge : simulation.getScenario().getGraph().getEdges())
+            assertTrue(travelTimes.applyAsDouble(edge) >= edge.getTimeCostMillis() - 1e-6);
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
@@ -11,6 +11,7 @@ import microtrafficsim.core.map.Coordinate;
 import microtrafficsim.core.map.StreetType;
 import microtrafficsim.core.shortestpath.ShortestPathAlgorithm;
 import microtrafficsim.core.shortestpath.ShortestPathEdge;
+import microtrafficsim.core.shortestpath.astar.AStar;
 import microtrafficsim.core.shortestpath.astar.AStars;
 import microtrafficsim.core.shortestpath.astar.BidirectionalAStars;
 import microtrafficsim.core.simulation.configs.SimulationConfig;
@@ -134,6 +135,41 @@ public class TestShortestPathAlgorithms {
         testAll();
     }
 
+    @Test
+    public void testFastestPathFromIncomingEdge() {
+        logger.info("");
+        logger.info("NEW TEST: AStars.fastestPathAStar(timeCostMillis, ...) from incoming edge");
+        createShortestPathCorrectGraph();
+
+        HashMap<DirectedEdge, Double> timeCosts = new HashMap<>();
+        AStar<Node, DirectedEdge> astar = AStars.fastestPathAStar(
+                edge -> timeCosts.getOrDefault(edge, edge.getTimeCostMillis()),
+                config.metersPerCell, config.globalMaxVelocity);
+        astar.preprocess();
+        DirectedEdge incoming = (DirectedEdge) edges.get("gd").getForwardEdge();
+
+        // the incoming edge is not part of the path
+        Stack<DirectedEdge> path = new Stack<>();
+        astar.findShortestPath(incoming, nodes.get("c"), path);
+        correctShortestPath.clear();
+        correctShortestPath.push((DirectedEdge) edges.get("ac").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("ea").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("de").getForwardEdge());
+        assertEquals(correctShortestPath, path);
+
+        // a jammed edge is avoided
+        timeCosts.put((DirectedEdge) edges.get("de").getForwardEdge(), 1e6);
+        path.clear();
+        astar.findShortestPath(incoming, nodes.get("c"), path);
+        correctShortestPath.clear();
+        correctShortestPath.push((DirectedEdge) edges.get("ac").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("ea").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("he").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("fh").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("df").getForwardEdge());
+        assertEquals(correctShortestPath, path);
+    }
+
     /**
      * <p>
      * Executes: <br>
@@ -228,6 +264,27 @@ public class TestShortestPathAlgorithms {
      * for its correctness. The graph contains circles.
      */
     private void isShortestPathCorrect() {
+        createShortestPathCorrectGraph();
+
+        // shortest path
+        start = nodes.get("g");
+        end   = nodes.get("c");
+
+        shortestPath.clear();
+        shortestPathAlgorithm.findShortestPath(start, end, shortestPath);
+
+        // correct path
+        correctShortestPath.clear();
+        correctShortestPath.push((DirectedEdge) edges.get("ac").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("ea").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("de").getForwardEdge());
+        correctShortestPath.push((DirectedEdge) edges.get("gd").getForwardEdge());
+
+        logger.info("Test: Is shortest path correct?");
+        assertEquals(correctShortestPath, shortestPath);
+    }
+
+    private void createShortestPathCorrectGraph() {
         // create nodes
         nodes.put("a", new Node(idGenerator.next(), uselessPosition, config.crossingLogic));
         nodes.put("b", new Node(idGenerator.next(), uselessPosition, config.crossingLogic));
@@ -257,23 +314,6 @@ public class TestShortestPathAlgorithms {
 
         // finish
         graph.updateGraphGUID();
-
-        // shortest path
-        start = nodes.get("g");
-        end   = nodes.get("c");
-
-        shortestPath.clear();
-        shortestPathAlgorithm.findShortestPath(start, end, shortestPath);
-
-        // correct path
-        correctShortestPath.clear();
-        correctShortestPath.push((DirectedEdge) edges.get("ac").getForwardEdge());
-        correctShortestPath.push((DirectedEdge) edges.get("ea").getForwardEdge());
-        correctShortestPath.push((DirectedEdge) edges.get("de").getForwardEdge());
-        correctShortestPath.push((DirectedEdge) edges.get("gd").getForwardEdge());
-
-        logger.info("Test: Is shortest path correct?");
-        assertEquals(correctShortestPath, shortestPath);
     }
 
     /**
@@ -0,0 +1,93 @@
+package map;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.PackedCoordinates;
+import microtrafficsim.core.serialization.kryo.Utils;
+import microtrafficsim.core.vis.map.projections.MercatorProjection;
+import microtrafficsim.core.vis.map.projections.Projection;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Test for packed coordinate sequences.
+ *
+ * @author Maximilian Luz
+ */
+public class PackedCoordinatesTest {
+
+    private static final Coordinate[] COORDINATES = {
+            new Coordinate(48.7758, 9.1829),
+            new Coordinate(48.7761, 9.1835),
+            new Coordinate(48.7770, 9.1841)
+    };
+
+
+    /**
+     * Tests packing and accessing coordinates.
+     */
+    @Test
+    public void testAccess() {
+        PackedCoordinates packed = PackedCoordinates.of(COORDINATES);
+
+        assertEquals(COORDINATES.length, packed.size());
+        assertArrayEquals(COORDINATES, packed.toArray());
+
+        Coordinate tmp = new Coordinate(0, 0);
+        for (int i = 0; i < COORDINATES.length; i++) {
+            assertEquals(COORDINATES[i], packed.get(i));
+            assertEquals(COORDINATES[i], packed.get(i, tmp));
+            assertTrue(packed.matches(i, COORDINATES[i]));
+            assertTrue(packed.matches(i, packed, i));
+        }
+
+        assertFalse(packed.matches(0, COORDINATES[1]));
+        assertEquals(packed, PackedCoordinates.of(COORDINATES));
+        assertNull(PackedCoordinates.of(null));
+        assertEquals(0, PackedCoordinates.of(new Coordinate[0]).size());
+    }
+
+    /**
+     * Tests that projecting packed coordinates equals projecting the single coordinates.
+     */
+    @Test
+    public void testProjection() {
+        Projection projection = new MercatorProjection();
+        PackedCoordinates packed = PackedCoordinates.of(COORDINATES);
+
+        for (int i = 0; i < COORDINATES.length; i++)
+            assertEquals(projection.project(COORDINATES[i]), projection.project(packed, i));
+    }
+
+    /**
+     * Tests that the serialized format of packed coordinates equals the one of coordinate-arrays.
+     */
+    @Test
+    public void testSerialization() {
+        PackedCoordinates packed = PackedCoordinates.of(COORDINATES);
+
+        ByteArrayOutputStream array     = new ByteArrayOutputStream();
+        ByteArrayOutputStream packedOut = new ByteArrayOutputStream();
+        try (Output out = new Output(array)) {
+            Utils.writeCoordinates(out, COORDINATES);
+        }
+        try (Output out = new Output(packedOut)) {
+            Utils.writeCoordinates(out, packed);
+        }
+        assertArrayEquals(array.toByteArray(), packedOut.toByteArray());
+
+        try (Input in = new Input(array.toByteArray())) {
+            assertEquals(packed, Utils.readPackedCoordinates(in));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddLength() {
+        new PackedCoordinates(new double[3]);
+    }
+}
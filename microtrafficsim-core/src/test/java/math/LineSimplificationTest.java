@@ -0,0 +1,128 @@
+package math;
+
+import microtrafficsim.math.Vec2d;
+import microtrafficsim.math.geometry.Lines;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Test for {@link Lines#simplify(Vec2d[], double)} and {@link Lines#simplify(Vec2d[], double, boolean)}.
+ *
+ * @author Maximilian Luz
+ */
+public class LineSimplificationTest {
+
+    private static final Vec2d[] LINE = {
+            new Vec2d(0.0, 0.0),
+            new Vec2d(1.0, 0.1),
+            new Vec2d(2.0, -0.1),
+            new Vec2d(3.0, 5.0),
+            new Vec2d(4.0, 6.0),
+            new Vec2d(5.0, 7.0),
+            new Vec2d(6.0, 8.1),
+            new Vec2d(7.0, 9.0)
+    };
+
+    /**
+     * Concave polygon with a notch reaching into a bump of its right side. Plain Douglas-Peucker with a tolerance of 1
+     * removes the bump but keeps the notch, so the notch would cross the straightened side.
+     */
+    private static final Vec2d[] NOTCHED_POLYGON = {
+            new Vec2d( 0.0,  0.0),
+            new Vec2d(10.0,  0.0),
+            new Vec2d(10.0,  4.0),
+            new Vec2d(11.0,  5.0),
+            new Vec2d(10.0,  6.0),
+            new Vec2d(10.0, 10.0),
+            new Vec2d( 0.0, 10.0),
+            new Vec2d( 0.0,  5.2),
+            new Vec2d(10.4,  5.1),
+            new Vec2d(10.5,  5.0),
+            new Vec2d(10.4,  4.9),
+            new Vec2d( 0.0,  4.8)
+    };
+
+
+    /**
+     * Asserts that no two non-adjacent segments of the given polygon outline cross each other.
+     */
+    private static void assertSimplePolygon(Vec2d[] outline) {
+        int n = outline.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 2; j < n; j++) {
+                if (i == 0 && j == n - 1) continue;
+
+                assertFalse("segments " + i + " and " + j + " intersect",
+                        Lines.segmentIntersectsNonCoincidental(
+                                outline[i], outline[(i + 1) % n], outline[j], outline[(j + 1) % n]));
+            }
+        }
+    }
+
+
+    @Test
+    public void testKeepsFullDetail() {
+        assertSame(LINE, Lines.simplify(LINE, 0.0));
+    }
+
+    @Test
+    public void testSimplify() {
+        Vec2d[] simplified = Lines.simplify(LINE, 0.5);
+
+        assertArrayEquals(new Vec2d[]{ LINE[0], LINE[2], LINE[3], LINE[7] }, simplified);
+    }
+
+    @Test
+    public void testKeepsEndpoints() {
+        Vec2d[] simplified = Lines.simplify(LINE, 100.0);
+
+        assertEquals(2, simplified.length);
+        assertSame(LINE[0], simplified[0]);
+        assertSame(LINE[LINE.length - 1], simplified[1]);
+    }
+
+    @Test
+    public void testTolerance() {
+        double tolerance = 0.25;
+        Vec2d[] simplified = Lines.simplify(LINE, tolerance);
+
+        // every removed vertex lies within the tolerance of the simplified line
+        for (Vec2d p : LINE) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 1; i < simplified.length; i++)
+                min = Math.min(min, Lines.segmentDistanceSq(simplified[i - 1], simplified[i], p));
+
+            assertTrue(Math.sqrt(min) <= tolerance);
+        }
+    }
+
+    @Test
+    public void testPreservesTopology() {
+        Vec2d[] simplified = Lines.simplify(NOTCHED_POLYGON, 1.0, true);
+
+        assertSimplePolygon(simplified);
+        assertTrue(simplified.length < NOTCHED_POLYGON.length);
+
+        // the bump is kept to stay outside of the notch
+        assertTrue(Arrays.asList(simplified).contains(NOTCHED_POLYGON[3]));
+    }
+
+    @Test
+    public void testKeepsExistingIntersections() {
+        // figure eight: the given outline already intersects itself, so simplifying must not split forever
+        Vec2d[] outline = {
+                new Vec2d(0.0, 0.0),
+                new Vec2d(2.0, 2.0),
+                new Vec2d(2.1, 1.0),
+                new Vec2d(2.0, 0.0),
+                new Vec2d(0.0, 2.0)
+        };
+
+        Vec2d[] simplified = Lines.simplify(outline, 0.5, true);
+        assertSame(outline, simplified);
+    }
+}
@@ -0,0 +1,100 @@
+package math;
+
+import microtrafficsim.math.Vec2d;
+import microtrafficsim.math.geometry.polygons.EarClippingTriangulator;
+import microtrafficsim.math.geometry.polygons.Polygon;
+import microtrafficsim.math.geometry.polygons.SweepLineTriangulator;
+import microtrafficsim.math.geometry.polygons.Triangulator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the polygon triangulators: the triangles of a triangulated polygon have to cover the area of the polygon.
+ *
+ * @author Maximilian Luz
+ */
+public class TriangulatorTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private static final Triangulator[] TRIANGULATORS = {
+            new SweepLineTriangulator(),
+            new EarClippingTriangulator()
+    };
+
+
+    @Test
+    public void testConvex() {
+        Vec2d[] square = {
+                new Vec2d(0.0, 0.0), new Vec2d(1.0, 0.0), new Vec2d(1.0, 1.0), new Vec2d(0.0, 1.0)
+        };
+
+        for (Triangulator triangulator : TRIANGULATORS)
+            assertArea(triangulator, new Polygon(square), 1.0);
+    }
+
+    @Test
+    public void testConcave() {
+        Vec2d[] comb = {
+                new Vec2d(0.0, 0.0), new Vec2d(5.0, 0.0), new Vec2d(5.0, 3.0), new Vec2d(4.0, 3.0),
+                new Vec2d(4.0, 1.0), new Vec2d(3.0, 1.0), new Vec2d(3.0, 3.0), new Vec2d(2.0, 3.0),
+                new Vec2d(2.0, 1.0), new Vec2d(1.0, 1.0), new Vec2d(1.0, 3.0), new Vec2d(0.0, 3.0)
+        };
+
+        for (Triangulator triangulator : TRIANGULATORS)
+            assertArea(triangulator, new Polygon(comb), 11.0);
+    }
+
+    @Test
+    public void testIsland() {
+        Vec2d[] outline = {
+                new Vec2d(0.0, 0.0), new Vec2d(4.0, 0.0), new Vec2d(4.0, 4.0), new Vec2d(0.0, 4.0)
+        };
+        Vec2d[] island = {
+                new Vec2d(1.0, 1.0), new Vec2d(1.0, 3.0), new Vec2d(3.0, 3.0), new Vec2d(3.0, 1.0)
+        };
+
+        assertArea(new EarClippingTriangulator(), new Polygon(outline, new Vec2d[][]{ island }), 12.0);
+    }
+
+    @Test
+    public void testLarge() {
+        // star-shaped polygon, large enough to use the z-order curve for ear-clipping
+        Random random = new Random(42);
+        int n = 1000;
+
+        Vec2d[] outline = new Vec2d[n];
+        for (int i = 0; i < n; i++) {
+            double angle = 2.0 * Math.PI * i / n;
+            double radius = 1.0 + random.nextDouble();
+            outline[i] = new Vec2d(Math.cos(angle) * radius, Math.sin(angle) * radius);
+        }
+
+        double expected = Polygon.area(outline);
+        for (Triangulator triangulator : TRIANGULATORS)
+            assertArea(triangulator, new Polygon(outline.clone()).normalize(), expected);
+    }
+
+
+    private static void assertArea(Triangulator triangulator, Polygon polygon, double expected) {
+        Triangulator.Result result = triangulator.triangulate(polygon);
+        String name = triangulator.getClass().getSimpleName();
+
+        assertNotNull(name, result);
+        assertEquals(name, 0, result.indices.size() % 3);
+
+        double area = 0.0;
+        for (int i = 0; i < result.indices.size(); i += 3) {
+            Vec2d a = result.vertices.get(result.indices.get(i));
+            Vec2d b = result.vertices.get(result.indices.get(i + 1));
+            Vec2d c = result.vertices.get(result.indices.get(i + 2));
+            area += Polygon.area(new Vec2d[]{ a, b, c });
+        }
+
+        assertEquals(name, expected, area, EPSILON * Math.max(1.0, expected));
+    }
+}
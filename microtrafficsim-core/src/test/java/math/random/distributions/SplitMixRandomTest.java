@@ -0,0 +1,95 @@
+package math.random.distributions;
+
+import microtrafficsim.math.random.distributions.StatefulRandomGenerator;
+import microtrafficsim.math.random.distributions.impl.SplitMixRandom;
+import microtrafficsim.utils.id.ConcurrentSeedGenerator;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests {@link SplitMixRandom} and restoring stored states of every {@link StatefulRandomGenerator.Type}.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class SplitMixRandomTest {
+    private static final long seed = 1234567890L;
+    private static final int  drawCount = 10000;
+
+
+    @Test
+    public void testEqualsSplittableRandom() {
+        SplitMixRandom random = new SplitMixRandom(seed);
+        SplittableRandom reference = new SplittableRandom(seed);
+        for (int i = 0; i < drawCount; i++)
+            assertEquals(reference.nextLong(), random.nextLong());
+    }
+
+    @Test
+    public void testReset() {
+        SplitMixRandom random = new SplitMixRandom(seed);
+        long[] expected = new long[drawCount];
+        for (int i = 0; i < drawCount; i++)
+            expected[i] = random.nextLong();
+
+        random.reset();
+        for (int i = 0; i < drawCount; i++)
+            assertEquals(expected[i], random.nextLong());
+    }
+
+    @Test
+    public void testJumpAndSplit() {
+        SplitMixRandom random = new SplitMixRandom(seed);
+        SplitMixRandom jumping = new SplitMixRandom(seed);
+        ConcurrentSeedGenerator seeds = new ConcurrentSeedGenerator(seed);
+
+        for (int i = 0; i < drawCount; i++) {
+            long expected = random.nextLong();
+            assertEquals(expected, SplitMixRandom.longAt(seed, i));
+            assertEquals(expected, seeds.split(i));
+        }
+
+        jumping.jump(drawCount);
+        assertEquals(random.nextLong(), jumping.nextLong());
+    }
+
+    @Test
+    public void testRestoringState() {
+        for (StatefulRandomGenerator.Type type : StatefulRandomGenerator.Type.values()) {
+            StatefulRandomGenerator random = type.create(seed);
+            assertEquals(type, random.getType());
+            for (int i = 0; i < drawCount; i++)
+                random.nextFloat();
+
+            // a new generator of equal seed continues from the stored state
+            long state = random.getState();
+            StatefulRandomGenerator restored = type.create(seed);
+            restored.setState(state);
+            for (int i = 0; i < drawCount; i++)
+                assertEquals(type + " differs in draw " + i, random.nextFloat(), restored.nextFloat(), 0f);
+
+            // the seed is kept
+            random.reset();
+            restored.reset();
+            assertEquals(random.nextFloat(), restored.nextFloat(), 0f);
+        }
+    }
+
+    @Test
+    public void testBounds() {
+        SplitMixRandom random = new SplitMixRandom(seed);
+        for (int i = 0; i < drawCount; i++) {
+            float f = random.nextFloat();
+            assertTrue(0f <= f && f < 1f);
+
+            int bound = 1 + (i % 17);
+            int n = random.nextInt(bound);
+            assertTrue(0 <= n && n < bound);
+        }
+
+        byte[] bytes = random.nextByte(13);
+        assertEquals(13, bytes.length);
+    }
+}
@@ -0,0 +1,170 @@
+package preprocessing.parser;
+
+import microtrafficsim.core.map.Bounds;
+import microtrafficsim.osm.parser.base.ParserBase;
+import microtrafficsim.osm.parser.base.ParserBaseEventHandler;
+import microtrafficsim.osm.parser.features.FeatureDefinition;
+import microtrafficsim.osm.parser.features.FeatureDependency;
+import microtrafficsim.osm.parser.features.FeatureSystem;
+import microtrafficsim.osm.parser.features.TagPredicate;
+import microtrafficsim.osm.primitives.Node;
+import microtrafficsim.osm.primitives.Primitive;
+import microtrafficsim.osm.primitives.Relation;
+import microtrafficsim.osm.primitives.Way;
+import microtrafficsim.utils.resources.PackagedResource;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the feature-matching of the {@code FeatureSystem} based on {@code TagPredicate}s: matching has to return the
+ * same definitions as testing every predicate, and the {@code ParserBase} must only create the candidates.
+ *
+ * @author Maximilian Luz
+ */
+public class TagDecisionTableTest {
+
+    private static final String MAP_PATH = "/logic/3_edges_but_4-node.osm";
+
+    private static final Predicate<Way> HIGHWAY
+            = w -> w.visible && w.tags.get("highway") != null && !"yes".equals(w.tags.get("area"));
+    private static final Predicate<Way> RESIDENTIAL
+            = w -> w.visible && "residential".equals(w.tags.get("highway"));
+    private static final Predicate<Way> BUILDING
+            = w -> w.tags.get("building") != null;
+
+
+    private static FeatureDefinition def(String name, Predicate<Node> nodeMatcher, Predicate<Way> wayMatcher) {
+        return new FeatureDefinition(name, new FeatureDependency(), null, nodeMatcher, wayMatcher);
+    }
+
+    private static FeatureSystem createTagFeatureSystem() {
+        FeatureSystem features = new FeatureSystem();
+        features.putFeature(def("highway", TagPredicate.none(), TagPredicate.withTag(HIGHWAY, "highway")));
+        features.putFeature(def("residential", null,
+                TagPredicate.withTag(RESIDENTIAL, "highway", "residential", "living_street")));
+        features.putFeature(def("building", null, TagPredicate.withTag(BUILDING, "building")));
+        return features;
+    }
+
+    private static FeatureSystem createOpaqueFeatureSystem() {
+        FeatureSystem features = new FeatureSystem();
+        features.putFeature(def("highway", n -> false, HIGHWAY));
+        features.putFeature(def("residential", n -> false, RESIDENTIAL));
+        features.putFeature(def("building", n -> false, BUILDING));
+        return features;
+    }
+
+    private static Set<String> names(Set<FeatureDefinition> features) {
+        HashSet<String> names = new HashSet<>();
+        for (FeatureDefinition feature : features)
+            names.add(feature.getName());
+        return names;
+    }
+
+
+    @Test
+    public void testDecisionTable() {
+        FeatureSystem features = createTagFeatureSystem();
+
+        assertFalse(features.isTagIndependent(Primitive.Type.NODE));
+        assertFalse(features.isTagIndependent(Primitive.Type.WAY));
+        assertTrue(features.isCandidateTag(Primitive.Type.WAY, "highway", "track"));
+        assertTrue(features.isCandidateTag(Primitive.Type.WAY, "building", "yes"));
+        assertFalse(features.isCandidateTag(Primitive.Type.WAY, "landuse", "forest"));
+        assertFalse(features.isCandidateTag(Primitive.Type.NODE, "highway", "track"));
+
+        features.putFeature(def("opaque", null, w -> false));
+        assertTrue(features.isTagIndependent(Primitive.Type.WAY));
+        assertFalse(features.isTagIndependent(Primitive.Type.NODE));
+    }
+
+    @Test
+    public void testMatchingEqualsOpaqueMatching() throws Exception {
+        FeatureSystem tagFeatures    = createTagFeatureSystem();
+        FeatureSystem opaqueFeatures = createOpaqueFeatureSystem();
+
+        HashMap<Long, Set<String>> expected = new HashMap<>();
+        HashMap<Long, Set<String>> actual   = new HashMap<>();
+        parse(new Handler() {
+            @Override
+            public void onPrimitiveParsed(Way w) {
+                expected.put(w.id, names(opaqueFeatures.getFeatures(w)));
+                actual.put(w.id, names(tagFeatures.getFeatures(w)));
+            }
+        });
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testParserSkipsNonCandidates() throws Exception {
+        FeatureSystem features = new FeatureSystem();
+        features.putFeature(def("residential", null,
+                TagPredicate.withTag(RESIDENTIAL, "highway", "residential", "living_street")));
+
+        // count all ways and the ways having candidate tags
+        HashSet<Long> candidates = new HashSet<>();
+        int[] nWays = {0};
+        parse(new Handler() {
+            @Override
+            public void onPrimitiveParsed(Way w) {
+                nWays[0]++;
+                for (Map.Entry<String, String> tag : w.tags.entrySet())
+                    if (features.isCandidateTag(Primitive.Type.WAY, tag.getKey(), tag.getValue()))
+                        candidates.add(w.id);
+            }
+        });
+
+        HashSet<Long> created = new HashSet<>();
+        int[] nNodes = {0};
+        parse(new Handler() {
+            @Override
+            public void onPrimitiveParsed(Node n) {
+                nNodes[0]++;
+            }
+
+            @Override
+            public void onPrimitiveParsed(Way w) {
+                created.add(w.id);
+            }
+
+            @Override
+            public boolean isRequired(Primitive.Type type, long id) {
+                return features.isTagIndependent(type);
+            }
+
+            @Override
+            public boolean isCandidateTag(Primitive.Type type, String key, String value) {
+                return features.isCandidateTag(type, key, value);
+            }
+        });
+
+        assertEquals(0, nNodes[0]);
+        assertFalse(candidates.isEmpty());
+        assertEquals(candidates, created);
+        assertTrue("No way has been skipped.", created.size() < nWays[0]);
+    }
+
+
+    private static void parse(ParserBaseEventHandler handler) throws Exception {
+        try (InputStream in = new PackagedResource(TagDecisionTableTest.class, MAP_PATH).asStream()) {
+            new ParserBase(handler).parse(in);
+        }
+    }
+
+    private static class Handler implements ParserBaseEventHandler {
+        @Override public void onStart() {}
+        @Override public void onEnd() {}
+        @Override public void onPrimitiveParsed(Bounds b) {}
+        @Override public void onPrimitiveParsed(Node n) {}
+        @Override public void onPrimitiveParsed(Way w) {}
+        @Override public void onPrimitiveParsed(Relation r) {}
+    }
+}
@@ -0,0 +1,117 @@
+package serialization.graph;
+
+import microtrafficsim.core.convenience.exfmt.ExfmtStorage;
+import microtrafficsim.core.convenience.exfmt.MapCache;
+import microtrafficsim.core.convenience.mapviewer.TileBasedMapViewer;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.map.MapProvider;
+import microtrafficsim.core.map.tiles.QuadTreeTilingScheme;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.vis.map.projections.MercatorProjection;
+import microtrafficsim.utils.collections.Tuple;
+import microtrafficsim.utils.logging.LoggingLevel;
+import microtrafficsim.utils.resources.PackagedResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link MapCache} used by {@link ExfmtStorage#loadMap(File, boolean)}: a cached map has to be equal to the
+ * parsed one and the cache must not exceed its max size.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class MapCacheTest {
+
+    private static final String MAP_PATH = "/logic/3_edges_but_4-node.osm";
+
+    private File directory;
+
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("mapcache").toFile();
+    }
+
+    @After
+    public void cleanup() {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                assertTrue(file.delete());
+        assertTrue(directory.delete());
+    }
+
+    private ExfmtStorage createStorage(SimulationConfig config, MapCache cache) {
+        ExfmtStorage storage = new ExfmtStorage(
+                config,
+                new QuadTreeTilingScheme(new MercatorProjection()),
+                TileBasedMapViewer.DEFAULT_TILEGRID_LEVEL);
+        storage.setMapCache(cache);
+        return storage;
+    }
+
+    private static File getMapFile() throws IOException {
+        return new PackagedResource(MapCacheTest.class, MAP_PATH).asTemporaryFile();
+    }
+
+
+    @Test
+    public void testCachedMapEqualsParsedMap() throws Exception {
+        SimulationConfig config = new SimulationConfig();
+        File file = getMapFile();
+
+        Graph parsed = createStorage(config, null).loadMap(file).obj0;
+
+        MapCache cache = new MapCache(directory, MapCache.DEFAULT_MAX_SIZE);
+        Tuple<Graph, MapProvider> miss = createStorage(config, cache).loadMap(file);
+        assertEquals(1, directory.listFiles().length);
+
+        Tuple<Graph, MapProvider> hit = createStorage(config, cache).loadMap(file);
+        assertNotNull(hit);
+        assertNotNull(hit.obj1);
+        assertEquals(parsed.getGUID(), miss.obj0.getGUID());
+        assertEquals(parsed.getGUID(), hit.obj0.getGUID());
+        assertEquals(parsed.getEdges().size(), hit.obj0.getEdges().size());
+        assertEquals(1, directory.listFiles().length);
+
+        // other preprocessing values need another entry
+        createStorage(config, cache).loadMap(file, false);
+        assertEquals(2, directory.listFiles().length);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        MapCache cache = new MapCache(directory, 10);
+
+        cache.put("a", file -> write(file, 4));
+        cache.put("b", file -> write(file, 4));
+        assertTrue(new File(directory, "a" + MapCache.FILE_EXTENSION).setLastModified(0));
+        assertTrue(new File(directory, "b" + MapCache.FILE_EXTENSION).setLastModified(1000));
+        assertNotNull(cache.get("a")); // a is used more recently than b now
+
+        cache.put("c", file -> write(file, 4));
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+
+    private static boolean write(File file, int size) throws IOException {
+        Files.write(file.toPath(), new byte[size]);
+        return true;
+    }
+
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
@@ -0,0 +1,166 @@
+package serialization.graph;
+
+import microtrafficsim.core.convenience.exfmt.ExfmtStorage;
+import microtrafficsim.core.convenience.parser.DefaultParserConfig;
+import microtrafficsim.core.logic.nodes.Node;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.map.Bounds;
+import microtrafficsim.core.map.Coordinate;
+import microtrafficsim.core.map.MapProperties;
+import microtrafficsim.core.map.MapProvider;
+import microtrafficsim.core.map.area.polygons.PolygonArea;
+import microtrafficsim.core.map.area.polygons.RectangleArea;
+import microtrafficsim.core.map.area.polygons.TypedPolygonArea;
+import microtrafficsim.core.map.tiles.QuadTreeTiledMapSegment;
+import microtrafficsim.core.map.tiles.QuadTreeTilingScheme;
+import microtrafficsim.core.map.tiles.TileRect;
+import microtrafficsim.core.map.tiles.TilingScheme;
+import microtrafficsim.core.parser.OSMParser;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.vis.map.projections.MercatorProjection;
+import microtrafficsim.core.vis.scenario.areas.Area;
+import microtrafficsim.utils.collections.Tuple;
+import microtrafficsim.utils.logging.LoggingLevel;
+import microtrafficsim.utils.resources.PackagedResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link ExfmtStorage#extractRegion(File, File, PolygonArea)}: the extracted map has to be loadable and its graph
+ * must only contain nodes inside the region and connectors between its own edges.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class RegionExtractionTest {
+
+    private static final String MAP_PATH = "/logic/3_edges_but_4-node.osm";
+    private static final int GRID_LEVEL  = 16;
+
+    private ExfmtStorage storage;
+    private Graph  graph;
+    private Bounds bounds;
+    private File   full;
+    private File   region;
+
+
+    @Before
+    public void setup() throws Exception {
+        SimulationConfig config = new SimulationConfig();
+        config.crossingLogic.drivingOnTheRight = true;
+        TilingScheme scheme = new QuadTreeTilingScheme(new MercatorProjection());
+        storage = new ExfmtStorage(config, scheme, GRID_LEVEL);
+
+        File osm = new PackagedResource(RegionExtractionTest.class, MAP_PATH).asTemporaryFile();
+        OSMParser.Result result = DefaultParserConfig.get(config).build().parse(osm, new MapProperties(true));
+        QuadTreeTiledMapSegment tiled = new QuadTreeTiledMapSegment.Generator()
+                .generate(result.segment, scheme, GRID_LEVEL);
+
+        graph  = result.streetgraph;
+        bounds = result.segment.getBounds();
+
+        full   = File.createTempFile("full", ".mtsmap");
+        region = File.createTempFile("region", ".mtsmap");
+        assertTrue(storage.saveMap(full, graph, tiled));
+    }
+
+    @After
+    public void cleanup() {
+        assertTrue(full.delete());
+        assertTrue(region.delete());
+    }
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    private Tuple<Graph, MapProvider> extract(PolygonArea area) throws Exception {
+        assertTrue(storage.extractRegion(full, region, area));
+
+        Tuple<Graph, MapProvider> map = storage.loadMap(region);
+        assertNotNull(map);
+        return map;
+    }
+
+    private static void assertGraphInside(Graph graph, PolygonArea area) {
+        assertFalse("Region contains no edges.", graph.getEdges().isEmpty());
+
+        Set<DirectedEdge> edges = graph.getEdges();
+        for (Node node : graph.getNodes()) {
+            assertTrue("Node " + node + " is outside of the region", area.contains(node.getCoordinate()));
+
+            for (Map.Entry<DirectedEdge.Lane, TreeMap<DirectedEdge, DirectedEdge.Lane>> connector
+                    : node.getConnectors().entrySet()) {
+                assertTrue(edges.contains(connector.getKey().getEdge()));
+                for (DirectedEdge leaving : connector.getValue().keySet())
+                    assertTrue(edges.contains(leaving));
+            }
+        }
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testBounds() throws Exception {
+        double dlat = (bounds.maxlat - bounds.minlat) / 4;
+        double dlon = (bounds.maxlon - bounds.minlon) / 4;
+        Bounds cut = new Bounds(bounds.minlat + dlat, bounds.minlon + dlon,
+                bounds.maxlat - dlat, bounds.maxlon - dlon);
+
+        Tuple<Graph, MapProvider> map = extract(new RectangleArea(cut.minlat, cut.minlon, cut.maxlat, cut.maxlon));
+        assertGraphInside(map.obj0, new RectangleArea(cut.minlat, cut.minlon, cut.maxlat, cut.maxlon));
+        assertTrue(map.obj0.getEdges().size() < graph.getEdges().size());
+        assertEquals(cut, map.obj0.getBounds());
+
+        // the tiles of the region fit its bounds
+        assertTrue(map.obj1 instanceof QuadTreeTiledMapSegment);
+        QuadTreeTiledMapSegment segment = (QuadTreeTiledMapSegment) map.obj1;
+        TileRect leafs = segment.getLeafTiles();
+        assertEquals(segment.getTilingScheme().getTiles(segment.getProjectedBounds(), GRID_LEVEL), leafs);
+        int primitives = 0;
+        for (String feature : segment.getAvailableFeatures())
+            primitives += segment.require(feature).getData().length;
+        assertTrue("Region contains no features.", primitives > 0);
+    }
+
+    @Test
+    public void testPolygon() throws Exception {
+        Coordinate[] triangle = {
+                new Coordinate(bounds.minlat, bounds.minlon),
+                new Coordinate(bounds.minlat, bounds.maxlon),
+                new Coordinate(bounds.maxlat, bounds.maxlon)
+        };
+        TypedPolygonArea area = new TypedPolygonArea(triangle, Area.Type.ORIGIN);
+
+        Tuple<Graph, MapProvider> map = extract(area);
+        assertGraphInside(map.obj0, area);
+        assertTrue(map.obj0.getEdges().size() < graph.getEdges().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutside() throws Exception {
+        storage.extractRegion(full, region, new Bounds(0, 0, 1, 1));
+    }
+
+
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
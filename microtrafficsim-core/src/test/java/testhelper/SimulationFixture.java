@@ -0,0 +1,191 @@
+package testhelper;
+
+import microtrafficsim.core.convenience.parser.DefaultParserConfig;
+import microtrafficsim.core.logic.streetgraph.Graph;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.logic.vehicles.machines.Vehicle;
+import microtrafficsim.core.map.MapProperties;
+import microtrafficsim.core.parser.OSMParser;
+import microtrafficsim.core.simulation.builder.impl.VehicleScenarioBuilder;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.core.simulation.scenarios.Scenario;
+import microtrafficsim.core.simulation.scenarios.impl.AreaScenario;
+import microtrafficsim.core.simulation.scenarios.impl.RandomRouteScenario;
+import microtrafficsim.utils.resources.PackagedResource;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * The fixture shared by the tests comparing two simulations of the same seed step by step, e.g. with different
+ * numbers of threads or different step executors. Every simulation runs a {@link RandomRouteScenario} on the small map
+ * {@value #MAP_PATH}. The tests only change the attributes of {@link #createConfig(long, int)} they are checking.
+ *
+ * <p>
+ * A state maps every vehicle's id to a stamp of its lane, cell position, velocity and its driver's state.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public abstract class SimulationFixture {
+    public static final String MAP_PATH = "/logic/3_edges_but_4-node.osm";
+
+
+    /**
+     * @return config with the given seed and number of threads, default crossing logic and 1500 vehicles running as
+     * fast as possible
+     */
+    public static SimulationConfig createConfig(long seed, int nThreads) {
+        SimulationConfig config = new SimulationConfig();
+
+        // general
+        config.speedup = Integer.MAX_VALUE;
+        config.seed    = seed;
+        // crossing logic
+        config.crossingLogic.drivingOnTheRight            = true;
+        config.crossingLogic.edgePriorityEnabled          = true;
+        config.crossingLogic.priorityToTheRightEnabled    = true;
+        config.crossingLogic.friendlyStandingInJamEnabled = true;
+        config.crossingLogic.onlyOneVehicleEnabled        = false;
+        // vehicles
+        config.maxVehicleCount = 1500;
+        // multithreading
+        config.multiThreading.nThreads = nThreads;
+
+        return config;
+    }
+
+    /**
+     * @return a newly parsed graph of {@value #MAP_PATH}
+     */
+    public static Graph createGraph(SimulationConfig config) throws Exception {
+        File file = new PackagedResource(SimulationFixture.class, MAP_PATH).asTemporaryFile();
+        OSMParser parser = DefaultParserConfig.get(config).build();
+        return parser.parse(file, new MapProperties(config.crossingLogic.drivingOnTheRight)).streetgraph;
+    }
+
+    /**
+     * @return a new, not prepared scenario with meta routes on a newly parsed graph
+     */
+    public static AreaScenario createScenario(SimulationConfig config) throws Exception {
+        AreaScenario scenario = new RandomRouteScenario(config.seed, config, createGraph(config));
+        scenario.redefineMetaRoutes();
+        return scenario;
+    }
+
+    /**
+     * Prepares the given scenario using a {@link VehicleScenarioBuilder} seeded by the scenario's config.
+     *
+     * @return the given scenario
+     */
+    public static <S extends Scenario> S prepare(S scenario) throws InterruptedException {
+        new VehicleScenarioBuilder(scenario.getConfig().seed).prepare(scenario);
+        return scenario;
+    }
+
+    /**
+     * @return a new simulation of a new scenario, see {@link #createSimulation(Scenario)}
+     */
+    public static VehicleSimulation createSimulation(SimulationConfig config) throws Exception {
+        return createSimulation(createScenario(config));
+    }
+
+    /**
+     * @param scenario not prepared scenario, e.g. created by {@link #createScenario(SimulationConfig)} and changed
+     *                 afterwards
+     * @return a new simulation of the given scenario after preparing it
+     */
+    public static VehicleSimulation createSimulation(Scenario scenario) throws InterruptedException {
+        VehicleSimulation simulation = new VehicleSimulation();
+        simulation.setAndInitPreparedScenario(prepare(scenario));
+        return simulation;
+    }
+
+
+    /*
+    |=======|
+    | state |
+    |=======|
+    */
+    /**
+     * Calls {@link #getCurrentState(VehicleSimulation, Function) getCurrentState(simulation, null)}
+     */
+    public static HashMap<Long, String> getCurrentState(VehicleSimulation simulation) {
+        return getCurrentState(simulation, null);
+    }
+
+    /**
+     * @param details appended to every vehicle's stamp if not null, e.g. attributes only one test is interested in
+     * @return vehicle id -> vehicle stamp
+     */
+    public static HashMap<Long, String> getCurrentState(VehicleSimulation simulation,
+                                                        Function<Vehicle, String> details) {
+        HashMap<Long, String> stamps = new HashMap<>();
+        putCurrentState(simulation, details, stamps);
+        return stamps;
+    }
+
+    /**
+     * Adds the stamps of the given simulation's vehicles to the given state. Every vehicle must not be contained
+     * already, so the states of several simulations sharing their vehicles, e.g. shards, can be merged.
+     */
+    public static void putCurrentState(VehicleSimulation simulation,
+                                       Function<Vehicle, String> details,
+                                       Map<Long, String> stamps) {
+        for (Vehicle vehicle : simulation.getScenario().getVehicleContainer()) {
+            StringBuilder stamp = new StringBuilder();
+            DirectedEdge.Lane lane = vehicle.getLane();
+            if (lane != null)
+                stamp.append(lane.getEdge().key()).append("_").append(lane.getIndex());
+            stamp.append(" cell=").append(vehicle.getCellPosition())
+                    .append(" v=").append(vehicle.getVelocity())
+                    .append(" state=").append(vehicle.getState())
+                    .append(" time=").append(vehicle.getDriver().getTravellingTime())
+                    .append(" anger=").append(vehicle.getDriver().getTotalAnger());
+            if (details != null)
+                stamp.append(" ").append(details.apply(vehicle));
+            assertNull("Vehicle " + vehicle.getId() + " is simulated twice.",
+                    stamps.put(vehicle.getId(), stamp.toString()));
+        }
+    }
+
+    /**
+     * Calls {@link #assertEqualRuns(VehicleSimulation, VehicleSimulation, int, int, Function)
+     * assertEqualRuns(expected, actual, maxStep, checkInterval, null)}
+     */
+    public static void assertEqualRuns(VehicleSimulation expected,
+                                       VehicleSimulation actual,
+                                       int maxStep,
+                                       int checkInterval) {
+        assertEqualRuns(expected, actual, maxStep, checkInterval, null);
+    }
+
+    /**
+     * Executes both simulations up to {@code maxStep} steps and asserts equal states every {@code checkInterval}
+     * steps. The first check asserts that there are vehicles at all.
+     *
+     * @param details see {@link #getCurrentState(VehicleSimulation, Function)}
+     */
+    public static void assertEqualRuns(VehicleSimulation expected,
+                                       VehicleSimulation actual,
+                                       int maxStep,
+                                       int checkInterval,
+                                       Function<Vehicle, String> details) {
+        for (int age = checkInterval; age <= maxStep; age += checkInterval) {
+            for (int i = 0; i < checkInterval; i++) {
+                expected.runOneStep();
+                actual.runOneStep();
+            }
+            HashMap<Long, String> expectedState = getCurrentState(expected, details);
+            if (age == checkInterval)
+                assertFalse("Scenario has no vehicles.", expectedState.isEmpty());
+            assertEquals("Unequal vehicle states after " + age + " steps",
+                    expectedState, getCurrentState(actual, details));
+        }
+    }
+}
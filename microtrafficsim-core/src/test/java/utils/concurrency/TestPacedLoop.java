@@ -0,0 +1,282 @@
+package utils.concurrency;
+
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.simulation.core.Simulation;
+import microtrafficsim.core.simulation.core.StepListener;
+import microtrafficsim.core.simulation.core.VehicleSimulation;
+import microtrafficsim.utils.concurrency.PacedLoop;
+import microtrafficsim.utils.logging.LoggingLevel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import testhelper.SimulationFixture;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the pause handshake, the pacing and the shutdown of {@link PacedLoop}. The handshake tests block the
+ * procedure on semaphores, so they do not depend on timing. The pacing tests measure the achieved rate over one
+ * second with a tolerance of some percent.
+ *
+ * @author Dominic Parga Cacheiro
+ */
+public class TestPacedLoop {
+
+    /* testing parameters */
+    private static final long   timeoutMillis = 10_000;
+    private static final double rate          = 50;
+    private static final long   measureMillis = 1_000;
+
+
+    /*
+    |===============|
+    | testing utils |
+    |===============|
+    */
+    /**
+     * A procedure blocking in every execution until it is released.
+     */
+    private static class BlockingProcedure {
+        private final Semaphore entered  = new Semaphore(0);
+        private final Semaphore released = new Semaphore(0);
+        private final AtomicInteger finished = new AtomicInteger();
+        private volatile Thread thread;
+
+        void invoke() {
+            thread = Thread.currentThread();
+            entered.release();
+            released.acquireUninterruptibly();
+            finished.incrementAndGet();
+        }
+
+        void awaitEntered() throws InterruptedException {
+            assertTrue("Procedure has not been executed.", entered.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Waits until the given thread is blocked, e.g. waiting for the loop's acknowledgement.
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    private static Thread start(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Shuts the given loop down while its procedure is blocked.
+     */
+    private static void shutdownBlocked(PacedLoop loop, BlockingProcedure procedure) throws InterruptedException {
+        Thread shuttingDown = start(loop::shutdown);
+        awaitWaiting(shuttingDown);
+        procedure.released.release();
+        shuttingDown.join(timeoutMillis);
+        assertFalse("shutdown() has not returned.", shuttingDown.isAlive());
+    }
+
+    /**
+     * @return achieved executions per second over {@value #measureMillis} ms
+     */
+    private static double measureRate(PacedLoop loop) throws InterruptedException {
+        long before = loop.getExecutionCount();
+        long start  = System.nanoTime();
+        Thread.sleep(measureMillis);
+        long executions = loop.getExecutionCount() - before;
+        return executions * 1e9 / (System.nanoTime() - start);
+    }
+
+
+    /*
+    |============|
+    | test cases |
+    |============|
+    */
+    @Test
+    public void testPauseWaitsForExecution() throws InterruptedException {
+        BlockingProcedure procedure = new BlockingProcedure();
+        PacedLoop loop = new PacedLoop(procedure::invoke, "test");
+        loop.resume(Double.POSITIVE_INFINITY);
+        procedure.awaitEntered();
+
+        // pause() must not return while the execution is running
+        Thread pausing = start(loop::pause);
+        awaitWaiting(pausing);
+        assertTrue(loop.isPaused());
+        assertEquals(0, procedure.finished.get());
+
+        procedure.released.release();
+        pausing.join(timeoutMillis);
+        assertFalse("pause() has not returned.", pausing.isAlive());
+        assertEquals(1, procedure.finished.get());
+
+        // no execution after acknowledging the pause
+        assertFalse(procedure.entered.tryAcquire(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, loop.getExecutionCount());
+
+        // resuming continues on the same thread
+        Thread loopThread = procedure.thread;
+        loop.resume(Double.POSITIVE_INFINITY);
+        procedure.awaitEntered();
+        assertSame(loopThread, procedure.thread);
+        shutdownBlocked(loop, procedure);
+    }
+
+    @Test
+    public void testPauseFromLoopThread() throws InterruptedException {
+        AtomicReference<PacedLoop> ref = new AtomicReference<>();
+        CountDownLatch paused = new CountDownLatch(1);
+        PacedLoop loop = new PacedLoop(() -> {
+            ref.get().pause();  // must not wait for itself
+            paused.countDown();
+        }, "test");
+        ref.set(loop);
+
+        loop.resume(Double.POSITIVE_INFINITY);
+        assertTrue(paused.await(timeoutMillis, TimeUnit.MILLISECONDS));
+        loop.pause();
+        assertTrue(loop.isPaused());
+        assertEquals(1, loop.getExecutionCount());
+        loop.shutdown();
+    }
+
+    @Test
+    public void testRequestedRate() throws InterruptedException {
+        PacedLoop loop = new PacedLoop(() -> {}, "test");
+        loop.resume(rate);
+        assertEquals(rate, loop.getRequestedRate(), 0);
+
+        double achieved = measureRate(loop);
+        loop.shutdown();
+        assertEquals(rate, achieved, 0.1 * rate);
+    }
+
+    @Test
+    public void testDriftCompensation() throws InterruptedException {
+        // every second execution takes 60 % of a period; sleeping one period after every execution would only reach
+        // about 77 % of the requested rate
+        long sleepMillis = Math.round(0.6 * 1000 / rate);
+        AtomicInteger count = new AtomicInteger();
+        PacedLoop loop = new PacedLoop(() -> {
+            if (count.incrementAndGet() % 2 == 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "test");
+        loop.resume(rate);
+
+        double achieved = measureRate(loop);
+        loop.shutdown();
+        assertEquals(rate, achieved, 0.1 * rate);
+    }
+
+    @Test
+    public void testShutdown() throws InterruptedException {
+        BlockingProcedure procedure = new BlockingProcedure();
+        PacedLoop loop = new PacedLoop(procedure::invoke, "test");
+        loop.resume(Double.POSITIVE_INFINITY);
+        procedure.awaitEntered();
+
+        // shutdown() waits for the running execution like pause()
+        shutdownBlocked(loop, procedure);
+
+        // the loop thread terminates and the loop cannot be resumed
+        procedure.thread.join(timeoutMillis);
+        assertFalse("Loop thread has not terminated.", procedure.thread.isAlive());
+        assertEquals(1, loop.getExecutionCount());
+        try {
+            loop.resume(rate);
+            fail("Resuming after shutdown has to fail.");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void testFailurePausesLoop() throws InterruptedException {
+        RuntimeException failure = new RuntimeException("expected by test");
+        AtomicInteger count = new AtomicInteger();
+        AtomicReference<RuntimeException> handled = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        PacedLoop loop = new PacedLoop(() -> {
+            if (count.incrementAndGet() == 3)
+                throw failure;
+        }, e -> {
+            handled.set(e);
+            failed.countDown();
+        }, "test");
+
+        loop.resume(Double.POSITIVE_INFINITY);
+        assertTrue(failed.await(timeoutMillis, TimeUnit.MILLISECONDS));
+        assertSame(failure, handled.get());
+        assertTrue(loop.isPaused());
+
+        // the loop acknowledges the pause and can be resumed
+        loop.pause();
+        assertEquals(3, count.get());
+        loop.resume(Double.POSITIVE_INFINITY);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (count.get() <= 3 && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+        loop.shutdown();
+        assertTrue(count.get() > 3);
+    }
+
+    @Test
+    public void testFailurePausesSimulation() throws Exception {
+        SimulationConfig config = SimulationFixture.createConfig(42, 1);
+        config.dedicatedThreadEnabled = true;
+        config.speedup = 1000;
+        VehicleSimulation simulation = SimulationFixture.createSimulation(config);
+
+        CountDownLatch failing = new CountDownLatch(1);
+        simulation.addStepListener(new StepListener() {
+            @Override
+            public void didOneStep(Simulation simulation) {
+                if (simulation.getAge() == 5) {
+                    failing.countDown();
+                    throw new RuntimeException("expected by test");
+                }
+            }
+        });
+
+        simulation.run();
+        assertFalse(simulation.isPaused());
+        assertTrue(failing.await(timeoutMillis, TimeUnit.MILLISECONDS));
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!simulation.isPaused() && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+        assertTrue("Simulation still reports running after a failed step.", simulation.isPaused());
+        assertEquals(0, simulation.getRequestedStepRate(), 0);
+
+        // the execution lock has been released, so the simulation can be stepped manually
+        simulation.runOneStep();
+        assertEquals(6, simulation.getAge());
+        simulation.cancel();
+    }
+
+
+    /*
+    |=======|
+    | utils |
+    |=======|
+    */
+    @BeforeClass
+    public static void buildSetup() {
+        LoggingLevel.setEnabledGlobally(false, false, true, true, true);
+    }
+}
@@ -0,0 +1,117 @@
+package utils.datacollection;
+
+import microtrafficsim.utils.datacollection.Data;
+import microtrafficsim.utils.datacollection.PerThreadDataCollector;
+import microtrafficsim.utils.datacollection.Tag;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Dominic Parga Cacheiro
+ */
+public class TestPerThreadDataCollector {
+
+    @Test
+    public void testSingleValueKeepsLatest() {
+        PerThreadDataCollector collector = new PerThreadDataCollector();
+        collector.put("velocity", 1);
+        collector.put("velocity", 4.5);
+
+        assertEquals(1, collector.size("velocity"));
+        assertArrayEquals(new double[] {4.5}, collector.get("velocity"), 0.0);
+        assertEquals(0, collector.size("unknown"));
+    }
+
+    @Test
+    public void testBundleIterationOrder() {
+        PerThreadDataCollector collector = new PerThreadDataCollector(4);
+        assertTrue(collector.addBundle("steps"));
+        assertFalse(collector.addBundle("steps"));
+
+        int id = collector.intern("steps");
+        for (int i = 0; i < 10; i++)     // more than the ring capacity
+            collector.put(id, i);
+        collector.put("single", 42);
+
+        Iterator<Object> iter = collector.iterator();
+        Object first = iter.next();
+        assertTrue(first instanceof Tag);
+        assertEquals("steps", first.toString());
+        for (int i = 0; i < 10; i++)
+            assertEquals((double) i, iter.next());
+        Object last = iter.next();
+        assertTrue(last instanceof Data);
+        assertEquals("42.0", last.toString());
+        assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testConcurrentPuts() throws InterruptedException {
+        PerThreadDataCollector collector = new PerThreadDataCollector(64);
+        collector.addBundle("values");
+        int id = collector.intern("values");
+
+        int nThreads = 8;
+        int perThread = 10_000;
+        Thread[] threads = new Thread[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            final int offset = t * perThread;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++)
+                    collector.put(id, offset + i);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        double[] values = collector.get("values");
+        assertEquals(nThreads * perThread, values.length);
+
+        double sum = 0;
+        for (double value : values)
+            sum += value;
+        long n = nThreads * perThread;
+        assertEquals(n * (n - 1) / 2.0, sum, 0.0);
+    }
+
+    @Test
+    public void testTerminatedThreadsAreDropped() throws InterruptedException {
+        PerThreadDataCollector collector = new PerThreadDataCollector(64);
+        collector.addBundle("values");
+        int id = collector.intern("values");
+
+        for (int t = 0; t < 5; t++) {
+            final int value = t;
+            Thread thread = new Thread(() -> collector.put(id, value));
+            thread.start();
+            thread.join();
+        }
+        assertEquals(5, collector.getRingCount());
+
+        // merging keeps the data of terminated threads, but drops their rings
+        assertEquals(5, collector.size("values"));
+        assertEquals(0, collector.getRingCount());
+        assertArrayEquals(new double[] {0, 1, 2, 3, 4}, collector.get("values"), 0.0);
+    }
+
+    @Test
+    public void testRelease() {
+        PerThreadDataCollector collector = new PerThreadDataCollector(64);
+        collector.addBundle("values");
+        collector.put("values", 1);
+        assertEquals(1, collector.getRingCount());
+
+        collector.release();
+        assertEquals(0, collector.getRingCount());
+        assertArrayEquals(new double[] {1}, collector.get("values"), 0.0);
+
+        // putting again creates a new ring
+        collector.put("values", 2);
+        assertEquals(1, collector.getRingCount());
+        assertArrayEquals(new double[] {1, 2}, collector.get("values"), 0.0);
+    }
+}
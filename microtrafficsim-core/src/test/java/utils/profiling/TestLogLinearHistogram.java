@@ -0,0 +1,71 @@
+package utils.profiling;
+
+import microtrafficsim.utils.profiling.LogLinearHistogram;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dominic Parga Cacheiro
+ */
+public class TestLogLinearHistogram {
+
+    @Test
+    public void testEmpty() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        assertTrue(histogram.isEmpty());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram(5);
+        for (long value = 0; value < 64; value++)
+            histogram.record(value);
+
+        for (long value = 0; value < 64; value++)
+            assertEquals(1, histogram.getCountAtValue(value));
+        assertEquals(0, histogram.getMin());
+        assertEquals(63, histogram.getMax());
+        assertEquals(31, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testRelativeError() {
+        LogLinearHistogram histogram = new LogLinearHistogram(5);
+        long[] values = {1_000L, 123_456L, 9_876_543L, 1_000_000_007L, Long.MAX_VALUE};
+        for (long value : values) {
+            histogram.reset();
+            histogram.record(value);
+            histogram.record(0);
+
+            long highest = histogram.getValueAtPercentile(100);
+            assertEquals(value, highest);
+
+            histogram.record(value / 2 + 1, 10);
+            long median   = histogram.getValueAtPercentile(50);
+            double error  = Math.abs(median - (value / 2 + 1)) / (double) (value / 2 + 1);
+            assertTrue("relative error " + error + " is too high for " + value, error <= 1.0 / 32);
+        }
+    }
+
+    @Test
+    public void testPercentilesAndMerge() {
+        LogLinearHistogram first  = new LogLinearHistogram();
+        LogLinearHistogram second = new LogLinearHistogram();
+        for (long value = 1; value <= 1000; value++)
+            (value % 2 == 0 ? first : second).record(value * 1000);
+
+        first.add(second);
+        assertEquals(1000, first.getTotalCount());
+        assertEquals(1000, first.getMin());
+        assertEquals(1_000_000, first.getMax());
+        assertEquals(500_500.0, first.getMean(), 0.0);
+
+        long p90 = first.getValueAtPercentile(90);
+        assertTrue("p90 = " + p90, Math.abs(p90 - 900_000) <= 900_000 / 32);
+    }
+}
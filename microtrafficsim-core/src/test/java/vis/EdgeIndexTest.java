@@ -0,0 +1,97 @@
+package vis;
+
+import logic.crossinglogic.MultilaneTestGraph;
+import microtrafficsim.core.logic.streets.DirectedEdge;
+import microtrafficsim.core.simulation.configs.SimulationConfig;
+import microtrafficsim.core.vis.map.projections.MercatorProjection;
+import microtrafficsim.core.vis.map.projections.Projection;
+import microtrafficsim.core.vis.simulation.EdgeIndex;
+import microtrafficsim.math.Rect2d;
+import microtrafficsim.math.Vec2d;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Tests the spatial index used to cull vehicles: queries have to return exactly the edges whose projected bounding
+ * box intersects the query rectangle, each of them once.
+ *
+ * @author Maximilian Luz
+ */
+public class EdgeIndexTest {
+
+    private static final int QUERIES = 500;
+
+
+    @Test
+    public void testQueries() {
+        MultilaneTestGraph graph = new MultilaneTestGraph(new SimulationConfig());
+        Projection projection = new MercatorProjection();
+
+        Set<DirectedEdge> edges = graph.graph.getEdges();
+        EdgeIndex index = new EdgeIndex(edges, projection);
+        assertEquals(edges.size(), index.size());
+
+        Rect2d total = null;
+        for (DirectedEdge edge : edges) {
+            Rect2d bounds = bounds(edge, projection);
+            total = total == null ? bounds : new Rect2d(
+                    Math.min(total.xmin, bounds.xmin), Math.min(total.ymin, bounds.ymin),
+                    Math.max(total.xmax, bounds.xmax), Math.max(total.ymax, bounds.ymax));
+        }
+
+        // everything
+        assertQuery(index, edges, projection, total);
+
+        // random sub-rectangles, partially outside of the indexed area
+        Random random = new Random(42);
+        double w = total.xmax - total.xmin;
+        double h = total.ymax - total.ymin;
+
+        for (int i = 0; i < QUERIES; i++) {
+            double x0 = total.xmin - 0.25 * w + random.nextDouble() * 1.5 * w;
+            double y0 = total.ymin - 0.25 * h + random.nextDouble() * 1.5 * h;
+            double x1 = x0 + random.nextDouble() * 0.5 * w;
+            double y1 = y0 + random.nextDouble() * 0.5 * h;
+
+            assertQuery(index, edges, projection, new Rect2d(x0, y0, x1, y1));
+        }
+    }
+
+
+    private static void assertQuery(EdgeIndex index, Set<DirectedEdge> edges, Projection projection, Rect2d rect) {
+        HashSet<DirectedEdge> expected = new HashSet<>();
+        for (DirectedEdge edge : edges) {
+            Rect2d bounds = bounds(edge, projection);
+            if (bounds.xmax >= rect.xmin && bounds.xmin <= rect.xmax
+                    && bounds.ymax >= rect.ymin && bounds.ymin <= rect.ymax)
+                expected.add(edge);
+        }
+
+        ArrayList<DirectedEdge> result = new ArrayList<>();
+        index.getEdges(rect.xmin, rect.ymin, rect.xmax, rect.ymax, result);
+
+        assertEquals(expected.size(), result.size());
+        assertEquals(expected, new HashSet<>(result));
+    }
+
+    private static Rect2d bounds(DirectedEdge edge, Projection projection) {
+        Vec2d[] points = projection.project(edge.getEntity().getGeometry().coordinates);
+
+        Rect2d bounds = new Rect2d(points[0].x, points[0].y, points[0].x, points[0].y);
+        for (Vec2d p : points) {
+            bounds.xmin = Math.min(bounds.xmin, p.x);
+            bounds.ymin = Math.min(bounds.ymin, p.y);
+            bounds.xmax = Math.max(bounds.xmax, p.x);
+            bounds.ymax = Math.max(bounds.ymax, p.y);
+        }
+
+        return bounds;
+    }
+}
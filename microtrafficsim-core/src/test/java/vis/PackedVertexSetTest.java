@@ -0,0 +1,75 @@
+package vis;
+
+import microtrafficsim.core.vis.mesh.utils.GrowableIntBuffer;
+import microtrafficsim.core.vis.mesh.utils.PackedVertexSet;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Tests the primitive vertex- and index-buffers used to build meshes, including growing and re-using them.
+ *
+ * @author Maximilian Luz
+ */
+public class PackedVertexSetTest {
+
+    private static final int N = 1000;
+
+
+    @Test
+    public void testDeduplication() {
+        PackedVertexSet set = new PackedVertexSet(3, 4);
+        float[] vertex = new float[3];
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < N; i++) {
+                vertex[0] = i;
+                vertex[1] = -i;
+                vertex[2] = i % 7;
+                assertEquals(i, set.add(vertex));
+            }
+
+            // -0.0 equals 0.0
+            vertex[0] = 0.0f;
+            vertex[1] = -0.0f;
+            vertex[2] = 0.0f;
+            assertEquals(0, set.add(vertex));
+
+            assertEquals(N, set.size());
+
+            FloatBuffer buffer = set.getVertices();
+            assertEquals(N * 3, buffer.remaining());
+            for (int i = 0; i < N; i++) {
+                assertEquals(i, buffer.get(), 0.0f);
+                assertEquals(-i, buffer.get(), 0.0f);
+                assertEquals(i % 7, buffer.get(), 0.0f);
+            }
+
+            set.clear();
+            assertEquals(0, set.size());
+        }
+    }
+
+    @Test
+    public void testIntBuffer() {
+        GrowableIntBuffer indices = new GrowableIntBuffer(1);
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < N; i++)
+                indices.add(i);
+
+            IntBuffer buffer = indices.getBuffer();
+            assertEquals(N, indices.size());
+            assertEquals(N, buffer.remaining());
+            for (int i = 0; i < N; i++)
+                assertEquals(i, buffer.get());
+
+            indices.clear();
+            assertEquals(0, indices.size());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package vis;
+
+import microtrafficsim.core.vis.context.tasks.FutureRenderTask;
+import microtrafficsim.core.vis.context.tasks.RenderTaskScheduler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests the order in which the {@link RenderTaskScheduler} executes tasks and how it defers them to later frames.
+ *
+ * @author Maximilian Luz
+ */
+public class RenderTaskSchedulerTest {
+
+    @Test
+    public void testPriorityOrder() {
+        RenderTaskScheduler scheduler = new RenderTaskScheduler();
+        ArrayList<Integer> executed = new ArrayList<>();
+
+        scheduler.add(task(executed, 0), -2.0, 0);
+        scheduler.add(task(executed, 1), 0.0, 0);
+        scheduler.add(task(executed, 2), 1.0, 0);
+        scheduler.add(task(executed, 3), 0.0, 0);
+        scheduler.add(task(executed, 4), -1.0, 0);
+
+        assertEquals(5, scheduler.size());
+        assertEquals(5, scheduler.execute(null));
+        assertTrue(scheduler.isEmpty());
+
+        // higher priority first, equal priorities in order of submission
+        assertEquals(Arrays.asList(2, 1, 3, 4, 0), executed);
+        assertEquals(5, scheduler.getLastExecutionCount());
+    }
+
+    @Test
+    public void testBudget() {
+        RenderTaskScheduler scheduler = new RenderTaskScheduler();
+        scheduler.setBudget(1, TimeUnit.MILLISECONDS);
+        ArrayList<Integer> executed = new ArrayList<>();
+
+        // each task is estimated to exceed the budget, thus only one task per frame
+        long cost = TimeUnit.MILLISECONDS.toNanos(2);
+        for (int i = 0; i < 3; i++)
+            scheduler.add(task(executed, i), 0.0, cost);
+
+        for (int frame = 1; frame <= 3; frame++) {
+            assertEquals(1, scheduler.execute(null));
+            assertEquals(frame, executed.size());
+            assertEquals(3 - frame, scheduler.size());
+        }
+
+        assertEquals(0, scheduler.execute(null));
+        assertEquals(Arrays.asList(0, 1, 2), executed);
+    }
+
+    @Test
+    public void testSubmittedDuringExecution() {
+        RenderTaskScheduler scheduler = new RenderTaskScheduler();
+        ArrayList<Integer> executed = new ArrayList<>();
+
+        scheduler.add(new FutureRenderTask<>(c -> {
+            executed.add(0);
+            scheduler.add(task(executed, 1), 1.0, 0);
+            return null;
+        }), 0.0, 0);
+
+        assertEquals(1, scheduler.execute(null));
+        assertEquals(1, scheduler.size());
+
+        assertEquals(1, scheduler.execute(null));
+        assertEquals(Arrays.asList(0, 1), executed);
+    }
+
+
+    private static FutureRenderTask<Void> task(ArrayList<Integer> executed, int id) {
+        return new FutureRenderTask<>(c -> {
+            executed.add(id);
+            return null;
+        });
+    }
+}
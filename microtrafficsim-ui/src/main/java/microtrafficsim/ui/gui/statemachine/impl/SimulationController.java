@@ -17,6 +17,7 @@ import javax.swing.WindowConstants;
 import org.slf4j.Logger;
 
 import microtrafficsim.core.convenience.exfmt.ExfmtStorage;
+import microtrafficsim.core.convenience.exfmt.MapCache;
 import microtrafficsim.core.convenience.filechoosing.FileFilterSet;
 import microtrafficsim.core.convenience.filechoosing.MTSFileChooser;
 import microtrafficsim.core.convenience.filechoosing.impl.AreaFilterSet;
@@ -208,6 +209,7 @@ public class SimulationController implements GUIController {
         } catch (UnsupportedFeatureException e) { e.printStackTrace(); }
 
         exfmtStorage = new ExfmtStorage(config, mapviewer);
+        exfmtStorage.setMapCache(new MapCache(MapCache.getDefaultDirectory(), MapCache.DEFAULT_MAX_SIZE));
 
 
         /* create preferences */